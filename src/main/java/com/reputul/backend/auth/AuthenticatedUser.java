@@ -0,0 +1,92 @@
+package com.reputul.backend.auth;
+
+import com.reputul.backend.models.Organization;
+import com.reputul.backend.models.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal set by JwtAuthFilter: an immutable snapshot of the user's identity (id, email,
+ * name, role, organization id) taken when the user was loaded. It is what the user cache
+ * holds, so cached entries are never JPA entities that callers could modify or share.
+ *
+ * Controllers that need a User get a fresh, detached copy from {@link #toUser()}; anything
+ * beyond these fields, or any change, needs a managed User from UserRepository.
+ */
+public final class AuthenticatedUser implements UserDetails {
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final Long id;
+    private final String email;
+    private final String name;
+    private final User.UserRole role;
+    private final Long organizationId;
+
+    public AuthenticatedUser(Long id, String email, String name, User.UserRole role, Long organizationId) {
+        this.id = id;
+        this.email = email;
+        this.name = name;
+        this.role = role;
+        this.organizationId = organizationId;
+    }
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getName(), user.getRole(),
+                user.getOrganization() != null ? user.getOrganization().getId() : null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public User.UserRole getRole() {
+        return role;
+    }
+
+    public Long getOrganizationId() {
+        return organizationId;
+    }
+
+    /**
+     * A new detached User with the snapshot's fields and the organization as an id-only
+     * reference. Each call returns its own instance.
+     */
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .name(name)
+                .role(role)
+                .organization(organizationId != null ? Organization.builder().id(organizationId).build() : null)
+                .build();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    // Authenticated by token; the password hash is not kept in the snapshot
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -1,5 +1,6 @@
 package com.reputul.backend.auth;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,7 +8,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -92,31 +92,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         try {
-            // Extract JWT token
+            // Extract JWT token and verify signature/expiry once
             jwt = authHeader.substring(7);
-            userEmail = jwtUtil.extractUsername(jwt);
+            Claims claims = jwtUtil.extractAllClaims(jwt);
+            userEmail = claims.getSubject();
 
             // If we have a valid token and no authentication is set
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                // Load user details
-                UserDetails userDetails = userAuthService.loadUserByUsername(userEmail);
+                // Resolve the user (with organization) from the short-TTL user cache and carry
+                // it as the principal so the rest of the request needs no identity queries
+                AuthenticatedUser principal = userAuthService.loadAuthenticatedUser(userEmail);
 
-                // Validate token
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities());
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(
+                                principal,
+                                null,
+                                principal.getAuthorities());
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    log.debug("Successfully authenticated user: {} for: {} {}", userEmail, method, requestURI);
-                } else {
-                    log.warn("Invalid JWT token for user: {} on: {} {}", userEmail, method, requestURI);
-                }
+                log.debug("Successfully authenticated user: {} for: {} {}", userEmail, method, requestURI);
             }
 
         } catch (Exception e) {
@@ -51,20 +51,20 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    // Validate token with UserDetails
+    // Validate token with UserDetails (single parse)
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        final Claims claims = extractAllClaims(token);
+        return userDetails.getUsername().equals(claims.getSubject()) && !isTokenExpired(claims);
     }
 
     // Check if token is expired
-    private boolean isTokenExpired(String token) {
-        final Date expiration = extractClaim(token, Claims::getExpiration);
-        return expiration.before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    // Parse and return all claims
-    private Claims extractAllClaims(String token) {
+    // Parse and return all claims. Verifies the signature and rejects expired tokens
+    // (throws JwtException), so callers should parse once and reuse the result.
+    public Claims extractAllClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(key)
                 .build()
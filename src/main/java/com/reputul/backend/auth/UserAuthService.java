@@ -1,21 +1,33 @@
 package com.reputul.backend.auth;
 
+import com.reputul.backend.config.CacheConfig;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.UserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class UserAuthService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
 
-    public UserAuthService(UserRepository userRepository) {
+    public UserAuthService(UserRepository userRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
     }
 
+    /**
+     * Used by the AuthenticationManager at login, so always reads the current password hash
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
@@ -28,6 +40,47 @@ public class UserAuthService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Principal for a verified JWT subject, served from the short-TTL user cache.
+     * Used by JwtAuthFilter.
+     */
+    public AuthenticatedUser loadAuthenticatedUser(String email) throws UsernameNotFoundException {
+        return findCachedPrincipal(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
+    }
 
+    /**
+     * Read-only lookup of a user by email. Built from the current request's principal when
+     * it matches, otherwise from the cached principal, and only then from the database.
+     * The User is a new detached copy holding the principal's fields; see AuthenticatedUser.
+     * Used by controllers in place of UserRepository.findByEmail.
+     */
+    public Optional<User> resolveUser(String email) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal
+                && principal.getUsername().equals(email)) {
+            return Optional.of(principal.toUser());
+        }
+        return findCachedPrincipal(email).map(AuthenticatedUser::toUser);
+    }
 
+    private Optional<AuthenticatedUser> findCachedPrincipal(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.AUTHENTICATED_USER_CACHE);
+        if (cache == null) {
+            return userRepository.findWithOrganizationByEmail(email).map(AuthenticatedUser::of);
+        }
+
+        AuthenticatedUser cached = cache.get(email, AuthenticatedUser.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<AuthenticatedUser> principal = userRepository.findWithOrganizationByEmail(email)
+                .map(AuthenticatedUser::of);
+        principal.ifPresent(found -> cache.put(email, found));
+        return principal;
+    }
 }
@@ -0,0 +1,68 @@
+package com.reputul.backend.auth;
+
+import com.reputul.backend.config.CacheConfig;
+import com.reputul.backend.models.Organization;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entity listener on User and Organization that evicts the authenticated user cache.
+ * A user change clears the cache (user edits are rare); an organization change, which
+ * includes per-send usage counters, only evicts that organization's users.
+ *
+ * Evicted immediately and again after commit, so a request that re-reads the row while
+ * the transaction is still open cannot leave a stale entry behind.
+ */
+@Component
+public class UserCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    public UserCacheEvictionListener(@Lazy CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Runnable evict = entity instanceof Organization organization
+                ? () -> evictOrganization(organization.getId())
+                : this::clear;
+
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        Cache cache = cacheManager.getCache(CacheConfig.AUTHENTICATED_USER_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictOrganization(Long organizationId) {
+        Cache cache = cacheManager.getCache(CacheConfig.AUTHENTICATED_USER_CACHE);
+        if (cache != null && organizationId != null
+                && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap().values()
+                    .removeIf(value -> value instanceof AuthenticatedUser principal
+                            && organizationId.equals(principal.getOrganizationId()));
+        } else if (cache != null) {
+            cache.clear();
+        }
+    }
+}
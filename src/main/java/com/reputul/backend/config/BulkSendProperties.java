@@ -0,0 +1,60 @@
+package com.reputul.backend.config;
+
+import com.reputul.backend.models.BulkSendChannel;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Limits and per-channel throughput for bulk review request sends.
+ *
+ * app.bulk-send.max-recipients=10000
+ * app.bulk-send.lease=2m
+ * app.bulk-send.max-attempts=3
+ * app.bulk-send.channels.EMAIL.sends-per-second=2
+ * app.bulk-send.channels.SMS.max-concurrent=2
+ *
+ * SMS defaults follow Twilio's stock limit of 1 segment per second for a long code. EMAIL
+ * sends only render and queue into email_outbox; Resend's request limit is applied by
+ * EmailOutboxRelay (app.email.outbox.*). Budgets apply per node, so divide them by the
+ * node count when several nodes dispatch.
+ */
+@ConfigurationProperties(prefix = "app.bulk-send")
+public record BulkSendProperties(
+        Integer maxRecipients,
+        Duration lease,
+        Integer maxAttempts,
+        Map<BulkSendChannel, ChannelBudget> channels
+) {
+    private static final Map<BulkSendChannel, ChannelBudget> DEFAULT_BUDGETS = Map.of(
+            BulkSendChannel.EMAIL, new ChannelBudget(4, 20),
+            BulkSendChannel.SMS, new ChannelBudget(2, 1),
+            BulkSendChannel.CAMPAIGN, new ChannelBudget(4, 20));
+
+    public BulkSendProperties {
+        if (maxRecipients == null) {
+            maxRecipients = 10000;
+        }
+        if (lease == null) {
+            lease = Duration.ofMinutes(2);
+        }
+        if (maxAttempts == null) {
+            maxAttempts = 3;
+        }
+        if (channels == null) {
+            channels = Map.of();
+        }
+    }
+
+    public ChannelBudget budgetFor(BulkSendChannel channel) {
+        return channels.getOrDefault(channel, DEFAULT_BUDGETS.get(channel));
+    }
+
+    /**
+     * @param maxConcurrent  sends of this channel in flight at once on a node
+     * @param sendsPerSecond token-bucket budget; each recipient takes one token
+     */
+    public record ChannelBudget(int maxConcurrent, int sendsPerSecond) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.reputul.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caffeine-backed caches. Each cache gets its own size/TTL so hot public
+ * read paths can be tuned independently.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Fully built public widget payloads, keyed by widget key
+     */
+    public static final String WIDGET_DATA_CACHE = "widgetData";
+
+    /**
+     * API keys that passed BCrypt verification, keyed by SHA-256 of the presented key
+     */
+    public static final String VERIFIED_API_KEY_CACHE = "verifiedApiKeys";
+
+    /**
+     * Principal snapshots (AuthenticatedUser) behind verified JWTs, keyed by email
+     */
+    public static final String AUTHENTICATED_USER_CACHE = "authenticatedUsers";
+
+    @Value("${cache.widget-data.ttl:600}")
+    private long widgetDataTtlSeconds;
+
+    @Value("${cache.widget-data.max-size:10000}")
+    private long widgetDataMaxSize;
+
+    @Value("${cache.api-keys.ttl:60}")
+    private long apiKeyTtlSeconds;
+
+    @Value("${cache.auth-users.ttl:60}")
+    private long authUserTtlSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(WIDGET_DATA_CACHE, Caffeine.newBuilder()
+                .maximumSize(widgetDataMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(widgetDataTtlSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(VERIFIED_API_KEY_CACHE, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(apiKeyTtlSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(AUTHENTICATED_USER_CACHE, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(authUserTtlSeconds))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
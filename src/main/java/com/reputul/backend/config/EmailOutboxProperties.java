@@ -0,0 +1,79 @@
+package com.reputul.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Batching, throughput and retry policy for the email outbox relay.
+ *
+ * app.email.outbox.batch-size=100
+ * app.email.outbox.concurrency=2
+ * app.email.outbox.requests-per-second=2
+ * app.email.outbox.max-attempts=6
+ * app.email.outbox.initial-backoff=30s
+ * app.email.outbox.retention=30d
+ *
+ * requests-per-second counts provider API calls, not emails: one batch call carries up to
+ * batch-size emails. It is a budget for all nodes together, not per node: Resend allows
+ * 2 requests per second per team and 100 emails per batch.
+ * Failed sends wait initial-backoff, doubling per attempt up to max-backoff; a message that
+ * fails max-attempts times is dead-lettered. SENT and DEAD rows are deleted once they are
+ * older than retention, cleanup-batch-size rows per statement and at most
+ * cleanup-max-batches statements per run.
+ */
+@ConfigurationProperties(prefix = "app.email.outbox")
+public record EmailOutboxProperties(
+        Integer batchSize,
+        Integer concurrency,
+        Integer requestsPerSecond,
+        Duration lease,
+        Integer maxAttempts,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        Duration retention,
+        Integer cleanupBatchSize,
+        Integer cleanupMaxBatches
+) {
+    public EmailOutboxProperties {
+        if (batchSize == null) {
+            batchSize = 100;
+        }
+        if (concurrency == null) {
+            concurrency = 2;
+        }
+        if (requestsPerSecond == null) {
+            requestsPerSecond = 2;
+        }
+        if (lease == null) {
+            lease = Duration.ofMinutes(2);
+        }
+        if (maxAttempts == null) {
+            maxAttempts = 6;
+        }
+        if (initialBackoff == null) {
+            initialBackoff = Duration.ofSeconds(30);
+        }
+        if (maxBackoff == null) {
+            maxBackoff = Duration.ofHours(1);
+        }
+        if (retention == null) {
+            retention = Duration.ofDays(30);
+        }
+        if (cleanupBatchSize == null) {
+            cleanupBatchSize = 500;
+        }
+        if (cleanupMaxBatches == null) {
+            cleanupMaxBatches = 20;
+        }
+    }
+
+    /**
+     * Delay before the next try of a message that has failed attempts times
+     */
+    public Duration backoffAfter(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 20);
+        Duration backoff = initialBackoff.multipliedBy(1L << doublings);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -0,0 +1,39 @@
+package com.reputul.backend.config;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * This node's identity as the owner of claimed rows and leases (claimed_by and the like,
+ * VARCHAR(100)): host name plus a random suffix, so two processes on one host differ.
+ * One value per process, shared by every scheduler.
+ */
+public record InstanceId(String value) {
+
+    private static final int MAX_LENGTH = 100;
+
+    public InstanceId {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Instance id must not be blank");
+        }
+        // Keep the random suffix if the host name is very long
+        if (value.length() > MAX_LENGTH) {
+            value = value.substring(value.length() - MAX_LENGTH);
+        }
+    }
+
+    public static InstanceId resolve() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return new InstanceId(host + "-" + UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
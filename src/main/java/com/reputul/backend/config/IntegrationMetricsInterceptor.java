@@ -0,0 +1,58 @@
+package com.reputul.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Records integration.http.requests per integration, tagged by method and outcome.
+ * Spring's http.client.requests observation still tags by URI template and host; this
+ * timer gives one series per integration regardless of how its URLs are built.
+ */
+public class IntegrationMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String integration;
+    private final MeterRegistry meterRegistry;
+
+    public IntegrationMetricsInterceptor(String integration, MeterRegistry meterRegistry) {
+        this.integration = integration;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            outcome = outcomeOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            sample.stop(Timer.builder("integration.http.requests")
+                    .description("Outbound HTTP calls per platform integration")
+                    .tag("integration", integration)
+                    .tag("method", request.getMethod().name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String outcomeOf(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        if (status >= 300) {
+            return "REDIRECTION";
+        }
+        return "SUCCESS";
+    }
+}
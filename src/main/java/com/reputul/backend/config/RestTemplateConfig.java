@@ -1,14 +1,195 @@
 package com.reputul.backend.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.routing.HttpRoute;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * RestTemplates for outbound platform integrations, all backed by one pooled Apache
+ * HttpClient. Connections are kept alive and reused, limited per host (route), and every
+ * integration gets its own read timeout and integration.http.requests timer. Pool usage
+ * is published as httpcomponents.httpclient.pool.* gauges.
+ *
+ * http.client.max-total=200
+ * http.client.max-per-route=20
+ * http.client.max-per-host[mybusiness.googleapis.com]=10
+ */
 @Configuration
+@EnableConfigurationProperties(RestTemplateConfig.HttpClientProperties.class)
 public class RestTemplateConfig {
 
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager integrationConnectionManager(HttpClientProperties properties,
+                                                                           MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.maxTotal())
+                .setMaxConnPerRoute(properties.maxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.readTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .setTimeToLive(TimeValue.of(properties.timeToLive()))
+                        .build())
+                .build();
+        properties.maxPerHost().forEach((host, limit) ->
+                connectionManager.setMaxPerRoute(httpsRoute(host), limit));
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "integrations").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    /**
+     * The route the client plans for https://host without a proxy. HttpRoute equality
+     * includes the secure flag, so a limit set on any other route is never applied.
+     */
+    static HttpRoute httpsRoute(String host) {
+        return new HttpRoute(new HttpHost("https", host, 443), null, true);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient integrationHttpClient(PoolingHttpClientConnectionManager integrationConnectionManager,
+                                                     HttpClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(integrationConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.idleTimeout()))
+                .build();
+    }
+
+    /**
+     * Default client for controllers and services without their own integration client
+     */
+    @Bean
+    @Primary
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient integrationHttpClient,
+                                     HttpClientProperties properties, MeterRegistry meterRegistry) {
+        return integrationRestTemplate("default", properties.readTimeout(), builder, integrationHttpClient,
+                properties, meterRegistry);
+    }
+
+    /**
+     * Used by: GoogleMyBusinessClient
+     */
+    @Bean
+    public RestTemplate googleRestTemplate(RestTemplateBuilder builder, CloseableHttpClient integrationHttpClient,
+                                           HttpClientProperties properties, MeterRegistry meterRegistry,
+                                           @Value("${google.api.timeout:30000}") long timeoutMs) {
+        return integrationRestTemplate("google-business-profile", Duration.ofMillis(timeoutMs), builder,
+                integrationHttpClient, properties, meterRegistry);
+    }
+
+    /**
+     * Used by: GooglePlacesService
+     */
+    @Bean
+    public RestTemplate googlePlacesRestTemplate(RestTemplateBuilder builder, CloseableHttpClient integrationHttpClient,
+                                                 HttpClientProperties properties, MeterRegistry meterRegistry,
+                                                 @Value("${google.places.api.timeout:30000}") long timeoutMs) {
+        return integrationRestTemplate("google-places", Duration.ofMillis(timeoutMs), builder,
+                integrationHttpClient, properties, meterRegistry);
+    }
+
+    /**
+     * Used by: FacebookClient
+     */
+    @Bean
+    public RestTemplate facebookRestTemplate(RestTemplateBuilder builder, CloseableHttpClient integrationHttpClient,
+                                             HttpClientProperties properties, MeterRegistry meterRegistry,
+                                             @Value("${facebook.api.timeout:30000}") long timeoutMs) {
+        return integrationRestTemplate("facebook", Duration.ofMillis(timeoutMs), builder,
+                integrationHttpClient, properties, meterRegistry);
+    }
+
+    /**
+     * Used by: ClaudeService
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate anthropicRestTemplate(RestTemplateBuilder builder, CloseableHttpClient integrationHttpClient,
+                                              HttpClientProperties properties, MeterRegistry meterRegistry,
+                                              @Value("${anthropic.api.timeout:60000}") long timeoutMs) {
+        return integrationRestTemplate("anthropic", Duration.ofMillis(timeoutMs), builder,
+                integrationHttpClient, properties, meterRegistry);
+    }
+
+    static RestTemplate integrationRestTemplate(String integration, Duration readTimeout, RestTemplateBuilder builder,
+                                                CloseableHttpClient httpClient, HttpClientProperties properties,
+                                                MeterRegistry meterRegistry) {
+        return builder
+                .requestFactory(() -> requestFactory(httpClient, properties.connectTimeout(), readTimeout))
+                .additionalInterceptors(new IntegrationMetricsInterceptor(integration, meterRegistry))
+                .build();
+    }
+
+    static HttpComponentsClientHttpRequestFactory requestFactory(CloseableHttpClient httpClient,
+                                                                 Duration connectionRequestTimeout,
+                                                                 Duration readTimeout) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        // Bounds the wait for a pooled connection when a host is at its limit
+        requestFactory.setConnectionRequestTimeout(connectionRequestTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+
+    /**
+     * Connection pool and default timeouts for the integration HTTP client
+     *
+     * @param maxPerRoute default connection limit per host
+     * @param maxPerHost  per-host overrides of maxPerRoute (HTTPS hosts)
+     * @param idleTimeout idle pooled connections are closed after this long
+     * @param timeToLive  pooled connections are never reused past this age
+     */
+    @ConfigurationProperties(prefix = "http.client")
+    public record HttpClientProperties(
+            Duration connectTimeout,
+            Duration readTimeout,
+            int maxTotal,
+            int maxPerRoute,
+            Map<String, Integer> maxPerHost,
+            Duration idleTimeout,
+            Duration timeToLive
+    ) {
+        public HttpClientProperties {
+            if (connectTimeout == null) {
+                connectTimeout = Duration.ofSeconds(5);
+            }
+            if (readTimeout == null) {
+                readTimeout = Duration.ofSeconds(30);
+            }
+            if (maxTotal <= 0) {
+                maxTotal = 200;
+            }
+            if (maxPerRoute <= 0) {
+                maxPerRoute = 20;
+            }
+            if (maxPerHost == null) {
+                maxPerHost = Map.of();
+            }
+            if (idleTimeout == null) {
+                idleTimeout = Duration.ofSeconds(30);
+            }
+            if (timeToLive == null) {
+                timeToLive = Duration.ofMinutes(5);
+            }
+        }
     }
-}
\ No newline at end of file
+}
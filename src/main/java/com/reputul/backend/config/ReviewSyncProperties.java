@@ -0,0 +1,45 @@
+package com.reputul.backend.config;
+
+import com.reputul.backend.models.ChannelCredential;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Concurrency and rate budgets for review sync, per platform.
+ *
+ * app.review-sync.credential-deadline=2m
+ * app.review-sync.defaults.max-concurrent=4
+ * app.review-sync.defaults.syncs-per-minute=60
+ * app.review-sync.platforms.GOOGLE_MY_BUSINESS.max-concurrent=8
+ */
+@ConfigurationProperties(prefix = "app.review-sync")
+public record ReviewSyncProperties(
+        Duration credentialDeadline,
+        PlatformBudget defaults,
+        Map<ChannelCredential.PlatformType, PlatformBudget> platforms
+) {
+    public ReviewSyncProperties {
+        if (credentialDeadline == null) {
+            credentialDeadline = Duration.ofMinutes(2);
+        }
+        if (defaults == null) {
+            defaults = new PlatformBudget(4, 60);
+        }
+        if (platforms == null) {
+            platforms = Map.of();
+        }
+    }
+
+    public PlatformBudget budgetFor(ChannelCredential.PlatformType platformType) {
+        return platforms.getOrDefault(platformType, defaults);
+    }
+
+    /**
+     * @param maxConcurrent  credentials of this platform syncing at once
+     * @param syncsPerMinute token-bucket budget; each credential sync takes one token
+     */
+    public record PlatformBudget(int maxConcurrent, int syncsPerMinute) {
+    }
+}
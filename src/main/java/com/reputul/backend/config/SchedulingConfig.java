@@ -1,6 +1,10 @@
 package com.reputul.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -11,13 +15,41 @@ import java.util.concurrent.Executor;
 @Configuration
 @EnableScheduling
 @EnableAsync
+@EnableConfigurationProperties({ReviewSyncProperties.class, BulkSendProperties.class, EmailOutboxProperties.class})
 public class SchedulingConfig implements AsyncConfigurer {
 
+    /**
+     * Same switch Spring Boot uses for Tomcat and the @Scheduled task scheduler, so one
+     * property moves every blocking-I/O path onto virtual threads together.
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.async.virtual.concurrency-limit:200}")
+    private int virtualConcurrencyLimit;
+
+    /**
+     * Owner id this node writes when it claims campaign steps, outbox emails, bulk send
+     * items, review sync leases and backfill checkpoints
+     */
+    @Bean
+    public InstanceId instanceId() {
+        return InstanceId.resolve();
+    }
+
     /**
      * Configure async executor for campaign step processing
      */
     @Override
     public Executor getAsyncExecutor() {
+        if (virtualThreads) {
+            // One virtual thread per task; the limit caps concurrent outbound sends instead of a pool size
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("campaign-executor-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
@@ -27,4 +59,139 @@ public class SchedulingConfig implements AsyncConfigurer {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Dedicated pool for claimed campaign steps. Rejects instead of running on the
+     * caller so the scheduler can release the claim and leave the step for another node.
+     */
+    @Bean(name = "campaignStepExecutor")
+    public ThreadPoolTaskExecutor campaignStepExecutor(
+            @Value("${app.campaign.executor.pool-size:10}") int poolSize,
+            @Value("${app.campaign.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("campaign-step-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool for automation workflow executions. Rejected executions stay PENDING
+     * and are picked up by the next scheduler pass.
+     */
+    @Bean(name = "automationExecutor")
+    public ThreadPoolTaskExecutor automationExecutor(
+            @Value("${app.automation.executor.pool-size:8}") int poolSize,
+            @Value("${app.automation.executor.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("automation-exec-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Worker pool for review sync. Per-platform concurrency and rate budgets are applied
+     * by ReviewSyncExecutor before work reaches this pool, so queued tasks are runnable.
+     */
+    @Bean(name = "reviewSyncExecutor")
+    public ThreadPoolTaskExecutor reviewSyncExecutor(
+            @Value("${app.review-sync.pool-size:16}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("review-sync-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers for the reputation backfill; the pool size is the number of businesses
+     * updated at once. Pages are bounded, so the queue never holds more than one page.
+     */
+    @Bean(name = "reputationBackfillExecutor")
+    public ThreadPoolTaskExecutor reputationBackfillExecutor(
+            @Value("${app.reputation.backfill.concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("reputation-backfill-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers for bulk review request sends. BulkSendDispatcher only hands over items its
+     * channel lanes have concurrency and provider budget for, so the pool should cover the
+     * sum of the lanes' max-concurrent.
+     */
+    @Bean(name = "bulkSendExecutor")
+    public ThreadPoolTaskExecutor bulkSendExecutor(
+            @Value("${app.bulk-send.pool-size:8}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("bulk-send-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs committed CSV contact imports off the request thread. Each import is one long
+     * task writing chunk by chunk; imports beyond the pool wait in the queue, and past the
+     * queue a commit is refused until one finishes.
+     */
+    @Bean(name = "contactImportExecutor")
+    public ThreadPoolTaskExecutor contactImportExecutor(
+            @Value("${app.contacts.import.concurrency:2}") int concurrency,
+            @Value("${app.contacts.import.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("contact-import-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers for outbox batches. EmailOutboxRelay never has more than the configured
+     * concurrency of batches in flight, so one thread per slot is enough.
+     */
+    @Bean(name = "emailOutboxExecutor")
+    public ThreadPoolTaskExecutor emailOutboxExecutor(EmailOutboxProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.concurrency());
+        executor.setMaxPoolSize(properties.concurrency());
+        executor.setThreadNamePrefix("email-outbox-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
 }
@@ -4,7 +4,7 @@ import com.reputul.backend.models.Business;
 import com.reputul.backend.models.Subscription;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.BusinessRepository;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.services.PlanEnforcer;
 import com.reputul.backend.services.StripeService;
 import com.reputul.backend.services.UsageService;
@@ -35,18 +35,18 @@ public class BillingController {
     private final StripeService stripeService;
     private final UsageService usageService;
     private final PlanEnforcer planEnforcer;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
     private final BusinessRepository businessRepository;
 
     public BillingController(StripeService stripeService,
                              UsageService usageService,
                              PlanEnforcer planEnforcer,
-                             UserRepository userRepository,
+                             UserAuthService userAuthService,
                              BusinessRepository businessRepository) {
         this.stripeService = stripeService;
         this.usageService = usageService;
         this.planEnforcer = planEnforcer;
-        this.userRepository = userRepository;
+        this.userAuthService = userAuthService;
         this.businessRepository = businessRepository;
     }
 
@@ -360,7 +360,7 @@ public class BillingController {
     // Helper method to get current user
     private User getCurrentUser(Authentication authentication) {
         String email = authentication.getName();
-        return userRepository.findByEmail(email)
+        return userAuthService.resolveUser(email)
                 .orElseThrow(() -> new RuntimeException("User not found: " + email));
     }
 
@@ -8,7 +8,7 @@ import com.reputul.backend.models.Review;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.BusinessRepository;
 import com.reputul.backend.repositories.ReviewRepository;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.services.BusinessService;
 import com.reputul.backend.util.BusinessMapper;
 import jakarta.validation.constraints.NotNull;
@@ -33,7 +33,7 @@ public class BusinessController {
 
     private final BusinessRepository businessRepo;
     private final BusinessService businessService;
-    private final UserRepository userRepo;
+    private final UserAuthService userAuthService;
     private final ReviewRepository reviewRepo;
 
     private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
@@ -46,10 +46,10 @@ public class BusinessController {
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
 
     public BusinessController(BusinessRepository businessRepo, BusinessService businessService,
-                              UserRepository userRepo, ReviewRepository reviewRepo) {
+                              UserAuthService userAuthService, ReviewRepository reviewRepo) {
         this.businessRepo = businessRepo;
         this.businessService = businessService;
-        this.userRepo = userRepo;
+        this.userAuthService = userAuthService;
         this.reviewRepo = reviewRepo;
     }
 
@@ -57,7 +57,7 @@ public class BusinessController {
     public ResponseEntity<List<BusinessDto>> getAll(@AuthenticationPrincipal UserDetails userDetails) {
         try {
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             List<Business> businesses = businessRepo.findByUserId(user.getId());
@@ -78,7 +78,7 @@ public class BusinessController {
                                             @AuthenticationPrincipal UserDetails userDetails) {
         try {
             String email = userDetails.getUsername();
-            User owner = userRepo.findByEmail(email)
+            User owner = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
 
             business.setUser(owner);
@@ -161,7 +161,7 @@ public class BusinessController {
 
             // Get the authenticated user
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Check ownership
@@ -200,7 +200,7 @@ public class BusinessController {
 
             // Get the authenticated user
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Check ownership
@@ -273,7 +273,7 @@ public class BusinessController {
             @AuthenticationPrincipal UserDetails userDetails) {
         try {
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             Business business = businessRepo.findById(id)
@@ -311,7 +311,7 @@ public class BusinessController {
 
         try {
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // CHANGED: Now passes googleReviewShortUrl as well
@@ -344,7 +344,7 @@ public class BusinessController {
 
         try {
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             Business refreshedBusiness = businessService.refreshGooglePlacesData(businessId, user);
@@ -365,7 +365,7 @@ public class BusinessController {
     public ResponseEntity<BusinessDto> getMyBusiness(@AuthenticationPrincipal UserDetails userDetails) {
         try {
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Get user's first business
@@ -3,9 +3,10 @@ package com.reputul.backend.controllers;
 import com.reputul.backend.dto.*;
 import com.reputul.backend.models.User;
 import com.reputul.backend.models.Business;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.repositories.BusinessRepository;
 import com.reputul.backend.services.ContactService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,16 +15,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/contacts")
@@ -36,7 +40,7 @@ public class ContactController {
     private ContactService contactService;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserAuthService userAuthService;
 
     @Autowired
     private BusinessRepository businessRepository;
@@ -73,6 +77,32 @@ public class ContactController {
         return ResponseEntity.ok(contacts);
     }
 
+    /**
+     * Ranked contact search with cursor pagination
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchContacts(
+            @RequestParam String q,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "25") int limit,
+            Authentication authentication) {
+
+        try {
+            User user = getUserFromAuth(authentication);
+            Long businessId = getUserBusinessId(user);
+
+            if (businessId == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "No active business"));
+            }
+
+            return ResponseEntity.ok(contactService.searchContactsRanked(businessId, q, tag, cursor, limit));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Get single contact by ID
      */
@@ -207,7 +237,10 @@ public class ContactController {
     }
 
     /**
-     * Commit CSV import - process and save contacts
+     * Commit CSV import - starts the import in the background
+     *
+     * Returns 202 with the importJobId; poll GET /bulk/import/{importJobId} for progress
+     * and the final counts.
      */
     @PostMapping("/bulk/import/commit")
     public ResponseEntity<?> commitCsvImport(
@@ -224,15 +257,17 @@ public class ContactController {
 
             CsvImportCommitResponse response = contactService.commitCsvImport(businessId, user.getId(), request);
 
-            logger.info("User {} committed CSV import for business {}: {} inserted, {} updated, {} skipped, {} errors",
-                    user.getId(), businessId, response.getInsertedCount(), response.getUpdatedCount(),
-                    response.getSkippedCount(), response.getErrorCount());
+            logger.info("User {} started CSV import {} for business {}",
+                    user.getId(), response.getImportJobId(), businessId);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().body(response);
 
         } catch (IllegalArgumentException e) {
             logger.warn("CSV import commit failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            logger.warn("CSV import commit refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("CSV import commit failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -241,11 +276,11 @@ public class ContactController {
     }
 
     /**
-     * Export contacts to CSV
+     * Import job progress - counts are updated after every committed chunk
      */
-    @GetMapping("/export.csv")
-    public ResponseEntity<String> exportContacts(
-            @RequestParam(required = false) String tag,
+    @GetMapping("/bulk/import/{importJobId}")
+    public ResponseEntity<?> getImportProgress(
+            @PathVariable Long importJobId,
             Authentication authentication) {
 
         try {
@@ -253,21 +288,77 @@ public class ContactController {
             Long businessId = getUserBusinessId(user);
 
             if (businessId == null) {
-                return ResponseEntity.badRequest().build();
+                return ResponseEntity.badRequest().body(Map.of("error", "No active business"));
             }
 
-            String csvData = contactService.exportContactsCsv(businessId, tag);
+            return contactService.getImportProgress(businessId, importJobId)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", "contacts_export.csv");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Export contacts to CSV
+     *
+     * Streamed straight to the response while rows are read from the database, gzipped
+     * when the client accepts it.
+     */
+    @GetMapping("/export.csv")
+    public void exportContacts(
+            @RequestParam(required = false) String tag,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+
+        User user;
+        Long businessId;
+        try {
+            user = getUserFromAuth(authentication);
+            businessId = getUserBusinessId(user);
+        } catch (Exception e) {
+            logger.error("Contact export failed", e);
+            response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            return;
+        }
+
+        if (businessId == null) {
+            response.sendError(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("contacts_export.csv").build().toString());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        try {
+            OutputStream out = response.getOutputStream();
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                contactService.exportContactsCsv(businessId, tag, gzipOut);
+                gzipOut.finish();
+            } else {
+                contactService.exportContactsCsv(businessId, tag, out);
+            }
+            out.flush();
 
             logger.info("User {} exported contacts for business {} (tag: {})", user.getId(), businessId, tag);
-            return ResponseEntity.ok().headers(headers).body(csvData);
 
         } catch (Exception e) {
             logger.error("Contact export failed", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            // Once rows have been sent the status can't change; the client sees a truncated download
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
         }
     }
 
@@ -313,7 +404,7 @@ public class ContactController {
             throw new IllegalArgumentException("Authentication required");
         }
 
-        return userRepository.findByEmail(authentication.getName())
+        return userAuthService.resolveUser(authentication.getName())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 
@@ -3,10 +3,11 @@ package com.reputul.backend.controllers;
 import com.reputul.backend.dto.CreateCustomerRequest;
 import com.reputul.backend.dto.CustomerDto;
 import com.reputul.backend.dto.CustomerStatsDto;
+import com.reputul.backend.dto.SearchPageDto;
 import com.reputul.backend.models.Customer;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.CustomerRepository;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.security.CurrentUser;
 import com.reputul.backend.services.AutomationTriggerService;
 import com.reputul.backend.services.CustomerService;
@@ -25,8 +26,11 @@ import java.util.Map;
 // REMOVED: @CrossOrigin(origins = "*") - this was causing the CORS conflict
 public class CustomerController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+
     private final CustomerService customerService;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
     private final CustomerRepository customerRepository;
     private final AutomationTriggerService automationTriggerService;
 
@@ -141,13 +145,29 @@ public class CustomerController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Ranked customer search. Without limit or cursor every match is returned, as before
+     * paging was added; with either, one page is returned and the cursor for the next
+     * page, if any, is in the X-Next-Cursor header. The body is a plain list either way.
+     */
     @GetMapping("/search")
     public ResponseEntity<List<CustomerDto>> searchCustomers(
             @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
         User user = getCurrentUser(authentication);
-        List<CustomerDto> customers = customerService.searchCustomers(user, q);
-        return ResponseEntity.ok(customers);
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(customerService.searchAllCustomers(user, q));
+        }
+
+        SearchPageDto<CustomerDto> page = customerService.searchCustomers(user, q, cursor,
+                limit != null ? limit : DEFAULT_SEARCH_LIMIT);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/stats")
@@ -159,7 +179,7 @@ public class CustomerController {
 
     private User getCurrentUser(Authentication authentication) {
         String email = authentication.getName();
-        return userRepository.findByEmail(email)
+        return userAuthService.resolveUser(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
\ No newline at end of file
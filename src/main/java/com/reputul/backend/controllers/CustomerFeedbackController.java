@@ -8,6 +8,7 @@ import com.reputul.backend.repositories.BusinessRepository;
 import com.reputul.backend.repositories.CustomerRepository;
 import com.reputul.backend.repositories.ReviewRepository;
 import com.reputul.backend.services.FeedbackGateService;
+import com.reputul.backend.services.ReputationAggregateService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -30,6 +31,7 @@ public class CustomerFeedbackController {
     private final BusinessRepository businessRepository;
     private final ReviewRepository reviewRepository;
     private final FeedbackGateService feedbackGateService;
+    private final ReputationAggregateService reputationAggregateService;
 
     // ===========================================
     // NEW: FEEDBACK GATE ENDPOINTS
@@ -218,7 +220,7 @@ public class CustomerFeedbackController {
                     .createdAt(OffsetDateTime.now(ZoneOffset.UTC))
                     .build();
 
-            Review savedReview = reviewRepository.save(review);
+            Review savedReview = reputationAggregateService.saveNewReview(review);
 
             // Update customer record
             customer.setLastFeedbackDate(OffsetDateTime.now(ZoneOffset.UTC));
@@ -3,7 +3,7 @@ package com.reputul.backend.controllers;
 import com.reputul.backend.dto.*;
 import com.reputul.backend.models.EmailTemplate;
 import com.reputul.backend.models.User;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.services.EmailTemplateService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,7 +20,7 @@ import java.util.Map;
 public class EmailTemplateController {
 
     private final EmailTemplateService emailTemplateService;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
 
     @GetMapping
     public ResponseEntity<List<EmailTemplateDto>> getAllTemplates(
@@ -205,7 +205,7 @@ public class EmailTemplateController {
 
     private User getCurrentUser(Authentication authentication) {
         String email = authentication.getName();
-        return userRepository.findByEmail(email)
+        return userAuthService.resolveUser(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
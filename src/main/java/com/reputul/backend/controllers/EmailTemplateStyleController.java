@@ -3,7 +3,7 @@ package com.reputul.backend.controllers;
 import com.reputul.backend.dto.EmailTemplateStyleDto;
 import com.reputul.backend.dto.UpdateEmailTemplateStyleRequest;
 import com.reputul.backend.models.User;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.services.EmailTemplateStyleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,7 +19,7 @@ import org.springframework.web.bind.annotation.*;
 public class EmailTemplateStyleController {
 
     private final EmailTemplateStyleService styleService;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
 
     /**
      * Get the authenticated user from SecurityContext
@@ -31,7 +31,7 @@ public class EmailTemplateStyleController {
         }
 
         String email = authentication.getName();
-        return userRepository.findByEmail(email)
+        return userAuthService.resolveUser(email)
                 .orElseThrow(() -> new RuntimeException("User not found: " + email));
     }
 
@@ -1,12 +1,12 @@
 package com.reputul.backend.controllers;
 
 import com.reputul.backend.models.Business;
-import com.reputul.backend.models.Review;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.BusinessRepository;
-import com.reputul.backend.repositories.ReviewRepository;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.services.ReputationService;
+import com.reputul.backend.services.ReviewDailyRollupService;
+import com.reputul.backend.services.ReviewDailyRollupService.SourceTotals;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -14,7 +14,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
-import java.time.OffsetDateTime;
+import java.time.YearMonth;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -30,20 +30,20 @@ import java.util.stream.Collectors;
 public class InsightsController {
 
     private final BusinessRepository businessRepository;
-    private final ReviewRepository reviewRepository;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
     private final ReputationService reputationService;
+    private final ReviewDailyRollupService rollupService;
 
     public InsightsController(
             BusinessRepository businessRepository,
-            ReviewRepository reviewRepository,
-            UserRepository userRepository,
-            ReputationService reputationService
+            UserAuthService userAuthService,
+            ReputationService reputationService,
+            ReviewDailyRollupService rollupService
     ) {
         this.businessRepository = businessRepository;
-        this.reviewRepository = reviewRepository;
-        this.userRepository = userRepository;
+        this.userAuthService = userAuthService;
         this.reputationService = reputationService;
+        this.rollupService = rollupService;
     }
 
     /**
@@ -59,7 +59,7 @@ public class InsightsController {
         try {
             // Verify user owns this business
             String email = userDetails.getUsername();
-            User user = userRepository.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             Business business = businessRepository.findById(businessId)
@@ -76,16 +76,18 @@ public class InsightsController {
                 return ResponseEntity.notFound().build();
             }
 
-            // Parse period parameter
-            OffsetDateTime periodStart = parsePeriod(period);
-
-            // Get all reviews for this business
-            List<Review> allReviews = reviewRepository.findByBusinessIdOrderByCreatedAtDesc(businessId);
-
-            // Get reviews within the specified period
-            List<Review> periodReviews = allReviews.stream()
-                    .filter(review -> review.getCreatedAt().isAfter(periodStart))
-                    .collect(Collectors.toList());
+            // Per-source lifetime totals from the daily rollups (bounded by number of sources)
+            List<SourceTotals> sources = rollupService.getSourceTotals(businessId);
+            long totalReviews = sources.stream().mapToLong(SourceTotals::reviewCount).sum();
+            long ratingSum = sources.stream().mapToLong(SourceTotals::ratingSum).sum();
+            long positiveReviews = sources.stream().mapToLong(SourceTotals::positiveCount).sum();
+            LocalDate firstReviewDate = sources.stream()
+                    .map(SourceTotals::firstReviewDate)
+                    .filter(Objects::nonNull)
+                    .min(LocalDate::compareTo)
+                    .orElse(null);
+            double overallRating = calculateOverallRating(ratingSum, totalReviews);
+            double averagePerMonth = calculateAveragePerMonth(totalReviews, firstReviewDate);
 
             // Get reputation metrics
             ReputationService.ReputationBreakdown reputation = reputationService.getReputationBreakdown(businessId);
@@ -94,9 +96,9 @@ public class InsightsController {
             Map<String, Object> insights = new HashMap<>();
 
             // Overall rating and distribution
-            insights.put("overallRating", calculateOverallRating(allReviews));
-            insights.put("totalReviews", allReviews.size());
-            insights.put("reviewDistribution", calculateReviewDistribution(allReviews));
+            insights.put("overallRating", overallRating);
+            insights.put("totalReviews", (int) totalReviews);
+            insights.put("reviewDistribution", calculateReviewDistribution(sources));
 
             // Reputation metrics
             Map<String, Object> reputationMetrics = new HashMap<>();
@@ -106,21 +108,21 @@ public class InsightsController {
             insights.put("reputationMetrics", reputationMetrics);
 
             // Rating goals
-            insights.put("ratingGoals", calculateRatingGoals(allReviews));
+            insights.put("ratingGoals", calculateRatingGoals(overallRating, (int) totalReviews, averagePerMonth));
 
             // Platform performance
-            insights.put("platformPerformance", calculatePlatformPerformance(allReviews));
+            insights.put("platformPerformance", calculatePlatformPerformance(sources));
 
             // Sentiment breakdown
-            insights.put("sentiment", calculateSentiment(allReviews));
+            insights.put("sentiment", calculateSentiment(totalReviews, positiveReviews));
 
             // Time series data
-            insights.put("timeSeries", calculateTimeSeries(allReviews, 12)); // Last 12 months
+            insights.put("timeSeries", calculateTimeSeries(businessId, 12)); // Last 12 months
 
             // Statistics
             Map<String, Object> statistics = new HashMap<>();
-            statistics.put("averagePerMonth", calculateAveragePerMonth(allReviews));
-            statistics.put("totalSinceJoining", allReviews.size());
+            statistics.put("averagePerMonth", averagePerMonth);
+            statistics.put("totalSinceJoining", (int) totalReviews);
             statistics.put("memberSince", business.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
             insights.put("statistics", statistics);
 
@@ -133,52 +135,24 @@ public class InsightsController {
     }
 
     /**
-     * Parse period parameter (e.g., "30d", "90d", "365d")
-     */
-    private OffsetDateTime parsePeriod(String period) {
-        try {
-            if (period.endsWith("d")) {
-                int days = Integer.parseInt(period.substring(0, period.length() - 1));
-                return OffsetDateTime.now().minusDays(days);
-            }
-            // Default to 30 days
-            return OffsetDateTime.now().minusDays(30);
-        } catch (Exception e) {
-            log.warn("Invalid period parameter: {}, defaulting to 30 days", period);
-            return OffsetDateTime.now().minusDays(30);
-        }
-    }
-
-    /**
-     * Calculate overall rating from all reviews
+     * Calculate average rating from a rating sum and review count
      */
-    private double calculateOverallRating(List<Review> reviews) {
-        if (reviews.isEmpty()) return 0.0;
-
-        double sum = reviews.stream()
-                .mapToInt(Review::getRating)
-                .sum();
+    private double calculateOverallRating(long ratingSum, long reviewCount) {
+        if (reviewCount <= 0) return 0.0;
 
-        return Math.round((sum / reviews.size()) * 10.0) / 10.0;
+        return Math.round(((double) ratingSum / reviewCount) * 10.0) / 10.0;
     }
 
     /**
      * Calculate review distribution by platform
      */
-    private List<Map<String, Object>> calculateReviewDistribution(List<Review> reviews) {
-        Map<String, List<Review>> byPlatform = reviews.stream()
-                .collect(Collectors.groupingBy(review ->
-                        review.getSource() != null ? review.getSource() : "DIRECT"));
-
-        return byPlatform.entrySet().stream()
-                .map(entry -> {
-                    String platform = entry.getKey();
-                    List<Review> platformReviews = entry.getValue();
-
+    private List<Map<String, Object>> calculateReviewDistribution(List<SourceTotals> sources) {
+        return sources.stream()
+                .map(totals -> {
                     Map<String, Object> platformData = new HashMap<>();
-                    platformData.put("platform", formatPlatformName(platform));
-                    platformData.put("count", platformReviews.size());
-                    platformData.put("avgRating", calculateOverallRating(platformReviews));
+                    platformData.put("platform", formatPlatformName(totals.source()));
+                    platformData.put("count", (int) totals.reviewCount());
+                    platformData.put("avgRating", calculateOverallRating(totals.ratingSum(), totals.reviewCount()));
 
                     return platformData;
                 })
@@ -251,8 +225,8 @@ public class InsightsController {
     /**
      * Calculate rating goals (how many 5-star reviews needed to reach targets)
      */
-    private List<Map<String, Object>> calculateRatingGoals(List<Review> reviews) {
-        if (reviews.isEmpty()) {
+    private List<Map<String, Object>> calculateRatingGoals(double currentRating, int totalReviews, double monthlyReviewRate) {
+        if (totalReviews == 0) {
             return Arrays.asList(
                     createRatingGoal(4.8, 0, 0, 0, 0),
                     createRatingGoal(4.9, 0, 0, 0, 0),
@@ -260,13 +234,8 @@ public class InsightsController {
             );
         }
 
-        double currentRating = calculateOverallRating(reviews);
-        int totalReviews = reviews.size();
         double currentSum = currentRating * totalReviews;
 
-        // Calculate monthly review rate (reviews per month over last 12 months)
-        double monthlyReviewRate = calculateAveragePerMonth(reviews);
-
         return Arrays.asList(
                 createRatingGoal(4.8, currentRating, currentSum, totalReviews, monthlyReviewRate),
                 createRatingGoal(4.9, currentRating, currentSum, totalReviews, monthlyReviewRate),
@@ -337,21 +306,14 @@ public class InsightsController {
     /**
      * Calculate platform performance for horizontal bar chart
      */
-    private List<Map<String, Object>> calculatePlatformPerformance(List<Review> reviews) {
-        Map<String, List<Review>> byPlatform = reviews.stream()
-                .collect(Collectors.groupingBy(review ->
-                        review.getSource() != null ? review.getSource() : "DIRECT"));
-
-        return byPlatform.entrySet().stream()
-                .map(entry -> {
-                    String platform = entry.getKey();
-                    List<Review> platformReviews = entry.getValue();
-
+    private List<Map<String, Object>> calculatePlatformPerformance(List<SourceTotals> sources) {
+        return sources.stream()
+                .map(totals -> {
                     Map<String, Object> performance = new HashMap<>();
-                    performance.put("name", formatPlatformName(platform));
-                    performance.put("rating", calculateOverallRating(platformReviews));
-                    performance.put("count", platformReviews.size());
-                    performance.put("color", getPlatformColor(platform));
+                    performance.put("name", formatPlatformName(totals.source()));
+                    performance.put("rating", calculateOverallRating(totals.ratingSum(), totals.reviewCount()));
+                    performance.put("count", (int) totals.reviewCount());
+                    performance.put("color", getPlatformColor(totals.source()));
 
                     return performance;
                 })
@@ -362,21 +324,17 @@ public class InsightsController {
     /**
      * Calculate sentiment breakdown (positive vs negative)
      */
-    private Map<String, Object> calculateSentiment(List<Review> reviews) {
-        if (reviews.isEmpty()) {
+    private Map<String, Object> calculateSentiment(long totalReviews, long positiveCount) {
+        if (totalReviews == 0) {
             return Map.of(
                     "positive", Map.of("count", 0, "percentage", 0),
                     "negative", Map.of("count", 0, "percentage", 0)
             );
         }
 
-        long positiveCount = reviews.stream()
-                .filter(review -> review.getRating() >= 4)
-                .count();
-
-        long negativeCount = reviews.size() - positiveCount;
+        long negativeCount = totalReviews - positiveCount;
 
-        int positivePercent = (int) Math.round((double) positiveCount / reviews.size() * 100);
+        int positivePercent = (int) Math.round((double) positiveCount / totalReviews * 100);
         int negativePercent = 100 - positivePercent;
 
         return Map.of(
@@ -388,30 +346,33 @@ public class InsightsController {
     /**
      * Calculate time series data for the last N months
      */
-    private List<Map<String, Object>> calculateTimeSeries(List<Review> reviews, int months) {
+    private List<Map<String, Object>> calculateTimeSeries(Long businessId, int months) {
         List<Map<String, Object>> timeSeries = new ArrayList<>();
 
-        // Group reviews by month
-        Map<String, List<Review>> reviewsByMonth = reviews.stream()
-                .collect(Collectors.groupingBy(review -> {
-                    LocalDate date = review.getCreatedAt().toLocalDate();
-                    return date.getYear() + "-" + String.format("%02d", date.getMonthValue());
-                }));
+        LocalDate currentDate = LocalDate.now(ZoneOffset.UTC);
+        LocalDate firstMonth = currentDate.minusMonths(months - 1L).withDayOfMonth(1);
+
+        // Bucket daily rollups into months as [count, ratingSum]
+        Map<YearMonth, long[]> byMonth = new HashMap<>();
+        rollupService.getDailyTotalsSince(businessId, firstMonth).forEach((day, totals) -> {
+            long[] month = byMonth.computeIfAbsent(YearMonth.from(day), key -> new long[2]);
+            month[0] += totals[0];
+            month[1] += totals[1];
+        });
 
         // Generate last N months
-        LocalDate currentDate = LocalDate.now();
         for (int i = months - 1; i >= 0; i--) {
             LocalDate monthDate = currentDate.minusMonths(i);
             String monthKey = monthDate.getYear() + "-" + String.format("%02d", monthDate.getMonthValue());
             String monthDisplay = monthDate.format(DateTimeFormatter.ofPattern("MMM yyyy"));
 
-            List<Review> monthReviews = reviewsByMonth.getOrDefault(monthKey, new ArrayList<>());
+            long[] monthTotals = byMonth.getOrDefault(YearMonth.from(monthDate), new long[2]);
 
             Map<String, Object> monthData = new HashMap<>();
             monthData.put("date", monthKey);
             monthData.put("month", monthDisplay);
-            monthData.put("count", monthReviews.size());
-            monthData.put("avgRating", monthReviews.isEmpty() ? 0.0 : calculateOverallRating(monthReviews));
+            monthData.put("count", (int) monthTotals[0]);
+            monthData.put("avgRating", calculateOverallRating(monthTotals[1], monthTotals[0]));
 
             timeSeries.add(monthData);
         }
@@ -422,23 +383,17 @@ public class InsightsController {
     /**
      * Calculate average reviews per month
      */
-    private double calculateAveragePerMonth(List<Review> reviews) {
-        if (reviews.isEmpty()) return 0.0;
-
-        // Find the oldest review date
-        OffsetDateTime oldestDate = reviews.stream()
-                .map(Review::getCreatedAt)
-                .min(OffsetDateTime::compareTo)
-                .orElse(OffsetDateTime.now());
+    private double calculateAveragePerMonth(long totalReviews, LocalDate oldestDate) {
+        if (totalReviews == 0 || oldestDate == null) return 0.0;
 
         // Calculate months since oldest review
         long monthsSinceStart = java.time.temporal.ChronoUnit.MONTHS.between(
-                oldestDate.toLocalDate().withDayOfMonth(1),
-                OffsetDateTime.now().toLocalDate().withDayOfMonth(1)
+                oldestDate.withDayOfMonth(1),
+                LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1)
         ) + 1; // Include current month
 
-        if (monthsSinceStart == 0) monthsSinceStart = 1;
+        if (monthsSinceStart <= 0) monthsSinceStart = 1;
 
-        return Math.round((double) reviews.size() / monthsSinceStart * 10.0) / 10.0;
+        return Math.round((double) totalReviews / monthsSinceStart * 10.0) / 10.0;
     }
 }
\ No newline at end of file
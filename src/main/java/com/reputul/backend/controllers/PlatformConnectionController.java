@@ -1,5 +1,6 @@
 package com.reputul.backend.controllers;
 
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.exceptions.TokenExpiredException;
 import com.reputul.backend.integrations.*;
 import com.reputul.backend.models.*;
@@ -29,7 +30,7 @@ public class PlatformConnectionController {
 
     private final ChannelCredentialRepository credentialRepository;
     private final BusinessRepository businessRepository;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
     private final ReviewSyncService reviewSyncService;
     private final Map<ChannelCredential.PlatformType, PlatformReviewClient> platformClients;
 
@@ -48,14 +49,14 @@ public class PlatformConnectionController {
     public PlatformConnectionController(
             ChannelCredentialRepository credentialRepository,
             BusinessRepository businessRepository,
-            UserRepository userRepository,
+            UserAuthService userAuthService,
             ReviewSyncService reviewSyncService,
             List<PlatformReviewClient> clients,
             RestTemplate restTemplate) {
 
         this.credentialRepository = credentialRepository;
         this.businessRepository = businessRepository;
-        this.userRepository = userRepository;
+        this.userAuthService = userAuthService;
         this.reviewSyncService = reviewSyncService;
         this.platformClients = clients.stream()
                 .collect(Collectors.toMap(
@@ -934,7 +935,7 @@ public class PlatformConnectionController {
 
     private User getUserFromAuth(Authentication auth) {
         String email = auth.getName();
-        return userRepository.findByEmail(email)
+        return userAuthService.resolveUser(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 
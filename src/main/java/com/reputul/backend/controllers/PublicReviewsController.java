@@ -4,6 +4,7 @@ import com.reputul.backend.models.Business;
 import com.reputul.backend.models.Review;
 import com.reputul.backend.repositories.BusinessRepository;
 import com.reputul.backend.repositories.ReviewRepository;
+import com.reputul.backend.services.ReputationAggregateService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,11 +17,14 @@ public class PublicReviewsController {
 
     private final ReviewRepository reviewRepo;
     private final BusinessRepository businessRepo;
+    private final ReputationAggregateService reputationAggregateService;
 
     public PublicReviewsController(ReviewRepository reviewRepo,
-                                   BusinessRepository businessRepo) {
+                                   BusinessRepository businessRepo,
+                                   ReputationAggregateService reputationAggregateService) {
         this.reviewRepo = reviewRepo;
         this.businessRepo = businessRepo;
+        this.reputationAggregateService = reputationAggregateService;
     }
 
     /**
@@ -80,7 +84,7 @@ public class PublicReviewsController {
             // Keeping "public" helps analytics & moderation distinguish sources.
             review.setSource("public");
 
-            Review savedReview = reviewRepo.save(review);
+            Review savedReview = reputationAggregateService.saveNewReview(review);
             System.out.println("✅ Review saved with ID: " + savedReview.getId());
 
             return ResponseEntity.ok(savedReview);
@@ -55,9 +55,10 @@ public class PublicSmsOptInController {
             }
             Business business = businessOpt.get();
 
-            // Check if customer already exists
+            // Check if customer already exists, preferring this business's record of the number
             Optional<Customer> existingCustomer = customerRepository
-                    .findByPhoneAnyFormat(request.getPhone());
+                    .findByBusinessAndPhoneAnyFormat(business.getId(), request.getPhone())
+                    .or(() -> customerRepository.findByPhoneAnyFormat(request.getPhone()));
 
             Customer customer;
             boolean isNewCustomer = false;
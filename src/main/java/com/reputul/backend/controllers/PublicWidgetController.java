@@ -65,8 +65,9 @@ public class PublicWidgetController {
             // Extract requesting domain from Origin or Referer header
             String requestDomain = extractDomain(request);
 
-            // Get widget data (includes domain validation)
-            WidgetDataDto data = widgetService.getPublicWidgetData(widgetKey, requestDomain);
+            // Get cached widget payload (includes domain validation)
+            WidgetService.PublicWidgetPayload payload = widgetService.getPublicWidgetPayload(widgetKey, requestDomain);
+            WidgetDataDto data = payload.data();
 
             // Track impression asynchronously
             try {
@@ -84,9 +85,12 @@ public class PublicWidgetController {
                         .body(jsonp);
             }
 
-            // Standard JSON response with cache headers
+            // Standard JSON response with validators - matching If-None-Match /
+            // If-Modified-Since requests are answered with 304 Not Modified
             return ResponseEntity.ok()
-                    .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                    .eTag("\"" + payload.contentHash() + "\"")
+                    .lastModified(payload.lastModified().toInstant())
+                    .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
                     .body(data);
 
         } catch (RuntimeException e) {
@@ -121,7 +125,8 @@ public class PublicWidgetController {
 
         try {
             String requestDomain = extractDomain(request);
-            WidgetDataDto data = widgetService.getPublicWidgetData(widgetKey, requestDomain);
+            WidgetService.PublicWidgetPayload payload = widgetService.getPublicWidgetPayload(widgetKey, requestDomain);
+            WidgetDataDto data = payload.data();
 
             // Return minimal data for badge rendering
             Map<String, Object> badgeData = Map.of(
@@ -136,7 +141,9 @@ public class PublicWidgetController {
             widgetService.trackImpression(widgetKey);
 
             return ResponseEntity.ok()
-                    .cacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES))
+                    .eTag("\"badge-" + payload.contentHash() + "\"")
+                    .lastModified(payload.lastModified().toInstant())
+                    .cacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES).cachePublic())
                     .body(badgeData);
 
         } catch (Exception e) {
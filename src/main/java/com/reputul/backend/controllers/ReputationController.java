@@ -3,7 +3,7 @@ package com.reputul.backend.controllers;
 import com.reputul.backend.models.Business;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.BusinessRepository;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.services.ReputationService;
 import com.reputul.backend.services.BadgeService;
 import lombok.extern.slf4j.Slf4j;
@@ -28,18 +28,18 @@ public class ReputationController {
     private final ReputationService reputationService;
     private final BadgeService badgeService;
     private final BusinessRepository businessRepository;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
 
     public ReputationController(
             ReputationService reputationService,
             BadgeService badgeService,
             BusinessRepository businessRepository,
-            UserRepository userRepository
+            UserAuthService userAuthService
     ) {
         this.reputationService = reputationService;
         this.badgeService = badgeService;
         this.businessRepository = businessRepository;
-        this.userRepository = userRepository;
+        this.userAuthService = userAuthService;
     }
 
     /**
@@ -64,7 +64,7 @@ public class ReputationController {
         try {
             // Verify user owns this business
             String email = userDetails.getUsername();
-            User user = userRepository.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             Business business = businessRepository.findByIdAndUser(businessId, user)
@@ -127,7 +127,7 @@ public class ReputationController {
     ) {
         try {
             String email = userDetails.getUsername();
-            User user = userRepository.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             List<Business> businesses = businessRepository.findByUser(user);
@@ -176,7 +176,7 @@ public class ReputationController {
         try {
             // Verify user owns this business
             String email = userDetails.getUsername();
-            User user = userRepository.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             Business business = businessRepository.findByIdAndUser(businessId, user)
@@ -220,7 +220,7 @@ public class ReputationController {
         try {
             // Verify user owns this business
             String email = userDetails.getUsername();
-            User user = userRepository.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             Business business = businessRepository.findByIdAndUser(businessId, user)
@@ -308,7 +308,7 @@ public class ReputationController {
         try {
             // Verify user owns this business (CRITICAL: tenant scoping)
             String email = userDetails.getUsername();
-            User user = userRepository.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             Business business = businessRepository.findByIdAndUser(businessId, user)
@@ -6,7 +6,7 @@ import com.reputul.backend.models.Business;
 import com.reputul.backend.models.Review;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.ReviewRepository;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.services.ClaudeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -31,7 +31,7 @@ public class ReviewAIController {
 
     private final ClaudeService claudeService; // CHANGED: From OpenAIService to ClaudeService
     private final ReviewRepository reviewRepository;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
 
     /**
      * Generate AI-powered reply for a review using Claude
@@ -44,7 +44,7 @@ public class ReviewAIController {
     ) {
         try {
             // Get current user
-            User user = userRepository.findByEmail(authentication.getName())
+            User user = userAuthService.resolveUser(authentication.getName())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Get review and verify it belongs to user's organization
@@ -1,11 +1,13 @@
 package com.reputul.backend.controllers;
 
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.auth.JwtUtil;
 import com.reputul.backend.dto.ReviewDto;
 import com.reputul.backend.integrations.GoogleMyBusinessClient;
 import com.reputul.backend.integrations.PlatformReviewClient;
 import com.reputul.backend.models.*;
 import com.reputul.backend.repositories.*;
+import com.reputul.backend.services.ReputationAggregateService;
 import com.reputul.backend.services.ReputationService;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -31,7 +33,8 @@ public class ReviewController {
     private final ReviewRepository reviewRepo;
     private final BusinessRepository businessRepo;
     private final ReputationService reputationService;
-    private final UserRepository userRepo;
+    private final ReputationAggregateService reputationAggregateService;
+    private final UserAuthService userAuthService;
     private final EmailTemplateRepository emailTemplateRepository;
     private final ChannelCredentialRepository credentialRepository;
     private final Map<ChannelCredential.PlatformType, PlatformReviewClient> platformClients;
@@ -41,7 +44,8 @@ public class ReviewController {
             ReviewRepository reviewRepo,
             BusinessRepository businessRepo,
             ReputationService reputationService,
-            UserRepository userRepo,
+            ReputationAggregateService reputationAggregateService,
+            UserAuthService userAuthService,
             EmailTemplateRepository emailTemplateRepository,
             ChannelCredentialRepository credentialRepository,
             Map<ChannelCredential.PlatformType, PlatformReviewClient> platformClients,
@@ -50,7 +54,8 @@ public class ReviewController {
         this.reviewRepo = reviewRepo;
         this.businessRepo = businessRepo;
         this.reputationService = reputationService;
-        this.userRepo = userRepo;
+        this.reputationAggregateService = reputationAggregateService;
+        this.userAuthService = userAuthService;
         this.emailTemplateRepository = emailTemplateRepository;
         this.credentialRepository = credentialRepository;
         this.platformClients = platformClients;
@@ -79,7 +84,7 @@ public class ReviewController {
             review.setBusiness(business);
             review.setCreatedAt(OffsetDateTime.now(ZoneOffset.UTC));
 
-            Review savedReview = reviewRepo.save(review);
+            Review savedReview = reputationAggregateService.saveNewReview(review);
             reputationService.updateBusinessReputationAndBadge(businessId);
 
             return ResponseEntity.ok(savedReview);
@@ -97,7 +102,7 @@ public class ReviewController {
     ) {
         try {
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // CHANGED: Use findByIdWithOrganization to eagerly load organization
@@ -130,7 +135,7 @@ public class ReviewController {
             review.setCreatedAt(OffsetDateTime.now(ZoneOffset.UTC));
             review.setSource("manual"); // Mark as manually added
 
-            Review savedReview = reviewRepo.save(review);
+            Review savedReview = reputationAggregateService.saveNewReview(review);
             reputationService.updateBusinessReputationAndBadge(business.getId());
 
             return ResponseEntity.ok(savedReview);
@@ -151,7 +156,7 @@ public class ReviewController {
         try {
             // Authentication and authorization
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // CHANGED: Use findByIdWithOrganization to eagerly load organization
@@ -225,7 +230,7 @@ public class ReviewController {
             }
 
             String email = userDetails.getUsername();
-            User user = userRepo.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // FIXED: Null-safe organization check before accessing
@@ -243,6 +248,7 @@ public class ReviewController {
 
             Long businessId = review.getBusiness().getId();
             reviewRepo.delete(review);
+            reputationAggregateService.recordReviewDeleted(review);
 
             // Update reputation after deletion
             reputationService.updateBusinessReputationAndBadge(businessId);
@@ -405,9 +411,10 @@ public class ReviewController {
             }
 
             // Save the reply to our database first
+            boolean hadResponse = review.getPlatformResponse() != null;
             review.setPlatformResponse(responseText);
             review.setPlatformResponseAt(OffsetDateTime.now(ZoneOffset.UTC));
-            review = reviewRepo.save(review);
+            review = reputationAggregateService.saveResponseChange(review, hadResponse);
 
             log.info("User {} replied to review {} (source: {})", user.getEmail(), reviewId, review.getSource());
 
@@ -465,7 +472,7 @@ public class ReviewController {
     // Helper method (add if not already present)
     private User getUserFromAuth(Authentication auth) {
         String email = auth.getName();
-        return userRepo.findByEmail(email)
+        return userAuthService.resolveUser(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 
@@ -4,8 +4,9 @@ import com.reputul.backend.dto.*;
 import com.reputul.backend.models.*;
 import com.reputul.backend.repositories.BusinessRepository;
 import com.reputul.backend.repositories.EmailTemplateRepository;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.repositories.CustomerRepository;
+import com.reputul.backend.services.BulkReviewRequestService;
 import com.reputul.backend.services.ReviewRequestService;
 import com.reputul.backend.services.EmailService;
 import com.reputul.backend.services.SmsService;
@@ -28,9 +29,10 @@ import java.util.Map;
 public class ReviewRequestController {
 
     private final ReviewRequestService reviewRequestService;
+    private final BulkReviewRequestService bulkReviewRequestService;
     private final EmailService emailService;
     private final SmsService smsService;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
     private final EmailTemplateRepository emailTemplateRepository;
     private final CustomerRepository customerRepository;
     private final BusinessRepository businessRepository;
@@ -107,28 +109,43 @@ public class ReviewRequestController {
         }
     }
 
+    /**
+     * Queue a review request to each customer and return the job to poll for progress.
+     * Sending happens in the background within the email/SMS providers' rate limits.
+     */
     @PostMapping("/bulk")
-    public ResponseEntity<List<ReviewRequestDto>> sendBulkReviewRequests(
+    public ResponseEntity<?> sendBulkReviewRequests(
             @RequestBody SendBulkReviewRequestDto request,
             Authentication authentication) {
         try {
             User user = getCurrentUser(authentication);
-            List<ReviewRequestDto> results = request.getCustomerIds().stream()
-                    .map(customerId -> {
-                        SendReviewRequestDto singleRequest = SendReviewRequestDto.builder()
-                                .customerId(customerId)
-                                .templateId(request.getTemplateId())
-                                .notes(request.getNotes())
-                                .build();
-                        return reviewRequestService.sendReviewRequestWithDefaultTemplate(user, singleRequest.getCustomerId());
-                    })
-                    .toList();
-            return ResponseEntity.ok(results);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build();
+            BulkSendChannel channel = request.getDeliveryMethod() != null
+                    ? BulkSendChannel.valueOf(request.getDeliveryMethod().toUpperCase())
+                    : BulkSendChannel.EMAIL;
+            BulkSendJobDto job = bulkReviewRequestService.enqueue(user, request.getCustomerIds(), channel,
+                    request.getSequenceId());
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/bulk/{jobId}")
+    public ResponseEntity<BulkSendJobDto> getBulkJob(@PathVariable Long jobId, Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return bulkReviewRequestService.getJob(user, jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/bulk/{jobId}/cancel")
+    public ResponseEntity<BulkSendJobDto> cancelBulkJob(@PathVariable Long jobId, Authentication authentication) {
+        User user = getCurrentUser(authentication);
+        return bulkReviewRequestService.cancel(user, jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/send-direct")
     public ResponseEntity<?> sendDirectReviewRequest(
             @RequestBody Map<String, Object> request,
@@ -506,7 +523,7 @@ public class ReviewRequestController {
 
     private User getCurrentUser(Authentication authentication) {
         String email = authentication.getName();
-        return userRepository.findByEmail(email)
+        return userAuthService.resolveUser(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
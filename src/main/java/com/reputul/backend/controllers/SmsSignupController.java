@@ -86,19 +86,20 @@ public class SmsSignupController {
             // Find or create business and user
             Business business = findOrCreateBusinessForSignup(request.getBusinessName());
 
-            // Create new customer record
-            Customer customer = Customer.builder()
-                    .name(request.getName())
-                    .phone(cleanPhone)
-                    .email(generatePlaceholderEmail(cleanPhone))
-                    .serviceDate(LocalDate.now())
-                    .serviceType(request.getServiceType())
-                    .status(Customer.CustomerStatus.COMPLETED)
-                    .business(business)
-                    .user(business.getUser())
-                    .smsOptIn(false)
-                    .smsOptOut(false)
-                    .build();
+            // Create new customer record, unless the business already has this number in another format
+            Customer customer = customerRepository.findByBusinessAndPhoneAnyFormat(business.getId(), cleanPhone)
+                    .orElseGet(() -> Customer.builder()
+                            .name(request.getName())
+                            .phone(cleanPhone)
+                            .email(generatePlaceholderEmail(cleanPhone))
+                            .serviceDate(LocalDate.now())
+                            .serviceType(request.getServiceType())
+                            .status(Customer.CustomerStatus.COMPLETED)
+                            .business(business)
+                            .user(business.getUser())
+                            .smsOptIn(false)
+                            .smsOptOut(false)
+                            .build());
 
             customer = customerRepository.save(customer);
 
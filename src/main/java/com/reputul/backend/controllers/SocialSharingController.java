@@ -1,5 +1,6 @@
 package com.reputul.backend.controllers;
 
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.models.*;
 import com.reputul.backend.repositories.*;
 import lombok.extern.slf4j.Slf4j;
@@ -24,20 +25,20 @@ public class SocialSharingController {
     private final ReviewRepository reviewRepository;
     private final BusinessRepository businessRepository;
     private final ChannelCredentialRepository credentialRepository;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
     private final RestTemplate restTemplate;
 
     public SocialSharingController(
             ReviewRepository reviewRepository,
             BusinessRepository businessRepository,
             ChannelCredentialRepository credentialRepository,
-            UserRepository userRepository,
+            UserAuthService userAuthService,
             RestTemplate restTemplate) {
 
         this.reviewRepository = reviewRepository;
         this.businessRepository = businessRepository;
         this.credentialRepository = credentialRepository;
-        this.userRepository = userRepository;
+        this.userAuthService = userAuthService;
         this.restTemplate = restTemplate;
     }
 
@@ -194,7 +195,7 @@ public class SocialSharingController {
     // Helper method
     private User getUserFromAuth(Authentication auth) {
         String email = auth.getName();
-        return userRepository.findByEmail(email)
+        return userAuthService.resolveUser(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 }
\ No newline at end of file
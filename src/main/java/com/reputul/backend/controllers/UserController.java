@@ -1,5 +1,6 @@
 package com.reputul.backend.controllers;
 
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.dto.UserProfileDto;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.UserRepository;
@@ -18,12 +19,14 @@ import java.util.List;
 public class UserController {
 
     private final UserRepository userRepo;
+    private final UserAuthService userAuthService;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    public UserController(UserRepository userRepo) {
+    public UserController(UserRepository userRepo, UserAuthService userAuthService) {
         this.userRepo = userRepo;
+        this.userAuthService = userAuthService;
     }
 
     // Create user (for manual testing or seeding)
@@ -42,7 +45,7 @@ public class UserController {
     // ✅ GET /api/users/profile
     @GetMapping("/profile")
     public ResponseEntity<?> getProfile(@AuthenticationPrincipal UserDetails userDetails) {
-        return userRepo.findByEmail(userDetails.getUsername())
+        return userAuthService.resolveUser(userDetails.getUsername())
                 .map(user -> {
                     UserProfileDto response = new UserProfileDto(
                             user.getId(),
@@ -2,15 +2,18 @@ package com.reputul.backend.controllers;
 
 import com.reputul.backend.models.Subscription;
 import com.reputul.backend.services.StripeService;
+import com.reputul.backend.services.WebhookIdempotencyService;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Event;
 import com.stripe.model.StripeObject;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.Map;
 
 /**
@@ -26,10 +29,20 @@ import java.util.Map;
 @Slf4j
 public class WebhookController {
 
+    private static final String IDEMPOTENCY_SCOPE = "stripe";
+
     private final StripeService stripeService;
+    private final WebhookIdempotencyService webhookIdempotencyService;
+
+    // Stripe retries an undelivered event for up to 3 days
+    private final Duration eventIdempotencyTtl;
 
-    public WebhookController(StripeService stripeService) {
+    public WebhookController(StripeService stripeService,
+                             WebhookIdempotencyService webhookIdempotencyService,
+                             @Value("${app.webhooks.idempotency.stripe-ttl:72h}") Duration eventIdempotencyTtl) {
         this.stripeService = stripeService;
+        this.webhookIdempotencyService = webhookIdempotencyService;
+        this.eventIdempotencyTtl = eventIdempotencyTtl;
     }
 
     /**
@@ -70,8 +83,11 @@ public class WebhookController {
                     .body(Map.of("error", "Webhook verification failed"));
         }
 
-        // Check for duplicate events (basic idempotency)
-        if (stripeService.isEventProcessed(event.getId())) {
+        // Claim the event so only one delivery, on any node, processes it
+        WebhookIdempotencyService.Claim claim = webhookIdempotencyService.claim(
+                IDEMPOTENCY_SCOPE, event.getId(), null, eventIdempotencyTtl);
+
+        if (claim.state() == WebhookIdempotencyService.State.COMPLETED) {
             log.info("Event {} already processed, skipping", event.getId());
             return ResponseEntity.ok(Map.of(
                     "received", true,
@@ -81,6 +97,16 @@ public class WebhookController {
             ));
         }
 
+        if (!claim.isAcquired()) {
+            // Non-2xx so Stripe redelivers; by then the first delivery has finished or been released
+            log.info("Event {} is being processed by another delivery", event.getId());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", "Event is already being processed",
+                    "eventType", event.getType(),
+                    "eventId", event.getId()
+            ));
+        }
+
         // Process the event based on type
         try {
             // Compatible approach for accessing event data across Stripe library versions
@@ -88,6 +114,7 @@ public class WebhookController {
 
             if (stripeObject == null) {
                 log.warn("Could not extract event data for event {} of type {}", event.getId(), event.getType());
+                webhookIdempotencyService.release(claim);
                 return ResponseEntity.badRequest().body(Map.of("error", "Could not extract event data"));
             }
 
@@ -122,7 +149,7 @@ public class WebhookController {
             }
 
             // Mark event as processed
-            stripeService.markEventAsProcessed(event.getId());
+            webhookIdempotencyService.complete(claim, HttpStatus.OK.value(), null);
 
             log.info("Successfully processed webhook event: {} (ID: {})",
                     event.getType(), event.getId());
@@ -137,6 +164,7 @@ public class WebhookController {
         } catch (Exception e) {
             log.error("Error processing webhook event {} (ID: {}): {}",
                     event.getType(), event.getId(), e.getMessage(), e);
+            webhookIdempotencyService.release(claim);
 
             // Return 500 so Stripe will retry the webhook
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
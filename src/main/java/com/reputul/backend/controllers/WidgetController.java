@@ -2,7 +2,7 @@ package com.reputul.backend.controllers;
 
 import com.reputul.backend.dto.WidgetDtos.*;
 import com.reputul.backend.models.User;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.services.WidgetService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -41,7 +41,7 @@ import java.util.Map;
 public class WidgetController {
 
     private final WidgetService widgetService;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
 
     // ================================================================
     // WIDGET CRUD ENDPOINTS
@@ -297,7 +297,7 @@ public class WidgetController {
     // ================================================================
 
     private User getCurrentUser(UserDetails userDetails) {
-        return userRepository.findByEmail(userDetails.getUsername())
+        return userAuthService.resolveUser(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
\ No newline at end of file
@@ -11,7 +11,7 @@ import com.reputul.backend.models.ReviewRequest;
 import com.reputul.backend.models.campaign.CampaignSequence;
 import com.reputul.backend.models.campaign.CampaignExecution;
 import com.reputul.backend.models.campaign.CampaignStep;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.repositories.ReviewRequestRepository;
 import com.reputul.backend.services.campaign.CampaignSequenceService;
 import com.reputul.backend.services.campaign.CampaignExecutionService;
@@ -39,7 +39,7 @@ public class CampaignController {
 
     private final CampaignSequenceService sequenceService;
     private final CampaignExecutionService executionService;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
     private final ReviewRequestRepository reviewRequestRepository;
 
     // ================================
@@ -375,7 +375,7 @@ public class CampaignController {
     ) {
         try {
             String email = userDetails.getUsername();
-            User user = userRepository.findByEmail(email)
+            User user = userAuthService.resolveUser(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // TODO: Implement actual analytics logic
@@ -401,7 +401,7 @@ public class CampaignController {
     // ================================
 
     private User getCurrentUser(Authentication authentication) {
-        return userRepository.findByEmail(authentication.getName())
+        return userAuthService.resolveUser(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
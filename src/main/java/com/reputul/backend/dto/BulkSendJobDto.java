@@ -0,0 +1,35 @@
+package com.reputul.backend.dto;
+
+import com.reputul.backend.models.BulkSendChannel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Progress of a bulk review request job; poll GET /api/v1/review-requests/bulk/{id}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSendJobDto {
+
+    private Long id;
+    private BulkSendChannel channel;
+    private String status; // QUEUED, RUNNING, COMPLETED or CANCELLED
+    private int total;
+
+    // Recipients by outcome; pending includes those being sent right now
+    private int pending;
+    private int sent;
+    private int failed;
+    private int skipped;
+    private int cancelled;
+    private double percentComplete;
+
+    private OffsetDateTime createdAt;
+    private OffsetDateTime completedAt;
+}
@@ -0,0 +1,20 @@
+package com.reputul.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results. Pass nextCursor back as cursor for the next page;
+ * it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPageDto<T> {
+
+    private List<T> items;
+    private String nextCursor;
+}
@@ -15,7 +15,8 @@ public class SendBulkReviewRequestDto {
 
     private List<Long> customerIds;
     private Long templateId;
-    private String deliveryMethod; // EMAIL or SMS
+    private String deliveryMethod; // EMAIL, SMS or CAMPAIGN
+    private Long sequenceId; // CAMPAIGN only; null starts the default campaign
     private String notes;
     private String customMessage;
 }
\ No newline at end of file
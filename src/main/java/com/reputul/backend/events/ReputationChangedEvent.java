@@ -0,0 +1,8 @@
+package com.reputul.backend.events;
+
+/**
+ * Published whenever a business's reviews or reputation scores change.
+ * Listeners use it to invalidate derived data (e.g. cached widget payloads).
+ */
+public record ReputationChangedEvent(Long businessId) {
+}
@@ -0,0 +1,44 @@
+package com.reputul.backend.integrations;
+
+import java.util.List;
+
+/**
+ * Interface for the outbound email provider (Resend in production, a local fake in tests)
+ */
+public interface EmailProvider {
+
+    /**
+     * Provider name for logs and metrics
+     */
+    String getName();
+
+    /**
+     * Whether the provider is configured to send
+     */
+    boolean isEnabled();
+
+    /**
+     * Most emails accepted by one sendBatch call
+     */
+    int getMaxBatchSize();
+
+    /**
+     * Send one email
+     * @return provider message ID
+     */
+    String send(OutboundEmail email) throws EmailProviderException;
+
+    /**
+     * Send up to getMaxBatchSize() emails in one API call. The batch is accepted or
+     * rejected as a whole; a batch rejected because one of its emails is invalid throws
+     * a permanent EmailProviderException.
+     * @return provider message IDs, in the order of emails
+     */
+    List<String> sendBatch(List<OutboundEmail> emails) throws EmailProviderException;
+
+    /**
+     * A fully rendered email, ready to hand to the provider
+     */
+    record OutboundEmail(String from, String to, String subject, String html) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.reputul.backend.integrations;
+
+public class EmailProviderException extends Exception {
+
+    /**
+     * The provider refused the request as invalid (e.g. a malformed address), so sending
+     * the same request again won't help
+     */
+    private final boolean permanent;
+
+    public EmailProviderException(String message) {
+        this(message, false, null);
+    }
+
+    public EmailProviderException(String message, Throwable cause) {
+        this(message, false, cause);
+    }
+
+    public EmailProviderException(String message, boolean permanent, Throwable cause) {
+        super(message, cause);
+        this.permanent = permanent;
+    }
+
+    public boolean isPermanent() {
+        return permanent;
+    }
+}
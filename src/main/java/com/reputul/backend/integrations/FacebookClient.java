@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reputul.backend.exceptions.TokenExpiredException;
 import com.reputul.backend.models.ChannelCredential;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -46,7 +47,7 @@ public class FacebookClient implements PlatformReviewClient {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
 
-    public FacebookClient(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public FacebookClient(@Qualifier("facebookRestTemplate") RestTemplate restTemplate, ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
     }
@@ -3,6 +3,7 @@ package com.reputul.backend.integrations;
 import com.reputul.backend.exceptions.TokenExpiredException;
 import com.reputul.backend.models.ChannelCredential;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -44,7 +45,7 @@ public class GoogleMyBusinessClient implements PlatformReviewClient {
 
     private final RestTemplate restTemplate;
 
-    public GoogleMyBusinessClient(RestTemplate restTemplate) {
+    public GoogleMyBusinessClient(@Qualifier("googleRestTemplate") RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
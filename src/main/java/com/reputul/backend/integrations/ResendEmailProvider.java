@@ -0,0 +1,118 @@
+package com.reputul.backend.integrations;
+
+import com.resend.Resend;
+import com.resend.core.exception.ResendException;
+import com.resend.services.batch.model.CreateBatchEmailsResponse;
+import com.resend.services.emails.model.CreateEmailOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Resend email integration
+ *
+ * Single emails go through the emails endpoint, batches of up to 100 through the batch
+ * endpoint, which counts as one request against the team's rate limit.
+ * https://resend.com/docs/api-reference/emails/send-batch-emails
+ */
+@Service
+@Slf4j
+public class ResendEmailProvider implements EmailProvider {
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final Resend resend;
+    private final boolean enabled;
+
+    public ResendEmailProvider(
+            @Value("${resend.api-key:}") String apiKey,
+            @Value("${resend.enabled:true}") boolean enabledConfig) {
+
+        boolean hasValidKey = apiKey != null && !apiKey.isEmpty() && apiKey.startsWith("re_");
+        this.enabled = enabledConfig && hasValidKey;
+
+        if (this.enabled) {
+            this.resend = new Resend(apiKey);
+            log.info("✅ Resend email service initialized");
+        } else {
+            this.resend = null;
+            if (!hasValidKey) {
+                log.warn("⚠️ Resend API key not configured or invalid - emails will not be sent");
+                log.warn("   Set RESEND_API_KEY environment variable with your Resend API key (starts with 're_')");
+            } else {
+                log.warn("⚠️ Resend is disabled via configuration");
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Resend";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public String send(OutboundEmail email) throws EmailProviderException {
+        requireEnabled();
+        try {
+            return resend.emails().send(toOptions(email)).getId();
+        } catch (ResendException e) {
+            throw providerError(e);
+        }
+    }
+
+    @Override
+    public List<String> sendBatch(List<OutboundEmail> emails) throws EmailProviderException {
+        if (emails.size() == 1) {
+            return List.of(send(emails.get(0)));
+        }
+        requireEnabled();
+        if (emails.size() > MAX_BATCH_SIZE) {
+            throw new EmailProviderException("Resend batch is limited to " + MAX_BATCH_SIZE + " emails");
+        }
+
+        try {
+            List<CreateEmailOptions> options = emails.stream().map(ResendEmailProvider::toOptions).toList();
+            CreateBatchEmailsResponse response = resend.batch().send(options);
+            return response.getData().stream().map(sent -> sent.getId()).toList();
+        } catch (ResendException e) {
+            throw providerError(e);
+        }
+    }
+
+    /**
+     * 400 and 422 are validation errors: the request is refused as sent. Rate limits (429),
+     * auth and server errors are worth retrying.
+     */
+    private static EmailProviderException providerError(ResendException e) {
+        Integer status = e.getStatusCode();
+        boolean permanent = status != null && (status == 400 || status == 422);
+        return new EmailProviderException("Resend API error: " + e.getMessage(), permanent, e);
+    }
+
+    private void requireEnabled() throws EmailProviderException {
+        if (!enabled) {
+            throw new EmailProviderException("Resend service is disabled - set RESEND_API_KEY");
+        }
+    }
+
+    private static CreateEmailOptions toOptions(OutboundEmail email) {
+        return CreateEmailOptions.builder()
+                .from(email.from())
+                .to(email.to())
+                .subject(email.subject())
+                .html(email.html())
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.reputul.backend.models;
+
+/**
+ * How a bulk review request job reaches its recipients. Each channel is dispatched in its
+ * own lane with the budget of the provider behind it (see BulkSendProperties).
+ */
+public enum BulkSendChannel {
+    /** Default template email through Resend */
+    EMAIL,
+    /** Compliance SMS through Twilio */
+    SMS,
+    /** Review request created and handed to a campaign sequence, which does the sending */
+    CAMPAIGN
+}
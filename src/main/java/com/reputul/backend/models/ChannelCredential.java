@@ -68,6 +68,13 @@ public class ChannelCredential {
     @Column(name = "next_sync_scheduled")
     private OffsetDateTime nextSyncScheduled;
 
+    // Sync lease - written only by ChannelCredentialLeaseRepository
+    @Column(name = "sync_claimed_by", length = 100, insertable = false, updatable = false)
+    private String syncClaimedBy;
+
+    @Column(name = "sync_lease_expires_at", insertable = false, updatable = false)
+    private OffsetDateTime syncLeaseExpiresAt;
+
     // Audit fields
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
@@ -1,5 +1,6 @@
 package com.reputul.backend.models;
 
+import com.reputul.backend.util.PhoneNormalizer;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +10,7 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Objects;
 
 @Entity
 @Table(name = "customers")
@@ -30,6 +32,14 @@ public class Customer {
 
     private String phone;
 
+    /**
+     * phone in E.164, set on insert and whenever phone changes; inbound SMS and opt-out
+     * lookups match on this. V041 leaves it NULL on older duplicates of a number within a
+     * business, and saves that don't touch phone leave it that way.
+     */
+    @Column(name = "phone_e164", length = 20)
+    private String phoneE164;
+
     @Column(name = "service_date", nullable = false)
     private LocalDate serviceDate;
 
@@ -127,6 +137,7 @@ public class Customer {
     protected void onCreate() {
         createdAt = OffsetDateTime.now();
         updatedAt = OffsetDateTime.now();
+        phoneE164 = PhoneNormalizer.toE164(phone);
         if (feedbackCount == null) {
             feedbackCount = 0;
         }
@@ -155,6 +166,13 @@ public class Customer {
         updatedAt = OffsetDateTime.now();
     }
 
+    public void setPhone(String phone) {
+        if (!Objects.equals(this.phone, phone)) {
+            this.phone = phone;
+            this.phoneE164 = PhoneNormalizer.toE164(phone);
+        }
+    }
+
     // SMS Compliance Methods
     public boolean canReceiveSms() {
         return phone != null &&
@@ -30,6 +30,9 @@ public class ImportJob {
     @Column(name = "total_rows")
     private Integer totalRows = 0;
 
+    @Column(name = "processed_rows")
+    private Integer processedRows = 0;
+
     @Column(name = "inserted_count")
     private Integer insertedCount = 0;
 
@@ -56,7 +59,7 @@ public class ImportJob {
     private List<Map<String, Object>> errorDetails;
 
     public enum Status {
-        PENDING, COMPLETED, FAILED
+        PENDING, RUNNING, COMPLETED, FAILED
     }
 
     public ImportJob() {}
@@ -129,6 +132,9 @@ public class ImportJob {
     public Integer getTotalRows() { return totalRows; }
     public void setTotalRows(Integer totalRows) { this.totalRows = totalRows; }
 
+    public Integer getProcessedRows() { return processedRows; }
+    public void setProcessedRows(Integer processedRows) { this.processedRows = processedRows; }
+
     public Integer getInsertedCount() { return insertedCount; }
     public void setInsertedCount(Integer insertedCount) { this.insertedCount = insertedCount; }
 
@@ -1,5 +1,6 @@
 package com.reputul.backend.models;
 
+import com.reputul.backend.auth.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
@@ -25,6 +26,7 @@ import java.util.Map;
 @Builder
 @EqualsAndHashCode(exclude = {"users", "businesses", "usageRecords"})
 @ToString(exclude = {"users", "businesses", "usageRecords"})
+@EntityListeners(UserCacheEvictionListener.class)
 public class Organization {
 
     @Id
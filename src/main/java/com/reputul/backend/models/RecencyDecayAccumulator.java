@@ -0,0 +1,120 @@
+package com.reputul.backend.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Exponentially decayed review sums shared by Wilson scoring and reputation scoring.
+ *
+ * A review created on UTC epoch day d has weight exp(-lambda * (today - d)). Because the
+ * decay is exponential, sums stored at {@code anchorDay} are moved to a later day by
+ * multiplying with a single factor exp(-lambda * delta), so the accumulator can be
+ * advanced lazily instead of re-weighting every review on each call.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecencyDecayAccumulator {
+
+    // Recency weight: ~180 day half-life (ln(2)/180)
+    public static final double RECENCY_LAMBDA = 0.00385;
+
+    @Builder.Default
+    @Column(name = "decay_anchor_day", nullable = false)
+    private Long anchorDay = 0L;
+
+    @Builder.Default
+    @Column(name = "decayed_weight_sum", nullable = false)
+    private Double weightSum = 0.0;
+
+    @Builder.Default
+    @Column(name = "decayed_rating_sum", nullable = false)
+    private Double ratingSum = 0.0;
+
+    @Builder.Default
+    @Column(name = "decayed_positive_sum", nullable = false)
+    private Double positiveSum = 0.0;
+
+    public static RecencyDecayAccumulator anchoredAt(long epochDay) {
+        return RecencyDecayAccumulator.builder().anchorDay(epochDay).build();
+    }
+
+    /**
+     * Recency weight of a review that is {@code ageDays} whole days old
+     */
+    public static double weight(long ageDays) {
+        return Math.exp(-RECENCY_LAMBDA * ageDays);
+    }
+
+    public static long epochDay(OffsetDateTime dateTime) {
+        return dateTime.atZoneSameInstant(ZoneOffset.UTC).toLocalDate().toEpochDay();
+    }
+
+    public static long today() {
+        return epochDay(OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Add (sign = 1) or remove (sign = -1) a review created on the given epoch day.
+     * The anchor is first moved to {@code max(anchorDay, reviewDay)} so weights never exceed 1.
+     */
+    public void add(long reviewDay, int rating, int sign) {
+        advanceTo(reviewDay);
+        double weight = weight(anchorDay - reviewDay);
+        weightSum = clamp(weightSum + sign * weight);
+        ratingSum = clamp(ratingSum + sign * weight * rating);
+        if (rating >= 4) {
+            positiveSum = clamp(positiveSum + sign * weight);
+        }
+    }
+
+    /**
+     * Move the anchor forward, rescaling all sums by exp(-lambda * days)
+     */
+    public void advanceTo(long epochDay) {
+        if (epochDay <= anchorDay) {
+            return;
+        }
+        double factor = factor(epochDay);
+        weightSum *= factor;
+        ratingSum *= factor;
+        positiveSum *= factor;
+        anchorDay = epochDay;
+    }
+
+    /**
+     * Factor converting the stored sums to their value on the given day
+     */
+    public double factor(long epochDay) {
+        return weight(epochDay - anchorDay);
+    }
+
+    public double weightSumAt(long epochDay) {
+        return weightSum * factor(epochDay);
+    }
+
+    public double ratingSumAt(long epochDay) {
+        return ratingSum * factor(epochDay);
+    }
+
+    public double positiveSumAt(long epochDay) {
+        return positiveSum * factor(epochDay);
+    }
+
+    public void reset() {
+        weightSum = 0.0;
+        ratingSum = 0.0;
+        positiveSum = 0.0;
+    }
+
+    // Guards against tiny negative residue from floating point subtraction
+    private static double clamp(double value) {
+        return Math.max(0.0, value);
+    }
+}
@@ -0,0 +1,111 @@
+package com.reputul.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Running review totals for a business, maintained incrementally on review writes
+ * so reputation scoring never has to reload the full review history.
+ *
+ * Recency-decayed sums live in the embedded {@link RecencyDecayAccumulator}.
+ */
+@Entity
+@Table(name = "reputation_aggregates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReputationAggregate {
+
+    @Id
+    @Column(name = "business_id")
+    private Long businessId;
+
+    @Builder.Default
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_1_count", nullable = false)
+    private Long rating1Count = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_2_count", nullable = false)
+    private Long rating2Count = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_3_count", nullable = false)
+    private Long rating3Count = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_4_count", nullable = false)
+    private Long rating4Count = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_5_count", nullable = false)
+    private Long rating5Count = 0L;
+
+    @Builder.Default
+    @Column(name = "responded_count", nullable = false)
+    private Long respondedCount = 0L;
+
+    @Embedded
+    @Builder.Default
+    private RecencyDecayAccumulator decay = new RecencyDecayAccumulator();
+
+    @Column(name = "last_review_at")
+    private OffsetDateTime lastReviewAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = OffsetDateTime.now(ZoneOffset.UTC);
+    }
+
+    /**
+     * Add (sign = 1) or remove (sign = -1) a review from the running totals
+     */
+    public void apply(Review review, int sign) {
+        OffsetDateTime createdAt = review.getCreatedAt() != null
+                ? review.getCreatedAt() : OffsetDateTime.now(ZoneOffset.UTC);
+        int rating = review.getRating();
+
+        reviewCount += sign;
+        ratingSum += (long) sign * rating;
+        switch (rating) {
+            case 1 -> rating1Count += sign;
+            case 2 -> rating2Count += sign;
+            case 3 -> rating3Count += sign;
+            case 4 -> rating4Count += sign;
+            case 5 -> rating5Count += sign;
+            default -> { }
+        }
+        if (review.getPlatformResponse() != null) {
+            respondedCount += sign;
+        }
+
+        decay.advanceTo(RecencyDecayAccumulator.today());
+        decay.add(RecencyDecayAccumulator.epochDay(createdAt), rating, sign);
+
+        if (sign > 0 && (lastReviewAt == null || createdAt.isAfter(lastReviewAt))) {
+            lastReviewAt = createdAt;
+        }
+        if (reviewCount <= 0) {
+            decay.reset();
+        }
+    }
+
+    public long getPositiveCount() {
+        return rating4Count + rating5Count;
+    }
+}
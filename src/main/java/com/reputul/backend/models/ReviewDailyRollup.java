@@ -0,0 +1,85 @@
+package com.reputul.backend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Review totals for one business, UTC day and source.
+ * Maintained by ReviewDailyRollupService on review writes and reconciled nightly.
+ */
+@Entity
+@Table(name = "review_daily_rollups")
+@IdClass(ReviewDailyRollup.RollupId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReviewDailyRollup {
+
+    @Id
+    @Column(name = "business_id")
+    private Long businessId;
+
+    @Id
+    @Column(name = "review_date")
+    private LocalDate reviewDate;
+
+    @Id
+    @Column(name = "source", length = 50)
+    private String source;
+
+    @Builder.Default
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_1_count", nullable = false)
+    private Long rating1Count = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_2_count", nullable = false)
+    private Long rating2Count = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_3_count", nullable = false)
+    private Long rating3Count = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_4_count", nullable = false)
+    private Long rating4Count = 0L;
+
+    @Builder.Default
+    @Column(name = "rating_5_count", nullable = false)
+    private Long rating5Count = 0L;
+
+    @Builder.Default
+    @Column(name = "responded_count", nullable = false)
+    private Long respondedCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = OffsetDateTime.now(ZoneOffset.UTC);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RollupId implements Serializable {
+        private Long businessId;
+        private LocalDate reviewDate;
+        private String source;
+    }
+}
@@ -1,5 +1,6 @@
 package com.reputul.backend.models;
 
+import com.reputul.backend.auth.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -15,6 +16,7 @@ import java.time.OffsetDateTime;
 @AllArgsConstructor
 @Builder
 @ToString(exclude = {"organization"})
+@EntityListeners(UserCacheEvictionListener.class)
 public class User {
 
     @Id
@@ -265,6 +265,14 @@ public class WidgetConfiguration {
      * Check if a domain is allowed to load this widget
      */
     public boolean isDomainAllowed(String domain) {
+        return isDomainAllowed(allowedDomains, domain);
+    }
+
+    /**
+     * Check a domain against a comma-separated allow list (null/blank allows all).
+     * Static so cached widget payloads can be checked without the entity.
+     */
+    public static boolean isDomainAllowed(String allowedDomains, String domain) {
         if (allowedDomains == null || allowedDomains.isBlank()) {
             return true; // All domains allowed if not specified
         }
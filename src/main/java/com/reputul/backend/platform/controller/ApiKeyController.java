@@ -5,7 +5,7 @@ import com.reputul.backend.platform.dto.integration.ApiKeyResponse;
 import com.reputul.backend.platform.dto.integration.CreateApiKeyRequest;
 import com.reputul.backend.platform.dto.integration.CreateApiKeyResponse;
 import com.reputul.backend.platform.service.ApiKeyService;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -28,11 +28,11 @@ import java.util.UUID;
 public class ApiKeyController {
 
     private final ApiKeyService apiKeyService;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
 
-    public ApiKeyController(ApiKeyService apiKeyService, UserRepository userRepository) {
+    public ApiKeyController(ApiKeyService apiKeyService, UserAuthService userAuthService) {
         this.apiKeyService = apiKeyService;
-        this.userRepository = userRepository;
+        this.userAuthService = userAuthService;
     }
 
     /**
@@ -146,7 +146,7 @@ public class ApiKeyController {
      * Helper method to get User entity from UserDetails
      */
     private User getUserFromDetails(UserDetails userDetails) {
-        return userRepository.findByEmail(userDetails.getUsername())
+        return userAuthService.resolveUser(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import com.reputul.backend.platform.dto.integration.ZapierWebhookResponse;
 import com.reputul.backend.platform.service.ApiKeyService;
 import com.reputul.backend.platform.service.ZapierWebhookService;
 import com.reputul.backend.repositories.ReviewRepository;
+import com.reputul.backend.services.WebhookIdempotencyService;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Refill;
@@ -24,6 +25,7 @@ import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Webhook controller for Zapier integrations
@@ -85,30 +87,8 @@ public class ZapierWebhookController {
                     ));
         }
 
-        // Check idempotency
-        Optional<ZapierWebhookResponse> cachedResponse = zapierWebhookService.checkIdempotency(
-                idempotencyKey,
-                "/api/v1/integrations/zapier/contacts"
-        );
-        if (cachedResponse.isPresent()) {
-            log.info("Returning cached response for idempotency key: {}", idempotencyKey);
-            return ResponseEntity.ok(cachedResponse.get());
-        }
-
-        // Process request
-        ZapierWebhookResponse response = zapierWebhookService.createContact(organizationId.get(), request);
-
-        // Store idempotency key
-        zapierWebhookService.storeIdempotencyKey(
-                idempotencyKey,
-                "/api/v1/integrations/zapier/contacts",
-                organizationId.get(),
-                response,
-                response.isSuccess() ? 200 : 400
-        );
-
-        HttpStatus status = response.isSuccess() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
-        return ResponseEntity.status(status).body(response);
+        return processIdempotently(idempotencyKey, "/api/v1/integrations/zapier/contacts", organizationId.get(),
+                () -> zapierWebhookService.createContact(organizationId.get(), request));
     }
 
     /**
@@ -144,29 +124,56 @@ public class ZapierWebhookController {
                     ));
         }
 
+        return processIdempotently(idempotencyKey, "/api/v1/integrations/zapier/review-requests", organizationId.get(),
+                () -> zapierWebhookService.createReviewRequest(organizationId.get(), request));
+    }
+
+    /**
+     * Run a webhook once per Idempotency-Key: repeats get the first response back with its
+     * status, and a repeat arriving while the first is still running gets 409
+     */
+    private ResponseEntity<ZapierWebhookResponse> processIdempotently(
+            String idempotencyKey, String requestPath, Long organizationId,
+            Supplier<ZapierWebhookResponse> handler) {
+
         // Check idempotency
-        Optional<ZapierWebhookResponse> cachedResponse = zapierWebhookService.checkIdempotency(
-                idempotencyKey,
-                "/api/v1/integrations/zapier/review-requests"
-        );
-        if (cachedResponse.isPresent()) {
+        WebhookIdempotencyService.Claim claim =
+                zapierWebhookService.claimIdempotencyKey(idempotencyKey, requestPath, organizationId);
+        if (claim != null && claim.state() == WebhookIdempotencyService.State.COMPLETED) {
             log.info("Returning cached response for idempotency key: {}", idempotencyKey);
-            return ResponseEntity.ok(cachedResponse.get());
+            Optional<ZapierWebhookResponse> cachedResponse = zapierWebhookService.getStoredResponse(claim);
+            if (cachedResponse.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(ZapierWebhookResponse.error(
+                                "IDEMPOTENCY_REPLAY_FAILED",
+                                "A request with this Idempotency-Key was already processed"
+                        ));
+            }
+            int cachedStatus = claim.responseStatus() != null ? claim.responseStatus() : HttpStatus.OK.value();
+            return ResponseEntity.status(cachedStatus).body(cachedResponse.get());
+        }
+        if (claim != null && !claim.isAcquired()) {
+            log.info("Request with idempotency key {} is still being processed", idempotencyKey);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ZapierWebhookResponse.error(
+                            "REQUEST_IN_PROGRESS",
+                            "A request with this Idempotency-Key is still being processed. Retry shortly."
+                    ));
         }
 
         // Process request
-        ZapierWebhookResponse response = zapierWebhookService.createReviewRequest(organizationId.get(), request);
+        ZapierWebhookResponse response;
+        try {
+            response = handler.get();
+        } catch (RuntimeException e) {
+            zapierWebhookService.releaseIdempotencyKey(claim);
+            throw e;
+        }
 
         // Store idempotency key
-        zapierWebhookService.storeIdempotencyKey(
-                idempotencyKey,
-                "/api/v1/integrations/zapier/review-requests",
-                organizationId.get(),
-                response,
-                response.isSuccess() ? 200 : 400
-        );
-
         HttpStatus status = response.isSuccess() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        zapierWebhookService.storeIdempotencyKey(claim, response, status.value());
+
         return ResponseEntity.status(status).body(response);
     }
 
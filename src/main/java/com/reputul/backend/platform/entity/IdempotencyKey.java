@@ -1,47 +0,0 @@
-package com.reputul.backend.platform.entity;
-
-import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.time.LocalDateTime;
-
-@Entity
-@Table(name = "idempotency_keys")
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
-public class IdempotencyKey {
-
-    @Id
-    @Column(name = "key", length = 255)
-    private String key;
-
-    @Column(name = "organization_id", nullable = false)
-    private Long organizationId;
-
-    @Column(name = "request_path", nullable = false, length = 500)
-    private String requestPath;
-
-    @Column(name = "response_status", nullable = false)
-    private Integer responseStatus;
-
-    @Column(name = "response_body", nullable = false, columnDefinition = "TEXT")
-    private String responseBody;
-
-    @Column(name = "created_at", nullable = false)
-    private LocalDateTime createdAt;
-
-    @Column(name = "expires_at", nullable = false)
-    private LocalDateTime expiresAt;
-
-    @PrePersist
-    protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        // 24-hour expiry
-        expiresAt = createdAt.plusHours(24);
-    }
-}
\ No newline at end of file
@@ -2,10 +2,12 @@ package com.reputul.backend.platform.repository;
 
 import com.reputul.backend.platform.entity.ApiKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,6 +26,19 @@ public interface ApiKeyRepository extends JpaRepository<ApiKey, UUID> {
     @Query("SELECT a FROM ApiKey a WHERE a.organizationId = :organizationId AND a.revokedAt IS NULL ORDER BY a.createdAt DESC")
     List<ApiKey> findActiveByOrganizationId(@Param("organizationId") Long organizationId);
 
+    /**
+     * Find active API keys by their display prefix (indexed, for authentication)
+     */
+    List<ApiKey> findByKeyPrefixAndRevokedAtIsNull(String keyPrefix);
+
+    /**
+     * Record last use without loading the entity
+     */
+    @Modifying
+    @Query("UPDATE ApiKey a SET a.lastUsedAt = :lastUsedAt WHERE a.id = :id " +
+            "AND (a.lastUsedAt IS NULL OR a.lastUsedAt < :lastUsedAt)")
+    int updateLastUsedAt(@Param("id") UUID id, @Param("lastUsedAt") LocalDateTime lastUsedAt);
+
     /**
      * Find API key by hash (for authentication)
      */
@@ -1,21 +1,31 @@
 package com.reputul.backend.platform.service;
 
+import com.reputul.backend.config.CacheConfig;
 import com.reputul.backend.platform.dto.integration.ApiKeyResponse;
 import com.reputul.backend.platform.dto.integration.CreateApiKeyRequest;
 import com.reputul.backend.platform.dto.integration.CreateApiKeyResponse;
 import com.reputul.backend.platform.entity.ApiKey;
 import com.reputul.backend.platform.repository.ApiKeyRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,13 +34,19 @@ public class ApiKeyService {
 
     private final ApiKeyRepository apiKeyRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheManager cacheManager;
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
     private static final int KEY_LENGTH_BYTES = 32; // 256 bits
     private static final String KEY_PREFIX = "rpt_live_";
+    private static final int DISPLAY_PREFIX_LENGTH = 20;
 
-    public ApiKeyService(ApiKeyRepository apiKeyRepository, PasswordEncoder passwordEncoder) {
+    // Latest use per key, written to the database by flushLastUsed()
+    private final Map<UUID, LocalDateTime> pendingLastUsed = new ConcurrentHashMap<>();
+
+    public ApiKeyService(ApiKeyRepository apiKeyRepository, PasswordEncoder passwordEncoder, CacheManager cacheManager) {
         this.apiKeyRepository = apiKeyRepository;
         this.passwordEncoder = passwordEncoder;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -49,7 +65,7 @@ public class ApiKeyService {
         // Generate secure random key
         String fullKey = generateApiKey();
         String keyHash = passwordEncoder.encode(fullKey);
-        String keyPrefix = fullKey.substring(0, Math.min(20, fullKey.length())); // First 20 chars for display
+        String keyPrefix = displayPrefix(fullKey); // First 20 chars for display
 
         // Create entity
         ApiKey apiKey = ApiKey.builder()
@@ -117,37 +133,97 @@ public class ApiKeyService {
         apiKey.setRevokedBy(userId);
         apiKeyRepository.save(apiKey);
 
+        // Only the digest of the raw key is cached, so drop all verified keys on this node;
+        // other nodes stop accepting the key once their short cache TTL expires
+        Cache verifiedKeys = cacheManager.getCache(CacheConfig.VERIFIED_API_KEY_CACHE);
+        if (verifiedKeys != null) {
+            verifiedKeys.clear();
+        }
+
         log.info("API key revoked: id={}, name={}, organization={}", keyId, apiKey.getName(), organizationId);
     }
 
     /**
      * Authenticate an API key and return organization ID if valid
-     * Also updates last_used_at timestamp
+     *
+     * Candidates are loaded through the indexed key prefix, and keys that pass BCrypt are
+     * cached by digest for a short TTL so repeat requests skip BCrypt and the database.
+     * last_used_at is recorded in memory and written in batches by flushLastUsed().
      */
-    @Transactional
     public Optional<Long> authenticateApiKey(String providedKey) {
-        // Hash the provided key
-        // Note: We need to find by prefix first, then verify hash for performance
-        // For now, we'll iterate through potential matches
+        if (providedKey == null || !providedKey.startsWith(KEY_PREFIX)) {
+            log.warn("API key authentication failed: malformed key");
+            return Optional.empty();
+        }
 
-        List<ApiKey> potentialKeys = apiKeyRepository.findAll().stream()
-                .filter(ApiKey::isActive)
-                .filter(key -> providedKey.startsWith(key.getKeyPrefix().substring(0, Math.min(10, key.getKeyPrefix().length()))))
-                .collect(Collectors.toList());
+        Cache verifiedKeys = cacheManager.getCache(CacheConfig.VERIFIED_API_KEY_CACHE);
+        String digest = digest(providedKey);
 
-        for (ApiKey apiKey : potentialKeys) {
-            if (passwordEncoder.matches(providedKey, apiKey.getKeyHash())) {
-                // Valid key found - update last used timestamp
-                apiKey.setLastUsedAt(LocalDateTime.now());
-                apiKeyRepository.save(apiKey);
+        VerifiedApiKey verified = verifiedKeys != null ? verifiedKeys.get(digest, VerifiedApiKey.class) : null;
+        if (verified == null) {
+            verified = verifyAgainstDatabase(providedKey);
+            if (verified == null) {
+                log.warn("API key authentication failed: invalid or revoked key");
+                return Optional.empty();
+            }
+            if (verifiedKeys != null) {
+                verifiedKeys.put(digest, verified);
+            }
+        }
+
+        pendingLastUsed.put(verified.keyId(), LocalDateTime.now());
+        log.debug("API key authenticated successfully: keyId={}, org={}", verified.keyId(), verified.organizationId());
+        return Optional.of(verified.organizationId());
+    }
 
-                log.debug("API key authenticated successfully: keyId={}, org={}", apiKey.getId(), apiKey.getOrganizationId());
-                return Optional.of(Long.parseLong(apiKey.getOrganizationId().toString()));
+    /**
+     * Write buffered last_used_at timestamps (at most one UPDATE per key per interval)
+     */
+    @Scheduled(fixedDelayString = "${app.api-keys.last-used-flush-ms:60000}")
+    @Transactional
+    public void flushLastUsed() {
+        if (pendingLastUsed.isEmpty()) {
+            return;
+        }
+
+        int updated = 0;
+        for (UUID keyId : List.copyOf(pendingLastUsed.keySet())) {
+            LocalDateTime lastUsedAt = pendingLastUsed.remove(keyId);
+            if (lastUsedAt != null) {
+                updated += apiKeyRepository.updateLastUsedAt(keyId, lastUsedAt);
+            }
+        }
+        log.debug("Flushed last_used_at for {} API keys", updated);
+    }
+
+    private VerifiedApiKey verifyAgainstDatabase(String providedKey) {
+        List<ApiKey> candidates = apiKeyRepository.findByKeyPrefixAndRevokedAtIsNull(displayPrefix(providedKey));
+
+        for (ApiKey apiKey : candidates) {
+            if (passwordEncoder.matches(providedKey, apiKey.getKeyHash())) {
+                return new VerifiedApiKey(apiKey.getId(), apiKey.getOrganizationId());
             }
         }
+        return null;
+    }
 
-        log.warn("API key authentication failed: invalid or revoked key");
-        return Optional.empty();
+    private static String displayPrefix(String key) {
+        return key.substring(0, Math.min(DISPLAY_PREFIX_LENGTH, key.length()));
+    }
+
+    private static String digest(String key) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Identity of a key that passed BCrypt verification
+     */
+    private record VerifiedApiKey(UUID keyId, Long organizationId) {
     }
 
     /**
@@ -11,14 +11,15 @@ import com.reputul.backend.repositories.EmailTemplateRepository;
 import com.reputul.backend.platform.dto.integration.ZapierContactRequest;
 import com.reputul.backend.platform.dto.integration.ZapierReviewRequestRequest;
 import com.reputul.backend.platform.dto.integration.ZapierWebhookResponse;
-import com.reputul.backend.platform.entity.IdempotencyKey;
-import com.reputul.backend.platform.repository.IdempotencyKeyRepository;
+import com.reputul.backend.services.WebhookIdempotencyService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -35,8 +36,9 @@ public class ZapierWebhookService {
     private final ReviewRequestRepository reviewRequestRepository;
     private final BusinessRepository businessRepository;
     private final EmailTemplateRepository emailTemplateRepository;
-    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final WebhookIdempotencyService webhookIdempotencyService;
     private final ObjectMapper objectMapper;
+    private final Duration idempotencyTtl;
 
     private static final int FREQUENCY_LIMIT_DAYS = 30;
 
@@ -45,72 +47,70 @@ public class ZapierWebhookService {
             ReviewRequestRepository reviewRequestRepository,
             BusinessRepository businessRepository,
             EmailTemplateRepository emailTemplateRepository,
-            IdempotencyKeyRepository idempotencyKeyRepository,
-            ObjectMapper objectMapper) {
+            WebhookIdempotencyService webhookIdempotencyService,
+            ObjectMapper objectMapper,
+            @Value("${app.webhooks.idempotency.zapier-ttl:24h}") Duration idempotencyTtl) {
         this.customerRepository = customerRepository;
         this.reviewRequestRepository = reviewRequestRepository;
         this.businessRepository = businessRepository;
         this.emailTemplateRepository = emailTemplateRepository;
-        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.webhookIdempotencyService = webhookIdempotencyService;
         this.objectMapper = objectMapper;
+        this.idempotencyTtl = idempotencyTtl;
     }
 
     /**
-     * Handle idempotent request processing
-     * Returns cached response if idempotency key exists and hasn't expired
+     * Claim an Idempotency-Key for this organization and path
+     * Returns null when the request carries no key
      */
-    public Optional<ZapierWebhookResponse> checkIdempotency(String idempotencyKey, String requestPath) {
+    public WebhookIdempotencyService.Claim claimIdempotencyKey(String idempotencyKey, String requestPath,
+                                                                Long organizationId) {
         if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
-            return Optional.empty();
+            return null;
         }
+        String scope = "zapier:" + organizationId + ":" + requestPath;
+        return webhookIdempotencyService.claim(scope, idempotencyKey, organizationId, idempotencyTtl);
+    }
 
-        Optional<IdempotencyKey> existing = idempotencyKeyRepository.findByKeyAndExpiresAtAfter(
-                idempotencyKey,
-                LocalDateTime.now()
-        );
-
-        if (existing.isPresent() && existing.get().getRequestPath().equals(requestPath)) {
-            log.info("Idempotency key found: {} - returning cached response", idempotencyKey);
-            try {
-                ZapierWebhookResponse response = objectMapper.readValue(
-                        existing.get().getResponseBody(),
-                        ZapierWebhookResponse.class
-                );
-                return Optional.of(response);
-            } catch (JsonProcessingException e) {
-                log.error("Failed to deserialize cached response for idempotency key: {}", idempotencyKey, e);
-                // Fall through to process request normally
-            }
+    /**
+     * Response stored by the first request with a completed claim's key
+     */
+    public Optional<ZapierWebhookResponse> getStoredResponse(WebhookIdempotencyService.Claim claim) {
+        if (claim == null || claim.responseBody() == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(claim.responseBody(), ZapierWebhookResponse.class));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to deserialize cached response for idempotency key: {}", claim.key(), e);
+            return Optional.empty();
         }
-
-        return Optional.empty();
     }
 
     /**
-     * Store idempotency key with response for future duplicate detection
+     * Store the response for a claimed key for future duplicate detection
      */
-    @Transactional
-    public void storeIdempotencyKey(String idempotencyKey, String requestPath, Long organizationId,
-                                    ZapierWebhookResponse response, int statusCode) {
-        if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
+    public void storeIdempotencyKey(WebhookIdempotencyService.Claim claim, ZapierWebhookResponse response,
+                                    int statusCode) {
+        if (claim == null) {
             return;
         }
 
         try {
-            String responseBody = objectMapper.writeValueAsString(response);
-
-            IdempotencyKey key = IdempotencyKey.builder()
-                    .key(idempotencyKey)
-                    .organizationId(organizationId)
-                    .requestPath(requestPath)
-                    .responseStatus(statusCode)
-                    .responseBody(responseBody)
-                    .build();
-
-            idempotencyKeyRepository.save(key);
-            log.debug("Stored idempotency key: {}", idempotencyKey);
+            webhookIdempotencyService.complete(claim, statusCode, objectMapper.writeValueAsString(response));
+            log.debug("Stored idempotency key: {}", claim.key());
         } catch (JsonProcessingException e) {
-            log.error("Failed to serialize response for idempotency key: {}", idempotencyKey, e);
+            log.error("Failed to serialize response for idempotency key: {}", claim.key(), e);
+            webhookIdempotencyService.release(claim);
+        }
+    }
+
+    /**
+     * Give up a claimed key after a failure so a retry is processed again
+     */
+    public void releaseIdempotencyKey(WebhookIdempotencyService.Claim claim) {
+        if (claim != null) {
+            webhookIdempotencyService.release(claim);
         }
     }
 
@@ -329,8 +329,8 @@ public class ZapierWebhookService {
 
         // Try to find by phone
         if (request.getPhone() != null && !request.getPhone().trim().isEmpty()) {
-            Optional<Customer> existing = customerRepository.findByBusinessAndPhone(
-                    business,
+            Optional<Customer> existing = customerRepository.findByBusinessAndPhoneAnyFormat(
+                    business.getId(),
                     request.getPhone()
             );
             if (existing.isPresent()) {
@@ -365,8 +365,8 @@ public class ZapierWebhookService {
 
         // Try to find by phone
         if (request.getPhone() != null && !request.getPhone().trim().isEmpty()) {
-            Optional<Customer> existing = customerRepository.findByBusinessAndPhone(
-                    business,
+            Optional<Customer> existing = customerRepository.findByBusinessAndPhoneAnyFormat(
+                    business.getId(),
                     request.getPhone()
             );
             if (existing.isPresent()) {
@@ -0,0 +1,111 @@
+package com.reputul.backend.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checkpoints and leases for backfill jobs on backfill_checkpoints (V043).
+ *
+ * A job is claimed by one node at a time; the claim lapses when lease_expires_at passes,
+ * so a job left by a node that died can be picked up again. Checkpoint writes only land
+ * while the caller still holds the claim.
+ *
+ * Used by: WilsonScoreBackfillService
+ */
+@Repository
+@RequiredArgsConstructor
+public class BackfillCheckpointRepository {
+
+    private static final String CREATE_SQL =
+            "INSERT INTO backfill_checkpoints (job_name, updated_at) VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+    // A restart, or a new run after a completed one, begins again from id 0
+    private static final String CLAIM_SQL =
+            "UPDATE backfill_checkpoints SET " +
+            "last_id = CASE WHEN ? OR status = 'COMPLETED' THEN 0 ELSE last_id END, " +
+            "processed = CASE WHEN ? OR status = 'COMPLETED' THEN 0 ELSE processed END, " +
+            "failed = CASE WHEN ? OR status = 'COMPLETED' THEN 0 ELSE failed END, " +
+            "started_at = CASE WHEN ? OR status = 'COMPLETED' OR started_at IS NULL THEN ? ELSE started_at END, " +
+            "finished_at = NULL, claimed_by = ?, lease_expires_at = ?, updated_at = ?, status = 'RUNNING' " +
+            "WHERE job_name = ? AND (claimed_by IS NULL OR lease_expires_at < ? OR claimed_by = ?)";
+
+    private static final String CHECKPOINT_SQL =
+            "UPDATE backfill_checkpoints SET last_id = ?, processed = processed + ?, failed = failed + ?, " +
+            "total = ?, lease_expires_at = ?, updated_at = ? " +
+            "WHERE job_name = ? AND claimed_by = ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE backfill_checkpoints SET status = ?, finished_at = ?, claimed_by = NULL, " +
+            "lease_expires_at = NULL, updated_at = ? " +
+            "WHERE job_name = ? AND claimed_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Checkpoint(
+            String jobName,
+            String status,
+            long lastId,
+            long processed,
+            long failed,
+            Long total,
+            String claimedBy,
+            OffsetDateTime leaseExpiresAt,
+            OffsetDateTime startedAt,
+            OffsetDateTime finishedAt,
+            OffsetDateTime updatedAt
+    ) {
+    }
+
+    public Optional<Checkpoint> find(String jobName) {
+        List<Checkpoint> rows = jdbcTemplate.query("SELECT * FROM backfill_checkpoints WHERE job_name = ?",
+                (rs, rowNum) -> new Checkpoint(
+                        rs.getString("job_name"),
+                        rs.getString("status"),
+                        rs.getLong("last_id"),
+                        rs.getLong("processed"),
+                        rs.getLong("failed"),
+                        rs.getObject("total", Long.class),
+                        rs.getString("claimed_by"),
+                        rs.getObject("lease_expires_at", OffsetDateTime.class),
+                        rs.getObject("started_at", OffsetDateTime.class),
+                        rs.getObject("finished_at", OffsetDateTime.class),
+                        rs.getObject("updated_at", OffsetDateTime.class)),
+                jobName);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Claim a job for owner, creating its row on first use
+     *
+     * @param restart start again from the first id instead of the checkpoint
+     * @return false if another node holds an unexpired claim
+     */
+    public boolean claim(String jobName, String owner, boolean restart, OffsetDateTime now, OffsetDateTime leaseExpiresAt) {
+        jdbcTemplate.update(CREATE_SQL, jobName, now);
+        return jdbcTemplate.update(CLAIM_SQL, restart, restart, restart, restart, now,
+                owner, leaseExpiresAt, now, jobName, now, owner) > 0;
+    }
+
+    /**
+     * Record a finished page and extend the lease
+     *
+     * @return false if the claim has passed to another node
+     */
+    public boolean checkpoint(String jobName, String owner, long lastId, long processed, long failed,
+                              long total, OffsetDateTime now, OffsetDateTime leaseExpiresAt) {
+        return jdbcTemplate.update(CHECKPOINT_SQL, lastId, processed, failed, total, leaseExpiresAt, now,
+                jobName, owner) > 0;
+    }
+
+    /**
+     * Drop owner's claim and set the status; finishedAt is null unless the run is over
+     */
+    public void release(String jobName, String owner, String status, OffsetDateTime finishedAt, OffsetDateTime now) {
+        jdbcTemplate.update(RELEASE_SQL, status, finishedAt, now, jobName, owner);
+    }
+}
@@ -0,0 +1,298 @@
+package com.reputul.backend.repositories;
+
+import com.reputul.backend.models.BulkSendChannel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bulk send jobs and their per-recipient items on bulk_send_jobs / bulk_send_items (V044).
+ *
+ * Items are claimed per channel with FOR UPDATE SKIP LOCKED and leased to one node, so
+ * concurrent nodes take disjoint batches. A lease that expires (node died mid-send) makes
+ * the item claimable again until it runs out of attempts, unless its review request was
+ * already created. Results only land while the caller still holds the lease.
+ *
+ * Used by: BulkReviewRequestService, BulkSendDispatcher
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkSendRepository {
+
+    private static final String CREATE_JOB_SQL =
+            "INSERT INTO bulk_send_jobs (user_id, channel, sequence_id, status, total, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 'QUEUED', ?, ?, ?)";
+
+    private static final String CREATE_ITEM_SQL =
+            "INSERT INTO bulk_send_items (job_id, customer_id, channel, status, error_message, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String LOCK_CLAIMABLE_SQL =
+            "SELECT id, job_id, customer_id, attempts FROM bulk_send_items " +
+            "WHERE channel = ? AND (status = 'PENDING' OR (status = 'CLAIMED' AND lease_expires_at < ?)) " +
+            "AND review_request_id IS NULL AND attempts < ? " +
+            "ORDER BY id " +
+            "LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+            "UPDATE bulk_send_items SET status = 'CLAIMED', claimed_by = ?, lease_expires_at = ?, " +
+            "attempts = attempts + 1, updated_at = ? WHERE id = ?";
+
+    private static final String START_JOB_SQL =
+            "UPDATE bulk_send_jobs SET status = 'RUNNING', updated_at = ? WHERE id = ? AND status = 'QUEUED'";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE bulk_send_items SET status = ?, review_request_id = ?, error_message = ?, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE id = ? AND claimed_by = ? AND status = 'CLAIMED'";
+
+    private static final String LOCK_LEASE_SQL =
+            "SELECT id FROM bulk_send_items WHERE id = ? AND claimed_by = ? AND status = 'CLAIMED' FOR UPDATE";
+
+    private static final String LINK_SQL =
+            "UPDATE bulk_send_items SET review_request_id = ?, updated_at = ? " +
+            "WHERE id = ? AND claimed_by = ? AND status = 'CLAIMED'";
+
+    private static final String SETTLE_LINKED_SQL =
+            "UPDATE bulk_send_items SET status = CASE WHEN EXISTS (SELECT 1 FROM review_requests r " +
+            "WHERE r.id = bulk_send_items.review_request_id AND r.status = 'FAILED') THEN 'FAILED' ELSE 'SENT' END, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE status = 'CLAIMED' AND lease_expires_at < ? AND review_request_id IS NOT NULL";
+
+    private static final String RELEASE_SQL =
+            "UPDATE bulk_send_items SET status = 'PENDING', attempts = attempts - 1, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE id = ? AND claimed_by = ? AND status = 'CLAIMED'";
+
+    private static final String FAIL_EXHAUSTED_SQL =
+            "UPDATE bulk_send_items SET status = 'FAILED', error_message = ?, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE status = 'CLAIMED' AND lease_expires_at < ? AND review_request_id IS NULL AND attempts >= ?";
+
+    private static final String FINISH_JOBS_SQL =
+            "UPDATE bulk_send_jobs j SET status = 'COMPLETED', completed_at = ?, updated_at = ? " +
+            "WHERE j.status IN ('QUEUED', 'RUNNING') AND NOT EXISTS (" +
+            "SELECT 1 FROM bulk_send_items i WHERE i.job_id = j.id AND i.status IN ('PENDING', 'CLAIMED'))";
+
+    private static final String CANCEL_JOB_SQL =
+            "UPDATE bulk_send_jobs SET status = 'CANCELLED', completed_at = ?, updated_at = ? " +
+            "WHERE id = ? AND user_id = ? AND status IN ('QUEUED', 'RUNNING')";
+
+    private static final String CANCEL_ITEMS_SQL =
+            "UPDATE bulk_send_items SET status = 'CANCELLED', updated_at = ? WHERE job_id = ? AND status = 'PENDING'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Job(
+            Long id,
+            Long userId,
+            BulkSendChannel channel,
+            Long sequenceId,
+            String status,
+            int total,
+            OffsetDateTime createdAt,
+            OffsetDateTime completedAt
+    ) {
+    }
+
+    public record ClaimedItem(Long id, Long jobId, Long customerId, int attempts) {
+    }
+
+    /**
+     * Create a QUEUED job with one PENDING item per customer. Customers in rejected are
+     * stored as SKIPPED with reason so the job's counts add up to what was requested.
+     * Run inside a transaction so a job is never visible without its items.
+     */
+    public Long createJob(Long userId, BulkSendChannel channel, Long sequenceId, List<Long> customerIds,
+                          List<Long> rejected, String reason, OffsetDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(CREATE_JOB_SQL, new String[]{"id"});
+            ps.setLong(1, userId);
+            ps.setString(2, channel.name());
+            ps.setObject(3, sequenceId);
+            ps.setInt(4, customerIds.size() + rejected.size());
+            ps.setObject(5, now);
+            ps.setObject(6, now);
+            return ps;
+        }, keyHolder);
+        Long jobId = keyHolder.getKey().longValue();
+
+        insertItems(jobId, channel, customerIds, "PENDING", null, now);
+        insertItems(jobId, channel, rejected, "SKIPPED", reason, now);
+        return jobId;
+    }
+
+    private void insertItems(Long jobId, BulkSendChannel channel, List<Long> customerIds,
+                             String status, String errorMessage, OffsetDateTime now) {
+        if (customerIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(CREATE_ITEM_SQL, customerIds, 500, (ps, customerId) -> {
+            ps.setLong(1, jobId);
+            ps.setLong(2, customerId);
+            ps.setString(3, channel.name());
+            ps.setString(4, status);
+            ps.setString(5, errorMessage);
+            ps.setObject(6, now);
+        });
+    }
+
+    /**
+     * Lock up to :limit unsent items of a channel, oldest first, and lease them to owner.
+     * Their jobs move to RUNNING. Must run inside a transaction so the row locks are held
+     * until the lease is written.
+     */
+    public List<ClaimedItem> claim(BulkSendChannel channel, String owner, int limit, int maxAttempts,
+                                   OffsetDateTime now, OffsetDateTime leaseExpiresAt) {
+        List<ClaimedItem> items = jdbcTemplate.query(LOCK_CLAIMABLE_SQL,
+                (rs, rowNum) -> new ClaimedItem(
+                        rs.getLong("id"),
+                        rs.getLong("job_id"),
+                        rs.getLong("customer_id"),
+                        rs.getInt("attempts") + 1),
+                channel.name(), now, maxAttempts, limit);
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        jdbcTemplate.batchUpdate(LEASE_SQL, items, items.size(), (ps, item) -> {
+            ps.setString(1, owner);
+            ps.setObject(2, leaseExpiresAt);
+            ps.setObject(3, now);
+            ps.setLong(4, item.id());
+        });
+        List<Long> jobIds = items.stream().map(ClaimedItem::jobId).distinct().toList();
+        jdbcTemplate.batchUpdate(START_JOB_SQL, jobIds, jobIds.size(), (ps, jobId) -> {
+            ps.setObject(1, now);
+            ps.setLong(2, jobId);
+        });
+        return items;
+    }
+
+    /**
+     * Record the outcome of a claimed item and drop owner's lease
+     *
+     * @return false if the lease had already passed to another node
+     */
+    public boolean complete(Long itemId, String owner, String status, Long reviewRequestId,
+                            String errorMessage, OffsetDateTime now) {
+        return jdbcTemplate.update(COMPLETE_SQL, status, reviewRequestId, errorMessage, now, itemId, owner) > 0;
+    }
+
+    /**
+     * Lock a claimed item's row for the rest of the caller's transaction. Claims skip
+     * locked rows, so until that transaction ends the lease can't pass to another node.
+     *
+     * @return false if the lease had already passed to another node
+     */
+    public boolean lockLease(Long itemId, String owner) {
+        return !jdbcTemplate.queryForList(LOCK_LEASE_SQL, Long.class, itemId, owner).isEmpty();
+    }
+
+    /**
+     * Link a claimed item to the review request created for it. Run in the transaction
+     * that creates the review request, so an item is never claimed again once its
+     * request exists.
+     *
+     * @return false if the lease had already passed to another node
+     */
+    public boolean linkReviewRequest(Long itemId, String owner, Long reviewRequestId, OffsetDateTime now) {
+        return jdbcTemplate.update(LINK_SQL, reviewRequestId, now, itemId, owner) > 0;
+    }
+
+    /**
+     * Finish items whose review request was created but whose lease expired before the
+     * outcome was recorded (node died in between), from their review request's status
+     *
+     * @return number of items finished
+     */
+    public int settleLinked(OffsetDateTime now) {
+        return jdbcTemplate.update(SETTLE_LINKED_SQL, now, now);
+    }
+
+    /**
+     * Give a claimed but unsent item back without using up an attempt
+     */
+    public boolean release(Long itemId, String owner, OffsetDateTime now) {
+        return jdbcTemplate.update(RELEASE_SQL, now, itemId, owner) > 0;
+    }
+
+    /**
+     * Fail items whose last allowed attempt expired without a result
+     *
+     * @return number of items failed
+     */
+    public int failExhausted(int maxAttempts, OffsetDateTime now) {
+        return jdbcTemplate.update(FAIL_EXHAUSTED_SQL,
+                "Gave up after " + maxAttempts + " attempts", now, now, maxAttempts);
+    }
+
+    /**
+     * Complete every open job that has nothing left to send
+     *
+     * @return number of jobs completed
+     */
+    public int finishJobs(OffsetDateTime now) {
+        return jdbcTemplate.update(FINISH_JOBS_SQL, now, now);
+    }
+
+    /**
+     * Cancel an open job of userId; items already claimed still finish
+     *
+     * @return false if the job doesn't exist, belongs to someone else or is already over
+     */
+    public boolean cancel(Long jobId, Long userId, OffsetDateTime now) {
+        if (jdbcTemplate.update(CANCEL_JOB_SQL, now, now, jobId, userId) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(CANCEL_ITEMS_SQL, now, jobId);
+        return true;
+    }
+
+    public Optional<Job> findJob(Long jobId) {
+        return findJobs(List.of(jobId)).stream().findFirst();
+    }
+
+    public List<Job> findJobs(Collection<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", jobIds.stream().map(id -> "?").toList());
+        return jdbcTemplate.query("SELECT * FROM bulk_send_jobs WHERE id IN (" + placeholders + ")",
+                (rs, rowNum) -> new Job(
+                        rs.getLong("id"),
+                        rs.getLong("user_id"),
+                        BulkSendChannel.valueOf(rs.getString("channel")),
+                        rs.getObject("sequence_id", Long.class),
+                        rs.getString("status"),
+                        rs.getInt("total"),
+                        rs.getObject("created_at", OffsetDateTime.class),
+                        rs.getObject("completed_at", OffsetDateTime.class)),
+                jobIds.toArray());
+    }
+
+    /**
+     * Item count per status for a job, e.g. {PENDING=120, SENT=380}
+     */
+    public Map<String, Integer> countItemsByStatus(Long jobId) {
+        Map<String, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) AS items FROM bulk_send_items WHERE job_id = ? GROUP BY status",
+                rs -> {
+                    counts.put(rs.getString("status"), rs.getInt("items"));
+                },
+                jobId);
+        return counts;
+    }
+}
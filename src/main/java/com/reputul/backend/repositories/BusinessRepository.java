@@ -2,6 +2,7 @@ package com.reputul.backend.repositories;
 
 import com.reputul.backend.models.Business;
 import com.reputul.backend.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -230,4 +231,14 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
      */
     @Query("SELECT COUNT(b) > 0 FROM Business b WHERE b.organization.id = :organizationId AND b.isDefault = true")
     boolean hasDefaultBusiness(@Param("organizationId") Long organizationId);
-}
\ No newline at end of file
+
+    /**
+     * Keyset page of business ids after afterId, in id order
+     * Used by: WilsonScoreBackfillService
+     */
+    @Query("SELECT b.id FROM Business b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM Business b WHERE b.id > :afterId")
+    long countByIdGreaterThan(@Param("afterId") Long afterId);
+}
@@ -0,0 +1,77 @@
+package com.reputul.backend.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Sync leases on channel_credentials (V038).
+ *
+ * Due credentials are locked with FOR UPDATE SKIP LOCKED and leased to one node, so
+ * concurrent nodes claim disjoint batches without waiting on each other. A lease that
+ * expires (node died mid-sync) makes the credential claimable again. Plain JDBC so the
+ * lease columns are never overwritten by a stale ChannelCredential merge.
+ *
+ * Used by: ReviewSyncDispatcher
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChannelCredentialLeaseRepository {
+
+    private static final String LOCK_DUE_SQL =
+            "SELECT id FROM channel_credentials " +
+            "WHERE status = 'ACTIVE' " +
+            "AND (next_sync_scheduled IS NULL OR next_sync_scheduled <= ?) " +
+            "AND (sync_lease_expires_at IS NULL OR sync_lease_expires_at < ?) " +
+            "ORDER BY next_sync_scheduled NULLS FIRST " +
+            "LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+            "UPDATE channel_credentials SET sync_claimed_by = ?, sync_lease_expires_at = ? WHERE id = ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE channel_credentials SET sync_claimed_by = NULL, sync_lease_expires_at = NULL, " +
+            "next_sync_scheduled = ? WHERE id = ? AND sync_claimed_by = ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE channel_credentials SET sync_claimed_by = NULL, sync_lease_expires_at = NULL " +
+            "WHERE id = ? AND sync_claimed_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lock up to :limit due, unleased active credentials and lease them to owner.
+     * Must run inside a transaction so the row locks are held until the lease is written.
+     */
+    public List<Long> claimDue(String owner, int limit, OffsetDateTime now, OffsetDateTime leaseExpiresAt) {
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_DUE_SQL, Long.class, now, now, limit);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.batchUpdate(LEASE_SQL, ids, ids.size(), (ps, id) -> {
+                ps.setString(1, owner);
+                ps.setObject(2, leaseExpiresAt);
+                ps.setLong(3, id);
+            });
+        }
+        return ids;
+    }
+
+    /**
+     * Drop owner's lease and schedule the next sync
+     *
+     * @return false if the lease had already passed to another node
+     */
+    public boolean complete(Long credentialId, String owner, OffsetDateTime nextSyncAt) {
+        return jdbcTemplate.update(COMPLETE_SQL, nextSyncAt, credentialId, owner) > 0;
+    }
+
+    /**
+     * Give a claimed but unsynced credential back without changing its schedule
+     */
+    public boolean release(Long credentialId, String owner) {
+        return jdbcTemplate.update(RELEASE_SQL, credentialId, owner) > 0;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,6 +50,12 @@ public interface ChannelCredentialRepository extends JpaRepository<ChannelCreden
             @Param("now") OffsetDateTime now,
             @Param("status") ChannelCredential.CredentialStatus status);
 
+    /**
+     * Load claimed credentials with their business, for syncing outside this transaction
+     */
+    @Query("SELECT c FROM ChannelCredential c LEFT JOIN FETCH c.business WHERE c.id IN :ids")
+    List<ChannelCredential> findWithBusinessByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Find credential by metadata (used for OAuth state validation)
      */
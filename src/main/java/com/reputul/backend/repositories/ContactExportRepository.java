@@ -0,0 +1,91 @@
+package com.reputul.backend.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only reads for the contact CSV export.
+ *
+ * Rows are fetched through a server-side cursor (fetch size, in a read-only transaction
+ * so PostgreSQL keeps the cursor open) and handed over one at a time; tags are flattened
+ * from tags_json in the query. Nothing is loaded into the persistence context.
+ *
+ * Used by: ContactService.exportContactsCsv
+ */
+@Repository
+public class ContactExportRepository {
+
+    private static final String EXPORT_SQL = """
+            SELECT c.name, c.email, c.phone, c.last_job_date, c.sms_consent, c.email_consent, c.created_at,
+                   CASE WHEN jsonb_typeof(c.tags_json) = 'array' THEN
+                       (SELECT string_agg(t.tag, ';') FROM jsonb_array_elements_text(c.tags_json) AS t(tag))
+                   END AS tags
+            FROM contacts c
+            WHERE c.business_id = ?
+            """;
+
+    private static final String TAG_FILTER_SQL = "  AND c.tags_json @> to_jsonb(ARRAY[lower(?)])\n";
+
+    private static final String ORDER_SQL = "ORDER BY c.created_at DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ContactExportRepository(DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.contacts.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public record ContactExportRow(
+            String name,
+            String email,
+            String phone,
+            LocalDate lastJobDate,
+            String tags,
+            Boolean smsConsent,
+            Boolean emailConsent,
+            OffsetDateTime createdAt
+    ) {
+    }
+
+    /**
+     * Stream a business's contacts, newest first, optionally limited to one tag
+     *
+     * @return number of rows handed to the consumer
+     */
+    public long forEachForExport(Long businessId, String tag, Consumer<ContactExportRow> consumer) {
+        boolean filterByTag = tag != null && !tag.isBlank();
+        String sql = EXPORT_SQL + (filterByTag ? TAG_FILTER_SQL : "") + ORDER_SQL;
+        Object[] args = filterByTag ? new Object[]{businessId, tag.trim()} : new Object[]{businessId};
+
+        Long count = transactionTemplate.execute(status -> {
+            long[] rows = {0};
+            jdbcTemplate.query(sql, rs -> {
+                consumer.accept(new ContactExportRow(
+                        rs.getString("name"),
+                        rs.getString("email"),
+                        rs.getString("phone"),
+                        rs.getObject("last_job_date", LocalDate.class),
+                        rs.getString("tags"),
+                        (Boolean) rs.getObject("sms_consent"),
+                        (Boolean) rs.getObject("email_consent"),
+                        rs.getObject("created_at", OffsetDateTime.class)));
+                rows[0]++;
+            }, args);
+            return rows[0];
+        });
+        return count != null ? count : 0;
+    }
+}
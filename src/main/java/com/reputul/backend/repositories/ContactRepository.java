@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -95,24 +96,17 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
                                                                @Param("startDate") LocalDate startDate,
                                                                @Param("endDate") LocalDate endDate);
 
+    // Name + date candidates for a whole import chunk; callers narrow to +/- 3 days per row
+    @Query("SELECT c FROM Contact c WHERE c.businessId = :businessId AND c.name IN :names AND " +
+            "c.lastJobDate BETWEEN :startDate AND :endDate")
+    List<Contact> findByBusinessIdAndNameInAndLastJobDateBetween(@Param("businessId") Long businessId,
+                                                                 @Param("names") Collection<String> names,
+                                                                 @Param("startDate") LocalDate startDate,
+                                                                 @Param("endDate") LocalDate endDate);
+
     // Count by business (derived)
     long countByBusinessId(Long businessId);
 
-    @Query("SELECT c FROM Contact c WHERE c.businessId = :businessId ORDER BY c.createdAt DESC")
-    List<Contact> findAllByBusinessIdForExport(@Param("businessId") Long businessId);
-
-    // Export with tag (native SQL for JSONB)
-    @Query(
-            value = """
-                SELECT *
-                FROM public.contacts c
-                WHERE c.business_id = :businessId
-                  AND c.tags_json @> to_jsonb(ARRAY[lower(:tag)])
-                ORDER BY c.created_at DESC
-                """,
-            nativeQuery = true
-    )
-    List<Contact> findAllByBusinessIdAndTagForExport(@Param("businessId") Long businessId, @Param("tag") String tag);
 
     // Batch lookups (JPQL)
     @Query("SELECT c FROM Contact c WHERE c.businessId = :businessId AND c.email IN :emails")
@@ -3,6 +3,7 @@ package com.reputul.backend.repositories;
 import com.reputul.backend.models.Business;
 import com.reputul.backend.models.Customer;
 import com.reputul.backend.models.User;
+import com.reputul.backend.util.PhoneNormalizer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +34,21 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
             "WHERE c.id = :customerId")
     Optional<Customer> findByIdWithBusinessAndUser(@Param("customerId") Long customerId);
 
+    /**
+     * Customers with business, owner and organizations fetched, safe to send to outside a
+     * session. Used by BulkReviewRequestService to load a claimed batch in one query.
+     */
+    @Query("SELECT c FROM Customer c " +
+            "LEFT JOIN FETCH c.business b " +
+            "LEFT JOIN FETCH b.user u " +
+            "LEFT JOIN FETCH u.organization " +
+            "LEFT JOIN FETCH b.organization " +
+            "WHERE c.id IN :ids")
+    List<Customer> findAllWithBusinessByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids AND c.business.user.id = :userId")
+    List<Long> findIdsOwnedByUser(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
 
 
 
@@ -43,13 +60,6 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     @Query("SELECT c FROM Customer c JOIN c.tags t WHERE c.user = :user AND t = :tag ORDER BY c.createdAt DESC")
     List<Customer> findByUserAndTagsContaining(@Param("user") User user, @Param("tag") Customer.CustomerTag tag);
 
-    @Query("SELECT c FROM Customer c WHERE c.user = :user AND " +
-            "(LOWER(c.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(c.serviceType) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-            "ORDER BY c.createdAt DESC")
-    List<Customer> searchCustomers(@Param("user") User user, @Param("searchTerm") String searchTerm);
-
     long countByUser(User user);
     long countByUserAndStatus(User user, Customer.CustomerStatus status);
 
@@ -121,6 +131,14 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     // ----- SMS-related -----
     Optional<Customer> findByPhone(String phone);
 
+    Optional<Customer> findFirstByPhoneE164OrderByIdDesc(String phoneE164);
+
+    Optional<Customer> findFirstByBusinessIdAndPhoneE164OrderByIdDesc(Long businessId, String phoneE164);
+
+    boolean existsByBusinessIdAndPhoneE164(Long businessId, String phoneE164);
+
+    boolean existsByBusinessIdAndPhoneE164AndIdNot(Long businessId, String phoneE164, Long id);
+
     @Query("SELECT c FROM Customer c WHERE c.user = :user AND c.smsOptIn = TRUE " +
             "AND (c.smsOptOut = FALSE OR c.smsOptOut IS NULL) AND c.phone IS NOT NULL " +
             "AND c.phone <> '' ORDER BY c.createdAt DESC")
@@ -162,30 +180,29 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     List<Customer> findByBusinessAndSmsOptIn(@Param("business") Business business, @Param("optIn") boolean optIn);
 
     // ----- Helper -----
+    /**
+     * Customer for a phone number in any format: normalized to E.164 and matched with one
+     * indexed lookup on phone_e164. The same number can belong to customers of several
+     * businesses; the most recently created one is returned.
+     */
     default Optional<Customer> findByPhoneAnyFormat(String incomingPhone) {
-        if (incomingPhone == null || incomingPhone.trim().isEmpty()) {
+        String phoneE164 = PhoneNormalizer.toE164(incomingPhone);
+        if (phoneE164 == null) {
             return Optional.empty();
         }
-        String clean = incomingPhone.replaceAll("[^+\\d]", "");
-
-        Optional<Customer> customer = findByPhone(clean);
-        if (customer.isPresent()) return customer;
-
-        if (!clean.startsWith("+")) {
-            customer = findByPhone("+" + clean);
-            if (customer.isPresent()) return customer;
-        }
-
-        if (clean.startsWith("+")) {
-            customer = findByPhone(clean.substring(1));
-            if (customer.isPresent()) return customer;
-        }
+        return findFirstByPhoneE164OrderByIdDesc(phoneE164);
+    }
 
-        if (clean.length() == 10 && clean.matches("\\d{10}")) {
-            customer = findByPhone("+1" + clean);
-            if (customer.isPresent()) return customer;
+    /**
+     * Customer of one business for a phone number in any format. Create paths look up
+     * with this before saving, so a number typed differently finds the existing row
+     * instead of tripping uq_customers_business_phone_e164.
+     */
+    default Optional<Customer> findByBusinessAndPhoneAnyFormat(Long businessId, String incomingPhone) {
+        String phoneE164 = PhoneNormalizer.toE164(incomingPhone);
+        if (phoneE164 == null) {
+            return Optional.empty();
         }
-
-        return Optional.empty();
+        return findFirstByBusinessIdAndPhoneE164OrderByIdDesc(businessId, phoneE164);
     }
 }
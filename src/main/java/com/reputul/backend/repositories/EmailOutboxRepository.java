@@ -0,0 +1,284 @@
+package com.reputul.backend.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbound email outbox on email_outbox (V045).
+ *
+ * Messages are enqueued inside the caller's transaction, so an email exists exactly when
+ * the review request that produced it was committed. The relay claims due messages with
+ * FOR UPDATE SKIP LOCKED and leases them to one node; a lease that expires (node died
+ * mid-send) makes the message claimable again. Outcomes only land while the caller still
+ * holds the lease, and are copied onto the linked review request.
+ *
+ * Used by: EmailService, EmailOutboxRelay
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailOutboxRepository {
+
+    private static final String ENQUEUE_SQL =
+            "INSERT INTO email_outbox (review_request_id, organization_id, from_address, to_address, subject, " +
+            "html_body, status, attempts, next_attempt_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 'PENDING', 0, ?, ?, ?)";
+
+    private static final String LOCK_CLAIMABLE_SQL =
+            "SELECT id, review_request_id, from_address, to_address, subject, html_body, attempts, created_at " +
+            "FROM email_outbox " +
+            "WHERE ((status = 'PENDING' AND next_attempt_at <= ?) OR (status = 'SENDING' AND lease_expires_at < ?)) " +
+            "AND attempts < ? " +
+            "ORDER BY id " +
+            "LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+            "UPDATE email_outbox SET status = 'SENDING', claimed_by = ?, lease_expires_at = ?, " +
+            "attempts = attempts + 1, updated_at = ? WHERE id = ?";
+
+    private static final String RENEW_LEASE_SQL =
+            "UPDATE email_outbox SET lease_expires_at = ?, updated_at = ? " +
+            "WHERE id = ? AND claimed_by = ? AND status = 'SENDING'";
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE email_outbox SET status = 'SENT', provider_message_id = ?, last_error = NULL, sent_at = ?, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE id = ? AND claimed_by = ? AND status = 'SENDING'";
+
+    private static final String REQUEST_SENT_SQL =
+            "UPDATE review_requests SET sendgrid_message_id = ?, sent_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE email_outbox SET status = 'PENDING', next_attempt_at = ?, last_error = ?, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE id = ? AND claimed_by = ? AND status = 'SENDING'";
+
+    private static final String RELEASE_SQL =
+            "UPDATE email_outbox SET status = 'PENDING', attempts = attempts - 1, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE id = ? AND claimed_by = ? AND status = 'SENDING'";
+
+    private static final String DEAD_LETTER_SQL =
+            "UPDATE email_outbox SET status = 'DEAD', last_error = ?, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE id = ? AND claimed_by = ? AND status = 'SENDING'";
+
+    private static final String REQUEST_FAILED_SQL =
+            "UPDATE review_requests SET status = 'FAILED', error_message = ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'SENT'";
+
+    private static final String REQUESTS_OF_EXHAUSTED_FAILED_SQL =
+            "UPDATE review_requests SET status = 'FAILED', error_message = ?, updated_at = ? " +
+            "WHERE status = 'SENT' AND id IN (SELECT review_request_id FROM email_outbox " +
+            "WHERE status = 'SENDING' AND lease_expires_at < ? AND attempts >= ?)";
+
+    private static final String DEAD_LETTER_EXHAUSTED_SQL =
+            "UPDATE email_outbox SET status = 'DEAD', last_error = ?, " +
+            "claimed_by = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE status = 'SENDING' AND lease_expires_at < ? AND attempts >= ?";
+
+    private static final String COUNT_QUEUED_SQL =
+            "SELECT status, COUNT(*) AS messages FROM email_outbox " +
+            "WHERE status IN ('PENDING', 'SENDING') GROUP BY status";
+
+    private static final String DELETE_FINISHED_SQL =
+            "DELETE FROM email_outbox WHERE id IN (" +
+            "SELECT id FROM email_outbox WHERE status IN ('SENT', 'DEAD') AND updated_at < ? " +
+            "ORDER BY updated_at LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record NewEmail(
+            Long reviewRequestId,
+            Long organizationId,
+            String from,
+            String to,
+            String subject,
+            String html
+    ) {
+    }
+
+    public record ClaimedEmail(
+            Long id,
+            Long reviewRequestId,
+            String from,
+            String to,
+            String subject,
+            String html,
+            int attempts,
+            OffsetDateTime createdAt
+    ) {
+    }
+
+    /**
+     * Queue an email for the relay. Joins the caller's transaction, if any.
+     */
+    public Long enqueue(NewEmail email, OffsetDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ENQUEUE_SQL, new String[]{"id"});
+            ps.setObject(1, email.reviewRequestId());
+            ps.setObject(2, email.organizationId());
+            ps.setString(3, email.from());
+            ps.setString(4, email.to());
+            ps.setString(5, email.subject());
+            ps.setString(6, email.html());
+            ps.setObject(7, now);
+            ps.setObject(8, now);
+            ps.setObject(9, now);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * Lock up to :limit due messages, oldest first, and lease them to owner. Must run
+     * inside a transaction so the row locks are held until the lease is written.
+     */
+    public List<ClaimedEmail> claim(String owner, int limit, int maxAttempts,
+                                    OffsetDateTime now, OffsetDateTime leaseExpiresAt) {
+        List<ClaimedEmail> emails = jdbcTemplate.query(LOCK_CLAIMABLE_SQL,
+                (rs, rowNum) -> new ClaimedEmail(
+                        rs.getLong("id"),
+                        rs.getObject("review_request_id", Long.class),
+                        rs.getString("from_address"),
+                        rs.getString("to_address"),
+                        rs.getString("subject"),
+                        rs.getString("html_body"),
+                        rs.getInt("attempts") + 1,
+                        rs.getObject("created_at", OffsetDateTime.class)),
+                now, now, maxAttempts, limit);
+        if (emails.isEmpty()) {
+            return emails;
+        }
+
+        jdbcTemplate.batchUpdate(LEASE_SQL, emails, emails.size(), (ps, email) -> {
+            ps.setString(1, owner);
+            ps.setObject(2, leaseExpiresAt);
+            ps.setObject(3, now);
+            ps.setLong(4, email.id());
+        });
+        return emails;
+    }
+
+    /**
+     * Record a batch the provider accepted and stamp the provider message IDs (null if
+     * the provider didn't return one) on the linked review requests
+     *
+     * @return number of messages recorded; the rest had passed to another node
+     */
+    public int markSent(List<ClaimedEmail> emails, List<String> messageIds, String owner, OffsetDateTime now) {
+        if (emails.isEmpty()) {
+            return 0;
+        }
+        int[][] updated = jdbcTemplate.batchUpdate(MARK_SENT_SQL, indexes(emails), emails.size(), (ps, i) -> {
+            ps.setString(1, messageIds.get(i));
+            ps.setObject(2, now);
+            ps.setObject(3, now);
+            ps.setLong(4, emails.get(i).id());
+            ps.setString(5, owner);
+        });
+
+        List<Integer> recorded = new ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            if (updated[0][i] > 0) {
+                recorded.add(i);
+            }
+        }
+        List<Integer> linked = recorded.stream().filter(i -> emails.get(i).reviewRequestId() != null).toList();
+        if (!linked.isEmpty()) {
+            jdbcTemplate.batchUpdate(REQUEST_SENT_SQL, linked, linked.size(), (ps, i) -> {
+                ps.setString(1, messageIds.get(i));
+                ps.setObject(2, now);
+                ps.setObject(3, now);
+                ps.setLong(4, emails.get(i).reviewRequestId());
+            });
+        }
+        return recorded.size();
+    }
+
+    /**
+     * Extend the lease on a claimed message before a late send
+     *
+     * @return false if the message has passed to another node
+     */
+    public boolean renewLease(Long emailId, String owner, OffsetDateTime leaseExpiresAt, OffsetDateTime now) {
+        return jdbcTemplate.update(RENEW_LEASE_SQL, leaseExpiresAt, now, emailId, owner) > 0;
+    }
+
+    /**
+     * Put a failed message back to wait until nextAttemptAt
+     */
+    public boolean retry(Long emailId, String owner, String error, OffsetDateTime nextAttemptAt, OffsetDateTime now) {
+        return jdbcTemplate.update(RETRY_SQL, nextAttemptAt, error, now, emailId, owner) > 0;
+    }
+
+    /**
+     * Give a claimed but unsent message back without using up an attempt
+     */
+    public boolean release(Long emailId, String owner, OffsetDateTime now) {
+        return jdbcTemplate.update(RELEASE_SQL, now, emailId, owner) > 0;
+    }
+
+    /**
+     * Give up on a message and fail its review request, unless the request has moved on
+     */
+    public boolean deadLetter(ClaimedEmail email, String owner, String error, OffsetDateTime now) {
+        if (jdbcTemplate.update(DEAD_LETTER_SQL, error, now, email.id(), owner) == 0) {
+            return false;
+        }
+        if (email.reviewRequestId() != null) {
+            jdbcTemplate.update(REQUEST_FAILED_SQL, "Email not delivered: " + error, now, email.reviewRequestId());
+        }
+        return true;
+    }
+
+    /**
+     * Dead-letter messages whose last allowed attempt expired without a result
+     *
+     * @return number of messages dead-lettered
+     */
+    public int deadLetterExhausted(int maxAttempts, OffsetDateTime now) {
+        String error = "Gave up after " + maxAttempts + " attempts";
+        jdbcTemplate.update(REQUESTS_OF_EXHAUSTED_FAILED_SQL, "Email not delivered: " + error, now, now, maxAttempts);
+        return jdbcTemplate.update(DEAD_LETTER_EXHAUSTED_SQL, error, now, now, maxAttempts);
+    }
+
+    /**
+     * Delete up to limit SENT or DEAD messages last updated before cutoff, oldest first
+     *
+     * @return number of messages deleted
+     */
+    public int deleteFinished(OffsetDateTime cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_FINISHED_SQL, cutoff, limit);
+    }
+
+    /**
+     * Messages not yet sent, per status, e.g. {PENDING=120, SENDING=100}
+     */
+    public Map<String, Integer> countQueued() {
+        Map<String, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(COUNT_QUEUED_SQL, rs -> {
+            counts.put(rs.getString("status"), rs.getInt("messages"));
+        });
+        return counts;
+    }
+
+    private static List<Integer> indexes(List<?> list) {
+        List<Integer> indexes = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,68 @@
+package com.reputul.backend.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Email provider request counters on provider_request_windows (V048), one row per provider
+ * and one-second window.
+ *
+ * Same scheme as SmsRateLimitRepository: a reservation is one conditional UPDATE
+ * (used + 1 <= cap), so no number of nodes can push a window past the provider's limit.
+ * The relay calls it outside any transaction, each statement committed on its own.
+ *
+ * Used by: EmailOutboxRelay
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProviderRequestWindowRepository {
+
+    private static final String RESERVE_SQL =
+            "UPDATE provider_request_windows SET used = used + 1, updated_at = ? " +
+            "WHERE provider = ? AND window_start = ? AND used + 1 <= ?";
+
+    private static final String CREATE_WINDOW_SQL =
+            "INSERT INTO provider_request_windows (provider, window_start, used, updated_at) " +
+            "VALUES (?, ?, 0, ?) ON CONFLICT DO NOTHING";
+
+    private static final String RELEASE_SQL =
+            "UPDATE provider_request_windows SET used = GREATEST(used - 1, 0), updated_at = ? " +
+            "WHERE provider = ? AND window_start = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Count one request in a window if that keeps it within cap
+     *
+     * @return false if the window is full
+     */
+    public boolean tryReserve(String provider, OffsetDateTime windowStart, int cap, OffsetDateTime now) {
+        if (reserve(provider, windowStart, cap, now)) {
+            return true;
+        }
+        // Full, or the first request of the window; another node may create the row first
+        jdbcTemplate.update(CREATE_WINDOW_SQL, provider, windowStart, now);
+        return reserve(provider, windowStart, cap, now);
+    }
+
+    private boolean reserve(String provider, OffsetDateTime windowStart, int cap, OffsetDateTime now) {
+        return jdbcTemplate.update(RESERVE_SQL, now, provider, windowStart, cap) > 0;
+    }
+
+    /**
+     * Give back a request that was reserved but never made
+     */
+    public void release(String provider, OffsetDateTime windowStart, OffsetDateTime now) {
+        jdbcTemplate.update(RELEASE_SQL, now, provider, windowStart);
+    }
+
+    /**
+     * @return number of windows deleted
+     */
+    public int deleteWindowsBefore(OffsetDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM provider_request_windows WHERE window_start < ?", cutoff);
+    }
+}
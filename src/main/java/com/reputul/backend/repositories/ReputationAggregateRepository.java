@@ -0,0 +1,35 @@
+package com.reputul.backend.repositories;
+
+import com.reputul.backend.models.ReputationAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReputationAggregateRepository extends JpaRepository<ReputationAggregate, Long> {
+
+    /**
+     * Load the aggregate row with a write lock so concurrent review writes
+     * for the same business apply their deltas one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM ReputationAggregate a WHERE a.businessId = :businessId")
+    Optional<ReputationAggregate> findByBusinessIdForUpdate(@Param("businessId") Long businessId);
+
+    /**
+     * Create an all-zero aggregate row unless one exists. A concurrent insert of the same
+     * business waits for this transaction and then does nothing.
+     *
+     * @return 1 if this call created the row
+     */
+    @Modifying
+    @Query(value = "INSERT INTO reputation_aggregates (business_id, updated_at) VALUES (:businessId, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (business_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("businessId") Long businessId);
+}
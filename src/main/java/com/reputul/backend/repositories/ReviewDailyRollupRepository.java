@@ -0,0 +1,170 @@
+package com.reputul.backend.repositories;
+
+import com.reputul.backend.models.ReviewDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface ReviewDailyRollupRepository extends JpaRepository<ReviewDailyRollup, ReviewDailyRollup.RollupId> {
+
+    /**
+     * Add a delta to one (business, day, source) row, creating it if needed
+     * Used by: ReviewDailyRollupService on review writes
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO review_daily_rollups (
+            business_id, review_date, source, review_count, rating_sum,
+            rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count,
+            responded_count, updated_at)
+        VALUES (:businessId, :reviewDate, :source, GREATEST(:reviewCount, 0), GREATEST(:ratingSum, 0),
+            GREATEST(:rating1, 0), GREATEST(:rating2, 0), GREATEST(:rating3, 0), GREATEST(:rating4, 0), GREATEST(:rating5, 0),
+            GREATEST(:responded, 0), CURRENT_TIMESTAMP)
+        ON CONFLICT (business_id, review_date, source) DO UPDATE SET
+            review_count = GREATEST(review_daily_rollups.review_count + :reviewCount, 0),
+            rating_sum = GREATEST(review_daily_rollups.rating_sum + :ratingSum, 0),
+            rating_1_count = GREATEST(review_daily_rollups.rating_1_count + :rating1, 0),
+            rating_2_count = GREATEST(review_daily_rollups.rating_2_count + :rating2, 0),
+            rating_3_count = GREATEST(review_daily_rollups.rating_3_count + :rating3, 0),
+            rating_4_count = GREATEST(review_daily_rollups.rating_4_count + :rating4, 0),
+            rating_5_count = GREATEST(review_daily_rollups.rating_5_count + :rating5, 0),
+            responded_count = GREATEST(review_daily_rollups.responded_count + :responded, 0),
+            updated_at = CURRENT_TIMESTAMP
+        """, nativeQuery = true)
+    int applyDelta(@Param("businessId") Long businessId,
+                   @Param("reviewDate") LocalDate reviewDate,
+                   @Param("source") String source,
+                   @Param("reviewCount") long reviewCount,
+                   @Param("ratingSum") long ratingSum,
+                   @Param("rating1") long rating1,
+                   @Param("rating2") long rating2,
+                   @Param("rating3") long rating3,
+                   @Param("rating4") long rating4,
+                   @Param("rating5") long rating5,
+                   @Param("responded") long responded);
+
+    /**
+     * Per-business advisory lock (key 7301, business id) taken shared by review writes for
+     * the rest of their transaction, so a reconcile of the business waits for them to commit
+     * Used by: ReviewDailyRollupService on review writes
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(7301, CAST(MOD(:businessId, 2147483647) AS INTEGER))",
+            nativeQuery = true)
+    Integer lockBusinessShared(@Param("businessId") Long businessId);
+
+    /**
+     * The same lock, taken exclusively by reconciliation for the rest of its transaction
+     * Used by: nightly reconciliation
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(7301, CAST(MOD(:businessId, 2147483647) AS INTEGER))",
+            nativeQuery = true)
+    Integer lockBusinessExclusive(@Param("businessId") Long businessId);
+
+    /**
+     * Businesses with reviews or rollups before the cutoff
+     * Used by: nightly reconciliation
+     */
+    @Query(value = """
+        SELECT r.business_id FROM reviews r WHERE r.created_at < :cutoff
+        UNION
+        SELECT d.business_id FROM review_daily_rollups d WHERE d.review_date < CAST(:cutoff AT TIME ZONE 'UTC' AS DATE)
+        """, nativeQuery = true)
+    List<Long> findBusinessIdsBefore(@Param("cutoff") OffsetDateTime cutoff);
+
+    /**
+     * Overwrite a business's rollups for days before the cutoff with totals recomputed
+     * from reviews, touching only rows that drifted
+     * Used by: nightly reconciliation, under lockBusinessExclusive
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO review_daily_rollups (
+            business_id, review_date, source, review_count, rating_sum,
+            rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count,
+            responded_count, updated_at)
+        SELECT r.business_id,
+               CAST(r.created_at AT TIME ZONE 'UTC' AS DATE),
+               COALESCE(r.source, 'DIRECT'),
+               COUNT(*),
+               SUM(r.rating),
+               COUNT(CASE WHEN r.rating = 1 THEN 1 END),
+               COUNT(CASE WHEN r.rating = 2 THEN 1 END),
+               COUNT(CASE WHEN r.rating = 3 THEN 1 END),
+               COUNT(CASE WHEN r.rating = 4 THEN 1 END),
+               COUNT(CASE WHEN r.rating = 5 THEN 1 END),
+               COUNT(r.platform_response),
+               CURRENT_TIMESTAMP
+        FROM reviews r
+        WHERE r.business_id = :businessId AND r.created_at < :cutoff
+        GROUP BY r.business_id, CAST(r.created_at AT TIME ZONE 'UTC' AS DATE), COALESCE(r.source, 'DIRECT')
+        ON CONFLICT (business_id, review_date, source) DO UPDATE SET
+            review_count = EXCLUDED.review_count,
+            rating_sum = EXCLUDED.rating_sum,
+            rating_1_count = EXCLUDED.rating_1_count,
+            rating_2_count = EXCLUDED.rating_2_count,
+            rating_3_count = EXCLUDED.rating_3_count,
+            rating_4_count = EXCLUDED.rating_4_count,
+            rating_5_count = EXCLUDED.rating_5_count,
+            responded_count = EXCLUDED.responded_count,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE (review_daily_rollups.review_count, review_daily_rollups.rating_sum,
+               review_daily_rollups.rating_1_count, review_daily_rollups.rating_2_count,
+               review_daily_rollups.rating_3_count, review_daily_rollups.rating_4_count,
+               review_daily_rollups.rating_5_count, review_daily_rollups.responded_count)
+              IS DISTINCT FROM
+              (EXCLUDED.review_count, EXCLUDED.rating_sum,
+               EXCLUDED.rating_1_count, EXCLUDED.rating_2_count,
+               EXCLUDED.rating_3_count, EXCLUDED.rating_4_count,
+               EXCLUDED.rating_5_count, EXCLUDED.responded_count)
+        """, nativeQuery = true)
+    int reconcileBefore(@Param("businessId") Long businessId, @Param("cutoff") OffsetDateTime cutoff);
+
+    /**
+     * Remove a business's rollups before the cutoff whose reviews no longer exist
+     * Used by: nightly reconciliation, under lockBusinessExclusive
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM review_daily_rollups d
+        WHERE d.business_id = :businessId
+          AND d.review_date < CAST(:cutoff AT TIME ZONE 'UTC' AS DATE)
+          AND NOT EXISTS (
+              SELECT 1 FROM reviews r
+              WHERE r.business_id = d.business_id
+                AND COALESCE(r.source, 'DIRECT') = d.source
+                AND r.created_at >= CAST(d.review_date AS TIMESTAMP) AT TIME ZONE 'UTC'
+                AND r.created_at < CAST(d.review_date + 1 AS TIMESTAMP) AT TIME ZONE 'UTC')
+        """, nativeQuery = true)
+    int deleteOrphanedBefore(@Param("businessId") Long businessId, @Param("cutoff") OffsetDateTime cutoff);
+
+    /**
+     * Totals per source for a business: [source, count, ratingSum, positiveCount, firstDate]
+     * Used by: Insights platform breakdown, overall rating and sentiment
+     */
+    @Query("SELECT r.source, SUM(r.reviewCount), SUM(r.ratingSum), SUM(r.rating4Count + r.rating5Count), MIN(r.reviewDate) " +
+            "FROM ReviewDailyRollup r WHERE r.businessId = :businessId AND r.reviewCount > 0 GROUP BY r.source")
+    List<Object[]> sumBySource(@Param("businessId") Long businessId);
+
+    /**
+     * Totals per day for a business since a date: [date, count, ratingSum]
+     * Used by: Insights monthly trend
+     */
+    @Query("SELECT r.reviewDate, SUM(r.reviewCount), SUM(r.ratingSum) FROM ReviewDailyRollup r " +
+            "WHERE r.businessId = :businessId AND r.reviewDate >= :fromDate GROUP BY r.reviewDate")
+    List<Object[]> sumByDaySince(@Param("businessId") Long businessId, @Param("fromDate") LocalDate fromDate);
+
+    /**
+     * Review count for a business since a date (inclusive)
+     * Used by: ReputationService velocity and breakdown
+     */
+    @Query("SELECT COALESCE(SUM(r.reviewCount), 0) FROM ReviewDailyRollup r " +
+            "WHERE r.businessId = :businessId AND r.reviewDate >= :fromDate")
+    long sumReviewCountSince(@Param("businessId") Long businessId, @Param("fromDate") LocalDate fromDate);
+}
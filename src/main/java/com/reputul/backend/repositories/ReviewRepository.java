@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -109,6 +110,35 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     long countByBusinessId(Long businessId);
 
+    /**
+     * Count reviews for a business created after a cutoff
+     * Used by: ReputationService velocity scoring and BadgeService activity checks
+     */
+    long countByBusinessIdAndCreatedAtAfter(Long businessId, OffsetDateTime afterDate);
+
+    /**
+     * Reviews received per UTC day across an owner's businesses: [day, count]
+     * Used by: DashboardMetricsService
+     */
+    @Query(value = """
+        SELECT
+            CAST(r.created_at AT TIME ZONE 'UTC' AS DATE) AS day,
+            COUNT(*) AS total
+        FROM reviews r
+        JOIN businesses b ON r.business_id = b.id
+        WHERE b.user_id = :userId AND r.created_at >= :since
+        GROUP BY CAST(r.created_at AT TIME ZONE 'UTC' AS DATE)
+        """, nativeQuery = true)
+    List<Object[]> countDailyForOwnerSince(@Param("userId") Long userId, @Param("since") OffsetDateTime since);
+
+    /**
+     * Review totals across an owner's businesses since a date: [count, average rating, active businesses]
+     * Used by: DashboardMetricsService
+     */
+    @Query("SELECT COUNT(r), AVG(r.rating), COUNT(DISTINCT r.business.id) FROM Review r " +
+            "WHERE r.business.user.id = :userId AND r.createdAt > :since")
+    List<Object[]> summarizeForOwnerSince(@Param("userId") Long userId, @Param("since") OffsetDateTime since);
+
     /**
      * ADDED: Get average rating for a business with organization verification
      */
@@ -131,6 +161,12 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     List<Review> findByBusinessIdAndRatingGreaterThanEqual(Long businessId, Integer minRating);
 
+    /**
+     * Newest reviews at or above a minimum rating, limited by the pageable
+     * Used by: WidgetService when building public widget payloads
+     */
+    List<Review> findByBusinessIdAndRatingGreaterThanEqual(Long businessId, Integer minRating, Pageable pageable);
+
     // ================================================================
     // TIME-BASED QUERIES - Used by analytics and reputation calculations
     // ================================================================
@@ -228,6 +264,17 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
             @Param("sourceReviewId") String sourceReviewId
     );
 
+    /**
+     * Find a business's reviews from one source by external ID, in one query
+     * Used by: ReviewSyncService to diff a fetched batch against what is already stored
+     */
+    @Query("SELECT r FROM Review r WHERE r.business.id = :businessId AND r.source = :source AND r.sourceReviewId IN :sourceReviewIds")
+    List<Review> findByBusinessIdAndSourceAndSourceReviewIdIn(
+            @Param("businessId") Long businessId,
+            @Param("source") String source,
+            @Param("sourceReviewIds") Collection<String> sourceReviewIds
+    );
+
     /**
      * ADDED: Find reviews by source with organization verification
      */
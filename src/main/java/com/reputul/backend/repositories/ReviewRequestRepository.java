@@ -155,6 +155,29 @@ public interface ReviewRequestRepository extends JpaRepository<ReviewRequest, Lo
         """, nativeQuery = true)
     Object[] getSmsAnalyticsByUserId(@Param("userId") Long userId);
 
+    /**
+     * Review request counts per status for an owner
+     * Used by: DashboardMetricsService
+     */
+    @Query("SELECT r.status, COUNT(r) FROM ReviewRequest r WHERE r.business.user.id = :userId GROUP BY r.status")
+    List<Object[]> countByStatusForOwner(@Param("userId") Long userId);
+
+    /**
+     * Review requests created per UTC day since a date: [day, total, completed]
+     * Used by: DashboardMetricsService
+     */
+    @Query(value = """
+        SELECT
+            CAST(r.created_at AT TIME ZONE 'UTC' AS DATE) AS day,
+            COUNT(*) AS total,
+            COUNT(CASE WHEN r.status = 'COMPLETED' THEN 1 END) AS completed
+        FROM review_requests r
+        JOIN businesses b ON r.business_id = b.id
+        WHERE b.user_id = :userId AND r.created_at >= :since
+        GROUP BY CAST(r.created_at AT TIME ZONE 'UTC' AS DATE)
+        """, nativeQuery = true)
+    List<Object[]> countDailyForOwnerSince(@Param("userId") Long userId, @Param("since") OffsetDateTime since);
+
     /**
      * Get recent SMS activity for dashboard
      */
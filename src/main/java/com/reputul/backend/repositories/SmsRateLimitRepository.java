@@ -0,0 +1,105 @@
+package com.reputul.backend.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * SMS rate-limit window counters on sms_rate_limit_windows (V042).
+ *
+ * Reservations are a single conditional UPDATE (used + n <= cap), so concurrent nodes
+ * can never push a window past its cap; the row is created on first use with
+ * ON CONFLICT DO NOTHING.
+ *
+ * Callers usually hold a transaction (a send is reserved while the request that triggers
+ * it is being written). Reservations and releases run outside it, each statement committed
+ * on its own, so the window row is never locked for the length of a provider call and a
+ * rollback of the caller can't undo tokens a node has already leased.
+ *
+ * Used by: SmsRateLimitService
+ */
+@Repository
+public class SmsRateLimitRepository {
+
+    private static final String RESERVE_SQL =
+            "UPDATE sms_rate_limit_windows SET used = used + ?, updated_at = ? " +
+            "WHERE limit_name = ? AND limit_key = ? AND window_start = ? AND used + ? <= ?";
+
+    private static final String CREATE_WINDOW_SQL =
+            "INSERT INTO sms_rate_limit_windows (limit_name, limit_key, window_start, used, updated_at) " +
+            "VALUES (?, ?, ?, 0, ?) ON CONFLICT DO NOTHING";
+
+    private static final String RELEASE_SQL =
+            "UPDATE sms_rate_limit_windows SET used = GREATEST(used - ?, 0), updated_at = ? " +
+            "WHERE limit_name = ? AND limit_key = ? AND window_start = ?";
+
+    private static final String USED_SQL =
+            "SELECT used FROM sms_rate_limit_windows WHERE limit_name = ? AND limit_key = ? AND window_start = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate outsideTransaction;
+
+    public SmsRateLimitRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outsideTransaction = new TransactionTemplate(transactionManager);
+        this.outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+    }
+
+    /**
+     * Add amount to a window's count if that keeps it within cap
+     *
+     * @return false if the window has no room for amount
+     */
+    public boolean tryReserve(String limitName, String limitKey, OffsetDateTime windowStart,
+                              int amount, int cap, OffsetDateTime now) {
+        if (amount > cap) {
+            return false;
+        }
+        return Boolean.TRUE.equals(outsideTransaction.execute(status -> {
+            if (reserve(limitName, limitKey, windowStart, amount, cap, now)) {
+                return true;
+            }
+            // Either the window is full or its row doesn't exist yet. Retry whether or not this
+            // insert created the row: a concurrent first reservation may have created it
+            jdbcTemplate.update(CREATE_WINDOW_SQL, limitName, limitKey, windowStart, now);
+            return reserve(limitName, limitKey, windowStart, amount, cap, now);
+        }));
+    }
+
+    private boolean reserve(String limitName, String limitKey, OffsetDateTime windowStart,
+                            int amount, int cap, OffsetDateTime now) {
+        return jdbcTemplate.update(RESERVE_SQL, amount, now, limitName, limitKey, windowStart, amount, cap) > 0;
+    }
+
+    /**
+     * Give back reserved sends that were never used, to the window they were reserved in
+     */
+    public void release(String limitName, String limitKey, OffsetDateTime windowStart, int amount, OffsetDateTime now) {
+        outsideTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update(RELEASE_SQL, amount, now, limitName, limitKey, windowStart));
+    }
+
+    /**
+     * Sends reserved in a window, 0 if it has none
+     */
+    public int used(String limitName, String limitKey, OffsetDateTime windowStart) {
+        List<Integer> used = jdbcTemplate.queryForList(USED_SQL, Integer.class, limitName, limitKey, windowStart);
+        return used.isEmpty() ? 0 : used.get(0);
+    }
+
+    /**
+     * @return number of windows deleted
+     */
+    public int deleteWindowsBefore(OffsetDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM sms_rate_limit_windows WHERE window_start < ?", cutoff);
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM sms_rate_limit_windows");
+    }
+}
@@ -2,9 +2,23 @@ package com.reputul.backend.repositories;
 
 import com.reputul.backend.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    /**
+     * User with organization fetched, safe to use after the session closes.
+     * Used by UserAuthService for the authenticated user cache.
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.organization WHERE u.email = :email")
+    Optional<User> findWithOrganizationByEmail(@Param("email") String email);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.organization WHERE u.id IN :ids")
+    List<User> findAllWithOrganizationByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,117 @@
+package com.reputul.backend.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Inbound webhook idempotency keys on webhook_idempotency_keys (V046).
+ *
+ * A key is claimed with a single INSERT ... ON CONFLICT DO NOTHING on its primary key, so
+ * of several nodes receiving the same delivery exactly one gets the row. An expired key, or
+ * a claim whose lease lapsed, is taken over with one conditional UPDATE. Completing and
+ * releasing only apply to the claim_token that holds the key. Plain JDBC, no transaction
+ * needed.
+ *
+ * Used by: WebhookIdempotencyService
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookIdempotencyRepository {
+
+    private static final String INSERT_CLAIM_SQL =
+            "INSERT INTO webhook_idempotency_keys (scope, idempotency_key, organization_id, status, claim_token, " +
+            "lease_expires_at, created_at, expires_at) VALUES (?, ?, ?, 'IN_PROGRESS', ?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String TAKE_OVER_SQL =
+            "UPDATE webhook_idempotency_keys SET organization_id = ?, status = 'IN_PROGRESS', claim_token = ?, " +
+            "lease_expires_at = ?, response_status = NULL, response_body = NULL, created_at = ?, expires_at = ? " +
+            "WHERE scope = ? AND idempotency_key = ? " +
+            "AND (expires_at <= ? OR (status = 'IN_PROGRESS' AND lease_expires_at < ?))";
+
+    private static final String FIND_SQL =
+            "SELECT status, lease_expires_at, response_status, response_body, expires_at " +
+            "FROM webhook_idempotency_keys WHERE scope = ? AND idempotency_key = ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE webhook_idempotency_keys SET status = 'COMPLETED', claim_token = NULL, lease_expires_at = NULL, " +
+            "response_status = ?, response_body = ? " +
+            "WHERE scope = ? AND idempotency_key = ? AND claim_token = ? AND status = 'IN_PROGRESS'";
+
+    private static final String RELEASE_SQL =
+            "DELETE FROM webhook_idempotency_keys " +
+            "WHERE scope = ? AND idempotency_key = ? AND claim_token = ? AND status = 'IN_PROGRESS'";
+
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM webhook_idempotency_keys WHERE (scope, idempotency_key) IN (" +
+            "SELECT scope, idempotency_key FROM webhook_idempotency_keys WHERE expires_at < ? " +
+            "ORDER BY expires_at LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Entry(
+            String status,
+            OffsetDateTime leaseExpiresAt,
+            Integer responseStatus,
+            String responseBody,
+            OffsetDateTime expiresAt
+    ) {
+    }
+
+    /**
+     * Claim a key nobody holds, or take over one that expired or whose lease lapsed
+     *
+     * @return false if the key is held or already completed
+     */
+    public boolean claim(String scope, String key, Long organizationId, String claimToken,
+                         OffsetDateTime now, OffsetDateTime leaseExpiresAt, OffsetDateTime expiresAt) {
+        if (jdbcTemplate.update(INSERT_CLAIM_SQL, scope, key, organizationId, claimToken,
+                leaseExpiresAt, now, expiresAt) > 0) {
+            return true;
+        }
+        return jdbcTemplate.update(TAKE_OVER_SQL, organizationId, claimToken, leaseExpiresAt, now, expiresAt,
+                scope, key, now, now) > 0;
+    }
+
+    public Optional<Entry> find(String scope, String key) {
+        List<Entry> entries = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new Entry(
+                        rs.getString("status"),
+                        rs.getObject("lease_expires_at", OffsetDateTime.class),
+                        rs.getObject("response_status", Integer.class),
+                        rs.getString("response_body"),
+                        rs.getObject("expires_at", OffsetDateTime.class)),
+                scope, key);
+        return entries.stream().findFirst();
+    }
+
+    /**
+     * Store the response for a held key
+     *
+     * @return false if the claim had lapsed and passed to someone else
+     */
+    public boolean complete(String scope, String key, String claimToken, Integer responseStatus, String responseBody) {
+        return jdbcTemplate.update(COMPLETE_SQL, responseStatus, responseBody, scope, key, claimToken) > 0;
+    }
+
+    /**
+     * Drop a held key so the next delivery processes the request again
+     */
+    public boolean release(String scope, String key, String claimToken) {
+        return jdbcTemplate.update(RELEASE_SQL, scope, key, claimToken) > 0;
+    }
+
+    /**
+     * Delete up to limit expired keys, oldest first
+     *
+     * @return number of keys deleted
+     */
+    public int deleteExpired(OffsetDateTime now, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, now, limit);
+    }
+}
@@ -89,22 +89,6 @@ public interface WidgetConfigurationRepository extends JpaRepository<WidgetConfi
     // ANALYTICS QUERIES
     // ================================================================
 
-    /**
-     * Increment impression count atomically
-     */
-    @Modifying
-    @Query("UPDATE WidgetConfiguration w SET w.totalImpressions = w.totalImpressions + 1, " +
-            "w.lastImpressionAt = CURRENT_TIMESTAMP WHERE w.widgetKey = :widgetKey")
-    int incrementImpressions(@Param("widgetKey") String widgetKey);
-
-    /**
-     * Increment click count atomically
-     */
-    @Modifying
-    @Query("UPDATE WidgetConfiguration w SET w.totalClicks = w.totalClicks + 1, " +
-            "w.lastClickAt = CURRENT_TIMESTAMP WHERE w.widgetKey = :widgetKey")
-    int incrementClicks(@Param("widgetKey") String widgetKey);
-
     /**
      * Get total impressions for an organization
      */
@@ -137,6 +121,12 @@ public interface WidgetConfigurationRepository extends JpaRepository<WidgetConfi
      */
     List<WidgetConfiguration> findByBusinessIdOrderByCreatedAtDesc(Long businessId);
 
+    /**
+     * Widget keys for a business (used to evict cached public widget payloads)
+     */
+    @Query("SELECT w.widgetKey FROM WidgetConfiguration w WHERE w.business.id = :businessId")
+    List<String> findWidgetKeysByBusinessId(@Param("businessId") Long businessId);
+
     /**
      * Find active widgets for a business
      */
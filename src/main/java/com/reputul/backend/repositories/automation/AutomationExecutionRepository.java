@@ -6,6 +6,7 @@ import com.reputul.backend.models.Customer;
 import com.reputul.backend.models.Organization;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -38,6 +39,49 @@ public interface AutomationExecutionRepository extends JpaRepository<AutomationE
             @Param("now") OffsetDateTime now,
             @Param("orgId") Long orgId);
 
+    /**
+     * Due PENDING execution ids across all organizations, interleaved so each organization
+     * contributes at most :perOrgLimit rows and no single tenant can starve the others.
+     * Used by the automation scheduler in place of one findDueExecutions call per organization.
+     */
+    @Query(value = """
+        SELECT due.id FROM (
+            SELECT e.id,
+                   COALESCE(e.scheduled_for, e.created_at) AS due_at,
+                   ROW_NUMBER() OVER (
+                       PARTITION BY w.organization_id
+                       ORDER BY COALESCE(e.scheduled_for, e.created_at)) AS org_rank
+            FROM automation_executions e
+            JOIN automation_workflows w ON w.id = e.workflow_id
+            WHERE e.status = 'PENDING'
+            AND (e.scheduled_for IS NULL OR e.scheduled_for <= :now)
+        ) due
+        WHERE due.org_rank <= :perOrgLimit
+        ORDER BY due.org_rank, due.due_at
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findDueExecutionIdsFairly(
+            @Param("now") OffsetDateTime now,
+            @Param("perOrgLimit") int perOrgLimit,
+            @Param("limit") int limit);
+
+    /**
+     * Atomically move an execution from PENDING to RUNNING. Returns 0 if another worker
+     * (or a cancel) got there first.
+     */
+    @Modifying
+    @Query("""
+        UPDATE AutomationExecution e
+        SET e.status = :running, e.startedAt = :now
+        WHERE e.id = :executionId
+        AND e.status = :pending
+        """)
+    int claimPending(
+            @Param("executionId") Long executionId,
+            @Param("now") OffsetDateTime now,
+            @Param("pending") AutomationExecution.ExecutionStatus pending,
+            @Param("running") AutomationExecution.ExecutionStatus running);
+
     /**
      * Find executions by workflow with organization validation
      */
@@ -3,6 +3,7 @@ package com.reputul.backend.repositories.campaign;
 import com.reputul.backend.models.campaign.CampaignStepExecution;
 import com.reputul.backend.enums.StepStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,6 +19,38 @@ public interface CampaignStepExecutionRepository extends JpaRepository<CampaignS
     @Query("SELECT cse FROM CampaignStepExecution cse WHERE cse.status = :status AND cse.scheduledAt <= :now")
     List<CampaignStepExecution> findDueSteps(@Param("status") StepStatus status, @Param("now") LocalDateTime now);
 
+    /**
+     * Lock up to :limit due, unleased pending steps for the calling transaction.
+     * SKIP LOCKED lets concurrent nodes claim disjoint batches without waiting on each other.
+     */
+    @Query(value = """
+        SELECT cse.id FROM campaign_step_executions cse
+        WHERE cse.status = 'PENDING'
+          AND cse.scheduled_at <= :now
+          AND (cse.lease_expires_at IS NULL OR cse.lease_expires_at < :now)
+        ORDER BY cse.scheduled_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Long> lockDueStepIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Lease locked steps to a scheduler instance
+     */
+    @Modifying
+    @Query("UPDATE CampaignStepExecution cse SET cse.claimedBy = :owner, cse.leaseExpiresAt = :leaseExpiresAt " +
+            "WHERE cse.id IN :ids")
+    int leaseSteps(@Param("ids") List<Long> ids, @Param("owner") String owner,
+                   @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+
+    /**
+     * Give a claimed but unstarted step back to the pool
+     */
+    @Modifying
+    @Query("UPDATE CampaignStepExecution cse SET cse.claimedBy = NULL, cse.leaseExpiresAt = NULL " +
+            "WHERE cse.id = :id AND cse.claimedBy = :owner AND cse.status = :status")
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner, @Param("status") StepStatus status);
+
     List<CampaignStepExecution> findByStatusAndScheduledAtBefore(StepStatus status, LocalDateTime scheduledAt);
 
     long countByExecutionIdAndStatus(Long executionId, StepStatus status);
@@ -0,0 +1,193 @@
+package com.reputul.backend.scheduler;
+
+import com.reputul.backend.config.BulkSendProperties;
+import com.reputul.backend.config.InstanceId;
+import com.reputul.backend.models.BulkSendChannel;
+import com.reputul.backend.repositories.BulkSendRepository;
+import com.reputul.backend.repositories.BulkSendRepository.ClaimedItem;
+import com.reputul.backend.services.BulkReviewRequestService;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk Send Dispatcher
+ *
+ * Drains bulk_send_items, one lane per channel:
+ * - Each tick a lane takes as many tokens as its provider budget has (Resend for EMAIL,
+ *   Twilio for SMS), capped by its free concurrency slots, and claims that many items with
+ *   FOR UPDATE SKIP LOCKED. Unused tokens go back to the bucket.
+ * - The claimed batch is prefetched in one pass and each item is sent on bulkSendExecutor.
+ * - A lease left by a node that died expires and the item is claimed again, up to
+ *   max-attempts; then it is failed. An item whose review request was already created is
+ *   never claimed again; it is finished from that request's status instead. Jobs with
+ *   nothing left to send are completed.
+ */
+@Component
+@Slf4j
+public class BulkSendDispatcher {
+
+    private final BulkSendRepository bulkSendRepository;
+    private final BulkReviewRequestService bulkReviewRequestService;
+    private final ThreadPoolTaskExecutor bulkSendExecutor;
+    private final BulkSendProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final String instanceId;
+
+    private final Map<BulkSendChannel, Lane> lanes = new EnumMap<>(BulkSendChannel.class);
+    private final Counter throttled;
+
+    public BulkSendDispatcher(BulkSendRepository bulkSendRepository,
+                              BulkReviewRequestService bulkReviewRequestService,
+                              @Qualifier("bulkSendExecutor") ThreadPoolTaskExecutor bulkSendExecutor,
+                              BulkSendProperties properties,
+                              PlatformTransactionManager transactionManager,
+                              Clock clock,
+                              InstanceId instanceId,
+                              MeterRegistry meterRegistry) {
+        this.bulkSendRepository = bulkSendRepository;
+        this.bulkReviewRequestService = bulkReviewRequestService;
+        this.bulkSendExecutor = bulkSendExecutor;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.instanceId = instanceId.value();
+
+        for (BulkSendChannel channel : BulkSendChannel.values()) {
+            Lane lane = new Lane(channel, properties.budgetFor(channel), meterRegistry);
+            lanes.put(channel, lane);
+            Gauge.builder("bulk.send.in_flight", lane.active, AtomicInteger::get)
+                    .description("Bulk send items being sent on this node")
+                    .tag("channel", channel.name())
+                    .register(meterRegistry);
+        }
+
+        this.throttled = Counter.builder("bulk.send.throttled")
+                .description("Dispatch ticks where a channel had spent its provider budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claim and send what each channel's budget allows
+     */
+    @Scheduled(fixedDelayString = "${app.bulk-send.dispatch.interval-ms:1000}")
+    public void dispatch() {
+        try {
+            OffsetDateTime now = OffsetDateTime.now(clock);
+            int settled = bulkSendRepository.settleLinked(now);
+            if (settled > 0) {
+                log.warn("Finished {} bulk send items whose review request was created before their lease expired",
+                        settled);
+            }
+            int exhausted = bulkSendRepository.failExhausted(properties.maxAttempts(), now);
+            if (exhausted > 0) {
+                log.warn("Failed {} bulk send items that ran out of attempts", exhausted);
+            }
+
+            for (Lane lane : lanes.values()) {
+                dispatch(lane);
+            }
+
+            bulkSendRepository.finishJobs(OffsetDateTime.now(clock));
+        } catch (Exception e) {
+            log.error("Bulk send dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(Lane lane) {
+        int free = lane.budget.maxConcurrent() - lane.active.get();
+        if (free <= 0) {
+            return;
+        }
+        int tokens = (int) lane.bucket.tryConsumeAsMuchAsPossible(free);
+        if (tokens == 0) {
+            throttled.increment();
+            return;
+        }
+
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<ClaimedItem> items = List.of();
+        try {
+            items = transactionTemplate.execute(status -> bulkSendRepository.claim(lane.channel, instanceId,
+                    tokens, properties.maxAttempts(), now, now.plus(properties.lease())));
+        } finally {
+            // Budget is only spent on items actually claimed
+            if (items.size() < tokens) {
+                lane.bucket.addTokens(tokens - items.size());
+            }
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+
+        BulkReviewRequestService.Batch batch = bulkReviewRequestService.prefetch(items);
+        for (ClaimedItem item : items) {
+            lane.active.incrementAndGet();
+            try {
+                bulkSendExecutor.execute(() -> {
+                    try {
+                        String status = bulkReviewRequestService.send(item, batch, instanceId);
+                        ("SENT".equals(status) ? lane.sent : lane.failed).increment();
+                    } catch (Exception e) {
+                        // Outcome not recorded; the lease expires and the item is retried
+                        log.error("Bulk send item {} failed unexpectedly: {}", item.id(), e.getMessage(), e);
+                    } finally {
+                        lane.active.decrementAndGet();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                lane.active.decrementAndGet();
+                bulkSendRepository.release(item.id(), instanceId, OffsetDateTime.now(clock));
+            }
+        }
+        log.debug("Dispatched {} bulk {} items", items.size(), lane.channel);
+    }
+
+    private static final class Lane {
+        private final BulkSendChannel channel;
+        private final BulkSendProperties.ChannelBudget budget;
+        private final Bucket bucket;
+        private final AtomicInteger active = new AtomicInteger();
+        private final Counter sent;
+        private final Counter failed;
+
+        private Lane(BulkSendChannel channel, BulkSendProperties.ChannelBudget budget, MeterRegistry meterRegistry) {
+            this.channel = channel;
+            this.budget = budget;
+            int perSecond = Math.max(1, budget.sendsPerSecond());
+            this.bucket = Bucket.builder()
+                    .addLimit(Bandwidth.classic(perSecond, Refill.greedy(perSecond, Duration.ofSeconds(1))))
+                    .build();
+            this.sent = outcomeCounter(meterRegistry, channel, "sent");
+            this.failed = outcomeCounter(meterRegistry, channel, "failed");
+        }
+
+        private static Counter outcomeCounter(MeterRegistry meterRegistry, BulkSendChannel channel, String outcome) {
+            return Counter.builder("bulk.send.items")
+                    .description("Bulk send items finished, by outcome")
+                    .tag("channel", channel.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
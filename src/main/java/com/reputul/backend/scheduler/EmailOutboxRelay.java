@@ -0,0 +1,370 @@
+package com.reputul.backend.scheduler;
+
+import com.reputul.backend.config.EmailOutboxProperties;
+import com.reputul.backend.config.InstanceId;
+import com.reputul.backend.integrations.EmailProvider;
+import com.reputul.backend.integrations.EmailProvider.OutboundEmail;
+import com.reputul.backend.integrations.EmailProviderException;
+import com.reputul.backend.repositories.EmailOutboxRepository;
+import com.reputul.backend.repositories.EmailOutboxRepository.ClaimedEmail;
+import com.reputul.backend.repositories.ProviderRequestWindowRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Email Outbox Relay
+ *
+ * Drains email_outbox into the email provider:
+ * - Each tick claims due messages in batches of up to batch-size with FOR UPDATE SKIP
+ *   LOCKED, while there are free concurrency slots and provider request budget. Each batch
+ *   is one provider API call on emailOutboxExecutor.
+ * - The request budget (requests-per-second) is shared by all nodes through
+ *   provider_request_windows, since the provider's limit is per team, not per node.
+ * - A rejected batch is retried after an exponential backoff; a message that has failed
+ *   max-attempts times is dead-lettered and its review request marked FAILED.
+ * - A batch refused as invalid (a permanent provider error) is sent again one email at a
+ *   time, and only the emails refused on their own are dead-lettered. Each of those sends
+ *   waits for budget and then renews its lease first, skipping emails another node has
+ *   taken over in the meantime.
+ * - Delivery is at least once: if a node dies after the provider accepted a batch but
+ *   before it was recorded, the lease expires and the batch is sent again.
+ * - SENT and DEAD messages are deleted once they are older than retention.
+ */
+@Component
+@Slf4j
+public class EmailOutboxRelay {
+
+    /**
+     * Request windows are one second long; older ones are only kept briefly
+     */
+    private static final Duration REQUEST_WINDOW_RETENTION = Duration.ofMinutes(1);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final ProviderRequestWindowRepository requestWindowRepository;
+    private final EmailProvider emailProvider;
+    private final TaskExecutor emailOutboxExecutor;
+    private final EmailOutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final String instanceId;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong sending = new AtomicLong();
+
+    private final Timer sendSuccess;
+    private final Timer sendFailure;
+    private final Timer queueTime;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+    private final Counter throttled;
+
+    public EmailOutboxRelay(EmailOutboxRepository emailOutboxRepository,
+                            ProviderRequestWindowRepository requestWindowRepository,
+                            EmailProvider emailProvider,
+                            @Qualifier("emailOutboxExecutor") TaskExecutor emailOutboxExecutor,
+                            EmailOutboxProperties properties,
+                            PlatformTransactionManager transactionManager,
+                            Clock clock,
+                            InstanceId instanceId,
+                            MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.requestWindowRepository = requestWindowRepository;
+        this.emailProvider = emailProvider;
+        this.emailOutboxExecutor = emailOutboxExecutor;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.instanceId = instanceId.value();
+
+        Gauge.builder("email.outbox.depth", pending, AtomicLong::get)
+                .description("Outbox messages not yet sent, across all nodes")
+                .tag("status", "pending")
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.depth", sending, AtomicLong::get)
+                .description("Outbox messages not yet sent, across all nodes")
+                .tag("status", "sending")
+                .register(meterRegistry);
+
+        this.sendSuccess = sendTimer(meterRegistry, "success");
+        this.sendFailure = sendTimer(meterRegistry, "failure");
+        this.queueTime = Timer.builder("email.outbox.queue.time")
+                .description("Time from enqueue to provider acceptance")
+                .register(meterRegistry);
+        this.sent = outcomeCounter(meterRegistry, "sent");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.dead = outcomeCounter(meterRegistry, "dead");
+        this.throttled = Counter.builder("email.outbox.throttled")
+                .description("Relay passes stopped by the provider request budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send what concurrency and the provider budget allow, then refresh the depth gauges
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.relay.interval-ms:1000}")
+    public void relay() {
+        try {
+            int exhausted = emailOutboxRepository.deadLetterExhausted(properties.maxAttempts(), now());
+            if (exhausted > 0) {
+                dead.increment(exhausted);
+                log.warn("Dead-lettered {} outbox emails that ran out of attempts", exhausted);
+            }
+
+            if (emailProvider.isEnabled()) {
+                while (dispatchBatch()) {
+                    // Keep going while full batches come back
+                }
+            }
+
+            Map<String, Integer> queued = emailOutboxRepository.countQueued();
+            pending.set(queued.getOrDefault("PENDING", 0));
+            sending.set(queued.getOrDefault("SENDING", 0));
+        } catch (Exception e) {
+            log.error("Email outbox relay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete SENT and DEAD messages past retention a batch at a time, up to
+     * cleanup-max-batches per run, so no run holds locks on more than one batch or takes long
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.cleanup.interval-ms:60000}")
+    public void purgeFinished() {
+        try {
+            OffsetDateTime cutoff = now().minus(properties.retention());
+            int total = 0;
+            for (int batch = 0; batch < properties.cleanupMaxBatches(); batch++) {
+                int deleted = emailOutboxRepository.deleteFinished(cutoff, properties.cleanupBatchSize());
+                total += deleted;
+                if (deleted < properties.cleanupBatchSize()) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.debug("Deleted {} finished outbox emails", total);
+            }
+            requestWindowRepository.deleteWindowsBefore(now().minus(REQUEST_WINDOW_RETENTION));
+        } catch (Exception e) {
+            log.error("Error purging finished outbox emails: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claim one batch and hand it to the executor
+     *
+     * @return true if a full batch went out and more may be waiting
+     */
+    private boolean dispatchBatch() {
+        if (active.get() >= properties.concurrency()) {
+            return false;
+        }
+        OffsetDateTime requestWindow = tryReserveRequest();
+        if (requestWindow == null) {
+            throttled.increment();
+            return false;
+        }
+
+        int batchSize = Math.max(1, Math.min(properties.batchSize(), emailProvider.getMaxBatchSize()));
+        OffsetDateTime now = now();
+        List<ClaimedEmail> emails = List.of();
+        try {
+            emails = transactionTemplate.execute(status -> emailOutboxRepository.claim(instanceId, batchSize,
+                    properties.maxAttempts(), now, now.plus(properties.lease())));
+        } finally {
+            // Budget is only spent on batches actually sent
+            if (emails.isEmpty()) {
+                releaseRequest(requestWindow);
+            }
+        }
+        if (emails.isEmpty()) {
+            return false;
+        }
+
+        List<ClaimedEmail> batch = emails;
+        active.incrementAndGet();
+        try {
+            emailOutboxExecutor.execute(() -> {
+                try {
+                    send(batch);
+                } catch (Exception e) {
+                    // Outcome not recorded; the lease expires and the batch is retried
+                    log.error("Outbox batch of {} emails failed unexpectedly: {}", batch.size(), e.getMessage(), e);
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            active.decrementAndGet();
+            releaseRequest(requestWindow);
+            OffsetDateTime releasedAt = now();
+            batch.forEach(email -> emailOutboxRepository.release(email.id(), instanceId, releasedAt));
+            return false;
+        }
+        return batch.size() == batchSize;
+    }
+
+    private void send(List<ClaimedEmail> emails) {
+        List<String> messageIds;
+        try {
+            messageIds = callProvider(emails);
+        } catch (EmailProviderException e) {
+            log.warn("{} rejected a batch of {} emails: {}", emailProvider.getName(), emails.size(), e.getMessage());
+            if (!e.isPermanent()) {
+                fail(emails, e.getMessage());
+            } else if (emails.size() == 1) {
+                deadLetter(emails.get(0), e.getMessage(), now());
+            } else {
+                // One invalid email rejects the whole batch: send them one at a time, within
+                // the request budget, so only the invalid ones are dead-lettered
+                sendOneByOne(emails);
+            }
+            return;
+        }
+
+        // Accepted by the provider: only record it from here on, never retry
+        List<String> ids = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            ids.add(i < messageIds.size() ? messageIds.get(i) : null);
+        }
+        OffsetDateTime now = now();
+        int recorded = emailOutboxRepository.markSent(emails, ids, instanceId, now);
+        sent.increment(recorded);
+        for (ClaimedEmail email : emails) {
+            if (email.createdAt() != null) {
+                queueTime.record(Duration.between(email.createdAt(), now));
+            }
+        }
+        log.debug("Sent {} outbox emails via {}", recorded, emailProvider.getName());
+    }
+
+    /**
+     * Send each email on its own. Waiting for budget can outlast the batch's lease, so
+     * each lease is renewed right before its send; an email whose lease has passed to
+     * another node is left to that node.
+     */
+    private void sendOneByOne(List<ClaimedEmail> emails) {
+        for (int i = 0; i < emails.size(); i++) {
+            ClaimedEmail email = emails.get(i);
+            try {
+                awaitRequest();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                OffsetDateTime now = now();
+                emails.subList(i, emails.size())
+                        .forEach(unsent -> emailOutboxRepository.release(unsent.id(), instanceId, now));
+                return;
+            }
+            OffsetDateTime now = now();
+            if (!emailOutboxRepository.renewLease(email.id(), instanceId, now.plus(properties.lease()), now)) {
+                log.warn("Outbox email {} was taken over by another node before its retry", email.id());
+                continue;
+            }
+            send(List.of(email));
+        }
+    }
+
+    /**
+     * Reserve one provider call in the current one-second window
+     *
+     * @return the window it was counted in, or null if the budget is spent
+     */
+    private OffsetDateTime tryReserveRequest() {
+        OffsetDateTime now = now();
+        OffsetDateTime window = now.truncatedTo(ChronoUnit.SECONDS);
+        return requestWindowRepository.tryReserve(emailProvider.getName(), window,
+                Math.max(1, properties.requestsPerSecond()), now) ? window : null;
+    }
+
+    private void awaitRequest() throws InterruptedException {
+        while (tryReserveRequest() == null) {
+            Thread.sleep(1000 - now().getNano() / 1_000_000);
+        }
+    }
+
+    private void releaseRequest(OffsetDateTime window) {
+        requestWindowRepository.release(emailProvider.getName(), window, now());
+    }
+
+    private List<String> callProvider(List<ClaimedEmail> emails) throws EmailProviderException {
+        List<OutboundEmail> outbound = emails.stream()
+                .map(email -> new OutboundEmail(email.from(), email.to(), email.subject(), email.html()))
+                .toList();
+
+        long startedAt = System.nanoTime();
+        try {
+            List<String> messageIds = emailProvider.sendBatch(outbound);
+            sendSuccess.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            return messageIds;
+        } catch (EmailProviderException e) {
+            sendFailure.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            throw e;
+        } catch (Exception e) {
+            sendFailure.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            throw new EmailProviderException(String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    private void fail(List<ClaimedEmail> emails, String error) {
+        OffsetDateTime now = now();
+        for (ClaimedEmail email : emails) {
+            if (email.attempts() >= properties.maxAttempts()) {
+                deadLetter(email, error, now);
+            } else {
+                OffsetDateTime nextAttemptAt = now.plus(properties.backoffAfter(email.attempts()));
+                if (emailOutboxRepository.retry(email.id(), instanceId, error, nextAttemptAt, now)) {
+                    retried.increment();
+                }
+            }
+        }
+    }
+
+    private void deadLetter(ClaimedEmail email, String error, OffsetDateTime now) {
+        if (emailOutboxRepository.deadLetter(email, instanceId, error, now)) {
+            dead.increment();
+            log.error("Dead-lettered outbox email {} to {} after {} attempts: {}",
+                    email.id(), email.to(), email.attempts(), error);
+        }
+    }
+
+    private OffsetDateTime now() {
+        return OffsetDateTime.now(clock);
+    }
+
+    private Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("email.outbox.send.latency")
+                .description("Provider API call time per batch")
+                .tag("provider", emailProvider.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("email.outbox.messages")
+                .description("Outbox messages finished or rescheduled, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
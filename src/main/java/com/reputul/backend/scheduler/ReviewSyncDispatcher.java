@@ -0,0 +1,225 @@
+package com.reputul.backend.scheduler;
+
+import com.reputul.backend.config.InstanceId;
+import com.reputul.backend.models.ChannelCredential;
+import com.reputul.backend.models.ReviewSyncJob;
+import com.reputul.backend.repositories.ChannelCredentialLeaseRepository;
+import com.reputul.backend.repositories.ChannelCredentialRepository;
+import com.reputul.backend.services.ReviewSyncExecutor;
+import com.reputul.backend.services.ReviewSyncSchedule;
+import com.reputul.backend.services.ReviewSyncService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Review Sync Dispatcher
+ *
+ * The single scheduled entry point for review sync, driven by next_sync_scheduled:
+ * - Due credentials are claimed with FOR UPDATE SKIP LOCKED and leased to this node,
+ *   so every credential is synced by one node per cycle however many nodes run.
+ * - Each node holds at most max-in-flight leases at once.
+ * - After a sync the next run is set from ReviewSyncSchedule (OAuth every 15 minutes,
+ *   URL connections every 2 hours, jittered) and the lease is dropped. A lease left by
+ *   a node that died expires and the credential is claimed again.
+ *
+ * Claimed credentials run on ReviewSyncExecutor within its per-platform limits.
+ */
+@Component
+@Slf4j
+public class ReviewSyncDispatcher {
+
+    private final ChannelCredentialLeaseRepository leaseRepository;
+    private final ChannelCredentialRepository channelCredentialRepository;
+    private final ReviewSyncService reviewSyncService;
+    private final ReviewSyncExecutor reviewSyncExecutor;
+    private final ReviewSyncSchedule syncSchedule;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+
+    private final Set<Long> leased = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.review-sync.dispatch.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${app.review-sync.dispatch.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.review-sync.dispatch.lease:10m}")
+    private Duration lease;
+
+    public ReviewSyncDispatcher(ChannelCredentialLeaseRepository leaseRepository,
+                                ChannelCredentialRepository channelCredentialRepository,
+                                ReviewSyncService reviewSyncService,
+                                ReviewSyncExecutor reviewSyncExecutor,
+                                ReviewSyncSchedule syncSchedule,
+                                PlatformTransactionManager transactionManager,
+                                InstanceId instanceId,
+                                MeterRegistry meterRegistry) {
+        this.leaseRepository = leaseRepository;
+        this.channelCredentialRepository = channelCredentialRepository;
+        this.reviewSyncService = reviewSyncService;
+        this.reviewSyncExecutor = reviewSyncExecutor;
+        this.syncSchedule = syncSchedule;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.instanceId = instanceId.value();
+
+        Gauge.builder("review.sync.leased", leased, Set::size)
+                .description("Credentials leased to this node for sync")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claim and dispatch due credentials
+     */
+    @Scheduled(fixedDelayString = "${app.review-sync.dispatch.interval-ms:30000}")
+    public void dispatchDueSyncs() {
+        try {
+            int dispatched = 0;
+            while (true) {
+                // Per-node cap: never hold more leases than max-in-flight
+                int capacity = Math.min(batchSize, maxInFlight - leased.size());
+                if (capacity <= 0) {
+                    log.debug("Review sync dispatcher at its in-flight cap, deferring remaining due credentials");
+                    break;
+                }
+
+                List<Long> claimed = claim(capacity);
+                if (!claimed.isEmpty()) {
+                    dispatch(claimed);
+                    dispatched += claimed.size();
+                }
+
+                if (claimed.size() < capacity) {
+                    break;
+                }
+            }
+
+            if (dispatched > 0) {
+                log.info("Dispatched {} due review syncs", dispatched);
+            }
+        } catch (Exception e) {
+            log.error("Review sync dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<Long> claim(int limit) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        List<Long> claimed = transactionTemplate.execute(status ->
+                leaseRepository.claimDue(instanceId, limit, now, now.plus(lease)));
+        leased.addAll(claimed);
+        return claimed;
+    }
+
+    private void dispatch(List<Long> claimed) {
+        boolean handedOff = false;
+        try {
+            handOff(claimed);
+            handedOff = true;
+        } finally {
+            if (!handedOff) {
+                // Nothing will complete these; free the slots and let another cycle claim them
+                for (Long credentialId : claimed) {
+                    try {
+                        leaseRepository.release(credentialId, instanceId);
+                    } catch (Exception e) {
+                        log.warn("Failed to release sync lease on credential {}; it will expire: {}",
+                                credentialId, e.getMessage());
+                    } finally {
+                        leased.remove(credentialId);
+                    }
+                }
+            }
+        }
+    }
+
+    private void handOff(List<Long> claimed) {
+        Map<Long, ChannelCredential> credentials = channelCredentialRepository.findWithBusinessByIdIn(claimed).stream()
+                .collect(Collectors.toMap(ChannelCredential::getId, Function.identity()));
+        Set<Long> started = ConcurrentHashMap.newKeySet();
+
+        reviewSyncExecutor.submit("Scheduled", credentials.values(), credential -> {
+            started.add(credential.getId());
+            return syncCredential(credential);
+        }).whenComplete((result, error) -> {
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            for (Long credentialId : claimed) {
+                ChannelCredential credential = credentials.get(credentialId);
+                try {
+                    if (credential != null && started.contains(credentialId)) {
+                        leaseRepository.complete(credentialId, instanceId, syncSchedule.nextSyncAfter(credential, now));
+                    } else {
+                        // Deleted since the claim, or already syncing on this node
+                        leaseRepository.release(credentialId, instanceId);
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to drop sync lease on credential {}; it will expire: {}", credentialId, e.getMessage());
+                } finally {
+                    leased.remove(credentialId);
+                }
+            }
+
+            if (result != null) {
+                log.info("Scheduled review sync completed in {} ms: {} synced, {} failed, {} timed out, {} already syncing",
+                        result.duration().toMillis(), result.synced(), result.failed(), result.timedOut(), result.skipped());
+            }
+        });
+    }
+
+    /**
+     * Sync one platform. Runs on a review-sync worker thread, outside any session, so it
+     * only touches the business fetched with the credential by findWithBusinessByIdIn.
+     */
+    private boolean syncCredential(ChannelCredential credential) {
+        try {
+            log.info("Syncing {} platform: {} (ID: {})",
+                    credential.getConnectionMethod(), credential.getPlatformType(), credential.getId());
+
+            ReviewSyncJob job = reviewSyncService.syncPlatformReviews(credential, credential.getBusiness());
+            return job.getStatus() == ReviewSyncJob.SyncStatus.COMPLETED;
+
+        } catch (Exception e) {
+            log.error("Failed to sync platform {}: {}", credential.getId(), e.getMessage());
+
+            credential.setLastSyncStatus("ERROR");
+            credential.setSyncErrorMessage(e.getMessage());
+
+            // Check if it's an auth error
+            if (isAuthenticationError(e)) {
+                credential.setStatus(ChannelCredential.CredentialStatus.EXPIRED);
+                log.warn("Platform {} marked as EXPIRED", credential.getPlatformType());
+            }
+
+            channelCredentialRepository.save(credential);
+            return false;
+        }
+    }
+
+    /**
+     * Check if exception is authentication-related
+     */
+    private boolean isAuthenticationError(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage().toLowerCase() : "";
+        return message.contains("unauthorized") ||
+                message.contains("forbidden") ||
+                message.contains("invalid token") ||
+                message.contains("token expired") ||
+                message.contains("401") ||
+                message.contains("403");
+    }
+}
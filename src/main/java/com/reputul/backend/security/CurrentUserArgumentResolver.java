@@ -1,7 +1,8 @@
 package com.reputul.backend.security;
 
+import com.reputul.backend.auth.AuthenticatedUser;
+import com.reputul.backend.auth.UserAuthService;
 import com.reputul.backend.models.User;
-import com.reputul.backend.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.MethodParameter;
 import org.springframework.security.core.Authentication;
@@ -16,7 +17,7 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 @RequiredArgsConstructor
 public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
 
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
 
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
@@ -33,7 +34,10 @@ public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolve
             return null;
         }
 
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElse(null);
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.toUser();
+        }
+
+        return userAuthService.resolveUser(authentication.getName()).orElse(null);
     }
 }
\ No newline at end of file
@@ -9,21 +9,29 @@ import com.reputul.backend.repositories.OrganizationRepository;
 import com.reputul.backend.repositories.automation.AutomationExecutionRepository;
 import com.reputul.backend.repositories.automation.AutomationWorkflowRepository;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AutomationSchedulerService
@@ -33,10 +41,12 @@ import java.util.concurrent.CompletableFuture;
  * - Processing pending executions
  * - Execution state management
  * - System health monitoring and cleanup
+ *
+ * Due executions are fetched with one cross-tenant query (capped per organization) and
+ * run on the bounded automationExecutor, each in its own transaction.
  */
 @Deprecated
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AutomationSchedulerService {
 
@@ -46,6 +56,60 @@ public class AutomationSchedulerService {
     private final CustomerRepository customerRepository;
     private final OrganizationRepository organizationRepository;
     private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor automationExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    // Executions queued or running on this instance, so a later pass doesn't resubmit them
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Timer executionLag;
+    private final Counter dispatched;
+    private final Counter rejected;
+
+    @Value("${app.automation.scheduler.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.automation.scheduler.per-org-limit:25}")
+    private int perOrgLimit;
+
+    public AutomationSchedulerService(AutomationExecutionRepository executionRepository,
+                                      AutomationWorkflowRepository workflowRepository,
+                                      AutomationExecutorService automationExecutorService,
+                                      CustomerRepository customerRepository,
+                                      OrganizationRepository organizationRepository,
+                                      MeterRegistry meterRegistry,
+                                      @Qualifier("automationExecutor") ThreadPoolTaskExecutor automationExecutor,
+                                      PlatformTransactionManager transactionManager) {
+        this.executionRepository = executionRepository;
+        this.workflowRepository = workflowRepository;
+        this.automationExecutorService = automationExecutorService;
+        this.customerRepository = customerRepository;
+        this.organizationRepository = organizationRepository;
+        this.meterRegistry = meterRegistry;
+        this.automationExecutor = automationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("automation.executor.queue.depth", automationExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .description("Automation executions waiting for a worker thread")
+                .register(meterRegistry);
+        Gauge.builder("automation.executor.active", automationExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Automation executions currently running")
+                .register(meterRegistry);
+        Gauge.builder("automation.executions.in_flight", inFlight, Set::size)
+                .description("Automation executions queued or running on this instance")
+                .register(meterRegistry);
+
+        this.executionLag = Timer.builder("automation.execution.lag")
+                .description("Delay between an execution becoming due and starting")
+                .register(meterRegistry);
+        this.dispatched = Counter.builder("automation.executions.dispatched")
+                .description("Executions handed to the automation executor")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("automation.executions.rejected")
+                .description("Executions left pending because the automation executor was full")
+                .register(meterRegistry);
+    }
 
     // =========================
     // SCHEDULING METHODS
@@ -96,9 +160,9 @@ public class AutomationSchedulerService {
                 .register(meterRegistry)
                 .increment();
 
-        // If immediate execution, process now
+        // If immediate execution, process once the execution row is committed
         if (executeAt == null || executeAt.isBefore(OffsetDateTime.now().plusMinutes(1))) {
-            processExecutionAsync(execution.getId());
+            dispatchAfterCommit(execution.getId());
         }
 
         return execution;
@@ -144,34 +208,42 @@ public class AutomationSchedulerService {
     // =========================
 
     /**
-     * Process pending executions every 5 minutes
+     * Dispatch due executions every 5 minutes. Only fetches as many as the executor can
+     * accept; anything left over stays PENDING for the next pass.
      */
     @Scheduled(fixedRate = 300000) // Every 5 minutes
-    @Transactional
     public void processPendingExecutions() {
         log.debug("Processing pending automation executions");
 
         Timer.Sample sample = Timer.start(meterRegistry);
 
         try {
-            OffsetDateTime now = OffsetDateTime.now();
-            int totalProcessed = 0;
+            int capacity = Math.min(batchSize, availableCapacity());
+            int totalDispatched = 0;
 
-            // Process for each organization to maintain tenant isolation
-            List<Organization> organizations = organizationRepository.findAll();
+            if (capacity > 0) {
+                List<Long> dueIds = executionRepository.findDueExecutionIdsFairly(
+                        OffsetDateTime.now(), perOrgLimit, capacity);
 
-            for (Organization org : organizations) {
-                int orgProcessed = processPendingExecutionsForOrganization(org.getId(), now);
-                totalProcessed += orgProcessed;
+                log.debug("Found {} due executions", dueIds.size());
+
+                for (Long executionId : dueIds) {
+                    if (dispatch(executionId)) {
+                        totalDispatched++;
+                    }
+                }
+            } else {
+                log.debug("Automation executor saturated, skipping this pass");
             }
 
             // Record processing metrics
             Counter.builder("automation.scheduler.runs")
                     .description("Number of scheduler runs")
-                    .tag("executions_processed", String.valueOf(totalProcessed))
                     .register(meterRegistry)
                     .increment();
 
+            log.debug("Dispatched {} automation executions", totalDispatched);
+
             sample.stop(Timer.builder("automation.scheduler.duration")
                     .description("Time taken to process pending executions")
                     .register(meterRegistry));
@@ -184,27 +256,6 @@ public class AutomationSchedulerService {
         }
     }
 
-    /**
-     * Process pending executions for a specific organization
-     */
-    private int processPendingExecutionsForOrganization(Long orgId, OffsetDateTime now) {
-        List<AutomationExecution> dueExecutions = executionRepository.findDueExecutions(
-                AutomationExecution.ExecutionStatus.PENDING, now, orgId);
-
-        log.debug("Found {} due executions for organization {}", dueExecutions.size(), orgId);
-
-        for (AutomationExecution execution : dueExecutions) {
-            try {
-                processExecutionAsync(execution.getId());
-            } catch (Exception e) {
-                log.error("Error processing execution {}: {}", execution.getId(), e.getMessage());
-                markExecutionFailed(execution.getId(), e.getMessage());
-            }
-        }
-
-        return dueExecutions.size();
-    }
-
     /**
      * Clean up old completed/failed executions
      */
@@ -272,17 +323,69 @@ public class AutomationSchedulerService {
     // =========================
 
     /**
-     * Process a single execution asynchronously
+     * Submit an execution once the surrounding transaction (if any) has committed,
+     * so the worker can see the new row
      */
-    @Async
-    public CompletableFuture<Void> processExecutionAsync(Long executionId) {
+    private void dispatchAfterCommit(Long executionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(executionId);
+                }
+            });
+        } else {
+            dispatch(executionId);
+        }
+    }
+
+    /**
+     * Hand an execution to the automation executor. Returns false if it is already in
+     * flight here or the executor is full; either way it remains PENDING in the database.
+     */
+    private boolean dispatch(Long executionId) {
+        if (!inFlight.add(executionId)) {
+            return false;
+        }
         try {
-            processExecution(executionId);
+            automationExecutor.execute(() -> {
+                try {
+                    runExecution(executionId);
+                } finally {
+                    inFlight.remove(executionId);
+                }
+            });
+            dispatched.increment();
+            return true;
+        } catch (TaskRejectedException e) {
+            inFlight.remove(executionId);
+            rejected.increment();
+            log.warn("Automation executor full, execution {} left pending", executionId);
+            return false;
+        }
+    }
+
+    /**
+     * Run one execution in its own transaction on a worker thread
+     */
+    private void runExecution(Long executionId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> processExecution(executionId));
         } catch (Exception e) {
             log.error("Async execution processing failed for execution {}: {}", executionId, e.getMessage());
-            markExecutionFailed(executionId, "Async processing error: " + e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        markExecutionFailed(executionId, "Async processing error: " + e.getMessage()));
+            } catch (Exception markError) {
+                log.error("Could not mark execution {} as failed: {}", executionId, markError.getMessage());
+            }
         }
-        return CompletableFuture.completedFuture(null);
+    }
+
+    private int availableCapacity() {
+        var pool = automationExecutor.getThreadPoolExecutor();
+        int idleThreads = pool.getMaximumPoolSize() - pool.getActiveCount();
+        return Math.max(0, idleThreads) + pool.getQueue().remainingCapacity();
     }
 
     /**
@@ -292,22 +395,27 @@ public class AutomationSchedulerService {
     public void processExecution(Long executionId) {
         log.debug("Processing execution: {}", executionId);
 
+        OffsetDateTime now = OffsetDateTime.now();
+
+        // Mark as running; skip if another worker or a cancel already moved it on
+        if (executionRepository.claimPending(executionId, now,
+                AutomationExecution.ExecutionStatus.PENDING, AutomationExecution.ExecutionStatus.RUNNING) == 0) {
+            log.debug("Execution {} is no longer pending, skipping", executionId);
+            return;
+        }
+
         AutomationExecution execution = executionRepository.findById(executionId)
                 .orElseThrow(() -> new RuntimeException("Execution not found: " + executionId));
 
-        // Skip if already processed
-        if (execution.getStatus() != AutomationExecution.ExecutionStatus.PENDING) {
-            log.debug("Execution {} already processed with status: {}", executionId, execution.getStatus());
-            return;
+        OffsetDateTime dueAt = execution.getScheduledFor() != null
+                ? execution.getScheduledFor() : execution.getCreatedAt();
+        if (dueAt != null && dueAt.isBefore(now)) {
+            executionLag.record(Duration.between(dueAt, now));
         }
 
         Timer.Sample executionTimer = Timer.start(meterRegistry);
 
         try {
-            // Mark as running
-            execution.setStatus(AutomationExecution.ExecutionStatus.RUNNING);
-            execution.setStartedAt(OffsetDateTime.now());
-            execution = executionRepository.save(execution);
 
             // Execute the workflow actions
             boolean success = automationExecutorService.executeWorkflow(execution);
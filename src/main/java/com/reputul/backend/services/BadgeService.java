@@ -96,13 +96,8 @@ public class BadgeService {
         OffsetDateTime cutoff60Days = OffsetDateTime.now().minusDays(60);
 
         // Count recent reviews
-        int reviewsLast90Days = (int) reviewRepo.findByBusinessId(businessId).stream()
-                .filter(r -> r.getCreatedAt().isAfter(cutoff90Days))
-                .count();
-
-        int reviewsLast60Days = (int) reviewRepo.findByBusinessId(businessId).stream()
-                .filter(r -> r.getCreatedAt().isAfter(cutoff60Days))
-                .count();
+        int reviewsLast90Days = (int) reviewRepo.countByBusinessIdAndCreatedAtAfter(businessId, cutoff90Days);
+        int reviewsLast60Days = (int) reviewRepo.countByBusinessIdAndCreatedAtAfter(businessId, cutoff60Days);
 
         // Tier 1: New Starter (Getting Started)
         if (totalReviews <= 2) {
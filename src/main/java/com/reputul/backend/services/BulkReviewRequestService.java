@@ -0,0 +1,257 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.config.BulkSendProperties;
+import com.reputul.backend.dto.BulkSendJobDto;
+import com.reputul.backend.dto.ReviewRequestDto;
+import com.reputul.backend.models.BulkSendChannel;
+import com.reputul.backend.models.Customer;
+import com.reputul.backend.models.EmailTemplate;
+import com.reputul.backend.models.ReviewRequest;
+import com.reputul.backend.models.User;
+import com.reputul.backend.models.campaign.CampaignSequence;
+import com.reputul.backend.repositories.BulkSendRepository;
+import com.reputul.backend.repositories.BulkSendRepository.ClaimedItem;
+import com.reputul.backend.repositories.BulkSendRepository.Job;
+import com.reputul.backend.repositories.CustomerRepository;
+import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.services.campaign.CampaignSequenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk review requests as durable jobs.
+ *
+ * A request is stored as one job with one item per recipient and answered with the job
+ * id straight away; BulkSendDispatcher claims items in batches and sends them within each
+ * provider's budget. For a claimed batch, customers, job owners and default templates are
+ * loaded once (prefetch) and every item is sent from those, instead of one lookup chain
+ * per recipient.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkReviewRequestService {
+
+    static final String NOT_OWNED = "Customer not found or access denied";
+
+    // Keeps IN lists well under the driver's bind-parameter limit
+    private static final int LOOKUP_CHUNK = 1000;
+
+    private final BulkSendRepository bulkSendRepository;
+    private final CustomerRepository customerRepository;
+    private final UserRepository userRepository;
+    private final ReviewRequestService reviewRequestService;
+    private final CampaignSequenceService sequenceService;
+    private final BulkSendProperties properties;
+    private final Clock clock;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Everything needed to send a claimed batch, loaded with one query per kind
+     */
+    public record Batch(
+            Map<Long, Job> jobs,
+            Map<Long, Customer> customers,
+            Map<Long, User> users,
+            Map<Long, EmailTemplate> templates
+    ) {
+    }
+
+    /**
+     * Queue a review request to each customer. Customers that don't belong to the user's
+     * businesses are recorded as skipped rather than failing the request.
+     *
+     * @param sequenceId campaign sequence for CAMPAIGN jobs, null for the default campaign
+     */
+    @Transactional
+    public BulkSendJobDto enqueue(User user, List<Long> customerIds, BulkSendChannel channel, Long sequenceId) {
+        if (customerIds == null || customerIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one customer is required");
+        }
+        List<Long> requested = new ArrayList<>(new LinkedHashSet<>(customerIds));
+        if (requested.size() > properties.maxRecipients()) {
+            throw new IllegalArgumentException("A bulk send is limited to " + properties.maxRecipients() + " customers");
+        }
+        if (channel == BulkSendChannel.CAMPAIGN && sequenceId != null) {
+            CampaignSequence sequence = sequenceService.getSequenceWithSteps(sequenceId);
+            if (user.getOrganization() == null || !sequence.getOrgId().equals(user.getOrganization().getId())) {
+                throw new IllegalArgumentException("Sequence not found or access denied");
+            }
+        }
+
+        Set<Long> owned = new HashSet<>();
+        for (int from = 0; from < requested.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = requested.subList(from, Math.min(from + LOOKUP_CHUNK, requested.size()));
+            owned.addAll(customerRepository.findIdsOwnedByUser(chunk, user.getId()));
+        }
+        Map<Boolean, List<Long>> partitioned = requested.stream().collect(Collectors.partitioningBy(owned::contains));
+
+        Long jobId = bulkSendRepository.createJob(user.getId(), channel, sequenceId,
+                partitioned.get(true), partitioned.get(false), NOT_OWNED, OffsetDateTime.now(clock));
+        log.info("Queued bulk {} job {} for user {}: {} recipients, {} skipped",
+                channel, jobId, user.getId(), partitioned.get(true).size(), partitioned.get(false).size());
+
+        return toDto(bulkSendRepository.findJob(jobId).orElseThrow());
+    }
+
+    /**
+     * @return empty if the job doesn't exist or belongs to someone else
+     */
+    public Optional<BulkSendJobDto> getJob(User user, Long jobId) {
+        return bulkSendRepository.findJob(jobId)
+                .filter(job -> job.userId().equals(user.getId()))
+                .map(this::toDto);
+    }
+
+    /**
+     * Stop a job; recipients already being sent still finish
+     *
+     * @return empty if the job doesn't exist or belongs to someone else
+     */
+    @Transactional
+    public Optional<BulkSendJobDto> cancel(User user, Long jobId) {
+        Optional<Job> job = bulkSendRepository.findJob(jobId).filter(found -> found.userId().equals(user.getId()));
+        if (job.isEmpty()) {
+            return Optional.empty();
+        }
+        if (bulkSendRepository.cancel(jobId, user.getId(), OffsetDateTime.now(clock))) {
+            log.info("Cancelled bulk send job {} for user {}", jobId, user.getId());
+        }
+        return bulkSendRepository.findJob(jobId).map(this::toDto);
+    }
+
+    /**
+     * Load the jobs, customers (with business, owner and organizations), job owners and
+     * their default templates for a claimed batch
+     */
+    public Batch prefetch(List<ClaimedItem> items) {
+        Set<Long> jobIds = items.stream().map(ClaimedItem::jobId).collect(Collectors.toSet());
+        Map<Long, Job> jobs = bulkSendRepository.findJobs(jobIds).stream()
+                .collect(Collectors.toMap(Job::id, Function.identity()));
+
+        Set<Long> customerIds = items.stream().map(ClaimedItem::customerId).collect(Collectors.toSet());
+        Map<Long, Customer> customers = customerRepository.findAllWithBusinessByIdIn(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+
+        Set<Long> userIds = jobs.values().stream().map(Job::userId).collect(Collectors.toSet());
+        Map<Long, User> users = userIds.isEmpty() ? Map.of() : userRepository.findAllWithOrganizationByIdIn(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<Long, EmailTemplate> templates = new HashMap<>();
+        for (User user : users.values()) {
+            try {
+                templates.put(user.getId(), reviewRequestService.getDefaultTemplate(user));
+            } catch (Exception e) {
+                log.error("No default template for user {}, their bulk sends in this batch fail: {}",
+                        user.getId(), e.getMessage());
+            }
+        }
+        return new Batch(jobs, customers, users, templates);
+    }
+
+    /**
+     * Send one claimed item from a prefetched batch and record its outcome. Runs on a
+     * bulk-send worker thread.
+     *
+     * @return the item's final status: SENT, FAILED or SKIPPED
+     */
+    public String send(ClaimedItem item, Batch batch, String owner) {
+        Job job = batch.jobs().get(item.jobId());
+        User user = job != null ? batch.users().get(job.userId()) : null;
+        Customer customer = batch.customers().get(item.customerId());
+
+        String status;
+        Long reviewRequestId = null;
+        String errorMessage = null;
+
+        if (user == null || customer == null || customer.getBusiness() == null ||
+                !customer.getBusiness().getUser().getId().equals(user.getId())) {
+            status = "SKIPPED";
+            errorMessage = NOT_OWNED;
+        } else if (!batch.templates().containsKey(user.getId())) {
+            status = "FAILED";
+            errorMessage = "No default template";
+        } else {
+            EmailTemplate template = batch.templates().get(user.getId());
+            try {
+                // The item is linked in the review request's own transaction, so if this node
+                // dies before the outcome below is recorded, the item isn't sent again. The
+                // lease is checked and locked before anything is sent: SMS goes out inside
+                // this transaction, and a link failing after that would roll back a request
+                // whose message had already been delivered
+                ReviewRequestDto result = new TransactionTemplate(transactionManager).execute(tx -> {
+                    if (!bulkSendRepository.lockLease(item.id(), owner)) {
+                        throw new IllegalStateException("Lease passed to another node before the send");
+                    }
+                    ReviewRequestDto created = switch (job.channel()) {
+                        case EMAIL -> reviewRequestService.sendReviewRequestWithDefaultTemplate(user, customer, template);
+                        case SMS -> reviewRequestService.sendSmsReviewRequest(user, customer, template);
+                        case CAMPAIGN -> reviewRequestService.createReviewRequestWithCampaign(user, customer, template,
+                                job.sequenceId());
+                    };
+                    if (!bulkSendRepository.linkReviewRequest(item.id(), owner, created.getId(),
+                            OffsetDateTime.now(clock))) {
+                        throw new IllegalStateException("Lease passed to another node before the review request was created");
+                    }
+                    return created;
+                });
+                reviewRequestId = result.getId();
+                if (result.getStatus() == ReviewRequest.RequestStatus.FAILED) {
+                    status = "FAILED";
+                    errorMessage = result.getErrorMessage();
+                } else {
+                    status = "SENT";
+                }
+            } catch (Exception e) {
+                log.error("Bulk {} send to customer {} (job {}) failed: {}",
+                        job.channel(), item.customerId(), item.jobId(), e.getMessage());
+                status = "FAILED";
+                errorMessage = e.getMessage();
+            }
+        }
+
+        if (!bulkSendRepository.complete(item.id(), owner, status, reviewRequestId, errorMessage,
+                OffsetDateTime.now(clock))) {
+            log.warn("Lease on bulk send item {} passed to another node before its result was recorded", item.id());
+        }
+        return status;
+    }
+
+    private BulkSendJobDto toDto(Job job) {
+        Map<String, Integer> counts = bulkSendRepository.countItemsByStatus(job.id());
+        int pending = counts.getOrDefault("PENDING", 0) + counts.getOrDefault("CLAIMED", 0);
+        int done = job.total() - pending;
+
+        return BulkSendJobDto.builder()
+                .id(job.id())
+                .channel(job.channel())
+                .status(job.status())
+                .total(job.total())
+                .pending(pending)
+                .sent(counts.getOrDefault("SENT", 0))
+                .failed(counts.getOrDefault("FAILED", 0))
+                .skipped(counts.getOrDefault("SKIPPED", 0))
+                .cancelled(counts.getOrDefault("CANCELLED", 0))
+                .percentComplete(job.total() > 0 ? Math.round(done * 1000.0 / job.total()) / 10.0 : 100.0)
+                .createdAt(job.createdAt())
+                .completedAt(job.completedAt())
+                .build();
+    }
+}
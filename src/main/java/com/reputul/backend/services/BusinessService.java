@@ -3,7 +3,7 @@ package com.reputul.backend.services;
 import com.reputul.backend.models.Business;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.BusinessRepository;
-import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.auth.UserAuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,7 +33,7 @@ public class BusinessService {
 
     private final BusinessRepository businessRepository;
     private final ReputationService reputationService;
-    private final UserRepository userRepository;
+    private final UserAuthService userAuthService;
 
     /**
      * Triggers a full recalculation of reputation score and badge for the given business.
@@ -331,7 +331,7 @@ public class BusinessService {
                 .orElseThrow(() -> new RuntimeException("Business not found"));
 
         // Get current user's organization
-        User user = userRepository.findByEmail(authentication.getName())
+        User user = userAuthService.resolveUser(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Verify business belongs to user's organization
@@ -1,6 +1,7 @@
 package com.reputul.backend.services;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -34,7 +35,7 @@ public class ClaudeService {
 
     private final RestTemplate restTemplate;
 
-    public ClaudeService(RestTemplate restTemplate) {
+    public ClaudeService(@Qualifier("anthropicRestTemplate") RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
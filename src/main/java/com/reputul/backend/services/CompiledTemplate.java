@@ -0,0 +1,178 @@
+package com.reputul.backend.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An email template parsed once into literal text and placeholder slots.
+ *
+ * Rendering is a single pass over the segments into a buffer sized from the literal text,
+ * instead of one String.replace scan of the whole template per variable. Placeholders are
+ * {{name}}; a null value renders empty and a name missing from the variables is left in
+ * the output as written, as the replace-based rendering did. Values are never re-scanned,
+ * so a value containing {{...}} is output literally.
+ *
+ * Immutable and thread-safe; compiled templates are cached by EmailTemplateCompiler.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // Expected length of a substituted value, for sizing the output buffer
+    private static final int VALUE_LENGTH_ESTIMATE = 24;
+
+    /**
+     * One piece of rendered output
+     */
+    @FunctionalInterface
+    public interface Segment {
+        void appendTo(StringBuilder out, Map<String, String> variables);
+    }
+
+    private final Segment[] segments;
+    private final int sizeEstimate;
+
+    private CompiledTemplate(List<Segment> segments, int literalLength, int slots) {
+        this.segments = segments.toArray(Segment[]::new);
+        this.sizeEstimate = literalLength + slots * VALUE_LENGTH_ESTIMATE;
+    }
+
+    /**
+     * Parse template text with {{name}} placeholders; null compiles to an empty template
+     */
+    public static CompiledTemplate compile(String source) {
+        return builder().text(source).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String render(Map<String, String> variables) {
+        StringBuilder out = new StringBuilder(sizeEstimate);
+        appendTo(out, variables);
+        return out.toString();
+    }
+
+    public void appendTo(StringBuilder out, Map<String, String> variables) {
+        for (Segment segment : segments) {
+            segment.appendTo(out, variables);
+        }
+    }
+
+    private record Literal(String text) implements Segment {
+        @Override
+        public void appendTo(StringBuilder out, Map<String, String> variables) {
+            out.append(text);
+        }
+    }
+
+    private record Variable(String name) implements Segment {
+        @Override
+        public void appendTo(StringBuilder out, Map<String, String> variables) {
+            if (variables.containsKey(name)) {
+                String value = variables.get(name);
+                if (value != null) {
+                    out.append(value);
+                }
+            } else {
+                out.append(OPEN).append(name).append(CLOSE);
+            }
+        }
+    }
+
+    /**
+     * Assembles a template from fixed text, parsed template text and computed segments.
+     * Adjacent literal text is merged into one segment.
+     */
+    public static final class Builder {
+
+        private final List<Segment> segments = new ArrayList<>();
+        private final StringBuilder pendingLiteral = new StringBuilder();
+        private int literalLength;
+        private int slots;
+
+        private Builder() {
+        }
+
+        /**
+         * Fixed text, output as is
+         */
+        public Builder literal(String text) {
+            if (text != null) {
+                pendingLiteral.append(text);
+            }
+            return this;
+        }
+
+        /**
+         * Template text whose {{name}} placeholders become variable slots
+         */
+        public Builder text(String source) {
+            if (source == null) {
+                return this;
+            }
+            int position = 0;
+            int searchFrom = OPEN.length();
+            int close;
+            while ((close = source.indexOf(CLOSE, searchFrom)) >= 0) {
+                // The nearest {{ before the }}, so "{{{name}}}" still finds {{name}}
+                int open = source.lastIndexOf(OPEN, close - OPEN.length());
+                if (open < position) {
+                    // A stray }} with no {{ of its own
+                    searchFrom = close + 1;
+                    continue;
+                }
+                literal(source.substring(position, open));
+                String name = source.substring(open + OPEN.length(), close);
+                if (name.isEmpty()) {
+                    literal(OPEN + CLOSE);
+                } else {
+                    segment(new Variable(name));
+                }
+                position = close + CLOSE.length();
+                searchFrom = position + OPEN.length();
+            }
+            return literal(source.substring(position));
+        }
+
+        /**
+         * A computed piece of output, e.g. an escaped value or a conditional block
+         */
+        public Builder segment(Segment segment) {
+            flushLiteral();
+            segments.add(segment);
+            slots++;
+            return this;
+        }
+
+        /**
+         * Inline another compiled template's segments
+         */
+        public Builder template(CompiledTemplate template) {
+            for (Segment segment : template.segments) {
+                if (segment instanceof Literal literal) {
+                    literal(literal.text());
+                } else {
+                    segment(segment);
+                }
+            }
+            return this;
+        }
+
+        public CompiledTemplate build() {
+            flushLiteral();
+            return new CompiledTemplate(segments, literalLength, slots);
+        }
+
+        private void flushLiteral() {
+            if (!pendingLiteral.isEmpty()) {
+                segments.add(new Literal(pendingLiteral.toString()));
+                literalLength += pendingLiteral.length();
+                pendingLiteral.setLength(0);
+            }
+        }
+    }
+}
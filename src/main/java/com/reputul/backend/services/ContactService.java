@@ -4,19 +4,36 @@ package com.reputul.backend.services;
 import com.reputul.backend.dto.*;
 import com.reputul.backend.models.Contact;
 import com.reputul.backend.models.ImportJob;
+import com.reputul.backend.repositories.ContactExportRepository;
 import com.reputul.backend.repositories.ContactRepository;
 import com.reputul.backend.repositories.ImportJobRepository;
 import com.reputul.backend.services.imports.*;
+import com.reputul.backend.services.search.SearchService;
+import com.reputul.backend.util.PhoneNormalizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -46,9 +63,38 @@ public class ContactService {
     @Autowired
     private DedupeService dedupeService;
 
-    private static final int MAX_CSV_ROWS = 10000;
+    @Autowired
+    private ContactImportWriter contactImportWriter;
+
+    @Autowired
+    private ContactExportRepository contactExportRepository;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("contactImportExecutor")
+    private TaskExecutor contactImportExecutor;
+
+    @Value("${app.contacts.import.max-rows:1000000}")
+    private int maxCsvRows;
+
+    @Value("${app.contacts.import.max-file-size:100MB}")
+    private DataSize maxCsvFileSize;
+
+    @Value("${app.contacts.import.chunk-size:1000}")
+    private int importChunkSize;
+
+    @Value("${app.contacts.import.preview-limit:500}")
+    private int previewLimit;
+
     private static final int RATE_LIMIT_IMPORTS_PER_HOUR = 5;
     private static final int SAMPLE_ROWS_LIMIT = 10;
+    private static final int MAX_STORED_ERRORS = 100;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
 
     // CRUD Operations
 
@@ -151,10 +197,31 @@ public class ContactService {
         return contacts.map(this::convertToDto);
     }
 
+    /**
+     * Ranked search by name, email or phone, paged by cursor
+     */
+    public SearchPageDto<ContactDto> searchContactsRanked(Long businessId, String query, String tag,
+                                                          String cursor, int limit) {
+        SearchService.SearchHits hits = searchService.searchContacts(businessId, query, tag, cursor, limit);
+        Map<Long, Contact> contacts = contactRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Contact::getId, contact -> contact));
+
+        List<ContactDto> items = hits.ids().stream()
+                .map(contacts::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return new SearchPageDto<>(items, hits.nextCursor());
+    }
+
     // CSV Import Operations
 
     /**
-     * Prepare CSV import - parse and validate
+     * Prepare CSV import - stage, parse and validate
+     *
+     * The upload is spilled to a temp file and read one row at a time. Validation and
+     * dedupe results are listed for up to app.contacts.import.preview-limit rows; the
+     * row counts always cover the whole file.
      */
     public CsvImportPrepareResponse prepareCsvImport(Long businessId, Long userId, MultipartFile file) throws IOException {
         // Rate limiting check
@@ -163,38 +230,36 @@ public class ContactService {
         // Validate file
         validateCsvFile(file);
 
+        Path stagingFile = uploadCache.createStagingFile();
         try {
-            // Parse CSV
-            CsvParser.ParsedCsvData parsedData = csvParser.parseCsv(file.getInputStream());
-
-            if (parsedData.getRows().size() > MAX_CSV_ROWS) {
-                throw new IllegalArgumentException("CSV file too large. Maximum " + MAX_CSV_ROWS + " rows allowed.");
+            file.transferTo(stagingFile);
+            char delimiter = csvParser.detectDelimiter(stagingFile);
+
+            CsvImportPrepareResponse response = new CsvImportPrepareResponse();
+            List<String> headers;
+            try (CsvParser.CsvRowReader reader = csvParser.open(stagingFile, delimiter)) {
+                headers = reader.getHeaders();
+                response.setDetectedDelimiter(String.valueOf(delimiter));
+                response.setDetectedHeaders(headers);
+                response.setSuggestedMapping(csvParser.suggestMapping(headers));
+
+                // Validate and dedupe
+                validateAndDedupeRows(businessId, reader, response);
             }
 
-            // Store in cache
-            String uploadId = uploadCache.store(parsedData, file.getOriginalFilename());
-
-            // Prepare response
-            CsvImportPrepareResponse response = new CsvImportPrepareResponse(uploadId);
-            response.setDetectedDelimiter(parsedData.getDetectedDelimiter());
-            response.setDetectedHeaders(parsedData.getHeaders());
-            response.setSuggestedMapping(csvParser.suggestMapping(parsedData.getHeaders()));
-            response.setTotalRows(parsedData.getRows().size());
-
-            // Sample rows (first N rows)
-            List<Map<String, Object>> sampleRows = parsedData.getRows().stream()
-                    .limit(SAMPLE_ROWS_LIMIT)
-                    .map(row -> new HashMap<String, Object>(row))
-                    .collect(Collectors.toList());
-            response.setSampleRows(sampleRows);
-
-            // Validate and dedupe
-            validateAndDedupeRows(businessId, parsedData, response);
+            // Stage for commit
+            String uploadId = uploadCache.store(stagingFile, file.getOriginalFilename(), delimiter, headers,
+                    response.getTotalRows());
+            response.setUploadId(uploadId);
 
-            logger.info("Prepared CSV import for business {}, {} rows", businessId, parsedData.getRows().size());
+            logger.info("Prepared CSV import for business {}, {} rows", businessId, response.getTotalRows());
             return response;
 
+        } catch (IllegalArgumentException e) {
+            uploadCache.deleteStagingFile(stagingFile);
+            throw e;
         } catch (Exception e) {
+            uploadCache.deleteStagingFile(stagingFile);
             logger.error("Failed to prepare CSV import for business " + businessId, e);
             throw new IOException("Failed to process CSV file: " + e.getMessage());
         }
@@ -202,149 +267,156 @@ public class ContactService {
 
     /**
      * Commit CSV import
+     *
+     * Takes the staged upload, creates a PENDING ImportJob and runs the import on
+     * contactImportExecutor. Returns straight away with the importJobId, which
+     * getImportProgress reports on while the import runs.
      */
-    @Transactional
     public CsvImportCommitResponse commitCsvImport(Long businessId, Long userId, CsvImportCommitRequest request) {
-        // Retrieve cached data
-        UploadCache.CachedUpload cached = uploadCache.get(request.getUploadId());
+        // Taken, not read, so the same upload can't be committed twice
+        UploadCache.CachedUpload cached = uploadCache.take(request.getUploadId());
         if (cached == null) {
             throw new IllegalArgumentException("Upload session expired or not found");
         }
 
-        // Create import job for auditing
+        // Create import job for auditing and progress
         ImportJob importJob = new ImportJob(businessId, userId, cached.getOriginalFilename());
-        importJob.setTotalRows(cached.getParsedData().getRows().size());
+        importJob.setTotalRows(cached.getTotalRows());
+        importJob.setStatus(ImportJob.Status.PENDING);
         importJob = importJobRepository.save(importJob);
-
-        CsvImportCommitResponse response = new CsvImportCommitResponse("success", 0);
-        response.setImportJobId(importJob.getId());
+        Long importJobId = importJob.getId();
 
         try {
-            // Process rows
-            List<Map<String, String>> rows = cached.getParsedData().getRows();
-            List<Map<String, Object>> processedContacts = new ArrayList<>();
-            List<Map<String, Object>> errors = new ArrayList<>();
+            contactImportExecutor.execute(() -> runCsvImport(importJobId, businessId, request, cached));
+        } catch (TaskRejectedException e) {
+            importJobRepository.deleteById(importJobId);
+            uploadCache.putBack(request.getUploadId(), cached);
+            throw new IllegalStateException("Too many imports in progress, please try again shortly");
+        }
 
-            // Convert and validate each row
-            for (int i = 0; i < rows.size(); i++) {
+        CsvImportCommitResponse response = new CsvImportCommitResponse("accepted", 0);
+        response.setImportJobId(importJobId);
+        return response;
+    }
+
+    /**
+     * Write a committed import
+     *
+     * Rows are streamed from the staged file and written app.contacts.import.chunk-size
+     * at a time, each chunk in its own transaction: one batch dedupe lookup, JDBC batch
+     * inserts and batched updates. The ImportJob counts are brought up to date after
+     * every chunk, so a running import can be polled.
+     */
+    private void runCsvImport(Long importJobId, Long businessId, CsvImportCommitRequest request,
+                              UploadCache.CachedUpload cached) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ImportProgress progress = new ImportProgress();
+        updateImportJob(transactionTemplate, importJobId, 0, progress, ImportJob.Status.RUNNING);
+
+        try (CsvParser.CsvRowReader reader = csvParser.open(cached.getFile(), cached.getDelimiter())) {
+            List<Map<String, Object>> chunk = new ArrayList<>(importChunkSize);
+            Map<String, String> row;
+
+            while ((row = reader.next()) != null) {
+                int rowNumber = reader.getRowsRead() + 1; // +1 for the header row
                 try {
-                    Map<String, Object> contactData = convertRowToContact(rows.get(i), request.getColumnMap(), request.getDefaultTags());
-                    if (contactData != null) {
-                        contactData.put("rowIndex", i);
-                        processedContacts.add(contactData);
-                    }
+                    Map<String, Object> contactData = convertRowToContact(row, request.getColumnMap(), request.getDefaultTags());
+                    contactData.put("rowNumber", rowNumber);
+                    chunk.add(contactData);
                 } catch (Exception e) {
-                    errors.add(Map.of(
-                            "rowNumber", i + 2, // +2 for header and 0-based index
-                            "error", e.getMessage(),
-                            "rowData", rows.get(i)
-                    ));
+                    progress.addError(rowNumber, e.getMessage(), row);
                 }
-            }
-
-            // Batch dedupe check
-            Map<String, DedupeService.DedupeResult> dedupeResults = dedupeService.batchFindDuplicates(businessId, processedContacts);
-
-            // Process each contact
-            int inserted = 0, updated = 0, skipped = 0;
-
-            for (Map<String, Object> contactData : processedContacts) {
-                try {
-                    String rowKey = "row_" + contactData.get("rowIndex");
-                    DedupeService.DedupeResult dedupeResult = dedupeResults.get(rowKey);
 
-                    if (dedupeResult != null && "skip-duplicates".equals(request.getMode())) {
-                        skipped++;
-                        continue;
-                    }
-
-                    if (dedupeResult != null && "upsert".equals(request.getMode())) {
-                        // Update existing
-                        Contact existingContact = dedupeResult.getExistingContact();
-                        Contact incomingContact = createContactFromData(contactData, businessId);
-                        Contact merged = dedupeService.mergeContacts(existingContact, incomingContact);
-                        contactRepository.save(merged);
-                        updated++;
-                    } else {
-                        // Insert new
-                        Contact newContact = createContactFromData(contactData, businessId);
-                        contactRepository.save(newContact);
-                        inserted++;
-                    }
-                } catch (Exception e) {
-                    errors.add(Map.of(
-                            "rowNumber", (Integer)contactData.get("rowIndex") + 2,
-                            "error", e.getMessage(),
-                            "rowData", contactData
-                    ));
+                if (chunk.size() >= importChunkSize) {
+                    importChunk(businessId, request.getMode(), chunk, transactionTemplate, progress);
+                    chunk.clear();
+                    updateImportJob(transactionTemplate, importJobId, reader.getRowsRead(), progress, null);
                 }
             }
+            importChunk(businessId, request.getMode(), chunk, transactionTemplate, progress);
 
-            // Update response
-            response.setTotalProcessed(processedContacts.size());
-            response.setInsertedCount(inserted);
-            response.setUpdatedCount(updated);
-            response.setSkippedCount(skipped);
-            response.setErrorCount(errors.size());
-
-            // Sample errors (first 10)
-            response.setSampleErrors(errors.stream().limit(10).collect(Collectors.toList()));
-
-            // Update import job
-            importJob.setInsertedCount(inserted);
-            importJob.setUpdatedCount(updated);
-            importJob.setSkippedCount(skipped);
-            importJob.setErrorCount(errors.size());
-            importJob.setStatus(ImportJob.Status.COMPLETED);
-            importJob.setErrorDetails(errors);
-            importJobRepository.save(importJob);
-
-            // Clean up cache
-            uploadCache.remove(request.getUploadId());
+            // Complete import job
+            updateImportJob(transactionTemplate, importJobId, reader.getRowsRead(), progress, ImportJob.Status.COMPLETED);
 
-            logger.info("Completed CSV import for business {}: {} inserted, {} updated, {} skipped, {} errors",
-                    businessId, inserted, updated, skipped, errors.size());
-
-            return response;
+            logger.info("Completed CSV import {} for business {}: {} inserted, {} updated, {} skipped, {} errors",
+                    importJobId, businessId, progress.inserted, progress.updated, progress.skipped, progress.errorCount);
 
         } catch (Exception e) {
-            // Update import job as failed
-            importJob.setStatus(ImportJob.Status.FAILED);
-            importJob.setErrorDetails(List.of(Map.of("error", e.getMessage())));
-            importJobRepository.save(importJob);
-
-            logger.error("Failed CSV import for org " + businessId, e);
-            throw new RuntimeException("Import failed: " + e.getMessage());
+            // Update import job as failed, keeping the counts of chunks already written
+            progress.errors.add(0, Map.of("error", String.valueOf(e.getMessage())));
+            updateImportJob(transactionTemplate, importJobId, null, progress, ImportJob.Status.FAILED);
+
+            logger.error("Failed CSV import " + importJobId + " for business " + businessId, e);
+        } finally {
+            // Clean up staged upload
+            uploadCache.deleteStagingFile(cached.getFile());
         }
     }
 
     /**
-     * Export contacts to CSV
+     * Progress of an import job owned by the business
      */
-    public String exportContactsCsv(Long businessId, String tag) {
-        List<Contact> contacts;
-        if (tag != null && !tag.trim().isEmpty()) {
-            contacts = contactRepository.findAllByBusinessIdAndTagForExport(businessId, tag.trim());
-        } else {
-            contacts = contactRepository.findAllByBusinessIdForExport(businessId);
-        }
+    public Optional<Map<String, Object>> getImportProgress(Long businessId, Long importJobId) {
+        return importJobRepository.findById(importJobId)
+                .filter(job -> job.getBusinessId().equals(businessId))
+                .map(job -> {
+                    Map<String, Object> progress = new LinkedHashMap<>();
+                    progress.put("importJobId", job.getId());
+                    progress.put("status", job.getStatus());
+                    progress.put("totalRows", job.getTotalRows());
+                    progress.put("processedRows", job.getProcessedRows());
+                    progress.put("insertedCount", job.getInsertedCount());
+                    progress.put("updatedCount", job.getUpdatedCount());
+                    progress.put("skippedCount", job.getSkippedCount());
+                    progress.put("errorCount", job.getErrorCount());
+                    if (job.getErrorDetails() != null) {
+                        progress.put("sampleErrors", job.getErrorDetails().stream().limit(10).collect(Collectors.toList()));
+                    }
+                    return progress;
+                });
+    }
 
-        StringBuilder csv = new StringBuilder();
-        csv.append("name,email,phone,last_job_date,tags,sms_consent,email_consent,created_at\n");
+    /**
+     * Export contacts to CSV, written to out as rows are read from a database cursor
+     *
+     * @return number of contacts exported
+     */
+    public long exportContactsCsv(Long businessId, String tag, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        writer.write("name,email,phone,last_job_date,tags,sms_consent,email_consent,created_at\n");
 
-        for (Contact contact : contacts) {
-            csv.append(escapeCsvValue(contact.getName())).append(",");
-            csv.append(escapeCsvValue(contact.getEmail())).append(",");
-            csv.append(escapeCsvValue(contact.getPhone())).append(",");
-            csv.append(contact.getLastJobDate() != null ? contact.getLastJobDate().toString() : "").append(",");
-            csv.append(escapeCsvValue(String.join(";", contact.getTags() != null ? contact.getTags() : new HashSet<>()))).append(",");
-            csv.append(contact.getSmsConsent() != null ? contact.getSmsConsent().toString() : "").append(",");
-            csv.append(contact.getEmailConsent() != null ? contact.getEmailConsent().toString() : "").append(",");
-            csv.append(contact.getCreatedAt() != null ? contact.getCreatedAt().toString() : "").append("\n");
+        long exported;
+        try {
+            exported = contactExportRepository.forEachForExport(businessId, tag, contact -> {
+                try {
+                    writer.write(escapeCsvValue(contact.name()));
+                    writer.write(',');
+                    writer.write(escapeCsvValue(contact.email()));
+                    writer.write(',');
+                    writer.write(escapeCsvValue(contact.phone()));
+                    writer.write(',');
+                    writer.write(contact.lastJobDate() != null ? contact.lastJobDate().toString() : "");
+                    writer.write(',');
+                    writer.write(escapeCsvValue(contact.tags()));
+                    writer.write(',');
+                    writer.write(contact.smsConsent() != null ? contact.smsConsent().toString() : "");
+                    writer.write(',');
+                    writer.write(contact.emailConsent() != null ? contact.emailConsent().toString() : "");
+                    writer.write(',');
+                    writer.write(contact.createdAt() != null ? contact.createdAt().toString() : "");
+                    writer.write('\n');
+                } catch (IOException e) {
+                    // Client went away; abort the cursor
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        writer.flush();
 
-        logger.info("Exported {} contacts for business {}", contacts.size(), businessId);
-        return csv.toString();
+        logger.info("Exported {} contacts for business {}", exported, businessId);
+        return exported;
     }
 
     // Helper Methods
@@ -437,8 +509,8 @@ public class ContactService {
             throw new IllegalArgumentException("CSV file is empty");
         }
 
-        if (file.getSize() > 10 * 1024 * 1024) { // 10MB limit
-            throw new IllegalArgumentException("File too large. Maximum 10MB allowed.");
+        if (file.getSize() > maxCsvFileSize.toBytes()) {
+            throw new IllegalArgumentException("File too large. Maximum " + maxCsvFileSize.toMegabytes() + "MB allowed.");
         }
 
         String filename = file.getOriginalFilename();
@@ -447,13 +519,28 @@ public class ContactService {
         }
     }
 
-    private void validateAndDedupeRows(Long businessId, CsvParser.ParsedCsvData parsedData, CsvImportPrepareResponse response) {
+    private void validateAndDedupeRows(Long businessId, CsvParser.CsvRowReader reader,
+                                       CsvImportPrepareResponse response) throws IOException {
+        List<Map<String, Object>> sampleRows = new ArrayList<>();
         List<CsvImportPrepareResponse.CsvRowValidation> validations = new ArrayList<>();
         List<CsvImportPrepareResponse.DedupeCandidate> dedupes = new ArrayList<>();
+        List<Map<String, Object>> chunk = new ArrayList<>();
+        int totalRows = 0;
         int validCount = 0;
 
-        for (int i = 0; i < parsedData.getRows().size(); i++) {
-            Map<String, String> row = parsedData.getRows().get(i);
+        Map<String, String> row;
+        while ((row = reader.next()) != null) {
+            totalRows++;
+            if (totalRows > maxCsvRows) {
+                throw new IllegalArgumentException("CSV file too large. Maximum " + maxCsvRows + " rows allowed.");
+            }
+            int rowNumber = totalRows + 1; // +1 for the header row
+
+            // Sample rows (first N rows)
+            if (sampleRows.size() < SAMPLE_ROWS_LIMIT) {
+                sampleRows.add(new HashMap<>(row));
+            }
+
             List<String> rowErrors = new ArrayList<>();
 
             // Validate required fields
@@ -478,32 +565,185 @@ public class ContactService {
             if (isValid) {
                 validCount++;
 
-                // Check for duplicates
-                String normalizedPhone = phone != null ? phoneNormalizer.normalize(phone) : null;
-                String normalizedEmail = email != null ? email.trim().toLowerCase() : null;
-                LocalDate jobDate = csvParser.parseDate(row.get("lastJobDate"));
-
-                DedupeService.DedupeResult duplicate = dedupeService.findDuplicate(
-                        businessId, name, normalizedEmail, normalizedPhone, jobDate);
-
-                if (duplicate != null) {
-                    CsvImportPrepareResponse.DedupeCandidate candidate = new CsvImportPrepareResponse.DedupeCandidate(
-                            i + 2, duplicate.getMatchReason(), duplicate.getExistingContact().getId(),
-                            duplicate.getExistingContact().getName());
-                    candidate.setExistingContactEmail(duplicate.getExistingContact().getEmail());
-                    candidate.setExistingContactPhone(duplicate.getExistingContact().getPhone());
-                    candidate.setIncomingData(new HashMap<>(row));
-                    dedupes.add(candidate);
+                // Queue for the chunked duplicate check
+                Map<String, Object> candidate = new HashMap<>();
+                candidate.put("name", name);
+                candidate.put("email", email != null ? email.trim().toLowerCase() : null);
+                candidate.put("phone", phone != null ? phoneNormalizer.normalize(phone) : null);
+                candidate.put("lastJobDate", csvParser.parseDate(row.get("lastJobDate")));
+                candidate.put("rowNumber", rowNumber);
+                candidate.put("rowData", new HashMap<String, Object>(row));
+                chunk.add(candidate);
+
+                if (chunk.size() >= importChunkSize) {
+                    addDedupeCandidates(businessId, chunk, dedupes);
+                    chunk.clear();
                 }
             }
 
-            validations.add(new CsvImportPrepareResponse.CsvRowValidation(i + 2, isValid, rowErrors, new HashMap<>(row)));
+            // Every row of a small file; past the preview limit only invalid rows are listed
+            if (validations.size() < previewLimit && (!isValid || totalRows <= previewLimit)) {
+                validations.add(new CsvImportPrepareResponse.CsvRowValidation(rowNumber, isValid, rowErrors, new HashMap<>(row)));
+            }
         }
+        addDedupeCandidates(businessId, chunk, dedupes);
 
+        response.setTotalRows(totalRows);
+        response.setSampleRows(sampleRows);
         response.setValidationResults(validations);
         response.setDedupeResults(dedupes);
         response.setValidRows(validCount);
-        response.setInvalidRows(parsedData.getRows().size() - validCount);
+        response.setInvalidRows(totalRows - validCount);
+    }
+
+    /**
+     * One batch lookup per chunk; stops querying once the preview list is full
+     */
+    @SuppressWarnings("unchecked")
+    private void addDedupeCandidates(Long businessId, List<Map<String, Object>> chunk,
+                                     List<CsvImportPrepareResponse.DedupeCandidate> dedupes) {
+        if (chunk.isEmpty() || dedupes.size() >= previewLimit) {
+            return;
+        }
+
+        Map<String, DedupeService.DedupeResult> duplicates = dedupeService.batchFindDuplicates(businessId, chunk);
+        for (int i = 0; i < chunk.size() && dedupes.size() < previewLimit; i++) {
+            DedupeService.DedupeResult duplicate = duplicates.get("row_" + i);
+            if (duplicate == null) {
+                continue;
+            }
+
+            Map<String, Object> data = chunk.get(i);
+            CsvImportPrepareResponse.DedupeCandidate candidate = new CsvImportPrepareResponse.DedupeCandidate(
+                    (Integer) data.get("rowNumber"), duplicate.getMatchReason(), duplicate.getExistingContact().getId(),
+                    duplicate.getExistingContact().getName());
+            candidate.setExistingContactEmail(duplicate.getExistingContact().getEmail());
+            candidate.setExistingContactPhone(duplicate.getExistingContact().getPhone());
+            candidate.setIncomingData((Map<String, Object>) data.get("rowData"));
+            dedupes.add(candidate);
+        }
+    }
+
+    /**
+     * Write one chunk in its own transaction. A chunk that fails rolls back as a whole and
+     * its rows are reported as errors; the import carries on with the next chunk.
+     */
+    private void importChunk(Long businessId, String mode, List<Map<String, Object>> chunk,
+                             TransactionTemplate transactionTemplate, ImportProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        writeOrBisect(businessId, mode, chunk, transactionTemplate, progress);
+        progress.processed += chunk.size();
+    }
+
+    /**
+     * Write rows in one transaction; if that fails, split them in half and retry each
+     * half, so only the rows that fail on their own are reported as errors
+     */
+    private void writeOrBisect(Long businessId, String mode, List<Map<String, Object>> rows,
+                               TransactionTemplate transactionTemplate, ImportProgress progress) {
+        try {
+            ChunkCounts counts = transactionTemplate.execute(status -> writeChunk(businessId, mode, rows));
+            progress.inserted += counts.inserted();
+            progress.updated += counts.updated();
+            progress.skipped += counts.skipped();
+        } catch (Exception e) {
+            if (rows.size() == 1) {
+                Map<String, Object> contactData = rows.get(0);
+                logger.warn("CSV import row {} for business {} not imported: {}",
+                        contactData.get("rowNumber"), businessId, e.getMessage());
+                progress.addError((Integer) contactData.get("rowNumber"), e.getMessage(), contactData);
+                return;
+            }
+            int middle = rows.size() / 2;
+            writeOrBisect(businessId, mode, rows.subList(0, middle), transactionTemplate, progress);
+            writeOrBisect(businessId, mode, rows.subList(middle, rows.size()), transactionTemplate, progress);
+        }
+    }
+
+    private ChunkCounts writeChunk(Long businessId, String mode, List<Map<String, Object>> chunk) {
+        // Batch dedupe check
+        Map<String, DedupeService.DedupeResult> dedupeResults = dedupeService.batchFindDuplicates(businessId, chunk);
+
+        List<Contact> inserts = new ArrayList<>();
+        List<Contact> updates = new ArrayList<>();
+        int updated = 0, skipped = 0;
+
+        for (int i = 0; i < chunk.size(); i++) {
+            DedupeService.DedupeResult dedupeResult = dedupeResults.get("row_" + i);
+
+            if (dedupeResult != null && "skip-duplicates".equals(mode)) {
+                skipped++;
+                continue;
+            }
+
+            Contact incomingContact = createContactFromData(chunk.get(i), businessId);
+            if (dedupeResult != null && "upsert".equals(mode)) {
+                // Update existing (managed by this transaction)
+                updates.add(dedupeService.mergeContacts(dedupeResult.getExistingContact(), incomingContact));
+                updated++;
+            } else {
+                inserts.add(incomingContact);
+            }
+        }
+
+        // Flush updates first so inserts see merged emails and phones
+        contactRepository.saveAllAndFlush(updates);
+        int inserted = contactImportWriter.insert(businessId, inserts);
+
+        // Inserts left out by the unique email/phone indexes, e.g. repeats within the file
+        skipped += inserts.size() - inserted;
+
+        return new ChunkCounts(inserted, updated, skipped);
+    }
+
+    private void updateImportJob(TransactionTemplate transactionTemplate, Long importJobId, Integer processedRows,
+                                 ImportProgress progress, ImportJob.Status status) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> importJobRepository.findById(importJobId).ifPresent(job -> {
+                if (processedRows != null) {
+                    job.setProcessedRows(processedRows);
+                }
+                job.setInsertedCount(progress.inserted);
+                job.setUpdatedCount(progress.updated);
+                job.setSkippedCount(progress.skipped);
+                job.setErrorCount(progress.errorCount);
+                if (status != null) {
+                    job.setStatus(status);
+                    job.setErrorDetails(progress.errors);
+                }
+            }));
+        } catch (Exception e) {
+            logger.warn("Failed to update import job {}: {}", importJobId, e.getMessage());
+        }
+    }
+
+    private record ChunkCounts(int inserted, int updated, int skipped) {
+    }
+
+    /**
+     * Running totals for one import; only the first MAX_STORED_ERRORS errors are kept
+     */
+    private static class ImportProgress {
+        private int processed;
+        private int inserted;
+        private int updated;
+        private int skipped;
+        private int errorCount;
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+
+        private void addError(int rowNumber, String message, Map<String, ?> rowData) {
+            errorCount++;
+            if (errors.size() < MAX_STORED_ERRORS) {
+                errors.add(Map.of(
+                        "rowNumber", rowNumber,
+                        "error", String.valueOf(message),
+                        "rowData", rowData
+                ));
+            }
+        }
     }
 
     private Map<String, Object> convertRowToContact(Map<String, String> row, Map<String, String> columnMap, List<String> defaultTags) {
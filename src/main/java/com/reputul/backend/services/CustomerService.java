@@ -3,17 +3,23 @@ package com.reputul.backend.services;
 import com.reputul.backend.dto.CreateCustomerRequest;
 import com.reputul.backend.dto.CustomerDto;
 import com.reputul.backend.dto.CustomerStatsDto;
+import com.reputul.backend.dto.SearchPageDto;
 import com.reputul.backend.models.Business;
 import com.reputul.backend.models.Customer;
 import com.reputul.backend.models.User;
 import com.reputul.backend.repositories.BusinessRepository;
 import com.reputul.backend.repositories.CustomerRepository;
+import com.reputul.backend.services.search.SearchService;
+import com.reputul.backend.util.PhoneNormalizer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,6 +31,7 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final BusinessRepository businessRepository;
+    private final SearchService searchService;
 
     public List<CustomerDto> getAllCustomersByUser(User user) {
         List<Customer> customers = customerRepository.findByUserOrderByCreatedAtDesc(user);
@@ -66,6 +73,12 @@ public class CustomerService {
         Business business = businessRepository.findByIdAndUserId(request.getBusinessId(), user.getId())
                 .orElseThrow(() -> new RuntimeException("Business not found"));
 
+        // Phone numbers are unique per business (uq_customers_business_phone_e164)
+        String phoneE164 = PhoneNormalizer.toE164(request.getPhone());
+        if (phoneE164 != null && customerRepository.existsByBusinessIdAndPhoneE164(business.getId(), phoneE164)) {
+            throw new RuntimeException("Customer with this phone number already exists");
+        }
+
         Customer customer = Customer.builder()
                 .name(request.getName())
                 .email(request.getEmail())
@@ -99,6 +112,17 @@ public class CustomerService {
             throw new RuntimeException("Customer not found");
         }
 
+        // Checked before any field changes, so the query's auto-flush can't hit the unique index first.
+        // phone_e164 is only recomputed when phone changes, so a duplicate V041 cleared stays editable.
+        Long targetBusinessId = request.getBusinessId() != null ? request.getBusinessId() : customer.getBusiness().getId();
+        boolean phoneChanged = !Objects.equals(request.getPhone(), customer.getPhone());
+        String phoneE164 = phoneChanged ? PhoneNormalizer.toE164(request.getPhone()) : customer.getPhoneE164();
+        boolean phoneMoves = phoneChanged || !targetBusinessId.equals(customer.getBusiness().getId());
+        if (phoneE164 != null && phoneMoves && customerRepository.existsByBusinessIdAndPhoneE164AndIdNot(
+                targetBusinessId, phoneE164, customer.getId())) {
+            throw new RuntimeException("Customer with this phone number already exists");
+        }
+
         // Verify business belongs to user if business is being changed
         if (request.getBusinessId() != null && !request.getBusinessId().equals(customer.getBusiness().getId())) {
             Business business = businessRepository.findByIdAndUserId(request.getBusinessId(), user.getId())
@@ -140,11 +164,36 @@ public class CustomerService {
         log.info("Deleted customer: {} (ID: {})", customer.getName(), customerId);
     }
 
-    public List<CustomerDto> searchCustomers(User user, String query) {
-        List<Customer> customers = customerRepository.searchCustomers(user, query);
-        return customers.stream()
+    /**
+     * Ranked search by name, email or service type, paged by cursor
+     */
+    @Transactional(readOnly = true)
+    public SearchPageDto<CustomerDto> searchCustomers(User user, String query, String cursor, int limit) {
+        SearchService.SearchHits hits = searchService.searchCustomers(user.getId(), query, cursor, limit);
+        Map<Long, Customer> customers = customerRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Customer::getId, customer -> customer));
+
+        List<CustomerDto> items = hits.ids().stream()
+                .map(customers::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+        return new SearchPageDto<>(items, hits.nextCursor());
+    }
+
+    /**
+     * Every match of the ranked search, in rank order, read page by page
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDto> searchAllCustomers(User user, String query) {
+        List<CustomerDto> customers = new ArrayList<>();
+        String cursor = null;
+        do {
+            SearchPageDto<CustomerDto> page = searchCustomers(user, query, cursor, SearchService.MAX_LIMIT);
+            customers.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return customers;
     }
 
     public CustomerStatsDto getCustomerStats(User user) {
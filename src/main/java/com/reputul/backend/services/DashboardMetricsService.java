@@ -0,0 +1,153 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.models.ReviewRequest;
+import com.reputul.backend.repositories.BusinessRepository;
+import com.reputul.backend.repositories.ReviewRepository;
+import com.reputul.backend.repositories.ReviewRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Dashboard Metrics Service
+ *
+ * Computes dashboard KPIs, the per-day series and summary figures with a fixed number of
+ * grouped SQL aggregates, independent of the window length and the number of businesses.
+ * Days without activity are zero-filled in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardMetricsService {
+
+    private final BusinessRepository businessRepo;
+    private final ReviewRepository reviewRepo;
+    private final ReviewRequestRepository reviewRequestRepo;
+
+    private static final int MAX_DAYS = 365;
+
+    /**
+     * Build the metrics payload for GET /api/v1/dashboard/metrics
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDashboardMetrics(Long userId, int days) {
+        days = Math.max(1, Math.min(days, MAX_DAYS));
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        LocalDate today = now.toLocalDate();
+        LocalDate firstDay = today.minusDays(days - 1L);
+
+        long totalBusinesses = businessRepo.countByUserId(userId);
+        if (totalBusinesses == 0) {
+            return createEmptyMetrics(firstDay, days);
+        }
+
+        Map<String, Object> metrics = new HashMap<>();
+        putStatusCounts(userId, metrics);
+        putTimeSeries(userId, firstDay, days, metrics);
+        putSummary(userId, now.minusDays(days), totalBusinesses, metrics);
+        return metrics;
+    }
+
+    private void putStatusCounts(Long userId, Map<String, Object> metrics) {
+        Map<ReviewRequest.RequestStatus, Long> byStatus = new EnumMap<>(ReviewRequest.RequestStatus.class);
+        for (Object[] row : reviewRequestRepo.countByStatusForOwner(userId)) {
+            if (row[0] != null) {
+                byStatus.put((ReviewRequest.RequestStatus) row[0], ((Number) row[1]).longValue());
+            }
+        }
+
+        metrics.put("sent", byStatus.getOrDefault(ReviewRequest.RequestStatus.SENT, 0L).intValue());
+        metrics.put("delivered", byStatus.getOrDefault(ReviewRequest.RequestStatus.DELIVERED, 0L).intValue());
+        metrics.put("failed", byStatus.getOrDefault(ReviewRequest.RequestStatus.FAILED, 0L).intValue());
+        metrics.put("completed", byStatus.getOrDefault(ReviewRequest.RequestStatus.COMPLETED, 0L).intValue());
+    }
+
+    private void putTimeSeries(Long userId, LocalDate firstDay, int days, Map<String, Object> metrics) {
+        OffsetDateTime since = firstDay.atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        Map<LocalDate, long[]> requestsByDay = new HashMap<>();
+        for (Object[] row : reviewRequestRepo.countDailyForOwnerSince(userId, since)) {
+            requestsByDay.put(toLocalDate(row[0]),
+                    new long[]{((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+
+        Map<LocalDate, Long> reviewsByDay = new HashMap<>();
+        for (Object[] row : reviewRepo.countDailyForOwnerSince(userId, since)) {
+            reviewsByDay.put(toLocalDate(row[0]), ((Number) row[1]).longValue());
+        }
+
+        List<Map<String, Object>> byDay = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            LocalDate day = firstDay.plusDays(i);
+            long[] requests = requestsByDay.getOrDefault(day, new long[]{0L, 0L});
+
+            double completionRate = requests[0] == 0 ? 0.0 : (double) requests[1] / requests[0] * 100;
+
+            Map<String, Object> dayData = new HashMap<>();
+            dayData.put("date", day.format(DateTimeFormatter.ISO_LOCAL_DATE));
+            dayData.put("requestsSent", (int) requests[0]);
+            dayData.put("reviewsReceived", reviewsByDay.getOrDefault(day, 0L).intValue());
+            dayData.put("completionRate", Math.round(completionRate * 10.0) / 10.0);
+            byDay.add(dayData);
+        }
+
+        metrics.put("byDay", byDay);
+    }
+
+    private void putSummary(Long userId, OffsetDateTime since, long totalBusinesses, Map<String, Object> metrics) {
+        List<Object[]> rows = reviewRepo.summarizeForOwnerSince(userId, since);
+        Object[] summary = rows.isEmpty() ? new Object[]{0L, null, 0L} : rows.get(0);
+
+        long totalReviews = summary[0] != null ? ((Number) summary[0]).longValue() : 0L;
+        double averageRating = summary[1] != null ? ((Number) summary[1]).doubleValue() : 0.0;
+        long activeBusinesses = summary[2] != null ? ((Number) summary[2]).longValue() : 0L;
+
+        metrics.put("totalReviewsInPeriod", (int) totalReviews);
+        metrics.put("averageRatingInPeriod", totalReviews > 0 ? Math.round(averageRating * 10.0) / 10.0 : 0.0);
+        metrics.put("activeBusinesses", (int) activeBusinesses);
+        metrics.put("totalBusinesses", (int) totalBusinesses);
+    }
+
+    private Map<String, Object> createEmptyMetrics(LocalDate firstDay, int days) {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("sent", 0);
+        metrics.put("delivered", 0);
+        metrics.put("failed", 0);
+        metrics.put("completed", 0);
+        metrics.put("totalReviewsInPeriod", 0);
+        metrics.put("averageRatingInPeriod", 0.0);
+        metrics.put("activeBusinesses", 0);
+        metrics.put("totalBusinesses", 0);
+
+        List<Map<String, Object>> byDay = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            Map<String, Object> dayData = new HashMap<>();
+            dayData.put("date", firstDay.plusDays(i).format(DateTimeFormatter.ISO_LOCAL_DATE));
+            dayData.put("requestsSent", 0);
+            dayData.put("reviewsReceived", 0);
+            dayData.put("completionRate", 0.0);
+            byDay.add(dayData);
+        }
+        metrics.put("byDay", byDay);
+
+        return metrics;
+    }
+
+    // Native DATE columns come back as java.sql.Date or LocalDate depending on the driver/dialect
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        if (value instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+}
@@ -1,17 +1,18 @@
 package com.reputul.backend.services;
 
-import com.resend.Resend;
-import com.resend.core.exception.ResendException;
-import com.resend.services.emails.model.CreateEmailOptions;
-import com.resend.services.emails.model.CreateEmailResponse;
+import com.reputul.backend.integrations.EmailProvider;
+import com.reputul.backend.integrations.EmailProviderException;
 import com.reputul.backend.models.Business;
 import com.reputul.backend.models.Customer;
 import com.reputul.backend.models.EmailTemplate;
 import com.reputul.backend.models.Organization;
+import com.reputul.backend.models.ReviewRequest;
 import com.reputul.backend.models.Usage;
+import com.reputul.backend.repositories.EmailOutboxRepository;
 import com.reputul.backend.repositories.ReviewRequestRepository;
 import com.reputul.backend.repositories.UsageRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,14 +24,20 @@ import java.time.ZoneOffset;
  *
  * Resend provides better deliverability and developer experience.
  * https://resend.com
+ *
+ * Customer and account emails are queued in email_outbox, in the caller's transaction,
+ * and sent in batches by EmailOutboxRelay; test emails go to the provider directly.
  */
 @Service
 @Slf4j
 public class EmailService {
 
-    private final Resend resend;
-    private final boolean enabled;
+    // email_outbox column sizes (RFC 5321 address and RFC 5322 line limits)
+    private static final int MAX_ADDRESS_LENGTH = 320;
+    private static final int MAX_SUBJECT_LENGTH = 998;
 
+    private final EmailProvider emailProvider;
+    private final EmailOutboxRepository emailOutboxRepository;
     private final EmailTemplateService emailTemplateService;
     private final ReviewRequestRepository reviewRequestRepository;
     private final UsageRepository usageRepository;
@@ -45,33 +52,17 @@ public class EmailService {
     private String frontendUrl;
 
     public EmailService(
-            @Value("${resend.api-key:}") String apiKey,
-            @Value("${resend.enabled:true}") boolean enabledConfig,
+            EmailProvider emailProvider,
+            EmailOutboxRepository emailOutboxRepository,
             EmailTemplateService emailTemplateService,
             ReviewRequestRepository reviewRequestRepository,
             UsageRepository usageRepository) {
 
+        this.emailProvider = emailProvider;
+        this.emailOutboxRepository = emailOutboxRepository;
         this.emailTemplateService = emailTemplateService;
         this.reviewRequestRepository = reviewRequestRepository;
         this.usageRepository = usageRepository;
-
-        // Initialize Resend
-        boolean hasValidKey = apiKey != null && !apiKey.isEmpty() && apiKey.startsWith("re_");
-        this.enabled = enabledConfig && hasValidKey;
-
-        if (this.enabled) {
-            this.resend = new Resend(apiKey);
-            log.info("✅ Resend email service initialized");
-            log.info("📧 From: {} <{}>", fromName, fromEmail);
-        } else {
-            this.resend = null;
-            if (!hasValidKey) {
-                log.warn("⚠️ Resend API key not configured or invalid - emails will not be sent");
-                log.warn("   Set RESEND_API_KEY environment variable with your Resend API key (starts with 're_')");
-            } else {
-                log.warn("⚠️ Resend is disabled via configuration");
-            }
-        }
     }
 
     // ========================================================================
@@ -100,22 +91,20 @@ public class EmailService {
             // Track email usage for billing
             trackEmailUsage(organization, "REVIEW_REQUEST");
 
-            // Send via Resend
-            EmailResult result = sendHtmlEmail(
-                    customer.getEmail(),
+            // Queue for EmailOutboxRelay; the message ID is stored when it is sent
+            EmailResult result = queueHtmlEmail(
+                    customer,
                     subject,
                     htmlContent,
                     business.getName(),
                     organization.getId()
             );
 
-            // Store message ID for tracking
-            if (result.isSuccess() && result.getMessageId() != null) {
-                updateReviewRequestWithMessageId(customer, result.getMessageId());
-            }
-
             return result.isSuccess();
 
+        } catch (DataAccessException e) {
+            // The outbox insert failed in the caller's transaction, which can't commit now
+            throw e;
         } catch (Exception e) {
             log.error("Failed to send template-based review request to: {}", customer.getEmail(), e);
             return false;
@@ -134,28 +123,27 @@ public class EmailService {
             Organization organization = business.getOrganization();
             Long templateId = getDefaultTemplateId(customer, followUpType);
 
-            String htmlContent = emailTemplateService.renderTemplate(business.getUser(), templateId, customer);
-            String subject = emailTemplateService.renderTemplateSubject(business.getUser(), templateId, customer);
+            EmailTemplateService.RenderedEmail email = emailTemplateService.renderEmail(business.getUser(), templateId, customer);
+            String htmlContent = email.body();
+            String subject = email.subject();
 
             // Track email usage for billing
             trackEmailUsage(organization, "FOLLOW_UP");
 
-            // Send via Resend
-            EmailResult result = sendHtmlEmail(
-                    customer.getEmail(),
+            // Queue for EmailOutboxRelay; the message ID is stored when it is sent
+            EmailResult result = queueHtmlEmail(
+                    customer,
                     subject,
                     htmlContent,
                     business.getName(),
                     organization.getId()
             );
 
-            // Store message ID
-            if (result.isSuccess() && result.getMessageId() != null) {
-                updateReviewRequestWithMessageId(customer, result.getMessageId());
-            }
-
             return result.isSuccess();
 
+        } catch (DataAccessException e) {
+            // The outbox insert failed in the caller's transaction, which can't commit now
+            throw e;
         } catch (Exception e) {
             log.error("Failed to send follow-up email to: {}", customer.getEmail(), e);
             return false;
@@ -173,28 +161,27 @@ public class EmailService {
             Organization organization = business.getOrganization();
             Long templateId = getDefaultTemplateId(customer, EmailTemplate.TemplateType.THANK_YOU);
 
-            String htmlContent = emailTemplateService.renderTemplate(business.getUser(), templateId, customer);
-            String subject = emailTemplateService.renderTemplateSubject(business.getUser(), templateId, customer);
+            EmailTemplateService.RenderedEmail email = emailTemplateService.renderEmail(business.getUser(), templateId, customer);
+            String htmlContent = email.body();
+            String subject = email.subject();
 
             // Track email usage for billing
             trackEmailUsage(organization, "THANK_YOU");
 
-            // Send via Resend
-            EmailResult result = sendHtmlEmail(
-                    customer.getEmail(),
+            // Queue for EmailOutboxRelay; the message ID is stored when it is sent
+            EmailResult result = queueHtmlEmail(
+                    customer,
                     subject,
                     htmlContent,
                     business.getName(),
                     organization.getId()
             );
 
-            // Store message ID
-            if (result.isSuccess() && result.getMessageId() != null) {
-                updateReviewRequestWithMessageId(customer, result.getMessageId());
-            }
-
             return result.isSuccess();
 
+        } catch (DataAccessException e) {
+            // The outbox insert failed in the caller's transaction, which can't commit now
+            throw e;
         } catch (Exception e) {
             log.error("Failed to send thank you email to: {}", customer.getEmail(), e);
             return false;
@@ -256,7 +243,7 @@ public class EmailService {
         </html>
         """.formatted(resetLink);
 
-        EmailResult result = sendHtmlEmail(toEmail, subject, htmlContent, null, null);
+        EmailResult result = queueHtmlEmail(toEmail, null, subject, htmlContent, null, null);
         return result.isSuccess();
     }
 
@@ -273,22 +260,20 @@ public class EmailService {
             // Track email usage for billing
             trackEmailUsage(organization, "REVIEW_REQUEST");
 
-            // Send via Resend
-            EmailResult result = sendHtmlEmail(
-                    customer.getEmail(),
+            // Queue for EmailOutboxRelay; the message ID is stored when it is sent
+            EmailResult result = queueHtmlEmail(
+                    customer,
                     subject,
                     processedBody,
                     business.getName(),
                     organization.getId()
             );
 
-            // Store message ID
-            if (result.isSuccess() && result.getMessageId() != null) {
-                updateReviewRequestWithMessageId(customer, result.getMessageId());
-            }
-
             return result.isSuccess();
 
+        } catch (DataAccessException e) {
+            // The outbox insert failed in the caller's transaction, which can't commit now
+            throw e;
         } catch (Exception e) {
             log.error("❌ Error sending review request to {}: {}", customer.getEmail(), e.getMessage(), e);
             return false;
@@ -329,65 +314,120 @@ public class EmailService {
     }
 
     // ========================================================================
-    // CORE SENDING METHOD
+    // CORE SENDING METHODS
     // ========================================================================
 
     /**
-     * Core method to send HTML email via Resend
+     * Queue an email to a customer, linked to their pending review request if any
      */
-    private EmailResult sendHtmlEmail(String toEmail, String subject, String htmlContent,
-                                      String fromBusinessName, Long organizationId) {
+    private EmailResult queueHtmlEmail(Customer customer, String subject, String htmlContent,
+                                       String fromBusinessName, Long organizationId) {
+        return queueHtmlEmail(customer.getEmail(), pendingReviewRequestId(customer), subject, htmlContent,
+                fromBusinessName, organizationId);
+    }
+
+    /**
+     * Core method to queue HTML email in the outbox. Joins the caller's transaction, so the
+     * email is only sent if the caller commits. Values the outbox columns can't hold are
+     * rejected up front; a failed insert throws, since it has aborted the transaction.
+     */
+    private EmailResult queueHtmlEmail(String toEmail, Long reviewRequestId, String subject, String htmlContent,
+                                       String fromBusinessName, Long organizationId) {
 
-        if (!enabled) {
-            log.warn("📧 Resend DISABLED - Would send to: {} | Subject: {}", toEmail, subject);
-            return new EmailResult(false, null, "Resend service is disabled - set RESEND_API_KEY");
+        EmailResult invalid = validate(toEmail, subject);
+        if (invalid != null) {
+            return invalid;
         }
 
-        if (toEmail == null || toEmail.trim().isEmpty()) {
-            log.error("❌ Cannot send email - recipient is empty");
-            return new EmailResult(false, null, "Recipient email is required");
+        String from = formatFrom(fromBusinessName);
+        if (from.length() > MAX_ADDRESS_LENGTH) {
+            log.error("❌ Cannot queue email - sender is longer than {} characters", MAX_ADDRESS_LENGTH);
+            return new EmailResult(false, null, "Sender name is too long");
         }
 
-        if (subject == null || subject.trim().isEmpty()) {
-            log.error("❌ Cannot send email - subject is empty");
-            return new EmailResult(false, null, "Subject is required");
+        Long outboxId = emailOutboxRepository.enqueue(new EmailOutboxRepository.NewEmail(
+                reviewRequestId,
+                organizationId,
+                from,
+                toEmail,
+                subject,
+                ensureCanSpamCompliance(htmlContent, organizationId)
+        ), OffsetDateTime.now(ZoneOffset.UTC));
+
+        log.info("📧 Queued email {} to: {} | Subject: {}", outboxId, toEmail, subject);
+        return new EmailResult(true, null, null);
+    }
+
+    /**
+     * Send HTML email straight to the provider, bypassing the outbox
+     */
+    private EmailResult sendHtmlEmail(String toEmail, String subject, String htmlContent,
+                                      String fromBusinessName, Long organizationId) {
+
+        EmailResult invalid = validate(toEmail, subject);
+        if (invalid != null) {
+            return invalid;
         }
 
         try {
-            // Ensure CAN-SPAM compliance
-            String compliantHtmlContent = ensureCanSpamCompliance(htmlContent, organizationId);
-
-            // Build sender name
-            String senderName = fromBusinessName != null ? fromBusinessName + " via Reputul" : fromName;
-            String from = String.format("%s <%s>", senderName, fromEmail);
+            String from = formatFrom(fromBusinessName);
 
-            log.info("📧 Sending email via Resend:");
+            log.info("📧 Sending email via {}:", emailProvider.getName());
             log.info("   From: {}", from);
             log.info("   To: {}", toEmail);
             log.info("   Subject: {}", subject);
 
-            CreateEmailOptions options = CreateEmailOptions.builder()
-                    .from(from)
-                    .to(toEmail)
-                    .subject(subject)
-                    .html(compliantHtmlContent)
-                    .build();
-
-            CreateEmailResponse response = resend.emails().send(options);
-            String messageId = response.getId();
+            String messageId = emailProvider.send(new EmailProvider.OutboundEmail(
+                    from, toEmail, subject, ensureCanSpamCompliance(htmlContent, organizationId)));
 
-            log.info("✅ Email sent successfully via Resend - Message ID: {}", messageId);
+            log.info("✅ Email sent successfully via {} - Message ID: {}", emailProvider.getName(), messageId);
             return new EmailResult(true, messageId, null);
 
-        } catch (ResendException e) {
-            log.error("❌ Resend API error: {}", e.getMessage());
-            return new EmailResult(false, null, "Resend API error: " + e.getMessage());
+        } catch (EmailProviderException e) {
+            log.error("❌ {}", e.getMessage());
+            return new EmailResult(false, null, e.getMessage());
         } catch (Exception e) {
             log.error("❌ Unexpected error sending email: {}", e.getMessage(), e);
             return new EmailResult(false, null, "Unexpected error: " + e.getMessage());
         }
     }
 
+    /**
+     * The failure to report for an email that can't be sent, or null if it can
+     */
+    private EmailResult validate(String toEmail, String subject) {
+        if (!emailProvider.isEnabled()) {
+            log.warn("📧 {} DISABLED - Would send to: {} | Subject: {}", emailProvider.getName(), toEmail, subject);
+            return new EmailResult(false, null, emailProvider.getName() + " service is disabled - set RESEND_API_KEY");
+        }
+
+        if (toEmail == null || toEmail.trim().isEmpty()) {
+            log.error("❌ Cannot send email - recipient is empty");
+            return new EmailResult(false, null, "Recipient email is required");
+        }
+
+        if (subject == null || subject.trim().isEmpty()) {
+            log.error("❌ Cannot send email - subject is empty");
+            return new EmailResult(false, null, "Subject is required");
+        }
+
+        if (toEmail.length() > MAX_ADDRESS_LENGTH) {
+            log.error("❌ Cannot send email - recipient is longer than {} characters", MAX_ADDRESS_LENGTH);
+            return new EmailResult(false, null, "Recipient email is too long");
+        }
+
+        if (subject.length() > MAX_SUBJECT_LENGTH) {
+            log.error("❌ Cannot send email - subject is longer than {} characters", MAX_SUBJECT_LENGTH);
+            return new EmailResult(false, null, "Subject is too long");
+        }
+        return null;
+    }
+
+    private String formatFrom(String fromBusinessName) {
+        String senderName = fromBusinessName != null ? fromBusinessName + " via Reputul" : fromName;
+        return String.format("%s <%s>", senderName, fromEmail);
+    }
+
     // ========================================================================
     // HELPER METHODS
     // ========================================================================
@@ -405,22 +445,18 @@ public class EmailService {
     }
 
     /**
-     * Update review request with message ID for tracking
-     * Uses existing repository method that filters by PENDING status
+     * The customer's latest PENDING review request, which the email belongs to. The relay
+     * stores the provider message ID on it for webhook tracking once the email is sent.
      */
-    private void updateReviewRequestWithMessageId(Customer customer, String messageId) {
+    private Long pendingReviewRequestId(Customer customer) {
         try {
-            reviewRequestRepository.findTopByCustomerAndStatusOrderByCreatedAtDesc(
+            return reviewRequestRepository.findTopByCustomerAndStatusOrderByCreatedAtDesc(
                     customer,
-                    com.reputul.backend.models.ReviewRequest.RequestStatus.PENDING
-            ).ifPresent(reviewRequest -> {
-                reviewRequest.setSendgridMessageId(messageId); // Reusing field name for any provider
-                reviewRequestRepository.save(reviewRequest);
-                log.debug("Updated review request {} with message ID: {}",
-                        reviewRequest.getId(), messageId);
-            });
+                    ReviewRequest.RequestStatus.PENDING
+            ).map(ReviewRequest::getId).orElse(null);
         } catch (Exception e) {
-            log.warn("Could not update review request with message ID: {}", e.getMessage());
+            log.warn("Could not find review request for message ID tracking: {}", e.getMessage());
+            return null;
         }
     }
 
@@ -545,14 +581,14 @@ public class EmailService {
      * Check if email service is configured and ready
      */
     public boolean isConfigured() {
-        return enabled;
+        return emailProvider.isEnabled();
     }
 
     /**
      * Get the active email provider name
      */
     public String getActiveProvider() {
-        return enabled ? "Resend" : "None";
+        return emailProvider.isEnabled() ? emailProvider.getName() : "None";
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.reputul.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reputul.backend.models.EmailTemplate;
+import com.reputul.backend.models.EmailTemplateStyle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Cache of compiled email templates.
+ *
+ * Entries are keyed by template id and updatedAt (plus style id and updatedAt for styled
+ * HTML), so an edited template or style simply misses and compiles again; stale entries
+ * age out of the bounded cache. Unsaved templates (previews) are compiled on every call.
+ *
+ * Used by: EmailTemplateService, EmailTemplateRenderer
+ */
+@Component
+public class EmailTemplateCompiler {
+
+    public enum Part {
+        SUBJECT,
+        BODY,
+        STYLED_HTML
+    }
+
+    /**
+     * A template version, optionally rendered with a style version
+     */
+    public record TemplateKey(
+            Long templateId,
+            OffsetDateTime templateUpdatedAt,
+            Long styleId,
+            LocalDateTime styleUpdatedAt,
+            Part part
+    ) {
+        public static TemplateKey of(EmailTemplate template, EmailTemplateStyle style, Part part) {
+            return new TemplateKey(template.getId(), template.getUpdatedAt(),
+                    style != null ? style.getId() : null,
+                    style != null ? style.getUpdatedAt() : null,
+                    part);
+        }
+
+        boolean cacheable() {
+            return templateId != null && (part != Part.STYLED_HTML || styleId != null);
+        }
+    }
+
+    private final Cache<TemplateKey, CompiledTemplate> cache;
+
+    public EmailTemplateCompiler(@Value("${app.email.template-cache.max-size:2000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public CompiledTemplate subject(EmailTemplate template) {
+        return get(TemplateKey.of(template, null, Part.SUBJECT), () -> CompiledTemplate.compile(template.getSubject()));
+    }
+
+    public CompiledTemplate body(EmailTemplate template) {
+        return get(TemplateKey.of(template, null, Part.BODY), () -> CompiledTemplate.compile(template.getBody()));
+    }
+
+    /**
+     * The cached template for key, compiling it on a miss
+     */
+    public CompiledTemplate get(TemplateKey key, Supplier<CompiledTemplate> compiler) {
+        if (!key.cacheable()) {
+            return compiler.get();
+        }
+        return cache.get(key, ignored -> compiler.get());
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
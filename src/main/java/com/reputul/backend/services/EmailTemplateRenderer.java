@@ -1,9 +1,8 @@
 package com.reputul.backend.services;
 
-import com.reputul.backend.models.Business;
-import com.reputul.backend.models.Customer;
 import com.reputul.backend.models.EmailTemplate;
 import com.reputul.backend.models.EmailTemplateStyle;
+import com.reputul.backend.services.EmailTemplateCompiler.TemplateKey;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,25 +19,30 @@ import java.util.Map;
 @Slf4j
 public class EmailTemplateRenderer {
 
+    private final EmailTemplateCompiler templateCompiler;
+
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
     /**
-     * Renders an email template with applied styling and variable replacement
+     * Renders an email template with applied styling and variable replacement. The
+     * template is compiled once per template and style version and cached.
      */
     public String renderTemplate(EmailTemplate template, EmailTemplateStyle style, Map<String, String> variables) {
         if (template.getSimplifiedMode() != null && template.getSimplifiedMode()) {
-            return renderSimplifiedTemplate(template, style, variables);
+            return templateCompiler.get(TemplateKey.of(template, style, EmailTemplateCompiler.Part.STYLED_HTML),
+                    () -> compileSimplifiedTemplate(template, style)).render(variables);
         } else {
             // Fallback to legacy multi-platform template
-            return renderLegacyTemplate(template, variables);
+            return templateCompiler.body(template).render(variables);
         }
     }
 
     /**
-     * Renders simplified single-button template with custom styling
+     * Compiles the simplified single-button template with custom styling. Style values are
+     * fixed in the literal HTML; variables are slots filled at render time.
      */
-    private String renderSimplifiedTemplate(EmailTemplate template, EmailTemplateStyle style, Map<String, String> variables) {
+    private CompiledTemplate compileSimplifiedTemplate(EmailTemplate template, EmailTemplateStyle style) {
         // Get styling values with defaults
         String logoUrl = style.getLogoUrl();
         String logoSize = getLogoSizePixels(style.getLogoSize());
@@ -60,146 +64,139 @@ public class EmailTemplateRenderer {
 
         // Get body content and process it intelligently
         String rawBody = template.getBody() != null ? template.getBody() : "";
-        String bodyContent;
+        CompiledTemplate bodyContent;
 
         // Check if body already contains HTML tags
         if (isHtmlContent(rawBody)) {
             // Already HTML - just replace variables
-            bodyContent = replaceVariables(rawBody, variables);
+            bodyContent = CompiledTemplate.compile(rawBody);
         } else {
-            // Plain text - convert to nice HTML with paragraphs
-            bodyContent = convertPlainTextToHtml(replaceVariables(rawBody, variables));
+            // Plain text - convert to nice HTML with paragraphs; values are inserted after conversion
+            bodyContent = CompiledTemplate.compile(convertPlainTextToHtml(rawBody));
         }
 
-        String businessName = variables.getOrDefault("businessName", "Our Business");
-        String buttonUrl = variables.getOrDefault("privateFeedbackUrl", frontendUrl + "/feedback/unknown");
-
         // Build HTML email
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd\">\n");
-        html.append("<html xmlns=\"http://www.w3.org/1999/xhtml\">\n");
-        html.append("<head>\n");
-        html.append("    <meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\" />\n");
-        html.append("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\" />\n");
-        html.append("    <title>").append(escapeHtml(variables.getOrDefault("subject", "Feedback Request"))).append("</title>\n");
-        html.append("</head>\n");
-        html.append("<body style=\"margin: 0; padding: 0; font-family: Arial, Helvetica, sans-serif; line-height: 1.6; color: ").append(textColor).append("; background-color: ").append(bgColor).append(";\">\n");
-        html.append("    <table cellpadding=\"0\" cellspacing=\"0\" border=\"0\" width=\"100%\" style=\"background-color: ").append(bgColor).append("; min-height: 100%;\">\n");
-        html.append("        <tr>\n");
-        html.append("            <td align=\"center\" style=\"padding: 40px 20px;\">\n");
-        html.append("                <table cellpadding=\"0\" cellspacing=\"0\" border=\"0\" width=\"600\" style=\"max-width: 600px; background-color: ").append(containerBgColor).append("; border-radius: ").append(containerBorderRadius).append("; box-shadow: 0 2px 10px rgba(0,0,0,0.1);\">\n");
+        CompiledTemplate.Builder html = CompiledTemplate.builder();
+        html.literal("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd\">\n");
+        html.literal("<html xmlns=\"http://www.w3.org/1999/xhtml\">\n");
+        html.literal("<head>\n");
+        html.literal("    <meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\" />\n");
+        html.literal("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\" />\n");
+        html.literal("    <title>").segment(escaped("subject", "Feedback Request")).literal("</title>\n");
+        html.literal("</head>\n");
+        html.literal("<body style=\"margin: 0; padding: 0; font-family: Arial, Helvetica, sans-serif; line-height: 1.6; color: ").literal(textColor).literal("; background-color: ").literal(bgColor).literal(";\">\n");
+        html.literal("    <table cellpadding=\"0\" cellspacing=\"0\" border=\"0\" width=\"100%\" style=\"background-color: ").literal(bgColor).literal("; min-height: 100%;\">\n");
+        html.literal("        <tr>\n");
+        html.literal("            <td align=\"center\" style=\"padding: 40px 20px;\">\n");
+        html.literal("                <table cellpadding=\"0\" cellspacing=\"0\" border=\"0\" width=\"600\" style=\"max-width: 600px; background-color: ").literal(containerBgColor).literal("; border-radius: ").literal(containerBorderRadius).literal("; box-shadow: 0 2px 10px rgba(0,0,0,0.1);\">\n");
 
         // Header with logo and business name
-        html.append("                    <!-- Header -->\n");
-        html.append("                    <tr>\n");
-        html.append("                        <td style=\"padding: 40px 30px; text-align: ").append(businessNameAlign).append("; border-bottom: 1px solid #e0e0e0;\">\n");
+        html.literal("                    <!-- Header -->\n");
+        html.literal("                    <tr>\n");
+        html.literal("                        <td style=\"padding: 40px 30px; text-align: ").literal(businessNameAlign).literal("; border-bottom: 1px solid #e0e0e0;\">\n");
 
         // Logo
         if (logoUrl != null && !logoUrl.trim().isEmpty()) {
-            html.append("                            <div style=\"text-align: ").append(logoAlign).append("; margin-bottom: ").append(showBusinessName ? "15px" : "0").append(";\">\n");
-            html.append("                                <img src=\"").append(escapeHtml(logoUrl)).append("\" alt=\"Logo\" style=\"max-width: ").append(logoSize).append("; height: auto; display: inline-block;\" />\n");
-            html.append("                            </div>\n");
+            html.literal("                            <div style=\"text-align: ").literal(logoAlign).literal("; margin-bottom: ").literal(showBusinessName ? "15px" : "0").literal(";\">\n");
+            html.literal("                                <img src=\"").literal(escapeHtml(logoUrl)).literal("\" alt=\"Logo\" style=\"max-width: ").literal(logoSize).literal("; height: auto; display: inline-block;\" />\n");
+            html.literal("                            </div>\n");
         }
 
         // Business Name
         if (showBusinessName) {
-            html.append("                            <h1 style=\"margin: 0; font-size: 28px; font-weight: bold; color: ").append(primaryColor).append(";\">").append(escapeHtml(businessName)).append("</h1>\n");
+            html.literal("                            <h1 style=\"margin: 0; font-size: 28px; font-weight: bold; color: ").literal(primaryColor).literal(";\">").segment(escaped("businessName", "Our Business")).literal("</h1>\n");
         }
 
-        html.append("                        </td>\n");
-        html.append("                    </tr>\n");
+        html.literal("                        </td>\n");
+        html.literal("                    </tr>\n");
 
         // Custom Image (if enabled)
         if (showCustomImage && customImageUrl != null && !customImageUrl.trim().isEmpty()) {
-            html.append("                    <!-- Custom Image -->\n");
-            html.append("                    <tr>\n");
-            html.append("                        <td style=\"padding: 0;\">\n");
-            html.append("                            <img src=\"").append(escapeHtml(customImageUrl)).append("\" alt=\"\" style=\"width: 100%; height: auto; display: block;\" />\n");
-            html.append("                        </td>\n");
-            html.append("                    </tr>\n");
+            html.literal("                    <!-- Custom Image -->\n");
+            html.literal("                    <tr>\n");
+            html.literal("                        <td style=\"padding: 0;\">\n");
+            html.literal("                            <img src=\"").literal(escapeHtml(customImageUrl)).literal("\" alt=\"\" style=\"width: 100%; height: auto; display: block;\" />\n");
+            html.literal("                        </td>\n");
+            html.literal("                    </tr>\n");
         }
 
         // Main Content
-        html.append("                    <!-- Main Content -->\n");
-        html.append("                    <tr>\n");
-        html.append("                        <td style=\"padding: 40px 30px; text-align: ").append(textAlign).append(";\">\n");
-        html.append("                            <div style=\"font-size: 16px; line-height: 1.6; color: ").append(textColor).append(";\">\n");
-        html.append(bodyContent);  // User's custom content
-        html.append("                            </div>\n");
-        html.append("                        </td>\n");
-        html.append("                    </tr>\n");
+        html.literal("                    <!-- Main Content -->\n");
+        html.literal("                    <tr>\n");
+        html.literal("                        <td style=\"padding: 40px 30px; text-align: ").literal(textAlign).literal(";\">\n");
+        html.literal("                            <div style=\"font-size: 16px; line-height: 1.6; color: ").literal(textColor).literal(";\">\n");
+        html.template(bodyContent);  // User's custom content
+        html.literal("                            </div>\n");
+        html.literal("                        </td>\n");
+        html.literal("                    </tr>\n");
 
         // CTA Button
-        html.append("                    <!-- CTA Button -->\n");
-        html.append("                    <tr>\n");
-        html.append("                        <td style=\"padding: 0 30px 40px 30px; text-align: ").append(buttonAlign).append(";\">\n");
-        html.append("                            <table cellpadding=\"0\" cellspacing=\"0\" border=\"0\" style=\"margin: 0 auto;\">\n");
-        html.append("                                <tr>\n");
-        html.append("                                    <td>\n");
-        html.append("                                        <a href=\"").append(escapeHtml(buttonUrl)).append("\" style=\"display: inline-block; background-color: ").append(buttonColor).append("; color: #ffffff; padding: 16px 40px; text-decoration: none; border-radius: ").append(buttonBorderRadius).append("; font-weight: bold; font-size: 18px;\">").append(escapeHtml(buttonText)).append("</a>\n");
-        html.append("                                    </td>\n");
-        html.append("                                </tr>\n");
-        html.append("                            </table>\n");
-        html.append("                        </td>\n");
-        html.append("                    </tr>\n");
+        html.literal("                    <!-- CTA Button -->\n");
+        html.literal("                    <tr>\n");
+        html.literal("                        <td style=\"padding: 0 30px 40px 30px; text-align: ").literal(buttonAlign).literal(";\">\n");
+        html.literal("                            <table cellpadding=\"0\" cellspacing=\"0\" border=\"0\" style=\"margin: 0 auto;\">\n");
+        html.literal("                                <tr>\n");
+        html.literal("                                    <td>\n");
+        html.literal("                                        <a href=\"").segment(escaped("privateFeedbackUrl", frontendUrl + "/feedback/unknown")).literal("\" style=\"display: inline-block; background-color: ").literal(buttonColor).literal("; color: #ffffff; padding: 16px 40px; text-decoration: none; border-radius: ").literal(buttonBorderRadius).literal("; font-weight: bold; font-size: 18px;\">").literal(escapeHtml(buttonText)).literal("</a>\n");
+        html.literal("                                    </td>\n");
+        html.literal("                                </tr>\n");
+        html.literal("                            </table>\n");
+        html.literal("                        </td>\n");
+        html.literal("                    </tr>\n");
 
         // Footer
-        html.append("                    <!-- Footer -->\n");
-        html.append("                    <tr>\n");
-        html.append("                        <td style=\"background-color: #f8f9fa; padding: 25px 30px; border-top: 1px solid #e0e0e0; text-align: center; border-radius: 0 0 ").append(containerBorderRadius).append(" ").append(containerBorderRadius).append(";\">\n");
+        html.literal("                    <!-- Footer -->\n");
+        html.literal("                    <tr>\n");
+        html.literal("                        <td style=\"background-color: #f8f9fa; padding: 25px 30px; border-top: 1px solid #e0e0e0; text-align: center; border-radius: 0 0 ").literal(containerBorderRadius).literal(" ").literal(containerBorderRadius).literal(";\">\n");
+
+        html.segment(EmailTemplateRenderer::appendContactLine);
+
+        html.literal("                            <p style=\"margin: 0; font-size: 12px; color: #999999;\">\n");
+        html.literal("                                <a href=\"").segment(escaped("unsubscribeUrl", "#")).literal("\" style=\"color: #666666; text-decoration: underline;\">Unsubscribe</a>\n");
+        html.literal("                            </p>\n");
+        html.literal("                        </td>\n");
+        html.literal("                    </tr>\n");
+
+        html.literal("                </table>\n");
+        html.literal("            </td>\n");
+        html.literal("        </tr>\n");
+        html.literal("    </table>\n");
+        html.literal("</body>\n");
+        html.literal("</html>");
+
+        return html.build();
+    }
 
+    /**
+     * Business phone and website line of the footer, omitted when both are empty
+     */
+    private static void appendContactLine(StringBuilder out, Map<String, String> variables) {
         String businessPhone = variables.getOrDefault("businessPhone", "");
         String businessWebsite = variables.getOrDefault("businessWebsite", "");
+        businessPhone = businessPhone != null ? businessPhone : "";
+        businessWebsite = businessWebsite != null ? businessWebsite : "";
 
         if (!businessPhone.isEmpty() || !businessWebsite.isEmpty()) {
-            html.append("                            <p style=\"margin: 0 0 15px 0; font-size: 14px; color: #666666;\">\n");
+            out.append("                            <p style=\"margin: 0 0 15px 0; font-size: 14px; color: #666666;\">\n");
             if (!businessPhone.isEmpty()) {
-                html.append("                                ").append(escapeHtml(businessPhone));
+                out.append("                                ");
+                appendEscapedHtml(out, businessPhone);
                 if (!businessWebsite.isEmpty()) {
-                    html.append(" | ");
+                    out.append(" | ");
                 }
             }
             if (!businessWebsite.isEmpty()) {
-                html.append(escapeHtml(businessWebsite));
+                appendEscapedHtml(out, businessWebsite);
             }
-            html.append("\n                            </p>\n");
+            out.append("\n                            </p>\n");
         }
-
-        html.append("                            <p style=\"margin: 0; font-size: 12px; color: #999999;\">\n");
-        html.append("                                <a href=\"").append(escapeHtml(variables.getOrDefault("unsubscribeUrl", "#"))).append("\" style=\"color: #666666; text-decoration: underline;\">Unsubscribe</a>\n");
-        html.append("                            </p>\n");
-        html.append("                        </td>\n");
-        html.append("                    </tr>\n");
-
-        html.append("                </table>\n");
-        html.append("            </td>\n");
-        html.append("        </tr>\n");
-        html.append("    </table>\n");
-        html.append("</body>\n");
-        html.append("</html>");
-
-        return html.toString();
     }
 
     /**
-     * Renders legacy multi-platform template (for backward compatibility)
+     * Slot for an HTML-escaped variable
      */
-    private String renderLegacyTemplate(EmailTemplate template, Map<String, String> variables) {
-        return replaceVariables(template.getBody(), variables);
-    }
-
-    /**
-     * Replaces template variables with actual values
-     */
-    private String replaceVariables(String content, Map<String, String> variables) {
-        if (content == null) return "";
-        String result = content;
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            String value = entry.getValue() != null ? entry.getValue() : "";
-            result = result.replace(placeholder, value);
-        }
-        return result;
+    private static CompiledTemplate.Segment escaped(String name, String defaultValue) {
+        return (out, variables) -> appendEscapedHtml(out, variables.getOrDefault(name, defaultValue));
     }
 
     // Helper methods for style conversion
@@ -237,13 +234,25 @@ public class EmailTemplateRenderer {
         };
     }
 
-    private String escapeHtml(String text) {
-        if (text == null) return "";
-        return text.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#39;");
+    private static String escapeHtml(String text) {
+        StringBuilder out = new StringBuilder(text != null ? text.length() + 16 : 0);
+        appendEscapedHtml(out, text);
+        return out.toString();
+    }
+
+    private static void appendEscapedHtml(StringBuilder out, String text) {
+        if (text == null) return;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
     }
 
     /**
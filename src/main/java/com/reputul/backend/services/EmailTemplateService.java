@@ -33,6 +33,7 @@ public class EmailTemplateService {
     @PersistenceContext
     private EntityManager entityManager;
     private final EmailTemplateRepository emailTemplateRepository;
+    private final EmailTemplateCompiler templateCompiler;
 
     @Value("${app.frontend.url}")
     private String frontendUrl;
@@ -244,22 +245,40 @@ public class EmailTemplateService {
         return generatePreview(tempTemplate, variableValues);
     }
 
+    /**
+     * Rendered subject and body of one email
+     */
+    public record RenderedEmail(String subject, String body) {
+    }
+
     @Transactional(readOnly = true)
     public String renderTemplate(User user, Long templateId, Customer customer) {
-        EmailTemplate template = emailTemplateRepository.findByIdAndUser(templateId, user)
-                .orElseThrow(() -> new RuntimeException("Template not found"));
-
-        Map<String, String> variables = createCompliantVariableMapFromCustomer(customer);
-        return replaceVariables(template.getBody(), variables);
+        return renderEmail(user, templateId, customer).body();
     }
 
     @Transactional(readOnly = true)
     public String renderTemplateSubject(User user, Long templateId, Customer customer) {
+        return renderEmail(user, templateId, customer).subject();
+    }
+
+    /**
+     * Subject and body from one template fetch and one variable map
+     */
+    @Transactional(readOnly = true)
+    public RenderedEmail renderEmail(User user, Long templateId, Customer customer) {
         EmailTemplate template = emailTemplateRepository.findByIdAndUser(templateId, user)
                 .orElseThrow(() -> new RuntimeException("Template not found"));
+        return renderEmail(template, customer);
+    }
 
+    /**
+     * Subject and body of an already loaded template
+     */
+    public RenderedEmail renderEmail(EmailTemplate template, Customer customer) {
         Map<String, String> variables = createCompliantVariableMapFromCustomer(customer);
-        return replaceVariables(template.getSubject(), variables);
+        return new RenderedEmail(
+                templateCompiler.subject(template).render(variables),
+                templateCompiler.body(template).render(variables));
     }
 
     @Transactional(readOnly = true)
@@ -296,7 +315,7 @@ public class EmailTemplateService {
                     .orElseThrow(() -> new RuntimeException("No default template found"));
 
             Map<String, String> variables = createCompliantVariableMapFromCustomer(customer);
-            return replaceVariables(template.getBody(), variables);
+            return templateCompiler.body(template).render(variables);
 
         } catch (Exception e) {
             // Fallback to a compliant email if template fails
@@ -475,8 +494,8 @@ Thanks again!
     private EmailTemplatePreviewDto generatePreview(EmailTemplate template, Map<String, String> variableValues) {
         Map<String, String> variables = variableValues != null ? variableValues : createCompliantSampleVariables();
 
-        String renderedSubject = replaceVariables(template.getSubject(), variables);
-        String renderedBody = replaceVariables(template.getBody(), variables);
+        String renderedSubject = templateCompiler.subject(template).render(variables);
+        String renderedBody = templateCompiler.body(template).render(variables);
 
         return EmailTemplatePreviewDto.builder()
                 .subject(template.getSubject())
@@ -608,18 +627,7 @@ Thanks again!
         if (templateContent == null) return "";
         Map<String, String> variables = createCompliantVariableMapFromCustomer(customer);
         if (reviewLink != null) variables.put("reviewLink", reviewLink);
-        return replaceVariables(templateContent, variables);
-    }
-
-    private String replaceVariables(String content, Map<String, String> variables) {
-        if (content == null) return "";
-        String result = content;
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            String value = entry.getValue() != null ? entry.getValue() : "";
-            result = result.replace(placeholder, value);
-        }
-        return result;
+        return CompiledTemplate.compile(templateContent).render(variables);
     }
 
     // GOOGLE COMPLIANT: Variable map always includes ALL platform URLs
@@ -25,6 +25,7 @@ public class FeedbackGateService {
 
     private final CustomerRepository customerRepository;
     private final ReviewRepository reviewRepository;
+    private final ReputationAggregateService reputationAggregateService;
 
     @Value("${app.frontend.url}")
     private String frontendUrl;
@@ -64,6 +65,7 @@ public class FeedbackGateService {
                 .build();
 
         reviewRepository.save(gateReview);
+        reputationAggregateService.recordReviewCreated(gateReview);
 
         // Update customer feedback tracking
         customer.setLastFeedbackDate(OffsetDateTime.now(ZoneOffset.UTC));
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reputul.backend.models.Business;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -51,7 +52,7 @@ public class GooglePlacesService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
 
-    public GooglePlacesService(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public GooglePlacesService(@Qualifier("googlePlacesRestTemplate") RestTemplate restTemplate, ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
     }
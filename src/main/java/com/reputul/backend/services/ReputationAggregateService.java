@@ -0,0 +1,211 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.events.ReputationChangedEvent;
+import com.reputul.backend.models.RecencyDecayAccumulator;
+import com.reputul.backend.models.ReputationAggregate;
+import com.reputul.backend.models.Review;
+import com.reputul.backend.repositories.ReputationAggregateRepository;
+import com.reputul.backend.repositories.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Maintains the per-business {@link ReputationAggregate} as reviews are written.
+ * Every code path that creates, deletes or responds to a review should report it here,
+ * in the transaction that writes the review, so reputation scoring can read O(1) state
+ * instead of rescanning reviews. Callers without a transaction of their own use the
+ * save methods, which write the review and record it together.
+ * The daily review rollups are updated from the same hooks.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReputationAggregateService {
+
+    private final ReputationAggregateRepository aggregateRepository;
+    private final ReviewRepository reviewRepository;
+    private final ReviewDailyRollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Save a new review and record it in one transaction
+     */
+    @Transactional
+    public Review saveNewReview(Review review) {
+        Review saved = reviewRepository.save(review);
+        recordReviewCreated(saved);
+        return saved;
+    }
+
+    /**
+     * Save a change to a review's business response and record it in one transaction
+     */
+    @Transactional
+    public Review saveResponseChange(Review review, boolean hadResponse) {
+        Review saved = reviewRepository.save(review);
+        recordResponseChanged(saved, hadResponse);
+        return saved;
+    }
+
+    /**
+     * Record a newly saved review
+     */
+    @Transactional
+    public void recordReviewCreated(Review review) {
+        Long businessId = businessIdOf(review);
+        if (businessId == null) {
+            return;
+        }
+
+        lockForDelta(businessId).ifPresent(aggregate -> {
+            aggregate.apply(review, 1);
+            aggregateRepository.save(aggregate);
+        });
+        rollupService.applyReview(review, 1);
+        eventPublisher.publishEvent(new ReputationChangedEvent(businessId));
+    }
+
+    /**
+     * Record a batch of newly saved reviews for one business, taking the aggregate lock once
+     * and writing one rollup row per day and source. Used by review sync.
+     */
+    @Transactional
+    public void recordReviewsCreated(Long businessId, Collection<Review> reviews) {
+        if (businessId == null || reviews.isEmpty()) {
+            return;
+        }
+
+        lockForDelta(businessId).ifPresent(aggregate -> {
+            reviews.forEach(review -> aggregate.apply(review, 1));
+            aggregateRepository.save(aggregate);
+        });
+        rollupService.applyReviews(reviews, 1);
+        eventPublisher.publishEvent(new ReputationChangedEvent(businessId));
+    }
+
+    /**
+     * Record a business response added to each of the given reviews of one business.
+     * Used by review sync, where a platform response is only ever added or replaced.
+     */
+    @Transactional
+    public void recordResponsesAdded(Long businessId, Collection<Review> reviews) {
+        if (businessId == null || reviews.isEmpty()) {
+            return;
+        }
+
+        lockForDelta(businessId).ifPresent(aggregate -> {
+            aggregate.setRespondedCount(aggregate.getRespondedCount() + reviews.size());
+            aggregateRepository.save(aggregate);
+        });
+        rollupService.applyResponsesAdded(reviews);
+        eventPublisher.publishEvent(new ReputationChangedEvent(businessId));
+    }
+
+    /**
+     * Record a review that has been (or is about to be) deleted
+     */
+    @Transactional
+    public void recordReviewDeleted(Review review) {
+        Long businessId = businessIdOf(review);
+        if (businessId == null) {
+            return;
+        }
+
+        lockForDelta(businessId).ifPresent(aggregate -> {
+            aggregate.apply(review, -1);
+            aggregateRepository.save(aggregate);
+        });
+        rollupService.applyReview(review, -1);
+        eventPublisher.publishEvent(new ReputationChangedEvent(businessId));
+    }
+
+    /**
+     * Record a change to a review's business response
+     */
+    @Transactional
+    public void recordResponseChanged(Review review, boolean hadResponse) {
+        boolean hasResponse = review.getPlatformResponse() != null;
+        Long businessId = businessIdOf(review);
+        if (businessId == null || hadResponse == hasResponse) {
+            return;
+        }
+
+        lockForDelta(businessId).ifPresent(aggregate -> {
+            aggregate.setRespondedCount(Math.max(0L, aggregate.getRespondedCount() + (hasResponse ? 1 : -1)));
+            aggregateRepository.save(aggregate);
+        });
+        rollupService.applyResponseChange(review, hasResponse);
+        eventPublisher.publishEvent(new ReputationChangedEvent(businessId));
+    }
+
+    /**
+     * Get the aggregate for scoring. Falls back to an unsaved in-memory rebuild when
+     * no row exists yet, so read-only callers never write.
+     */
+    @Transactional(readOnly = true)
+    public ReputationAggregate getAggregate(Long businessId) {
+        return aggregateRepository.findById(businessId)
+                .orElseGet(() -> buildFromReviews(businessId));
+    }
+
+    /**
+     * Recompute the aggregate from the full review history and persist it, creating the
+     * row if needed (an insert-if-absent, so concurrent rebuilds never collide on the key)
+     */
+    @Transactional
+    public ReputationAggregate rebuild(Long businessId) {
+        aggregateRepository.insertIfAbsent(businessId);
+        aggregateRepository.findByBusinessIdForUpdate(businessId);
+        ReputationAggregate aggregate = buildFromReviews(businessId);
+        log.info("Rebuilt reputation aggregate for business {} from {} reviews",
+                businessId, aggregate.getReviewCount());
+        return aggregateRepository.save(aggregate);
+    }
+
+    /**
+     * Lock a business's aggregate to apply a delta. A business without one gets it built
+     * from its reviews, which already include the caller's write, and nothing is returned.
+     * Two first writes can't both build it: the second insert waits for the first
+     * transaction, whose rebuild could not see the second write, which then applies its
+     * delta as usual.
+     */
+    private Optional<ReputationAggregate> lockForDelta(Long businessId) {
+        Optional<ReputationAggregate> aggregate = aggregateRepository.findByBusinessIdForUpdate(businessId);
+        if (aggregate.isPresent()) {
+            return aggregate;
+        }
+        if (aggregateRepository.insertIfAbsent(businessId) > 0) {
+            rebuild(businessId);
+            return Optional.empty();
+        }
+        return aggregateRepository.findByBusinessIdForUpdate(businessId);
+    }
+
+    private ReputationAggregate buildFromReviews(Long businessId) {
+        List<Review> reviews = reviewRepository.findByBusinessId(businessId);
+
+        ReputationAggregate aggregate = ReputationAggregate.builder()
+                .businessId(businessId)
+                .decay(RecencyDecayAccumulator.anchoredAt(RecencyDecayAccumulator.today()))
+                .build();
+        for (Review review : reviews) {
+            aggregate.apply(review, 1);
+        }
+        return aggregate;
+    }
+
+    private Long businessIdOf(Review review) {
+        if (review.getBusiness() == null) {
+            log.warn("Review {} has no business - skipping reputation aggregate update", review.getId());
+            return null;
+        }
+        return review.getBusiness().getId();
+    }
+}
@@ -0,0 +1,22 @@
+package com.reputul.backend.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator view of the Wilson score backfill: GET /actuator/reputationbackfill
+ */
+@Component
+@Endpoint(id = "reputationbackfill")
+@RequiredArgsConstructor
+public class ReputationBackfillEndpoint {
+
+    private final WilsonScoreBackfillService backfillService;
+
+    @ReadOperation
+    public WilsonScoreBackfillService.BackfillStatus status() {
+        return backfillService.getStatus();
+    }
+}
@@ -1,16 +1,18 @@
 package com.reputul.backend.services;
 
+import com.reputul.backend.events.ReputationChangedEvent;
 import com.reputul.backend.models.Business;
-import com.reputul.backend.models.Review;
+import com.reputul.backend.models.RecencyDecayAccumulator;
+import com.reputul.backend.models.ReputationAggregate;
 import com.reputul.backend.repositories.BusinessRepository;
-import com.reputul.backend.repositories.ReviewRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.time.ZoneOffset;
 
 /**
  * Enhanced Reputation Service with Wilson Score Algorithm
@@ -20,13 +22,14 @@ import java.util.List;
 @Slf4j
 public class ReputationService {
 
-    private final ReviewRepository reviewRepo;
+    private final ReviewDailyRollupService rollupService;
     private final BusinessRepository businessRepo;
     private final BadgeService badgeService;
+    private final ReputationAggregateService aggregateService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Wilson Score constants
     private static final double WILSON_CONFIDENCE = 1.96; // 95% confidence interval
-    private static final double RECENCY_LAMBDA = 0.00385; // ~180 day half-life: ln(2)/180
 
     // Quality scoring constants
     private static final double QUALITY_WEIGHT = 0.60;
@@ -35,13 +38,17 @@ public class ReputationService {
     private static final int MIN_REVIEWS_FOR_MAX_QUALITY = 25;
 
     public ReputationService(
-            ReviewRepository reviewRepo,
+            ReviewDailyRollupService rollupService,
             BusinessRepository businessRepo,
-            BadgeService badgeService
+            BadgeService badgeService,
+            ReputationAggregateService aggregateService,
+            ApplicationEventPublisher eventPublisher
     ) {
-        this.reviewRepo = reviewRepo;
+        this.rollupService = rollupService;
         this.businessRepo = businessRepo;
         this.badgeService = badgeService;
+        this.aggregateService = aggregateService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -49,24 +56,18 @@ public class ReputationService {
      * Uses weighted average of actual star ratings with confidence adjustment
      */
     public double calculateReputulRating(Long businessId) {
-        List<Review> reviews = reviewRepo.findByBusinessId(businessId);
+        return calculateReputulRating(aggregateService.getAggregate(businessId), RecencyDecayAccumulator.today());
+    }
 
-        if (reviews.isEmpty()) {
+    private double calculateReputulRating(ReputationAggregate aggregate, long today) {
+        if (aggregate.getReviewCount() <= 0) {
             return 0.0;
         }
 
-        OffsetDateTime now = OffsetDateTime.now();
-        double totalWeightedReviews = 0.0;
-        double totalWeightedRating = 0.0;
-
-        // Apply recency weighting to each review
-        for (Review review : reviews) {
-            long ageDays = ChronoUnit.DAYS.between(review.getCreatedAt(), now);
-            double recencyWeight = Math.exp(-RECENCY_LAMBDA * ageDays);
-
-            totalWeightedReviews += recencyWeight;
-            totalWeightedRating += (review.getRating() * recencyWeight);
-        }
+        // Recency-weighted totals, advanced from the accumulator's anchor day to today
+        RecencyDecayAccumulator decay = aggregate.getDecay();
+        double totalWeightedReviews = decay.weightSumAt(today);
+        double totalWeightedRating = decay.ratingSumAt(today);
 
         if (totalWeightedReviews == 0) {
             return 0.0;
@@ -95,7 +96,7 @@ public class ReputationService {
         double finalRating = Math.max(0.0, Math.min(5.0, adjustedRating));
 
         log.debug("Business {}: {} reviews, weighted avg: {:.2f}, adjusted: {:.2f}",
-                businessId, reviews.size(), weightedAverage, finalRating);
+                aggregate.getBusinessId(), aggregate.getReviewCount(), weightedAverage, finalRating);
 
         return finalRating;
     }
@@ -105,10 +106,15 @@ public class ReputationService {
      * 60% Quality + 25% Velocity + 15% Responsiveness
      */
     public double calculateCompositeReputationScore(Long businessId) {
-        double qualityScore = calculateQualityScore(businessId);
-        double velocityScore = calculateVelocityScore(businessId);
-        double responsivenessScore = calculateResponsivenessScore(businessId);
+        ReputationAggregate aggregate = aggregateService.getAggregate(businessId);
+        return calculateCompositeReputationScore(
+                calculateQualityScore(aggregate, RecencyDecayAccumulator.today()),
+                calculateVelocityScore(businessId),
+                calculateResponsivenessScore(businessId));
+    }
 
+    private double calculateCompositeReputationScore(double qualityScore, double velocityScore,
+                                                     double responsivenessScore) {
         double compositeScore = (QUALITY_WEIGHT * qualityScore) +
                 (VELOCITY_WEIGHT * velocityScore) +
                 (RESPONSIVENESS_WEIGHT * responsivenessScore);
@@ -131,12 +137,15 @@ public class ReputationService {
         Business business = businessRepo.findById(businessId)
                 .orElseThrow(() -> new RuntimeException("Business not found"));
 
-        // Calculate all new metrics
-        double reputulRating = calculateReputulRating(businessId);
-        double qualityScore = calculateQualityScore(businessId);
+        // Calculate all new metrics from a single aggregate read
+        ReputationAggregate aggregate = aggregateService.getAggregate(businessId);
+        long today = RecencyDecayAccumulator.today();
+
+        double reputulRating = calculateReputulRating(aggregate, today);
+        double qualityScore = calculateQualityScore(aggregate, today);
         double velocityScore = calculateVelocityScore(businessId);
         double responsivenessScore = calculateResponsivenessScore(businessId);
-        double compositeScore = calculateCompositeReputationScore(businessId);
+        double compositeScore = calculateCompositeReputationScore(qualityScore, velocityScore, responsivenessScore);
 
         // Update all fields in business entity
         business.setReputulRating(reputulRating);
@@ -153,11 +162,12 @@ public class ReputationService {
         String newBadge = badgeService.determineEnhancedBadgeWithActivity(
                 businessId,
                 reputulRating,
-                Math.toIntExact(reviewRepo.countByBusinessId(businessId))
+                Math.toIntExact(aggregate.getReviewCount())
         );
         business.setBadge(newBadge);
 
         businessRepo.save(business);
+        eventPublisher.publishEvent(new ReputationChangedEvent(businessId));
 
         log.info("Updated reputation metrics for business {}: Reputul Rating={:.2f}, Composite Score={:.0f}, Badge={}",
                 businessId, reputulRating, compositeScore, newBadge);
@@ -187,26 +197,14 @@ public class ReputationService {
     /**
      * Quality Score (0-100): Based on Wilson-derived positive share with volume guardrails
      */
-    private double calculateQualityScore(Long businessId) {
-        List<Review> reviews = reviewRepo.findByBusinessId(businessId);
-
-        if (reviews.isEmpty()) {
+    private double calculateQualityScore(ReputationAggregate aggregate, long today) {
+        if (aggregate.getReviewCount() <= 0) {
             return 0.0;
         }
 
-        OffsetDateTime now = OffsetDateTime.now();
-        double totalWeightedReviews = 0.0;
-        double totalWeightedPositive = 0.0;
-
-        for (Review review : reviews) {
-            long ageDays = ChronoUnit.DAYS.between(review.getCreatedAt(), now);
-            double weight = Math.exp(-RECENCY_LAMBDA * ageDays);
-
-            totalWeightedReviews += weight;
-            if (review.getRating() >= 4) {
-                totalWeightedPositive += weight;
-            }
-        }
+        RecencyDecayAccumulator decay = aggregate.getDecay();
+        double totalWeightedReviews = decay.weightSumAt(today);
+        double totalWeightedPositive = decay.positiveSumAt(today);
 
         if (totalWeightedReviews == 0) {
             return 0.0;
@@ -222,7 +220,7 @@ public class ReputationService {
         double qualityScore = wilsonLowerBound * 100.0;
 
         // Apply volume guardrail - cap at 85 if less than minimum volume
-        if (reviews.size() < MIN_REVIEWS_FOR_MAX_QUALITY) {
+        if (aggregate.getReviewCount() < MIN_REVIEWS_FOR_MAX_QUALITY) {
             qualityScore = Math.min(qualityScore, 85.0);
         }
 
@@ -233,18 +231,11 @@ public class ReputationService {
      * Velocity Score (0-100): Review gathering pace and recency mix
      */
     private double calculateVelocityScore(Long businessId) {
-        OffsetDateTime now = OffsetDateTime.now();
-        OffsetDateTime last90Days = now.minusDays(90);
-        OffsetDateTime last12Months = now.minusDays(365);
-
-        // Count reviews in different time periods
-        long reviewsLast90d = reviewRepo.findByBusinessId(businessId).stream()
-                .filter(r -> r.getCreatedAt().isAfter(last90Days))
-                .count();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
 
-        long reviewsLast12m = reviewRepo.findByBusinessId(businessId).stream()
-                .filter(r -> r.getCreatedAt().isAfter(last12Months))
-                .count();
+        // Count reviews in different time periods from the daily rollups
+        long reviewsLast90d = rollupService.countSince(businessId, today.minusDays(90));
+        long reviewsLast12m = rollupService.countSince(businessId, today.minusDays(365));
 
         if (reviewsLast12m == 0) {
             return 0.0;
@@ -281,21 +272,20 @@ public class ReputationService {
      * Get detailed reputation breakdown for dashboard
      */
     public ReputationBreakdown getReputationBreakdown(Long businessId) {
-        List<Review> reviews = reviewRepo.findByBusinessId(businessId);
+        ReputationAggregate aggregate = aggregateService.getAggregate(businessId);
+        long today = RecencyDecayAccumulator.today();
 
-        double reputulRating = calculateReputulRating(businessId);
-        double qualityScore = calculateQualityScore(businessId);
+        double reputulRating = calculateReputulRating(aggregate, today);
+        double qualityScore = calculateQualityScore(aggregate, today);
         double velocityScore = calculateVelocityScore(businessId);
         double responsivenessScore = calculateResponsivenessScore(businessId);
-        double compositeScore = calculateCompositeReputationScore(businessId);
+        double compositeScore = calculateCompositeReputationScore(qualityScore, velocityScore, responsivenessScore);
 
-        int totalReviews = reviews.size();
-        int positiveReviews = (int) reviews.stream().filter(r -> r.getRating() >= 4).count();
+        int totalReviews = Math.toIntExact(aggregate.getReviewCount());
+        int positiveReviews = Math.toIntExact(aggregate.getPositiveCount());
 
-        OffsetDateTime cutoff = OffsetDateTime.now().minusDays(90);
-        int reviewsLast90d = (int) reviews.stream()
-                .filter(r -> r.getCreatedAt().isAfter(cutoff))
-                .count();
+        int reviewsLast90d = Math.toIntExact(
+                rollupService.countSince(businessId, LocalDate.now(ZoneOffset.UTC).minusDays(90)));
 
         return new ReputationBreakdown(
                 businessId,
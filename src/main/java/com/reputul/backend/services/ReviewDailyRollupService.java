@@ -0,0 +1,212 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.models.Review;
+import com.reputul.backend.repositories.ReviewDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Maintains review_daily_rollups (per business, UTC day and source) so Insights and
+ * reputation velocity read a bounded number of rollup rows instead of the review history.
+ *
+ * Writes arrive through ReputationAggregateService, which every review write path
+ * already reports to, in the transaction that writes the review. A nightly job reconciles
+ * past days against the reviews table. Past days still change (sync stores back-dated
+ * reviews, old reviews get deleted), so each write holds a per-business advisory lock
+ * shared and reconciliation takes it exclusively, one business at a time: a business is
+ * recomputed either before a write commits or after it, never between its review and its
+ * rollup delta.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewDailyRollupService {
+
+    private static final String DEFAULT_SOURCE = "DIRECT";
+
+    private final ReviewDailyRollupRepository rollupRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Add (sign = 1) or remove (sign = -1) a review from its day's rollup
+     */
+    @Transactional
+    public void applyReview(Review review, int sign) {
+        rollupRepository.lockBusinessShared(review.getBusiness().getId());
+        int rating = review.getRating();
+        rollupRepository.applyDelta(
+                review.getBusiness().getId(),
+                reviewDate(review),
+                sourceOf(review),
+                sign,
+                (long) sign * rating,
+                rating == 1 ? sign : 0,
+                rating == 2 ? sign : 0,
+                rating == 3 ? sign : 0,
+                rating == 4 ? sign : 0,
+                rating == 5 ? sign : 0,
+                review.getPlatformResponse() != null ? sign : 0);
+    }
+
+    /**
+     * Adjust the responded count when a review's business response is added or removed
+     */
+    @Transactional
+    public void applyResponseChange(Review review, boolean hasResponse) {
+        rollupRepository.lockBusinessShared(review.getBusiness().getId());
+        rollupRepository.applyDelta(
+                review.getBusiness().getId(), reviewDate(review), sourceOf(review),
+                0, 0, 0, 0, 0, 0, 0, hasResponse ? 1 : -1);
+    }
+
+    /**
+     * Add (sign = 1) or remove (sign = -1) many reviews with one rollup write per
+     * business, day and source
+     */
+    @Transactional
+    public void applyReviews(Collection<Review> reviews, int sign) {
+        Map<RollupKey, long[]> deltas = new LinkedHashMap<>();
+        for (Review review : reviews) {
+            int rating = review.getRating();
+            long[] delta = deltas.computeIfAbsent(keyOf(review), key -> new long[8]);
+            delta[0] += sign;
+            delta[1] += (long) sign * rating;
+            if (rating >= 1 && rating <= 5) {
+                delta[1 + rating] += sign;
+            }
+            if (review.getPlatformResponse() != null) {
+                delta[7] += sign;
+            }
+        }
+        lockBusinesses(deltas.keySet());
+        deltas.forEach((key, delta) -> rollupRepository.applyDelta(
+                key.businessId(), key.reviewDate(), key.source(),
+                delta[0], delta[1], delta[2], delta[3], delta[4], delta[5], delta[6], delta[7]));
+    }
+
+    /**
+     * Count a business response added to each of the given reviews, one rollup write per
+     * business, day and source
+     */
+    @Transactional
+    public void applyResponsesAdded(Collection<Review> reviews) {
+        Map<RollupKey, Long> added = new LinkedHashMap<>();
+        for (Review review : reviews) {
+            added.merge(keyOf(review), 1L, Long::sum);
+        }
+        lockBusinesses(added.keySet());
+        added.forEach((key, count) -> rollupRepository.applyDelta(
+                key.businessId(), key.reviewDate(), key.source(), 0, 0, 0, 0, 0, 0, 0, count));
+    }
+
+    private void lockBusinesses(Collection<RollupKey> keys) {
+        new TreeSet<>(keys.stream().map(RollupKey::businessId).toList())
+                .forEach(rollupRepository::lockBusinessShared);
+    }
+
+    /**
+     * Nightly reconciliation of all days before today (UTC), one business per transaction
+     * under its exclusive rollup lock. The current day is left to the incremental path.
+     */
+    @Scheduled(cron = "${app.rollups.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        OffsetDateTime cutoff = LocalDate.now(ZoneOffset.UTC).atStartOfDay().atOffset(ZoneOffset.UTC);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int corrected = 0;
+        int removed = 0;
+        for (Long businessId : rollupRepository.findBusinessIdsBefore(cutoff)) {
+            int[] result = transactionTemplate.execute(status -> {
+                // Taken before the recompute, whose snapshot then includes every committed write
+                rollupRepository.lockBusinessExclusive(businessId);
+                return new int[]{rollupRepository.reconcileBefore(businessId, cutoff),
+                        rollupRepository.deleteOrphanedBefore(businessId, cutoff)};
+            });
+            corrected += result[0];
+            removed += result[1];
+        }
+
+        if (corrected > 0 || removed > 0) {
+            log.warn("Review rollup reconciliation corrected {} rows and removed {} orphaned rows", corrected, removed);
+        } else {
+            log.info("Review rollup reconciliation found no drift");
+        }
+    }
+
+    /**
+     * Lifetime totals per source for a business
+     */
+    @Transactional(readOnly = true)
+    public List<SourceTotals> getSourceTotals(Long businessId) {
+        List<SourceTotals> totals = new ArrayList<>();
+        for (Object[] row : rollupRepository.sumBySource(businessId)) {
+            totals.add(new SourceTotals(
+                    (String) row[0],
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(),
+                    ((Number) row[3]).longValue(),
+                    (LocalDate) row[4]));
+        }
+        return totals;
+    }
+
+    /**
+     * Per-day totals since a date, as [count, ratingSum] keyed by UTC day
+     */
+    @Transactional(readOnly = true)
+    public Map<LocalDate, long[]> getDailyTotalsSince(Long businessId, LocalDate fromDate) {
+        Map<LocalDate, long[]> byDay = new HashMap<>();
+        for (Object[] row : rollupRepository.sumByDaySince(businessId, fromDate)) {
+            byDay.put((LocalDate) row[0], new long[]{((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+        return byDay;
+    }
+
+    /**
+     * Reviews received since the given UTC day (inclusive)
+     */
+    @Transactional(readOnly = true)
+    public long countSince(Long businessId, LocalDate fromDate) {
+        return rollupRepository.sumReviewCountSince(businessId, fromDate);
+    }
+
+    private static LocalDate reviewDate(Review review) {
+        OffsetDateTime createdAt = review.getCreatedAt() != null
+                ? review.getCreatedAt() : OffsetDateTime.now(ZoneOffset.UTC);
+        return createdAt.atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private static String sourceOf(Review review) {
+        return review.getSource() != null ? review.getSource() : DEFAULT_SOURCE;
+    }
+
+    private static RollupKey keyOf(Review review) {
+        return new RollupKey(review.getBusiness().getId(), reviewDate(review), sourceOf(review));
+    }
+
+    private record RollupKey(Long businessId, LocalDate reviewDate, String source) {
+    }
+
+    /**
+     * Lifetime totals for one review source
+     */
+    public record SourceTotals(String source, long reviewCount, long ratingSum, long positiveCount,
+                               LocalDate firstReviewDate) {
+    }
+}
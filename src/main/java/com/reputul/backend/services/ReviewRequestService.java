@@ -53,14 +53,15 @@ public class ReviewRequestService {
         }
 
         // Get template and business
-        EmailTemplate template = emailTemplateRepository.findById(request.getTemplateId())
+        EmailTemplate template = emailTemplateRepository.findByIdAndUser(request.getTemplateId(), user)
                 .orElseThrow(() -> new RuntimeException("Template not found"));
 
         Business business = customer.getBusiness();
 
         // UPDATED: Use EmailTemplateService to get proper processed content
-        String processedSubject = emailTemplateService.renderTemplateSubject(user, template.getId(), customer);
-        String processedBody = emailTemplateService.renderTemplate(user, template.getId(), customer);
+        EmailTemplateService.RenderedEmail rendered = emailTemplateService.renderEmail(template, customer);
+        String processedSubject = rendered.subject();
+        String processedBody = rendered.body();
 
         // Generate review link (kept for backward compatibility)
         String reviewLink = emailService.generateReviewLink(business);
@@ -108,10 +109,18 @@ public class ReviewRequestService {
     public ReviewRequestDto sendSmsReviewRequest(User user, Long customerId) {
         log.info("Sending compliance SMS review request to customer {}", customerId);
 
-        // Validate customer belongs to user's business
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
+        return sendSmsReviewRequest(user, customer, getDefaultTemplate(user));
+    }
 
+    /**
+     * Send SMS review request to a customer loaded with its business and owner, using an
+     * already resolved template. Used by: BulkReviewRequestService (prefetched per batch)
+     */
+    @Transactional
+    public ReviewRequestDto sendSmsReviewRequest(User user, Customer customer, EmailTemplate template) {
+        // Validate customer belongs to user's business
         if (!customer.getBusiness().getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Access denied: Customer does not belong to your business");
         }
@@ -124,18 +133,6 @@ public class ReviewRequestService {
 
         Business business = customer.getBusiness();
 
-        // Get default email template (we'll adapt it for SMS)
-        EmailTemplate template;
-        try {
-            template = emailTemplateRepository.findByUserAndTypeAndIsDefaultTrue(user, EmailTemplate.TemplateType.INITIAL_REQUEST)
-                    .orElseThrow(() -> new RuntimeException("No default template found"));
-        } catch (Exception e) {
-            log.warn("No default template found, creating default templates for user {}", user.getId());
-            emailTemplateService.createDefaultTemplatesForUser(user);
-            template = emailTemplateRepository.findByUserAndTypeAndIsDefaultTrue(user, EmailTemplate.TemplateType.INITIAL_REQUEST)
-                    .orElseThrow(() -> new RuntimeException("Failed to create default template"));
-        }
-
         // Generate SMS message using SMS template service (compliance-aware)
         String smsMessage = smsTemplateService.generateReviewRequestMessage(customer);
         String reviewLink = "http://localhost:3000/feedback/" + customer.getId();
@@ -193,31 +190,28 @@ public class ReviewRequestService {
     public ReviewRequestDto sendReviewRequestWithDefaultTemplate(User user, Long customerId) {
         log.info("Sending email review request with default template for customer {}", customerId);
 
-        // Validate customer belongs to user's business
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
+        return sendReviewRequestWithDefaultTemplate(user, customer, getDefaultTemplate(user));
+    }
 
+    /**
+     * Send email review request to a customer loaded with its business, owner and
+     * organization. Used by: BulkReviewRequestService (prefetched per batch)
+     */
+    @Transactional
+    public ReviewRequestDto sendReviewRequestWithDefaultTemplate(User user, Customer customer, EmailTemplate template) {
+        // Validate customer belongs to user's business
         if (!customer.getBusiness().getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Access denied: Customer does not belong to your business");
         }
 
         Business business = customer.getBusiness();
 
-        // Get default template
-        EmailTemplate template;
-        try {
-            template = emailTemplateRepository.findByUserAndTypeAndIsDefaultTrue(user, EmailTemplate.TemplateType.INITIAL_REQUEST)
-                    .orElseThrow(() -> new RuntimeException("No default template found"));
-        } catch (Exception e) {
-            log.warn("No default template found, creating default templates for user {}", user.getId());
-            emailTemplateService.createDefaultTemplatesForUser(user);
-            template = emailTemplateRepository.findByUserAndTypeAndIsDefaultTrue(user, EmailTemplate.TemplateType.INITIAL_REQUEST)
-                    .orElseThrow(() -> new RuntimeException("Failed to create default template"));
-        }
-
         // Process template content
-        String processedSubject = emailTemplateService.renderTemplateSubject(user, template.getId(), customer);
-        String processedBody = emailTemplateService.renderTemplate(user, template.getId(), customer);
+        EmailTemplateService.RenderedEmail rendered = emailTemplateService.renderEmail(template, customer);
+        String processedSubject = rendered.subject();
+        String processedBody = rendered.body();
         String reviewLink = emailService.generateReviewLink(business);
 
         // Create review request record
@@ -269,28 +263,25 @@ public class ReviewRequestService {
     public ReviewRequestDto createReviewRequestWithCampaign(User user, Long customerId, Long sequenceId) {
         log.info("Creating review request with campaign for customer {} using sequence {}", customerId, sequenceId);
 
-        // Validate customer belongs to user's business
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
+        return createReviewRequestWithCampaign(user, customer, getDefaultTemplate(user), sequenceId);
+    }
 
+    /**
+     * Create a campaign-managed review request for a customer loaded with its business and
+     * owner. Used by: BulkReviewRequestService (prefetched per batch)
+     */
+    @Transactional
+    public ReviewRequestDto createReviewRequestWithCampaign(User user, Customer customer, EmailTemplate template,
+                                                            Long sequenceId) {
+        // Validate customer belongs to user's business
         if (!customer.getBusiness().getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Access denied: Customer does not belong to your business");
         }
 
         Business business = customer.getBusiness();
 
-        // Get default template for the review request record
-        EmailTemplate template;
-        try {
-            template = emailTemplateRepository.findByUserAndTypeAndIsDefaultTrue(user, EmailTemplate.TemplateType.INITIAL_REQUEST)
-                    .orElseThrow(() -> new RuntimeException("No default template found"));
-        } catch (Exception e) {
-            log.warn("No default template found, creating default templates for user {}", user.getId());
-            emailTemplateService.createDefaultTemplatesForUser(user);
-            template = emailTemplateRepository.findByUserAndTypeAndIsDefaultTrue(user, EmailTemplate.TemplateType.INITIAL_REQUEST)
-                    .orElseThrow(() -> new RuntimeException("Failed to create default template"));
-        }
-
         String reviewLink = emailService.generateReviewLink(business);
 
         // Create review request record (will be populated by campaign)
@@ -394,8 +385,9 @@ public class ReviewRequestService {
                 .orElseThrow(() -> new RuntimeException("No default template found for type: " + followUpType));
 
         Business business = customer.getBusiness();
-        String processedSubject = emailTemplateService.renderTemplateSubject(user, template.getId(), customer);
-        String processedBody = emailTemplateService.renderTemplate(user, template.getId(), customer);
+        EmailTemplateService.RenderedEmail rendered = emailTemplateService.renderEmail(template, customer);
+        String processedSubject = rendered.subject();
+        String processedBody = rendered.body();
         String reviewLink = emailService.generateReviewLink(business);
 
         // Create follow-up request record
@@ -494,6 +486,23 @@ public class ReviewRequestService {
         return convertToDto(reviewRequest);
     }
 
+    /**
+     * The user's default INITIAL_REQUEST template, creating the default set if missing
+     */
+    public EmailTemplate getDefaultTemplate(User user) {
+        EmailTemplate template;
+        try {
+            template = emailTemplateRepository.findByUserAndTypeAndIsDefaultTrue(user, EmailTemplate.TemplateType.INITIAL_REQUEST)
+                    .orElseThrow(() -> new RuntimeException("No default template found"));
+        } catch (Exception e) {
+            log.warn("No default template found, creating default templates for user {}", user.getId());
+            emailTemplateService.createDefaultTemplatesForUser(user);
+            template = emailTemplateRepository.findByUserAndTypeAndIsDefaultTrue(user, EmailTemplate.TemplateType.INITIAL_REQUEST)
+                    .orElseThrow(() -> new RuntimeException("Failed to create default template"));
+        }
+        return template;
+    }
+
     /**
      * CAMPAIGN INTEGRATION: Helper method to auto-start campaigns when enabled
      */
@@ -618,68 +627,6 @@ public class ReviewRequestService {
         return convertToDto(request);
     }
 
-    /**
-     * Batch send review requests to multiple customers (EMAIL by default)
-     */
-    @Transactional
-    public List<ReviewRequestDto> sendBulkReviewRequests(User user, List<Long> customerIds) {
-        log.info("Sending bulk review requests to {} customers", customerIds.size());
-
-        return customerIds.stream()
-                .map(customerId -> {
-                    try {
-                        return sendReviewRequestWithDefaultTemplate(user, customerId);
-                    } catch (Exception e) {
-                        log.error("Failed to send review request to customer {}: {}", customerId, e.getMessage());
-                        return null;
-                    }
-                })
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * CAMPAIGN INTEGRATION: Bulk create review requests with campaigns
-     */
-    @Transactional
-    public List<ReviewRequestDto> createBulkReviewRequestsWithCampaigns(User user, List<Long> customerIds, Long sequenceId) {
-        log.info("Creating bulk review requests with campaigns for {} customers using sequence {}",
-                customerIds.size(), sequenceId);
-
-        return customerIds.stream()
-                .map(customerId -> {
-                    try {
-                        return createReviewRequestWithCampaign(user, customerId, sequenceId);
-                    } catch (Exception e) {
-                        log.error("Failed to create campaign-managed review request for customer {}: {}",
-                                customerId, e.getMessage());
-                        return null;
-                    }
-                })
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * NEW: Batch send SMS review requests
-     */
-    @Transactional
-    public List<ReviewRequestDto> sendBulkSmsRequests(User user, List<Long> customerIds) {
-        log.info("Sending bulk SMS requests to {} customers", customerIds.size());
-
-        return customerIds.stream()
-                .map(customerId -> {
-                    try {
-                        return sendSmsReviewRequest(user, customerId);
-                    } catch (Exception e) {
-                        log.error("Failed to send SMS request to customer {}: {}", customerId, e.getMessage());
-                        return null;
-                    }
-                })
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
-    }
-
     /**
      * Test email functionality
      */
@@ -0,0 +1,356 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.config.ReviewSyncProperties;
+import com.reputul.backend.models.ChannelCredential;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Runs review syncs for many credentials concurrently.
+ *
+ * Each platform has a lane that starts at most max-concurrent syncs at once and takes one
+ * token from that platform's bucket per sync; when the bucket is empty the lane waits for
+ * the refill on a timer instead of holding a worker thread. Every sync is interrupted once
+ * it runs past the credential deadline. A credential already queued or running is skipped.
+ *
+ * Used by ReviewSyncDispatcher.
+ */
+@Component
+@Slf4j
+public class ReviewSyncExecutor {
+
+    private final ThreadPoolTaskExecutor syncExecutor;
+    private final ReviewSyncProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<ChannelCredential.PlatformType, PlatformLane> lanes = new EnumMap<>(ChannelCredential.PlatformType.class);
+    private final Map<ChannelCredential.PlatformType, AtomicLong> oldestLagSeconds = new EnumMap<>(ChannelCredential.PlatformType.class);
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "review-sync-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter throttled;
+    private final Counter deadlineExceeded;
+
+    public ReviewSyncExecutor(@Qualifier("reviewSyncExecutor") ThreadPoolTaskExecutor syncExecutor,
+                              ReviewSyncProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.syncExecutor = syncExecutor;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        for (ChannelCredential.PlatformType platform : ChannelCredential.PlatformType.values()) {
+            PlatformLane lane = new PlatformLane(platform, properties.budgetFor(platform));
+            lanes.put(platform, lane);
+
+            AtomicLong lag = new AtomicLong();
+            oldestLagSeconds.put(platform, lag);
+
+            Gauge.builder("review.sync.lag.oldest", lag, AtomicLong::get)
+                    .description("Seconds since the least recently synced credential in the last batch was synced")
+                    .baseUnit("seconds")
+                    .tag("platform", platform.name())
+                    .register(meterRegistry);
+            Gauge.builder("review.sync.queued", lane.queue, Queue::size)
+                    .description("Credential syncs waiting for a platform slot or rate budget")
+                    .tag("platform", platform.name())
+                    .register(meterRegistry);
+        }
+
+        Gauge.builder("review.sync.in_flight", inFlight, Set::size)
+                .description("Credential syncs queued or running")
+                .register(meterRegistry);
+
+        this.throttled = Counter.builder("review.sync.throttled")
+                .description("Times a platform lane waited for its rate budget to refill")
+                .register(meterRegistry);
+        this.deadlineExceeded = Counter.builder("review.sync.deadline_exceeded")
+                .description("Credential syncs interrupted at the credential deadline")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a batch of credentials. The syncTask returns true on success and is expected to
+     * record the credential's own sync status; it runs on a review-sync worker thread.
+     *
+     * @return completes once every queued credential has finished, failed or timed out
+     */
+    public CompletableFuture<SyncBatchResult> submit(String batchName,
+                                                     Collection<ChannelCredential> credentials,
+                                                     Predicate<ChannelCredential> syncTask) {
+        Batch batch = new Batch(batchName);
+        recordOldestLag(credentials);
+
+        for (ChannelCredential credential : credentials) {
+            if (!inFlight.add(credential.getId())) {
+                batch.skipped.incrementAndGet();
+                continue;
+            }
+            batch.remaining.incrementAndGet();
+            lanes.get(credential.getPlatformType()).enqueue(new SyncWork(credential, syncTask, batch));
+        }
+
+        batch.sealed();
+        return batch.future;
+    }
+
+    /**
+     * True while the credential is queued or syncing
+     */
+    public boolean isSyncing(Long credentialId) {
+        return inFlight.contains(credentialId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void run(PlatformLane lane, SyncWork work) {
+        ChannelCredential credential = work.credential();
+        String platform = credential.getPlatformType().name();
+        Thread worker = Thread.currentThread();
+        ReentrantLock runLock = new ReentrantLock();
+        boolean[] finished = {false};
+        boolean[] timedOut = {false};
+
+        ScheduledFuture<?> deadline = timer.schedule(() -> {
+            runLock.lock();
+            try {
+                if (!finished[0]) {
+                    timedOut[0] = true;
+                    worker.interrupt();
+                }
+            } finally {
+                runLock.unlock();
+            }
+        }, properties.credentialDeadline().toMillis(), TimeUnit.MILLISECONDS);
+
+        if (credential.getLastSyncAt() != null) {
+            Timer.builder("review.sync.lag")
+                    .description("Time since the credential was last synced, measured when its sync starts")
+                    .tag("platform", platform)
+                    .register(meterRegistry)
+                    .record(Duration.between(credential.getLastSyncAt(), OffsetDateTime.now()));
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Outcome outcome;
+        try {
+            outcome = work.task().test(credential) ? Outcome.SYNCED : Outcome.FAILED;
+        } catch (Exception e) {
+            log.error("Review sync failed for credential {} ({}): {}", credential.getId(), platform, e.getMessage());
+            outcome = Outcome.FAILED;
+        } finally {
+            deadline.cancel(false);
+            runLock.lock();
+            try {
+                finished[0] = true;
+            } finally {
+                runLock.unlock();
+            }
+            // Clear a deadline interrupt so it doesn't leak into the next task on this thread
+            Thread.interrupted();
+        }
+
+        if (timedOut[0]) {
+            outcome = Outcome.TIMED_OUT;
+            deadlineExceeded.increment();
+            log.warn("Review sync for credential {} ({}) exceeded its {} deadline",
+                    credential.getId(), platform, properties.credentialDeadline());
+        }
+
+        sample.stop(Timer.builder("review.sync.duration")
+                .description("Time spent syncing one credential")
+                .tag("platform", platform)
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry));
+
+        finish(work, outcome);
+        lane.release();
+    }
+
+    private void finish(SyncWork work, Outcome outcome) {
+        inFlight.remove(work.credential().getId());
+        work.batch().record(outcome);
+    }
+
+    private void recordOldestLag(Collection<ChannelCredential> credentials) {
+        Map<ChannelCredential.PlatformType, OffsetDateTime> oldest = new EnumMap<>(ChannelCredential.PlatformType.class);
+        for (ChannelCredential credential : credentials) {
+            if (credential.getLastSyncAt() != null) {
+                oldest.merge(credential.getPlatformType(), credential.getLastSyncAt(),
+                        (a, b) -> a.isBefore(b) ? a : b);
+            }
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        oldest.forEach((platform, lastSyncAt) ->
+                oldestLagSeconds.get(platform).set(Duration.between(lastSyncAt, now).toSeconds()));
+    }
+
+    /**
+     * Per-platform queue that starts work only while a concurrency slot and a rate token
+     * are both available
+     */
+    private final class PlatformLane {
+
+        private final ChannelCredential.PlatformType platform;
+        private final int maxConcurrent;
+        private final Bucket bucket;
+        private final Queue<SyncWork> queue = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private int active;
+        private boolean refillScheduled;
+
+        PlatformLane(ChannelCredential.PlatformType platform, ReviewSyncProperties.PlatformBudget budget) {
+            this.platform = platform;
+            this.maxConcurrent = Math.max(1, budget.maxConcurrent());
+            int perMinute = Math.max(1, budget.syncsPerMinute());
+            this.bucket = Bucket.builder()
+                    .addLimit(Bandwidth.classic(perMinute, Refill.greedy(perMinute, Duration.ofMinutes(1))))
+                    .build();
+        }
+
+        void enqueue(SyncWork work) {
+            queue.add(work);
+            pump();
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                active--;
+            } finally {
+                lock.unlock();
+            }
+            pump();
+        }
+
+        private void pump() {
+            lock.lock();
+            try {
+                while (active < maxConcurrent && !queue.isEmpty()) {
+                    ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+                    if (!probe.isConsumed()) {
+                        scheduleRefill(probe.getNanosToWaitForRefill());
+                        return;
+                    }
+
+                    SyncWork work = queue.poll();
+                    active++;
+                    try {
+                        syncExecutor.execute(() -> run(this, work));
+                    } catch (TaskRejectedException e) {
+                        active--;
+                        log.error("Review sync executor rejected credential {} ({})",
+                                work.credential().getId(), platform);
+                        finish(work, Outcome.FAILED);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void scheduleRefill(long nanosToWait) {
+            if (refillScheduled) {
+                return;
+            }
+            refillScheduled = true;
+            throttled.increment();
+            timer.schedule(() -> {
+                lock.lock();
+                try {
+                    refillScheduled = false;
+                } finally {
+                    lock.unlock();
+                }
+                pump();
+            }, Math.max(1, nanosToWait), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private enum Outcome {
+        SYNCED, FAILED, TIMED_OUT
+    }
+
+    private record SyncWork(ChannelCredential credential, Predicate<ChannelCredential> task, Batch batch) {
+    }
+
+    private static final class Batch {
+
+        private final String name;
+        private final long startedAt = System.nanoTime();
+        private final AtomicInteger remaining = new AtomicInteger(1); // held open until sealed
+        private final AtomicInteger synced = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger timedOut = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final CompletableFuture<SyncBatchResult> future = new CompletableFuture<>();
+
+        Batch(String name) {
+            this.name = name;
+        }
+
+        void record(Outcome outcome) {
+            switch (outcome) {
+                case SYNCED -> synced.incrementAndGet();
+                case FAILED -> failed.incrementAndGet();
+                case TIMED_OUT -> timedOut.incrementAndGet();
+            }
+            countDown();
+        }
+
+        void sealed() {
+            countDown();
+        }
+
+        private void countDown() {
+            if (remaining.decrementAndGet() == 0) {
+                future.complete(new SyncBatchResult(name, synced.get(), failed.get(), timedOut.get(), skipped.get(),
+                        Duration.ofNanos(System.nanoTime() - startedAt)));
+            }
+        }
+    }
+
+    /**
+     * Outcome counts for one submitted batch
+     */
+    public record SyncBatchResult(String batchName, int synced, int failed, int timedOut, int skipped,
+                                  Duration duration) {
+    }
+}
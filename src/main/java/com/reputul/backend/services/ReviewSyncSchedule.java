@@ -0,0 +1,45 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.models.ChannelCredential;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Next-run times for scheduled review sync.
+ *
+ * OAuth connections sync every 15 minutes and URL connections every 2 hours. Each
+ * interval is jittered so credentials connected or synced together drift apart instead
+ * of all coming due at the same moment.
+ */
+@Component
+public class ReviewSyncSchedule {
+
+    private final Duration oauthInterval;
+    private final Duration urlInterval;
+    private final double jitter;
+
+    public ReviewSyncSchedule(@Value("${app.review-sync.dispatch.oauth-interval:15m}") Duration oauthInterval,
+                              @Value("${app.review-sync.dispatch.url-interval:2h}") Duration urlInterval,
+                              @Value("${app.review-sync.dispatch.jitter:0.2}") double jitter) {
+        this.oauthInterval = oauthInterval;
+        this.urlInterval = urlInterval;
+        this.jitter = Math.max(0, Math.min(jitter, 0.9));
+    }
+
+    /**
+     * Base interval +/- jitter (a fraction of the interval) after the given time
+     */
+    public OffsetDateTime nextSyncAfter(ChannelCredential credential, OffsetDateTime from) {
+        long intervalMillis = intervalFor(credential).toMillis();
+        double factor = jitter > 0 ? 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter) : 1;
+        return from.plus(Duration.ofMillis(Math.round(intervalMillis * factor)));
+    }
+
+    public Duration intervalFor(ChannelCredential credential) {
+        return "OAUTH".equals(credential.getConnectionMethod()) ? oauthInterval : urlInterval;
+    }
+}
@@ -5,9 +5,18 @@ import com.reputul.backend.integrations.*;
 import com.reputul.backend.models.*;
 import com.reputul.backend.repositories.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
@@ -17,10 +26,25 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReviewSyncService {
 
+    private static final int PREFETCH_CHUNK_SIZE = 1000;
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private static final String INSERT_REVIEW_SQL =
+            "INSERT INTO reviews (business_id, organization_id, source, source_review_id, source_review_url, " +
+            "rating, comment, customer_name, reviewer_photo_url, platform_verified, platform_response, " +
+            "platform_response_at, created_at, synced_at) " +
+            "VALUES (?, (SELECT organization_id FROM businesses WHERE id = ?), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            // uq_reviews_source_id is the only unique index besides the key
+            "ON CONFLICT DO NOTHING";
+
     private final ChannelCredentialRepository credentialRepository;
     private final ReviewRepository reviewRepository;
     private final ReviewSyncJobRepository syncJobRepository;
     private final BusinessRepository businessRepository;
+    private final ReputationAggregateService reputationAggregateService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReviewSyncSchedule syncSchedule;
+    private final TransactionTemplate savepoint;
     private final Map<ChannelCredential.PlatformType, PlatformReviewClient> platformClients;
 
     public ReviewSyncService(
@@ -28,12 +52,23 @@ public class ReviewSyncService {
             ReviewRepository reviewRepository,
             ReviewSyncJobRepository syncJobRepository,
             BusinessRepository businessRepository,
+            ReputationAggregateService reputationAggregateService,
+            JdbcTemplate jdbcTemplate,
+            ReviewSyncSchedule syncSchedule,
+            PlatformTransactionManager transactionManager,
             List<PlatformReviewClient> clients) {
 
         this.credentialRepository = credentialRepository;
         this.reviewRepository = reviewRepository;
         this.syncJobRepository = syncJobRepository;
         this.businessRepository = businessRepository;
+        this.reputationAggregateService = reputationAggregateService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncSchedule = syncSchedule;
+
+        // Inserts run under a savepoint so a failed statement doesn't abort the sync's transaction
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
 
         // Map platform types to their respective clients
         this.platformClients = clients.stream()
@@ -115,30 +150,11 @@ public class ReviewSyncService {
             log.info("Fetched {} reviews from {} for business {}",
                     platformReviews.size(), credential.getPlatformType(), business.getId());
 
-            // Process each review
-            int newCount = 0;
-            int updatedCount = 0;
-            int skippedCount = 0;
-
-            for (PlatformReviewDto dto : platformReviews) {
-                try {
-                    ReviewSyncResult result = syncSingleReview(business, credential, dto);
-                    switch (result) {
-                        case CREATED:
-                            newCount++;
-                            break;
-                        case UPDATED:
-                            updatedCount++;
-                            break;
-                        case SKIPPED:
-                            skippedCount++;
-                            break;
-                    }
-                } catch (Exception e) {
-                    log.error("Error syncing review {}", dto.getPlatformReviewId(), e);
-                    skippedCount++;
-                }
-            }
+            // Diff the fetched batch against stored reviews and write it in bulk
+            Map<ReviewSyncResult, Integer> results = syncReviewBatch(business, credential, platformReviews);
+            int newCount = results.get(ReviewSyncResult.CREATED);
+            int updatedCount = results.get(ReviewSyncResult.UPDATED);
+            int skippedCount = results.get(ReviewSyncResult.SKIPPED);
 
             // Update job results
             job.setReviewsNew(newCount);
@@ -150,7 +166,7 @@ public class ReviewSyncService {
             // Update credential last sync
             credential.setLastSyncAt(OffsetDateTime.now(ZoneOffset.UTC));
             credential.setLastSyncStatus("SUCCESS");
-            credential.setNextSyncScheduled(calculateNextSync());
+            credential.setNextSyncScheduled(syncSchedule.nextSyncAfter(credential, OffsetDateTime.now(ZoneOffset.UTC)));
             credentialRepository.save(credential);
 
             log.info("Sync completed for business {} on {}: {} new, {} updated, {} skipped",
@@ -256,74 +272,226 @@ public class ReviewSyncService {
     }
 
     /**
-     * Sync a single review - handle deduplication
+     * Sync a fetched batch of reviews - handle deduplication
+     *
+     * Stored reviews for every fetched ID are loaded up front, each review is diffed by
+     * content fingerprint, new reviews are written with batched INSERT ... ON CONFLICT DO
+     * NOTHING against uq_reviews_source_id, and changed reviews are flushed as batched
+     * updates. A review inserted concurrently by another sync counts as skipped.
      */
-    @Transactional
-    protected ReviewSyncResult syncSingleReview(
+    protected Map<ReviewSyncResult, Integer> syncReviewBatch(
             Business business,
             ChannelCredential credential,
-            PlatformReviewDto dto) {
+            List<PlatformReviewDto> platformReviews) {
 
         String source = credential.getPlatformType().name().toLowerCase();
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
 
-        // Check if review already exists by source + sourceReviewId
-        Optional<Review> existingOpt = reviewRepository
-                .findByBusinessIdAndSourceAndSourceReviewId(
-                        business.getId(), source, dto.getPlatformReviewId());
+        Map<ReviewSyncResult, Integer> results = new EnumMap<>(ReviewSyncResult.class);
+        for (ReviewSyncResult result : ReviewSyncResult.values()) {
+            results.put(result, 0);
+        }
 
-        if (existingOpt.isPresent()) {
-            // Review exists - check if it needs updating
-            Review existing = existingOpt.get();
+        Map<String, Review> reviewsBySourceId = loadExistingReviews(business.getId(), source, platformReviews);
+        List<Review> created = new ArrayList<>();
+        Map<Long, Review> updated = new LinkedHashMap<>();
+        Map<Long, Boolean> hadResponse = new HashMap<>();
 
-            boolean needsUpdate = false;
-            if (dto.getComment() != null && !dto.getComment().equals(existing.getComment())) {
-                existing.setComment(dto.getComment());
-                needsUpdate = true;
-            }
-            if (dto.getBusinessResponse() != null &&
-                    !dto.getBusinessResponse().equals(existing.getPlatformResponse())) {
-                existing.setPlatformResponse(dto.getBusinessResponse());
-                existing.setPlatformResponseAt(dto.getBusinessResponseAt());
-                needsUpdate = true;
+        for (PlatformReviewDto dto : platformReviews) {
+            try {
+                String sourceReviewId = dto.getPlatformReviewId();
+                Review review = sourceReviewId != null ? reviewsBySourceId.get(sourceReviewId) : null;
+
+                if (review == null) {
+                    Review newReview = buildReview(business, source, dto, now);
+                    created.add(newReview);
+                    if (sourceReviewId != null) {
+                        reviewsBySourceId.put(sourceReviewId, newReview);
+                    }
+                    results.merge(ReviewSyncResult.CREATED, 1, Integer::sum);
+                    continue;
+                }
+
+                // A repeated ID in the same batch may point at a review not yet inserted
+                if (review.getId() != null) {
+                    hadResponse.putIfAbsent(review.getId(), review.getPlatformResponse() != null);
+                }
+                if (applyChanges(review, dto, now)) {
+                    if (review.getId() != null) {
+                        updated.put(review.getId(), review);
+                    }
+                    results.merge(ReviewSyncResult.UPDATED, 1, Integer::sum);
+                    log.debug("Updated review {} from {}", sourceReviewId, source);
+                } else {
+                    results.merge(ReviewSyncResult.SKIPPED, 1, Integer::sum);
+                }
+            } catch (Exception e) {
+                log.error("Error syncing review {}", dto.getPlatformReviewId(), e);
+                results.merge(ReviewSyncResult.SKIPPED, 1, Integer::sum);
             }
+        }
+
+        List<Review> inserted = insertReviews(business, created);
+        int conflicts = created.size() - inserted.size();
+        if (conflicts > 0) {
+            log.info("{} reviews from {} were not inserted: already stored by another sync, or rejected",
+                    conflicts, source);
+            results.merge(ReviewSyncResult.CREATED, -conflicts, Integer::sum);
+            results.merge(ReviewSyncResult.SKIPPED, conflicts, Integer::sum);
+        }
+
+        // Managed entities - flushed as JDBC batches (hibernate.jdbc.batch_size)
+        reviewRepository.saveAll(updated.values());
+
+        List<Review> responsesAdded = updated.values().stream()
+                .filter(review -> review.getPlatformResponse() != null && !hadResponse.get(review.getId()))
+                .toList();
+        reputationAggregateService.recordReviewsCreated(business.getId(), inserted);
+        reputationAggregateService.recordResponsesAdded(business.getId(), responsesAdded);
+
+        return results;
+    }
 
-            if (needsUpdate) {
-                existing.setSyncedAt(OffsetDateTime.now(ZoneOffset.UTC));
-                reviewRepository.save(existing);
-                log.debug("Updated review {} from {}", dto.getPlatformReviewId(), source);
-                return ReviewSyncResult.UPDATED;
-            } else {
-                return ReviewSyncResult.SKIPPED;
+    /**
+     * Stored reviews for the fetched source IDs, keyed by source review ID
+     */
+    private Map<String, Review> loadExistingReviews(Long businessId, String source,
+                                                    List<PlatformReviewDto> platformReviews) {
+        List<String> sourceReviewIds = platformReviews.stream()
+                .map(PlatformReviewDto::getPlatformReviewId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        Map<String, Review> reviewsBySourceId = new HashMap<>();
+        for (int from = 0; from < sourceReviewIds.size(); from += PREFETCH_CHUNK_SIZE) {
+            List<String> chunk = sourceReviewIds.subList(from, Math.min(from + PREFETCH_CHUNK_SIZE, sourceReviewIds.size()));
+            for (Review review : reviewRepository.findByBusinessIdAndSourceAndSourceReviewIdIn(businessId, source, chunk)) {
+                reviewsBySourceId.put(review.getSourceReviewId(), review);
             }
-        } else {
-            // New review - create it
-            Review newReview = Review.builder()
-                    .business(business)
-                    .source(source)
-                    .sourceReviewId(dto.getPlatformReviewId())
-                    .sourceReviewUrl(dto.getReviewUrl())
-                    .rating(dto.getRating())
-                    .comment(dto.getComment())
-                    .customerName(dto.getReviewerName())
-                    .reviewerPhotoUrl(dto.getReviewerPhotoUrl())
-                    .platformVerified(dto.getIsPlatformVerified())
-                    .platformResponse(dto.getBusinessResponse())
-                    .platformResponseAt(dto.getBusinessResponseAt())
-                    .createdAt(dto.getCreatedAt())
-                    .syncedAt(OffsetDateTime.now(ZoneOffset.UTC))
-                    .build();
-
-            reviewRepository.save(newReview);
-            log.debug("Created new review from {}: {}", source, dto.getPlatformReviewId());
-            return ReviewSyncResult.CREATED;
         }
+        return reviewsBySourceId;
     }
 
     /**
-     * Calculate next sync time (6 hours from now)
+     * Apply the platform's comment and business response when the content fingerprint
+     * changes. Absent platform fields never clear stored ones.
+     *
+     * @return true if the review changed
      */
-    private OffsetDateTime calculateNextSync() {
-        return OffsetDateTime.now(ZoneOffset.UTC).plusHours(6);
+    private boolean applyChanges(Review review, PlatformReviewDto dto, OffsetDateTime now) {
+        ContentFingerprint current = ContentFingerprint.of(review);
+        ContentFingerprint incoming = current.mergedWith(dto);
+        if (incoming.equals(current)) {
+            return false;
+        }
+
+        review.setComment(incoming.comment());
+        if (!Objects.equals(incoming.platformResponse(), current.platformResponse())) {
+            review.setPlatformResponse(incoming.platformResponse());
+            review.setPlatformResponseAt(dto.getBusinessResponseAt());
+        }
+        review.setSyncedAt(now);
+        return true;
+    }
+
+    private Review buildReview(Business business, String source, PlatformReviewDto dto, OffsetDateTime now) {
+        return Review.builder()
+                .business(business)
+                .source(source)
+                .sourceReviewId(dto.getPlatformReviewId())
+                .sourceReviewUrl(dto.getReviewUrl())
+                .rating(dto.getRating())
+                .comment(dto.getComment())
+                .customerName(dto.getReviewerName())
+                .reviewerPhotoUrl(dto.getReviewerPhotoUrl())
+                .platformVerified(dto.getIsPlatformVerified())
+                .platformResponse(dto.getBusinessResponse())
+                .platformResponseAt(dto.getBusinessResponseAt())
+                .createdAt(dto.getCreatedAt() != null ? dto.getCreatedAt() : now)
+                .syncedAt(now)
+                .build();
+    }
+
+    /**
+     * Insert new reviews in JDBC batches, skipping rows that already exist. A batch that
+     * fails (one bad row fails them all) is inserted again row by row, so only the rows
+     * that fail on their own are left out.
+     *
+     * @return the reviews that were actually inserted
+     */
+    private List<Review> insertReviews(Business business, List<Review> reviews) {
+        if (reviews.isEmpty()) {
+            return List.of();
+        }
+
+        List<Review> inserted = new ArrayList<>(reviews.size());
+        for (int from = 0; from < reviews.size(); from += INSERT_BATCH_SIZE) {
+            List<Review> batch = reviews.subList(from, Math.min(from + INSERT_BATCH_SIZE, reviews.size()));
+            int[] rowCounts;
+            try {
+                rowCounts = savepoint.execute(status -> jdbcTemplate.batchUpdate(INSERT_REVIEW_SQL,
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                bindReview(ps, business, batch.get(i));
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return batch.size();
+                            }
+                        }));
+            } catch (DataAccessException e) {
+                log.warn("Batch insert of {} reviews for business {} failed, inserting one at a time: {}",
+                        batch.size(), business.getId(), e.getMessage());
+                inserted.addAll(insertOneByOne(business, batch));
+                continue;
+            }
+
+            for (int i = 0; i < rowCounts.length; i++) {
+                // 0 means ON CONFLICT skipped the row; drivers that rewrite batches report SUCCESS_NO_INFO
+                if (rowCounts[i] != 0) {
+                    inserted.add(batch.get(i));
+                }
+            }
+        }
+        log.debug("Inserted {} of {} new reviews for business {}", inserted.size(), reviews.size(), business.getId());
+        return inserted;
+    }
+
+    private List<Review> insertOneByOne(Business business, List<Review> reviews) {
+        List<Review> inserted = new ArrayList<>(reviews.size());
+        for (Review review : reviews) {
+            try {
+                Integer rowCount = savepoint.execute(status ->
+                        jdbcTemplate.update(INSERT_REVIEW_SQL, ps -> bindReview(ps, business, review)));
+                if (rowCount != null && rowCount != 0) {
+                    inserted.add(review);
+                }
+            } catch (DataAccessException e) {
+                log.error("Could not insert review {} from {} for business {}: {}",
+                        review.getSourceReviewId(), review.getSource(), business.getId(), e.getMessage());
+            }
+        }
+        return inserted;
+    }
+
+    private static void bindReview(PreparedStatement ps, Business business, Review review) throws SQLException {
+        ps.setLong(1, business.getId());
+        ps.setLong(2, business.getId());
+        ps.setString(3, review.getSource());
+        ps.setString(4, review.getSourceReviewId());
+        ps.setString(5, review.getSourceReviewUrl());
+        ps.setInt(6, review.getRating());
+        ps.setString(7, review.getComment());
+        ps.setString(8, review.getCustomerName());
+        ps.setString(9, review.getReviewerPhotoUrl());
+        ps.setObject(10, review.getPlatformVerified(), Types.BOOLEAN);
+        ps.setString(11, review.getPlatformResponse());
+        ps.setObject(12, review.getPlatformResponseAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(13, review.getCreatedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(14, review.getSyncedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
     }
 
     /**
@@ -332,4 +500,20 @@ public class ReviewSyncService {
     enum ReviewSyncResult {
         CREATED, UPDATED, SKIPPED
     }
+
+    /**
+     * Content fingerprint of the fields a sync may change on a stored review
+     */
+    private record ContentFingerprint(String comment, String platformResponse) {
+
+        static ContentFingerprint of(Review review) {
+            return new ContentFingerprint(review.getComment(), review.getPlatformResponse());
+        }
+
+        ContentFingerprint mergedWith(PlatformReviewDto dto) {
+            return new ContentFingerprint(
+                    dto.getComment() != null ? dto.getComment() : comment,
+                    dto.getBusinessResponse() != null ? dto.getBusinessResponse() : platformResponse);
+        }
+    }
 }
\ No newline at end of file
@@ -17,17 +17,16 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
- * Automated background service for syncing reviews from connected platforms
+ * Automated background maintenance for connected platform credentials
  *
  * Features:
- * - Scheduled review sync every 6 hours
  * - Automatic token refresh before expiry
- * - Error recovery and retry logic
- * - Performance monitoring and metrics
+ * - Hourly credential health check
+ *
+ * Review sync itself is scheduled by ReviewSyncDispatcher.
  *
  * Configuration:
  * - Enable/disable via: automated-sync.enabled=true
- * - Schedule via cron: automated-sync.cron=0 (star)/6 * * * * (replace (star) with asterisk)
  */
 @Service
 @Slf4j
@@ -39,16 +38,13 @@ import java.util.stream.Collectors;
 public class ScheduledReviewSyncService {
 
     private final ChannelCredentialRepository credentialRepository;
-    private final ReviewSyncService reviewSyncService;
     private final Map<ChannelCredential.PlatformType, PlatformReviewClient> platformClients;
 
     public ScheduledReviewSyncService(
             ChannelCredentialRepository credentialRepository,
-            ReviewSyncService reviewSyncService,
             List<PlatformReviewClient> clients) {
 
         this.credentialRepository = credentialRepository;
-        this.reviewSyncService = reviewSyncService;
         this.platformClients = clients.stream()
                 .collect(Collectors.toMap(
                         PlatformReviewClient::getPlatformType,
@@ -59,65 +55,6 @@ public class ScheduledReviewSyncService {
                 platformClients.size());
     }
 
-    /**
-     * Scheduled review sync job - runs every 6 hours by default
-     * Configurable via: automated-sync.cron
-     */
-    @Scheduled(cron = "${automated-sync.cron:0 */6 * * * *}")
-    @Transactional
-    public void syncAllActiveCredentials() {
-        log.info("Starting scheduled review sync job");
-
-        long startTime = System.currentTimeMillis();
-        int totalSynced = 0;
-        int totalErrors = 0;
-
-        try {
-            // Use the optimized repository query to find credentials due for sync
-            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
-            List<ChannelCredential> credentialsDueForSync = credentialRepository
-                    .findDueForSync(now, ChannelCredential.CredentialStatus.ACTIVE);
-
-            log.info("Found {} credentials due for sync", credentialsDueForSync.size());
-
-            for (ChannelCredential credential : credentialsDueForSync) {
-                try {
-                    // Refresh token if needed
-                    if (credential.needsRefresh()) {
-                        credential = refreshCredentialToken(credential);
-                    }
-
-                    // Sync reviews
-                    reviewSyncService.syncPlatformReviews(credential, credential.getBusiness());
-                    totalSynced++;
-
-                    log.debug("Successfully synced reviews for business {} on platform {}",
-                            credential.getBusiness().getId(),
-                            credential.getPlatformType());
-
-                } catch (Exception e) {
-                    totalErrors++;
-                    log.error("Failed to sync reviews for credential {} ({}): {}",
-                            credential.getId(),
-                            credential.getPlatformType(),
-                            e.getMessage());
-
-                    // Update credential with error status
-                    credential.setLastSyncStatus("FAILED");
-                    credential.setSyncErrorMessage(e.getMessage());
-                    credentialRepository.save(credential);
-                }
-            }
-
-        } catch (Exception e) {
-            log.error("Scheduled sync job failed", e);
-        }
-
-        long duration = System.currentTimeMillis() - startTime;
-        log.info("Scheduled review sync completed: {} synced, {} errors, {} ms",
-                totalSynced, totalErrors, duration);
-    }
-
     /**
      * Scheduled token refresh job - runs daily at 2 AM
      * Refreshes tokens that will expire within 7 days
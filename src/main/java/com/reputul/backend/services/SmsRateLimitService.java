@@ -1,26 +1,81 @@
 package com.reputul.backend.services;
 
 import com.reputul.backend.models.Business;
+import com.reputul.backend.repositories.SmsRateLimitRepository;
+import com.reputul.backend.util.PhoneNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.OffsetDateTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SMS rate limits per business (hourly, daily) and per customer (daily), shared by all nodes.
+ *
+ * Counts live in sms_rate_limit_windows, one row per limit, key and fixed window. A limit
+ * is checked as a sliding window: sends in the current window plus the previous window's
+ * sends weighted by how much of it still overlaps the last window length.
+ *
+ * Each node fronts the table with local token buckets. A bucket leases up to lease-size
+ * sends at once (never more than a tenth of the limit) with one conditional UPDATE, then
+ * spends them without touching the database. The sync task returns leases of buckets that
+ * went idle and clears cached denials, so other nodes get the capacity back. The database
+ * row never exceeds the limit, whatever the number of nodes; tokens leased but not yet
+ * spent only make the limit temporarily stricter.
+ */
 @Service
 @Slf4j
 public class SmsRateLimitService {
 
-    @Value("${sms.rate_limit.daily_per_business:50}")
-    private int dailyLimitPerBusiness;
+    /**
+     * Rate-limit dimensions; name is the limit_name stored in sms_rate_limit_windows
+     */
+    enum Limit {
+        BUSINESS_HOURLY("business_hourly", Duration.ofHours(1)),
+        BUSINESS_DAILY("business_daily", Duration.ofDays(1)),
+        CUSTOMER_DAILY("customer_daily", Duration.ofDays(1));
+
+        private final String limitName;
+        private final Duration window;
+
+        Limit(String limitName, Duration window) {
+            this.limitName = limitName;
+            this.window = window;
+        }
+
+        Instant windowStart(Instant now) {
+            long seconds = window.getSeconds();
+            return Instant.ofEpochSecond(Math.floorDiv(now.getEpochSecond(), seconds) * seconds);
+        }
+    }
+
+    /**
+     * Windows older than this are purged; the longest window is one day
+     */
+    private static final Duration RETENTION = Duration.ofDays(2);
+
+    private final SmsRateLimitRepository rateLimitRepository;
+    private final Clock clock;
+    private final Map<Limit, Integer> maxPerWindow = new EnumMap<>(Limit.class);
+    private final int leaseSize;
 
-    @Value("${sms.rate_limit.hourly_per_business:10}")
-    private int hourlyLimitPerBusiness;
+    private final Map<BucketKey, LocalBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Limit, Counter> deniedCounters = new EnumMap<>(Limit.class);
+    private final Counter reservations;
 
     @Value("${sms.quiet_hours.start:21}")
     private int quietHoursStart; // 9 PM
@@ -28,53 +83,253 @@ public class SmsRateLimitService {
     @Value("${sms.quiet_hours.end:8}")
     private int quietHoursEnd; // 8 AM
 
-    @Value("${sms.rate_limit.customer_daily:3}")
-    private int customerDailyLimit;
-
-    // In-memory rate limiting (consider Redis for production)
-    private final ConcurrentHashMap<String, BusinessRateLimit> businessLimits = new ConcurrentHashMap<>();
+    public SmsRateLimitService(SmsRateLimitRepository rateLimitRepository,
+                               Clock clock,
+                               MeterRegistry meterRegistry,
+                               @Value("${sms.rate_limit.daily_per_business:50}") int dailyLimitPerBusiness,
+                               @Value("${sms.rate_limit.hourly_per_business:10}") int hourlyLimitPerBusiness,
+                               @Value("${sms.rate_limit.customer_daily:3}") int customerDailyLimit,
+                               @Value("${app.sms.rate-limit.lease-size:5}") int leaseSize) {
+        this.rateLimitRepository = rateLimitRepository;
+        this.clock = clock;
+        this.maxPerWindow.put(Limit.BUSINESS_DAILY, dailyLimitPerBusiness);
+        this.maxPerWindow.put(Limit.BUSINESS_HOURLY, hourlyLimitPerBusiness);
+        this.maxPerWindow.put(Limit.CUSTOMER_DAILY, customerDailyLimit);
+        this.leaseSize = Math.max(1, leaseSize);
+
+        for (Limit limit : Limit.values()) {
+            deniedCounters.put(limit, Counter.builder("sms.rate_limit.denied")
+                    .description("SMS sends refused by a rate limit")
+                    .tag("limit", limit.limitName)
+                    .register(meterRegistry));
+        }
+        this.reservations = Counter.builder("sms.rate_limit.reservations")
+                .description("Token leases taken from the shared rate-limit table")
+                .register(meterRegistry);
+        Gauge.builder("sms.rate_limit.buckets", buckets, Map::size)
+                .description("Local rate-limit buckets on this node")
+                .register(meterRegistry);
+    }
 
     /**
-     * Check if business can send SMS right now
+     * Reserve one SMS send for a business and recipient. A reservation that ends up not
+     * being sent must be handed back with releaseSmsReservation. The reservation is
+     * committed straight away, whatever transaction the caller is in.
      */
-    public SmsRateLimitResult canSendSms(Business business, String customerPhone) {
+    public SmsRateLimitResult tryAcquire(Business business, String customerPhone) {
         // Check quiet hours first
         if (isQuietHours()) {
             return SmsRateLimitResult.denied("SMS sending is restricted during quiet hours (9 PM - 8 AM)");
         }
 
-        String businessKey = "business_" + business.getId();
-        BusinessRateLimit limit = businessLimits.computeIfAbsent(businessKey, k -> new BusinessRateLimit());
+        // Window each limit was reserved in, so a release goes back to the same windows
+        Map<Limit, Instant> windows = new EnumMap<>(Limit.class);
+        String businessKey = String.valueOf(business.getId());
+        if (!acquire(Limit.BUSINESS_DAILY, businessKey, windows)) {
+            return SmsRateLimitResult.denied("Business daily SMS limit reached (" + max(Limit.BUSINESS_DAILY) + ")");
+        }
+        if (!acquire(Limit.BUSINESS_HOURLY, businessKey, windows)) {
+            release(Limit.BUSINESS_DAILY, businessKey, windows);
+            return SmsRateLimitResult.denied("Business hourly SMS limit reached (" + max(Limit.BUSINESS_HOURLY) + ")");
+        }
 
-        // Reset counters if needed
-        limit.resetIfNeeded();
+        String customerKey = customerKey(business, customerPhone);
+        if (customerKey != null && !acquire(Limit.CUSTOMER_DAILY, customerKey, windows)) {
+            release(Limit.BUSINESS_HOURLY, businessKey, windows);
+            release(Limit.BUSINESS_DAILY, businessKey, windows);
+            return SmsRateLimitResult.denied("Customer daily SMS limit reached (" + max(Limit.CUSTOMER_DAILY) + ")");
+        }
 
-        // Check business daily limit
-        if (limit.dailyCount.get() >= dailyLimitPerBusiness) {
-            return SmsRateLimitResult.denied("Business daily SMS limit reached (" + dailyLimitPerBusiness + ")");
+        return SmsRateLimitResult.allowed(windows);
+    }
+
+    /**
+     * Give back a reservation from tryAcquire whose SMS was not sent. It goes back to the
+     * windows it was reserved in, even if those have since rolled over.
+     */
+    public void releaseSmsReservation(Business business, String customerPhone, SmsRateLimitResult reservation) {
+        if (!reservation.isAllowed()) {
+            return;
         }
+        Map<Limit, Instant> windows = reservation.windows;
+        String businessKey = String.valueOf(business.getId());
+        release(Limit.BUSINESS_DAILY, businessKey, windows);
+        release(Limit.BUSINESS_HOURLY, businessKey, windows);
+        String customerKey = customerKey(business, customerPhone);
+        if (customerKey != null) {
+            release(Limit.CUSTOMER_DAILY, customerKey, windows);
+        }
+    }
 
-        // Check business hourly limit
-        if (limit.hourlyCount.get() >= hourlyLimitPerBusiness) {
-            return SmsRateLimitResult.denied("Business hourly SMS limit reached (" + hourlyLimitPerBusiness + ")");
+    /**
+     * Take one token, recording the window it came from in windows
+     */
+    private boolean acquire(Limit limit, String key, Map<Limit, Instant> windows) {
+        BucketKey bucketKey = new BucketKey(limit, key);
+        while (true) {
+            LocalBucket bucket = buckets.computeIfAbsent(bucketKey, k -> new LocalBucket());
+            bucket.lock.lock();
+            try {
+                if (bucket.retired) {
+                    // Removed by sync between lookup and lock
+                    continue;
+                }
+                boolean acquired = acquire(limit, key, bucket);
+                if (acquired) {
+                    windows.put(limit, bucket.windowStart);
+                } else {
+                    deniedCounters.get(limit).increment();
+                }
+                return acquired;
+            } finally {
+                bucket.lock.unlock();
+            }
         }
+    }
 
-        return SmsRateLimitResult.allowed();
+    /**
+     * Caller holds bucket.lock
+     */
+    private boolean acquire(Limit limit, String key, LocalBucket bucket) {
+        Instant now = clock.instant();
+        Instant windowStart = limit.windowStart(now);
+        if (!windowStart.equals(bucket.windowStart)) {
+            returnTokens(limit, key, bucket);
+            bucket.windowStart = windowStart;
+            bucket.previousUsed = rateLimitRepository.used(limit.limitName, key,
+                    toOffset(windowStart.minus(limit.window)));
+            bucket.exhausted = false;
+        }
+        bucket.touched = true;
+
+        if (bucket.tokens > 0) {
+            bucket.tokens--;
+            return true;
+        }
+        if (bucket.exhausted) {
+            return false;
+        }
+
+        int max = max(limit);
+        int cap = max - weightedPrevious(limit, bucket.previousUsed, now, windowStart);
+        int lease = Math.max(1, Math.min(leaseSize, max / 10));
+        OffsetDateTime reservedAt = toOffset(now);
+        OffsetDateTime window = toOffset(windowStart);
+
+        int granted = 0;
+        if (rateLimitRepository.tryReserve(limit.limitName, key, window, lease, cap, reservedAt)) {
+            granted = lease;
+        } else if (lease > 1 && rateLimitRepository.tryReserve(limit.limitName, key, window, 1, cap, reservedAt)) {
+            granted = 1;
+        }
+        if (granted == 0) {
+            // Cached until the next sync, when the sliding window may have freed room
+            bucket.exhausted = true;
+            return false;
+        }
+        reservations.increment();
+        bucket.tokens = granted - 1;
+        return true;
+    }
+
+    private void release(Limit limit, String key, Map<Limit, Instant> windows) {
+        Instant windowStart = windows.get(limit);
+        if (windowStart == null) {
+            return;
+        }
+        LocalBucket bucket = buckets.get(new BucketKey(limit, key));
+        if (bucket != null) {
+            bucket.lock.lock();
+            try {
+                if (!bucket.retired && windowStart.equals(bucket.windowStart)) {
+                    bucket.tokens++;
+                    bucket.exhausted = false;
+                    return;
+                }
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+        rateLimitRepository.release(limit.limitName, key, toOffset(windowStart), 1, toOffset(clock.instant()));
     }
 
     /**
-     * Record SMS send for rate limiting
+     * Previous window's sends still inside the sliding window, rounded up
      */
-    public void recordSmsUsage(Business business) {
-        String businessKey = "business_" + business.getId();
-        BusinessRateLimit limit = businessLimits.computeIfAbsent(businessKey, k -> new BusinessRateLimit());
+    private static int weightedPrevious(Limit limit, int previousUsed, Instant now, Instant windowStart) {
+        if (previousUsed == 0) {
+            return 0;
+        }
+        double elapsed = (double) Duration.between(windowStart, now).toMillis() / limit.window.toMillis();
+        return (int) Math.ceil(previousUsed * (1.0 - elapsed));
+    }
 
-        limit.resetIfNeeded();
-        limit.dailyCount.incrementAndGet();
-        limit.hourlyCount.incrementAndGet();
+    /**
+     * Caller holds bucket.lock
+     */
+    private void returnTokens(Limit limit, String key, LocalBucket bucket) {
+        if (bucket.tokens <= 0 || bucket.windowStart == null) {
+            bucket.tokens = 0;
+            return;
+        }
+        try {
+            rateLimitRepository.release(limit.limitName, key, toOffset(bucket.windowStart), bucket.tokens,
+                    toOffset(clock.instant()));
+        } catch (Exception e) {
+            // Left counted as used until the window ends - stricter, never looser
+            log.warn("Could not return {} SMS rate-limit tokens for {} {}: {}",
+                    bucket.tokens, limit.limitName, key, e.getMessage());
+        }
+        bucket.tokens = 0;
+    }
 
-        log.debug("SMS usage recorded for business {}: daily={}, hourly={}",
-                business.getId(), limit.dailyCount.get(), limit.hourlyCount.get());
+    /**
+     * Return leases of buckets idle since the last sync and clear cached denials
+     */
+    @Scheduled(fixedDelayString = "${app.sms.rate-limit.sync-interval-ms:5000}")
+    public void sync() {
+        for (Map.Entry<BucketKey, LocalBucket> entry : buckets.entrySet()) {
+            LocalBucket bucket = entry.getValue();
+            bucket.lock.lock();
+            try {
+                if (bucket.touched) {
+                    bucket.touched = false;
+                    bucket.exhausted = false;
+                    continue;
+                }
+                returnTokens(entry.getKey().limit(), entry.getKey().key(), bucket);
+                bucket.retired = true;
+                buckets.remove(entry.getKey(), bucket);
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sms.rate-limit.purge-interval-ms:3600000}")
+    public void purgeExpiredWindows() {
+        int deleted = rateLimitRepository.deleteWindowsBefore(toOffset(clock.instant().minus(RETENTION)));
+        if (deleted > 0) {
+            log.debug("Purged {} expired SMS rate-limit windows", deleted);
+        }
+    }
+
+    /**
+     * Hand unspent leases back so other nodes can use them
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Map.Entry<BucketKey, LocalBucket> entry : buckets.entrySet()) {
+            LocalBucket bucket = entry.getValue();
+            bucket.lock.lock();
+            try {
+                returnTokens(entry.getKey().limit(), entry.getKey().key(), bucket);
+                bucket.retired = true;
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+        buckets.clear();
     }
 
     /**
@@ -94,22 +349,21 @@ public class SmsRateLimitService {
     }
 
     /**
-     * Get remaining SMS allowance for business
+     * Get remaining SMS allowance for business, as seen by the shared counters (tokens
+     * leased to a node count as used)
      */
     public SmsAllowance getBusinessAllowance(Business business) {
-        String businessKey = "business_" + business.getId();
-        BusinessRateLimit limit = businessLimits.get(businessKey);
-
-        if (limit == null) {
-            return new SmsAllowance(dailyLimitPerBusiness, hourlyLimitPerBusiness);
-        }
-
-        limit.resetIfNeeded();
+        String businessKey = String.valueOf(business.getId());
+        return new SmsAllowance(remaining(Limit.BUSINESS_DAILY, businessKey),
+                remaining(Limit.BUSINESS_HOURLY, businessKey));
+    }
 
-        return new SmsAllowance(
-                Math.max(0, dailyLimitPerBusiness - limit.dailyCount.get()),
-                Math.max(0, hourlyLimitPerBusiness - limit.hourlyCount.get())
-        );
+    private int remaining(Limit limit, String key) {
+        Instant now = clock.instant();
+        Instant windowStart = limit.windowStart(now);
+        int used = rateLimitRepository.used(limit.limitName, key, toOffset(windowStart));
+        int previousUsed = rateLimitRepository.used(limit.limitName, key, toOffset(windowStart.minus(limit.window)));
+        return Math.max(0, max(limit) - used - weightedPrevious(limit, previousUsed, now, windowStart));
     }
 
     /**
@@ -139,10 +393,12 @@ public class SmsRateLimitService {
     }
 
     /**
-     * Reset all rate limits (for testing or admin purposes)
+     * Reset all rate limits (for testing or admin purposes). Other nodes keep the
+     * tokens they have already leased.
      */
     public void resetAllLimits() {
-        businessLimits.clear();
+        buckets.clear();
+        rateLimitRepository.deleteAll();
         log.info("All SMS rate limits have been reset");
     }
 
@@ -151,54 +407,67 @@ public class SmsRateLimitService {
      */
     public SmsRateLimitConfig getConfiguration() {
         return new SmsRateLimitConfig(
-                dailyLimitPerBusiness,
-                hourlyLimitPerBusiness,
-                customerDailyLimit,
+                max(Limit.BUSINESS_DAILY),
+                max(Limit.BUSINESS_HOURLY),
+                max(Limit.CUSTOMER_DAILY),
                 quietHoursStart,
                 quietHoursEnd
         );
     }
 
-    // Helper classes
-    private static class BusinessRateLimit {
-        AtomicInteger dailyCount = new AtomicInteger(0);
-        AtomicInteger hourlyCount = new AtomicInteger(0);
-        LocalDate lastResetDate = LocalDate.now();
-        OffsetDateTime lastHourlyReset = OffsetDateTime.now(ZoneOffset.UTC).withMinute(0).withSecond(0);
-
-        void resetIfNeeded() {
-            LocalDate today = LocalDate.now();
-            OffsetDateTime currentHour = OffsetDateTime.now(ZoneOffset.UTC).withMinute(0).withSecond(0);
-
-            // Reset daily counter
-            if (!lastResetDate.equals(today)) {
-                dailyCount.set(0);
-                lastResetDate = today;
-            }
+    private int max(Limit limit) {
+        return maxPerWindow.get(limit);
+    }
 
-            // Reset hourly counter
-            if (lastHourlyReset.isBefore(currentHour)) {
-                hourlyCount.set(0);
-                lastHourlyReset = currentHour;
-            }
+    /**
+     * Per customer of a business, by E.164 number so formatting differences share a limit
+     */
+    private static String customerKey(Business business, String customerPhone) {
+        if (customerPhone == null || customerPhone.isBlank()) {
+            return null;
         }
+        String phoneE164 = PhoneNormalizer.toE164(customerPhone);
+        return business.getId() + ":" + (phoneE164 != null ? phoneE164 : customerPhone.replaceAll("[^+\\d]", ""));
+    }
+
+    private static OffsetDateTime toOffset(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    // Helper classes
+    private record BucketKey(Limit limit, String key) {
+    }
+
+    /**
+     * Tokens this node has leased for one limit and key in the current window
+     */
+    private static final class LocalBucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Instant windowStart;
+        private int previousUsed;
+        private int tokens;
+        private boolean exhausted;
+        private boolean touched;
+        private boolean retired;
     }
 
     public static class SmsRateLimitResult {
         private final boolean allowed;
         private final String reason;
+        private final Map<Limit, Instant> windows;
 
-        private SmsRateLimitResult(boolean allowed, String reason) {
+        private SmsRateLimitResult(boolean allowed, String reason, Map<Limit, Instant> windows) {
             this.allowed = allowed;
             this.reason = reason;
+            this.windows = windows;
         }
 
-        public static SmsRateLimitResult allowed() {
-            return new SmsRateLimitResult(true, null);
+        static SmsRateLimitResult allowed(Map<Limit, Instant> windows) {
+            return new SmsRateLimitResult(true, null, windows);
         }
 
         public static SmsRateLimitResult denied(String reason) {
-            return new SmsRateLimitResult(false, reason);
+            return new SmsRateLimitResult(false, reason, Map.of());
         }
 
         public boolean isAllowed() { return allowed; }
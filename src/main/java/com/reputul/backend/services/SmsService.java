@@ -79,25 +79,16 @@ public class SmsService {
                 return SmsResult.failure(eligibility.getReason());
             }
 
-            // STEP 2: Check rate limits (business and customer level)
-            SmsRateLimitService.SmsRateLimitResult rateLimitResult =
-                    rateLimitService.canSendSms(customer.getBusiness(), customer.getPhone());
-
-            if (!rateLimitResult.isAllowed()) {
-                log.warn("❌ Rate limit exceeded for customer {}: {}", customer.getId(), rateLimitResult.getReason());
-                return SmsResult.failure("Rate limit exceeded: " + rateLimitResult.getReason());
-            }
-
-            // STEP 3: Check customer-specific daily limit
+            // STEP 2: Check customer-specific daily limit
             if (customer.hasReachedDailySmsLimit(customerDailyLimit)) {
                 log.warn("❌ Customer {} has reached daily SMS limit", customer.getId());
                 return SmsResult.failure("Customer daily SMS limit reached");
             }
 
-            // STEP 4: Generate compliant message
+            // STEP 3: Generate compliant message
             String message = smsTemplateService.generateReviewRequestMessage(customer);
 
-            // STEP 5: Validate message compliance
+            // STEP 4: Validate message compliance
             SmsTemplateService.SmsComplianceValidationResult complianceResult =
                     smsTemplateService.validateCompliance(message);
 
@@ -107,12 +98,20 @@ public class SmsService {
                 return SmsResult.failure("Message compliance failed: " + complianceResult.getIssues());
             }
 
+            // STEP 5: Reserve against rate limits (business and customer level)
+            SmsRateLimitService.SmsRateLimitResult rateLimitResult =
+                    rateLimitService.tryAcquire(customer.getBusiness(), customer.getPhone());
+
+            if (!rateLimitResult.isAllowed()) {
+                log.warn("❌ Rate limit exceeded for customer {}: {}", customer.getId(), rateLimitResult.getReason());
+                return SmsResult.failure("Rate limit exceeded: " + rateLimitResult.getReason());
+            }
+
             // STEP 6: Send SMS
-            SmsResult sendResult = sendSms(customer.getPhone(), message);
+            SmsResult sendResult = sendReserved(customer, message, rateLimitResult);
 
             if (sendResult.isSuccess()) {
-                // STEP 7: Record usage and update customer
-                rateLimitService.recordSmsUsage(customer.getBusiness());
+                // STEP 7: Update customer
                 customer.incrementSmsSendCount();
                 customerRepository.save(customer);
 
@@ -142,13 +141,6 @@ public class SmsService {
                 return SmsResult.failure(eligibility.getReason());
             }
 
-            SmsRateLimitService.SmsRateLimitResult rateLimitResult =
-                    rateLimitService.canSendSms(customer.getBusiness(), customer.getPhone());
-
-            if (!rateLimitResult.isAllowed()) {
-                return SmsResult.failure("Rate limit exceeded: " + rateLimitResult.getReason());
-            }
-
             if (customer.hasReachedDailySmsLimit(customerDailyLimit)) {
                 return SmsResult.failure("Customer daily SMS limit reached");
             }
@@ -162,10 +154,16 @@ public class SmsService {
                 return SmsResult.failure("Message compliance failed: " + complianceResult.getIssues());
             }
 
-            SmsResult sendResult = sendSms(customer.getPhone(), message);
+            SmsRateLimitService.SmsRateLimitResult rateLimitResult =
+                    rateLimitService.tryAcquire(customer.getBusiness(), customer.getPhone());
+
+            if (!rateLimitResult.isAllowed()) {
+                return SmsResult.failure("Rate limit exceeded: " + rateLimitResult.getReason());
+            }
+
+            SmsResult sendResult = sendReserved(customer, message, rateLimitResult);
 
             if (sendResult.isSuccess()) {
-                rateLimitService.recordSmsUsage(customer.getBusiness());
                 customer.incrementSmsSendCount();
                 customerRepository.save(customer);
             }
@@ -178,6 +176,24 @@ public class SmsService {
         }
     }
 
+    /**
+     * Send under a rate-limit reservation from tryAcquire, handing it back if nothing was sent
+     */
+    private SmsResult sendReserved(Customer customer, String message,
+                                   SmsRateLimitService.SmsRateLimitResult reservation) {
+        SmsResult sendResult;
+        try {
+            sendResult = sendSms(customer.getPhone(), message);
+        } catch (RuntimeException e) {
+            rateLimitService.releaseSmsReservation(customer.getBusiness(), customer.getPhone(), reservation);
+            throw e;
+        }
+        if (!sendResult.isSuccess()) {
+            rateLimitService.releaseSmsReservation(customer.getBusiness(), customer.getPhone(), reservation);
+        }
+        return sendResult;
+    }
+
     /**
      * COMPLIANCE: Send test SMS (admin/testing only)
      */
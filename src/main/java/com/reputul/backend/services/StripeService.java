@@ -22,7 +22,6 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for handling all Stripe integration functionality including:
@@ -71,10 +70,6 @@ public class StripeService {
 
     private Set<String> validPromoCodes;
 
-    // Simple in-memory event tracking for idempotency (production should use Redis/DB)
-    private final Map<String, Long> processedEvents = new ConcurrentHashMap<>();
-    private static final long EVENT_EXPIRY_MS = 24 * 60 * 60 * 1000; // 24 hours
-
     public StripeService(SubscriptionRepository subscriptionRepository,
                          BusinessRepository businessRepository,
                          UserRepository userRepository) {
@@ -564,31 +559,6 @@ public class StripeService {
         return Webhook.constructEvent(payload, sigHeader, webhookSecret);
     }
 
-    /**
-     * Check if event has already been processed (basic idempotency)
-     */
-    public boolean isEventProcessed(String eventId) {
-        // Clean up expired events
-        cleanupExpiredEvents();
-
-        return processedEvents.containsKey(eventId);
-    }
-
-    /**
-     * Mark event as processed
-     */
-    public void markEventAsProcessed(String eventId) {
-        processedEvents.put(eventId, System.currentTimeMillis());
-    }
-
-    /**
-     * Clean up expired event tracking entries
-     */
-    private void cleanupExpiredEvents() {
-        long cutoff = System.currentTimeMillis() - EVENT_EXPIRY_MS;
-        processedEvents.entrySet().removeIf(entry -> entry.getValue() < cutoff);
-    }
-
     /**
      * Get subscription details for frontend
      */
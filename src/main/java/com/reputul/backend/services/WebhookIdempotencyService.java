@@ -0,0 +1,166 @@
+package com.reputul.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reputul.backend.repositories.WebhookIdempotencyRepository;
+import com.reputul.backend.repositories.WebhookIdempotencyRepository.Entry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Idempotency for inbound webhooks, shared by every node.
+ *
+ * A delivery claims its key before processing and completes it with the response it
+ * produced. Later deliveries of the same key get that response back without processing
+ * again. While the first delivery is still running they are told it's in progress.
+ *
+ * Completed keys are kept in a Caffeine near-cache, so repeats answered on the same node
+ * don't touch the database. Everything else is a primary-key insert or lookup on
+ * webhook_idempotency_keys. Expired keys are deleted in small batches on a schedule instead
+ * of on the request path.
+ *
+ * Used by: WebhookController (Stripe), ZapierWebhookService
+ */
+@Service
+@Slf4j
+public class WebhookIdempotencyService {
+
+    public enum State {
+        /** The caller holds the key and must complete or release it */
+        ACQUIRED,
+        /** Another delivery holds the key and is still processing */
+        IN_PROGRESS,
+        /** Already processed; the stored response is attached */
+        COMPLETED
+    }
+
+    public record Claim(String scope, String key, State state, String token, OffsetDateTime expiresAt,
+                        Integer responseStatus, String responseBody) {
+
+        public boolean isAcquired() {
+            return state == State.ACQUIRED;
+        }
+    }
+
+    private record CacheKey(String scope, String key) {
+    }
+
+    private record Completed(Integer responseStatus, String responseBody, OffsetDateTime expiresAt) {
+    }
+
+    private final WebhookIdempotencyRepository repository;
+    private final Clock clock;
+    private final Duration lease;
+    private final int cleanupBatchSize;
+    private final int cleanupMaxBatches;
+    private final Cache<CacheKey, Completed> completed;
+
+    public WebhookIdempotencyService(WebhookIdempotencyRepository repository,
+                                     Clock clock,
+                                     @Value("${app.webhooks.idempotency.lease:2m}") Duration lease,
+                                     @Value("${app.webhooks.idempotency.near-cache.max-size:10000}") long nearCacheMaxSize,
+                                     @Value("${app.webhooks.idempotency.near-cache.ttl:10m}") Duration nearCacheTtl,
+                                     @Value("${app.webhooks.idempotency.cleanup.batch-size:500}") int cleanupBatchSize,
+                                     @Value("${app.webhooks.idempotency.cleanup.max-batches:20}") int cleanupMaxBatches) {
+        this.repository = repository;
+        this.clock = clock;
+        this.lease = lease;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.cleanupMaxBatches = cleanupMaxBatches;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaxSize)
+                .expireAfterWrite(nearCacheTtl)
+                .build();
+    }
+
+    /**
+     * Claim key within scope for ttl, or find out what happened to it
+     */
+    public Claim claim(String scope, String key, Long organizationId, Duration ttl) {
+        CacheKey cacheKey = new CacheKey(scope, key);
+        OffsetDateTime now = OffsetDateTime.now(clock);
+
+        Completed cached = completed.getIfPresent(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return new Claim(scope, key, State.COMPLETED, null, cached.expiresAt(),
+                    cached.responseStatus(), cached.responseBody());
+        }
+
+        // A second try covers a key deleted by cleanup between the insert and the lookup
+        for (int attempt = 0; attempt < 2; attempt++) {
+            String token = UUID.randomUUID().toString();
+            OffsetDateTime expiresAt = now.plus(ttl);
+            if (repository.claim(scope, key, organizationId, token, now, now.plus(lease), expiresAt)) {
+                return new Claim(scope, key, State.ACQUIRED, token, expiresAt, null, null);
+            }
+
+            Optional<Entry> entry = repository.find(scope, key);
+            if (entry.isEmpty()) {
+                continue;
+            }
+            Entry stored = entry.get();
+            if ("COMPLETED".equals(stored.status())) {
+                completed.put(cacheKey, new Completed(stored.responseStatus(), stored.responseBody(), stored.expiresAt()));
+                return new Claim(scope, key, State.COMPLETED, null, stored.expiresAt(),
+                        stored.responseStatus(), stored.responseBody());
+            }
+            return new Claim(scope, key, State.IN_PROGRESS, null, stored.expiresAt(), null, null);
+        }
+        return new Claim(scope, key, State.IN_PROGRESS, null, null, null, null);
+    }
+
+    /**
+     * Store the response for an acquired claim so repeats get it back
+     */
+    public void complete(Claim claim, Integer responseStatus, String responseBody) {
+        if (!claim.isAcquired()) {
+            return;
+        }
+        if (repository.complete(claim.scope(), claim.key(), claim.token(), responseStatus, responseBody)) {
+            completed.put(new CacheKey(claim.scope(), claim.key()),
+                    new Completed(responseStatus, responseBody, claim.expiresAt()));
+        } else {
+            log.warn("Idempotency claim on {}/{} lapsed before completion", claim.scope(), claim.key());
+        }
+    }
+
+    /**
+     * Give up an acquired claim after a failure so the next delivery processes again
+     */
+    public void release(Claim claim) {
+        if (claim.isAcquired()) {
+            repository.release(claim.scope(), claim.key(), claim.token());
+        }
+    }
+
+    /**
+     * Delete expired keys a batch at a time, up to max-batches per run, so no run holds
+     * locks on more than one batch or takes long
+     */
+    @Scheduled(fixedDelayString = "${app.webhooks.idempotency.cleanup.interval-ms:60000}")
+    public void purgeExpired() {
+        try {
+            int total = 0;
+            for (int batch = 0; batch < cleanupMaxBatches; batch++) {
+                int deleted = repository.deleteExpired(OffsetDateTime.now(clock), cleanupBatchSize);
+                total += deleted;
+                if (deleted < cleanupBatchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.debug("Deleted {} expired webhook idempotency keys", total);
+            }
+        } catch (Exception e) {
+            log.error("Error purging webhook idempotency keys: {}", e.getMessage(), e);
+        }
+    }
+}
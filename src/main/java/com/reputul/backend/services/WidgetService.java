@@ -1,15 +1,28 @@
 package com.reputul.backend.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reputul.backend.config.CacheConfig;
 import com.reputul.backend.dto.WidgetDtos.*;
+import com.reputul.backend.events.ReputationChangedEvent;
 import com.reputul.backend.models.*;
 import com.reputul.backend.models.WidgetConfiguration.WidgetType;
 import com.reputul.backend.repositories.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -36,6 +49,10 @@ public class WidgetService {
     private final ReviewRepository reviewRepository;
     private final ReputationService reputationService;
     private final BadgeService badgeService;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final WidgetTrackingBuffer trackingBuffer;
 
     @Value("${app.widget.cdn-base-url:https://cdn.reputul.com/widgets/v1}")
     private String cdnBaseUrl;
@@ -99,6 +116,7 @@ public class WidgetService {
 
         // Apply updates
         applyConfigFromDto(widget, dto);
+        evictWidget(widget.getWidgetKey());
 
         // Update name if provided
         if (dto.getName() != null) {
@@ -168,6 +186,7 @@ public class WidgetService {
                 .orElseThrow(() -> new RuntimeException("Widget not found or access denied"));
 
         widgetRepository.delete(widget);
+        evictWidget(widget.getWidgetKey());
         log.info("Deleted widget {} by user {}", widgetId, user.getEmail());
     }
 
@@ -182,6 +201,7 @@ public class WidgetService {
 
         widget.setIsActive(!widget.getIsActive());
         WidgetConfiguration saved = widgetRepository.save(widget);
+        evictWidget(saved.getWidgetKey());
 
         log.info("Toggled widget {} status to {}", widgetId, saved.getIsActive());
         return WidgetResponseDto.fromEntity(saved);
@@ -195,19 +215,57 @@ public class WidgetService {
      * Get widget data for public embed
      * This is called by the embed scripts to render widgets
      */
-    @Transactional(readOnly = true)
     public WidgetDataDto getPublicWidgetData(String widgetKey, String requestDomain) {
-        log.debug("Fetching public widget data for key: {}", widgetKey);
+        return getPublicWidgetPayload(widgetKey, requestDomain).data();
+    }
 
-        WidgetConfiguration widget = widgetRepository.findByWidgetKeyAndIsActiveTrue(widgetKey)
-                .orElseThrow(() -> new RuntimeException("Widget not found or inactive"));
+    /**
+     * Get the cached public payload (data plus validators for conditional requests).
+     * Payloads are built once per widget key and evicted on review, reputation or
+     * widget configuration changes; domain checks still run on every request.
+     */
+    public PublicWidgetPayload getPublicWidgetPayload(String widgetKey, String requestDomain) {
+        Cache cache = cacheManager.getCache(CacheConfig.WIDGET_DATA_CACHE);
+
+        PublicWidgetPayload payload;
+        try {
+            payload = cache != null
+                    ? cache.get(widgetKey, () -> loadPublicWidgetPayload(widgetKey))
+                    : loadPublicWidgetPayload(widgetKey);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
 
         // Validate domain if restrictions are set
-        if (requestDomain != null && !widget.isDomainAllowed(requestDomain)) {
+        if (requestDomain != null && !WidgetConfiguration.isDomainAllowed(payload.allowedDomains(), requestDomain)) {
             log.warn("Domain {} not allowed for widget {}", requestDomain, widgetKey);
             throw new RuntimeException("Domain not allowed");
         }
 
+        return payload;
+    }
+
+    /**
+     * Cache miss path - only misses open a read-only transaction
+     */
+    private PublicWidgetPayload loadPublicWidgetPayload(String widgetKey) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> buildPublicWidgetPayload(widgetKey));
+    }
+
+    /**
+     * Build the full public payload for a widget
+     */
+    private PublicWidgetPayload buildPublicWidgetPayload(String widgetKey) {
+        log.debug("Building public widget data for key: {}", widgetKey);
+
+        WidgetConfiguration widget = widgetRepository.findByWidgetKeyAndIsActiveTrue(widgetKey)
+                .orElseThrow(() -> new RuntimeException("Widget not found or inactive"));
+
         Business business = widget.getBusiness();
         if (business == null) {
             throw new RuntimeException("Associated business not found");
@@ -219,15 +277,10 @@ public class WidgetService {
         String badge = badgeService.determineEnhancedBadge(rating, (int) totalReviews);
         String badgeColor = badgeService.getBadgeColor(badge);
 
-        // Get reviews filtered by min rating and max count
+        // Get the newest reviews at or above the minimum rating, limited in the query
         List<Review> reviews = reviewRepository.findByBusinessIdAndRatingGreaterThanEqual(
-                business.getId(), widget.getMinRating());
-
-        // Sort by date desc and limit
-        reviews = reviews.stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(widget.getMaxReviews())
-                .collect(Collectors.toList());
+                business.getId(), widget.getMinRating(),
+                PageRequest.of(0, widget.getMaxReviews(), Sort.by(Sort.Direction.DESC, "createdAt")));
 
         // Convert to widget review DTOs
         List<WidgetReviewDto> widgetReviews = reviews.stream()
@@ -237,7 +290,7 @@ public class WidgetService {
         // Build style configuration
         WidgetStyleDto style = buildStyleDto(widget);
 
-        return WidgetDataDto.builder()
+        WidgetDataDto data = WidgetDataDto.builder()
                 .widgetKey(widgetKey)
                 .widgetType(widget.getWidgetType().name())
                 .businessName(widget.getShowBusinessName() ? business.getName() : null)
@@ -250,26 +303,92 @@ public class WidgetService {
                 .badgeColor(badgeColor)
                 .reviews(widgetReviews)
                 .style(style)
-                .dataUpdatedAt(OffsetDateTime.now(ZoneOffset.UTC))
                 .build();
+
+        // Hash the content before stamping the build time so unchanged rebuilds keep their ETag
+        String contentHash = hashPayload(data);
+        OffsetDateTime builtAt = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+        data.setDataUpdatedAt(builtAt);
+
+        return new PublicWidgetPayload(data, widget.getAllowedDomains(), contentHash, builtAt);
     }
 
     /**
-     * Track widget impression (async update)
+     * Evict cached payloads for every widget of a business once the
+     * triggering transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReputationChanged(ReputationChangedEvent event) {
+        evictWidgetsForBusiness(event.businessId());
+    }
+
+    public void evictWidgetsForBusiness(Long businessId) {
+        Cache cache = cacheManager.getCache(CacheConfig.WIDGET_DATA_CACHE);
+        if (cache == null || businessId == null) {
+            return;
+        }
+        for (String widgetKey : widgetRepository.findWidgetKeysByBusinessId(businessId)) {
+            cache.evict(widgetKey);
+        }
+        log.debug("Evicted cached widget data for business {}", businessId);
+    }
+
+    /**
+     * Evict a widget's cached payload once the surrounding transaction has committed, so a
+     * concurrent public request can't cache the old configuration again in between
+     */
+    private void evictWidget(String widgetKey) {
+        Cache cache = cacheManager.getCache(CacheConfig.WIDGET_DATA_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(widgetKey);
+                }
+            });
+        } else {
+            cache.evict(widgetKey);
+        }
+    }
+
+    private String hashPayload(WidgetDataDto data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(objectMapper.writeValueAsBytes(data));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (Exception e) {
+            // Fall back to a unique value - clients simply won't get 304s for this entry
+            log.warn("Failed to hash widget payload for {}: {}", data.getWidgetKey(), e.getMessage());
+            return UUID.randomUUID().toString().replace("-", "");
+        }
+    }
+
+    /**
+     * Cached public widget response plus the validators used for conditional GETs
+     */
+    public record PublicWidgetPayload(
+            WidgetDataDto data,
+            String allowedDomains,
+            String contentHash,
+            OffsetDateTime lastModified
+    ) {
+    }
+
+    /**
+     * Track widget impression (buffered, flushed to the database in batches)
      */
-    @Transactional
     public void trackImpression(String widgetKey) {
-        widgetRepository.incrementImpressions(widgetKey);
-        log.debug("Recorded impression for widget: {}", widgetKey);
+        trackingBuffer.recordImpression(widgetKey);
     }
 
     /**
-     * Track widget click (async update)
+     * Track widget click (buffered, flushed to the database in batches)
      */
-    @Transactional
     public void trackClick(String widgetKey) {
-        widgetRepository.incrementClicks(widgetKey);
-        log.debug("Recorded click for widget: {}", widgetKey);
+        trackingBuffer.recordClick(widgetKey);
     }
 
     // ================================================================
@@ -0,0 +1,276 @@
+package com.reputul.backend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Widget Tracking Buffer
+ *
+ * Coalesces widget impression/click events in memory (one LongAdder pair per widget key)
+ * and writes them to widget_configurations in batched UPDATEs, instead of one row-locking
+ * UPDATE per event. Flushes run on a fixed interval, early when the number of buffered
+ * events crosses a threshold, and once more on shutdown.
+ *
+ * Each flush removes the widget keys it drains, so max-keys bounds the distinct widgets
+ * seen between two flushes rather than since startup. An event that races with the
+ * removal of its key is carried over to a fresh entry instead of being lost.
+ */
+@Service
+@Slf4j
+public class WidgetTrackingBuffer {
+
+    private static final String FLUSH_SQL =
+            "UPDATE widget_configurations SET " +
+            "total_impressions = COALESCE(total_impressions, 0) + ?, " +
+            "total_clicks = COALESCE(total_clicks, 0) + ?, " +
+            "last_impression_at = CASE WHEN ? > 0 THEN CURRENT_TIMESTAMP ELSE last_impression_at END, " +
+            "last_click_at = CASE WHEN ? > 0 THEN CURRENT_TIMESTAMP ELSE last_click_at END " +
+            "WHERE widget_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, PendingCounts> pending = new ConcurrentHashMap<>();
+    private final LongAdder bufferedEvents = new LongAdder();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean(false);
+    private final ExecutorService earlyFlushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "widget-tracking-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter flushedImpressions;
+    private final Counter flushedClicks;
+    private final Counter droppedOverflow;
+    private final Counter droppedUnknownWidget;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+
+    @Value("${app.widget.tracking.flush-threshold:1000}")
+    private long flushThreshold;
+
+    @Value("${app.widget.tracking.max-keys:50000}")
+    private int maxKeys;
+
+    @Value("${app.widget.tracking.batch-size:500}")
+    private int batchSize;
+
+    public WidgetTrackingBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        Gauge.builder("widget.tracking.buffered", bufferedEvents, LongAdder::sum)
+                .description("Widget events waiting to be flushed")
+                .register(meterRegistry);
+        Gauge.builder("widget.tracking.buffered.keys", pending, Map::size)
+                .description("Widget keys with buffered counters")
+                .register(meterRegistry);
+
+        this.flushedImpressions = Counter.builder("widget.tracking.flushed")
+                .description("Widget events written to the database")
+                .tag("type", "impression")
+                .register(meterRegistry);
+        this.flushedClicks = Counter.builder("widget.tracking.flushed")
+                .description("Widget events written to the database")
+                .tag("type", "click")
+                .register(meterRegistry);
+        this.droppedOverflow = Counter.builder("widget.tracking.dropped")
+                .description("Widget events discarded")
+                .tag("reason", "buffer_full")
+                .register(meterRegistry);
+        this.droppedUnknownWidget = Counter.builder("widget.tracking.dropped")
+                .description("Widget events discarded")
+                .tag("reason", "unknown_widget")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("widget.tracking.flush.failures")
+                .description("Flushes that failed and were re-buffered")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("widget.tracking.flush")
+                .description("Time spent writing buffered widget events")
+                .register(meterRegistry);
+    }
+
+    public void recordImpression(String widgetKey) {
+        record(widgetKey, 1, 0);
+    }
+
+    public void recordClick(String widgetKey) {
+        record(widgetKey, 0, 1);
+    }
+
+    private void record(String widgetKey, long impressions, long clicks) {
+        if (widgetKey == null || widgetKey.isBlank() || !add(widgetKey, impressions, clicks)) {
+            return;
+        }
+
+        if (bufferedEvents.sum() >= flushThreshold && earlyFlushRequested.compareAndSet(false, true)) {
+            earlyFlushExecutor.execute(() -> {
+                earlyFlushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    private boolean add(String widgetKey, long impressions, long clicks) {
+        PendingCounts counts = pending.get(widgetKey);
+        if (counts == null) {
+            // Bound memory against floods of random keys
+            if (pending.size() >= maxKeys) {
+                droppedOverflow.increment(impressions + clicks);
+                return false;
+            }
+            counts = pending.computeIfAbsent(widgetKey, key -> new PendingCounts());
+        }
+
+        counts.impressions.add(impressions);
+        counts.clicks.add(clicks);
+        bufferedEvents.add(impressions + clicks);
+
+        // A flush removed this entry meanwhile and may have drained it before our add
+        if (counts.retired) {
+            carryOver(widgetKey, counts);
+        }
+        return true;
+    }
+
+    /**
+     * Move whatever is left in a removed entry to the live entry for its key
+     */
+    private void carryOver(String widgetKey, PendingCounts counts) {
+        long impressions = counts.impressions.sumThenReset();
+        long clicks = counts.clicks.sumThenReset();
+        if (impressions == 0 && clicks == 0) {
+            return;
+        }
+        bufferedEvents.add(-(impressions + clicks));
+        add(widgetKey, impressions, clicks);
+    }
+
+    /**
+     * Periodic flush of all buffered counters
+     */
+    @Scheduled(fixedDelayString = "${app.widget.tracking.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Write buffered counters to the database. Each entry is removed from the buffer
+     * before it is drained with sumThenReset, so events recorded during a flush land in a
+     * new entry and go out with the next one.
+     *
+     * @return number of events written
+     */
+    public long flush() {
+        flushLock.lock();
+        try {
+            return flushTimer.record(this::drainAndWrite);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private long drainAndWrite() {
+        List<Object[]> batch = new ArrayList<>();
+        long written = 0;
+
+        for (Map.Entry<String, PendingCounts> entry : pending.entrySet()) {
+            PendingCounts counts = entry.getValue();
+            if (!pending.remove(entry.getKey(), counts)) {
+                continue;
+            }
+            // Published before draining: a recorder that misses this flag added before the drain below
+            counts.retired = true;
+            long impressions = counts.impressions.sumThenReset();
+            long clicks = counts.clicks.sumThenReset();
+            if (impressions == 0 && clicks == 0) {
+                continue;
+            }
+            bufferedEvents.add(-(impressions + clicks));
+
+            batch.add(new Object[]{impressions, clicks, impressions, clicks, entry.getKey()});
+            if (batch.size() >= batchSize) {
+                written += writeBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += writeBatch(batch);
+        }
+
+        if (written > 0) {
+            log.debug("Flushed {} buffered widget events", written);
+        }
+        return written;
+    }
+
+    private long writeBatch(List<Object[]> batch) {
+        int[] updated;
+        try {
+            updated = jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (Exception e) {
+            // Put the counts back so the next flush retries them
+            flushFailures.increment();
+            log.warn("Failed to flush {} widget counters, will retry: {}", batch.size(), e.getMessage());
+            for (Object[] row : batch) {
+                add((String) row[4], (Long) row[0], (Long) row[1]);
+            }
+            return 0;
+        }
+
+        long written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            long impressions = (Long) batch.get(i)[0];
+            long clicks = (Long) batch.get(i)[1];
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            if (updated[i] == 0) {
+                // Deleted or never-existing widget; its entry is already gone from the buffer
+                droppedUnknownWidget.increment(impressions + clicks);
+                continue;
+            }
+            flushedImpressions.increment(impressions);
+            flushedClicks.increment(clicks);
+            written += impressions + clicks;
+        }
+        return written;
+    }
+
+    /**
+     * Drain everything still buffered before the datasource goes away
+     */
+    @PreDestroy
+    public void shutdown() {
+        earlyFlushExecutor.shutdown();
+        try {
+            earlyFlushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long written = flush();
+        log.info("Widget tracking buffer drained on shutdown ({} events written)", written);
+    }
+
+    private static final class PendingCounts {
+        private final LongAdder impressions = new LongAdder();
+        private final LongAdder clicks = new LongAdder();
+        private volatile boolean retired;
+    }
+}
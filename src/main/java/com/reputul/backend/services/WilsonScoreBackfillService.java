@@ -1,79 +1,310 @@
 package com.reputul.backend.services;
 
-import com.reputul.backend.models.Business;
+import com.reputul.backend.config.InstanceId;
+import com.reputul.backend.repositories.BackfillCheckpointRepository;
+import com.reputul.backend.repositories.BackfillCheckpointRepository.Checkpoint;
 import com.reputul.backend.repositories.BusinessRepository;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Profile;
-import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * One-time migration to backfill Wilson Score metrics for existing businesses
+ * Background backfill of Wilson score metrics and badges for every business.
  *
- * To run this migration:
- * 1. Add @Component annotation (uncomment it)
- * 2. Restart your application
- * 3. The migration will run once and update all businesses
- * 4. Remove or comment out @Component to prevent re-running
+ * Runs off the startup path: started after boot when app.reputation.backfill.run-on-startup
+ * is set (there is no HTTP trigger - this tree has no platform-admin role to guard one).
+ * A completed run is not repeated; delete its backfill_checkpoints row to run it again.
+ * Businesses are read in id-ordered
+ * keyset pages; each page is processed in parallel on reputationBackfillExecutor
+ * (concurrency) while a token bucket caps businesses started per second (the DB-load
+ * budget). After every page the last id is checkpointed in backfill_checkpoints, so an
+ * interrupted run continues from there - on shutdown the claim is released for the next
+ * node, and a claim left by a crashed node is taken over once its lease expires.
+ *
+ * Progress and ETA: the reputationbackfill actuator endpoint.
  */
- @Component  // Uncomment this line to run the migration
-@Profile("!test") // Don't run in test environment
+@Service
 @Slf4j
-public class WilsonScoreBackfillService implements CommandLineRunner {
+public class WilsonScoreBackfillService {
+
+    public static final String JOB_NAME = "wilson_score_backfill";
 
     private final BusinessRepository businessRepository;
     private final ReputationService reputationService;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final ThreadPoolTaskExecutor backfillExecutor;
+    private final Clock clock;
+    private final String instanceId;
+
+    private final boolean runOnStartup;
+    private final int pageSize;
+    private final Duration lease;
+    private final Bucket loadBudget;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean stopRequested;
+    private volatile boolean shuttingDown;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reputation-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // This node's current run, for the rate and ETA
+    private final AtomicLong runProcessed = new AtomicLong();
+    private volatile long runStartedNanos;
 
     public WilsonScoreBackfillService(BusinessRepository businessRepository,
-                                      ReputationService reputationService) {
+                                      ReputationService reputationService,
+                                      BackfillCheckpointRepository checkpointRepository,
+                                      @Qualifier("reputationBackfillExecutor") ThreadPoolTaskExecutor backfillExecutor,
+                                      Clock clock,
+                                      InstanceId instanceId,
+                                      @Value("${app.reputation.backfill.run-on-startup:false}") boolean runOnStartup,
+                                      @Value("${app.reputation.backfill.page-size:100}") int pageSize,
+                                      @Value("${app.reputation.backfill.businesses-per-second:20}") int businessesPerSecond,
+                                      @Value("${app.reputation.backfill.lease:5m}") Duration lease) {
         this.businessRepository = businessRepository;
         this.reputationService = reputationService;
+        this.checkpointRepository = checkpointRepository;
+        this.backfillExecutor = backfillExecutor;
+        this.clock = clock;
+        this.instanceId = instanceId.value();
+        this.runOnStartup = runOnStartup;
+        this.pageSize = Math.max(1, pageSize);
+        this.lease = lease;
+        int perSecond = Math.max(1, businessesPerSecond);
+        this.loadBudget = Bucket.builder()
+                .addLimit(Bandwidth.classic(perSecond, Refill.greedy(perSecond, Duration.ofSeconds(1))))
+                .build();
     }
 
-    @Override
-    public void run(String... args) throws Exception {
-        log.info("🚀 Starting Wilson Score backfill migration for existing businesses...");
+    /**
+     * Progress of the backfill as recorded in its checkpoint. businessesPerSecond and
+     * etaSeconds are only known on the node running it.
+     */
+    public record BackfillStatus(
+            String status,
+            boolean runningOnThisNode,
+            String claimedBy,
+            long lastBusinessId,
+            long processed,
+            long failed,
+            Long total,
+            Double percentComplete,
+            Double businessesPerSecond,
+            Long etaSeconds,
+            OffsetDateTime startedAt,
+            OffsetDateTime updatedAt,
+            OffsetDateTime finishedAt
+    ) {
+    }
 
-        List<Business> allBusinesses = businessRepository.findAll();
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnBoot() {
+        if (!runOnStartup) {
+            return;
+        }
+        boolean completed = checkpointRepository.find(JOB_NAME)
+                .map(checkpoint -> "COMPLETED".equals(checkpoint.status()))
+                .orElse(false);
+        if (!completed) {
+            start(false);
+        }
+    }
 
-        if (allBusinesses.isEmpty()) {
-            log.info("No businesses found to migrate.");
+    /**
+     * Pick up a run that was interrupted (shutdown, crash) once nobody holds its claim
+     */
+    @Scheduled(fixedDelayString = "${app.reputation.backfill.resume-check-interval-ms:60000}",
+            initialDelayString = "${app.reputation.backfill.resume-check-interval-ms:60000}")
+    public void resumeInterrupted() {
+        if (running.get()) {
             return;
         }
+        checkpointRepository.find(JOB_NAME)
+                .filter(checkpoint -> "RUNNING".equals(checkpoint.status()))
+                .filter(checkpoint -> checkpoint.claimedBy() == null ||
+                        checkpoint.leaseExpiresAt() == null ||
+                        checkpoint.leaseExpiresAt().isBefore(OffsetDateTime.now(clock)))
+                .ifPresent(checkpoint -> {
+                    log.info("Resuming reputation backfill after business {}", checkpoint.lastId());
+                    start(false);
+                });
+    }
 
-        log.info("Found {} businesses to migrate", allBusinesses.size());
+    /**
+     * Start the backfill in the background, continuing from the checkpoint
+     *
+     * @param restart begin again from the first business
+     * @return false if it is already running on this node
+     */
+    public boolean start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        stopRequested = false;
+        coordinator.execute(() -> {
+            try {
+                run(restart);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
 
-        int successCount = 0;
-        int errorCount = 0;
+    /**
+     * Pause after the current page; start() continues from the checkpoint
+     */
+    public void stop() {
+        stopRequested = true;
+    }
 
-        for (Business business : allBusinesses) {
-            try {
-                log.info("Migrating business: {} (ID: {})", business.getName(), business.getId());
+    public boolean isRunning() {
+        return running.get();
+    }
 
-                // Calculate and update all Wilson Score metrics
-                reputationService.updateBusinessReputationAndBadge(business.getId());
+    void run(boolean restart) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        if (!checkpointRepository.claim(JOB_NAME, instanceId, restart, now, now.plus(lease))) {
+            log.info("Reputation backfill is being run by another node");
+            return;
+        }
+
+        Checkpoint checkpoint = checkpointRepository.find(JOB_NAME).orElseThrow();
+        long lastId = checkpoint.lastId();
+        long total = checkpoint.processed() + checkpoint.failed() + businessRepository.countByIdGreaterThan(lastId);
+        runProcessed.set(0);
+        runStartedNanos = System.nanoTime();
+        log.info("🚀 Reputation backfill started after business {} ({} of {} done)",
+                lastId, checkpoint.processed() + checkpoint.failed(), total);
+
+        String finalStatus = "PAUSED";
+        try {
+            while (!stopRequested && !shuttingDown) {
+                List<Long> ids = businessRepository.findIdsAfter(lastId, PageRequest.of(0, pageSize));
+                if (ids.isEmpty()) {
+                    finalStatus = "COMPLETED";
+                    break;
+                }
+
+                long[] results = processPage(ids);
+                lastId = ids.get(ids.size() - 1);
+                runProcessed.addAndGet(ids.size());
+
+                now = OffsetDateTime.now(clock);
+                if (!checkpointRepository.checkpoint(JOB_NAME, instanceId, lastId, results[0], results[1],
+                        total, now, now.plus(lease))) {
+                    log.warn("Reputation backfill claim was taken over by another node, stopping");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Reputation backfill failed after business {}: {}", lastId, e.getMessage(), e);
+            finalStatus = "FAILED";
+        }
+
+        if (shuttingDown && "PAUSED".equals(finalStatus)) {
+            // Not paused by anyone: leave it RUNNING so it resumes from the checkpoint
+            finalStatus = "RUNNING";
+        }
+        now = OffsetDateTime.now(clock);
+        checkpointRepository.release(JOB_NAME, instanceId, finalStatus,
+                "COMPLETED".equals(finalStatus) ? now : null, now);
+        log.info("Reputation backfill {} after business {}", finalStatus.toLowerCase(), lastId);
+    }
 
-                successCount++;
-                log.info("✅ Successfully migrated business: {}", business.getName());
+    /**
+     * Update every business of a page, at most concurrency at once and within the load budget
+     *
+     * @return {succeeded, failed}
+     */
+    private long[] processPage(List<Long> ids) throws InterruptedException {
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<CompletableFuture<Void>> updates = new ArrayList<>(ids.size());
 
-                // Small delay to avoid overwhelming the database
-                Thread.sleep(100);
+        for (Long businessId : ids) {
+            loadBudget.asBlocking().consume(1);
+            updates.add(CompletableFuture.runAsync(() -> {
+                try {
+                    reputationService.updateBusinessReputationAndBadge(businessId);
+                    succeeded.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.error("❌ Failed to backfill reputation for business {}: {}", businessId, e.getMessage());
+                }
+            }, backfillExecutor));
+        }
+
+        CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new)).join();
+        return new long[]{succeeded.get(), failed.get()};
+    }
 
-            } catch (Exception e) {
-                errorCount++;
-                log.error("❌ Failed to migrate business: {} (ID: {}). Error: {}",
-                        business.getName(), business.getId(), e.getMessage());
+    public BackfillStatus getStatus() {
+        Checkpoint checkpoint = checkpointRepository.find(JOB_NAME).orElse(null);
+        if (checkpoint == null) {
+            return new BackfillStatus("NOT_STARTED", false, null, 0, 0, 0, null,
+                    null, null, null, null, null, null);
+        }
+
+        long done = checkpoint.processed() + checkpoint.failed();
+        Double percent = checkpoint.total() != null && checkpoint.total() > 0
+                ? Math.min(100.0, done * 100.0 / checkpoint.total())
+                : null;
+
+        Double rate = null;
+        Long eta = null;
+        if (running.get() && runProcessed.get() > 0) {
+            double elapsedSeconds = (System.nanoTime() - runStartedNanos) / 1e9;
+            rate = runProcessed.get() / elapsedSeconds;
+            if (checkpoint.total() != null) {
+                eta = (long) Math.ceil(Math.max(0, checkpoint.total() - done) / rate);
             }
         }
 
-        log.info("🎉 Wilson Score migration completed!");
-        log.info("✅ Successfully migrated: {} businesses", successCount);
-        log.info("❌ Failed migrations: {} businesses", errorCount);
+        return new BackfillStatus(checkpoint.status(), running.get(), checkpoint.claimedBy(),
+                checkpoint.lastId(), checkpoint.processed(), checkpoint.failed(), checkpoint.total(),
+                percent, rate, eta, checkpoint.startedAt(), checkpoint.updatedAt(), checkpoint.finishedAt());
+    }
 
-        if (errorCount > 0) {
-            log.warn("⚠️  Some businesses failed to migrate. Check logs above for details.");
+    /**
+     * Stop at the next page boundary or budget wait; the run stays RUNNING and is
+     * resumed by whichever node checks first
+     */
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        coordinator.shutdownNow();
+        try {
+            coordinator.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+}
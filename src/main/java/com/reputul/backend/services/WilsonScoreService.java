@@ -1,14 +1,10 @@
 package com.reputul.backend.services;
 
-import com.reputul.backend.models.Review;
-import com.reputul.backend.repositories.ReviewRepository;
+import com.reputul.backend.models.RecencyDecayAccumulator;
+import com.reputul.backend.models.ReputationAggregate;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
-import java.time.OffsetDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
-
 /**
  * Wilson Score Calculator - The core of our enhanced reputation system
  * This prevents small-sample bias that makes 3 perfect reviews beat 200 reviews at 4.7★
@@ -17,15 +13,13 @@ import java.util.List;
 @Slf4j
 public class WilsonScoreService {
 
-    private final ReviewRepository reviewRepo;
+    private final ReputationAggregateService aggregateService;
 
     // Wilson confidence interval at 95% confidence
     private static final double WILSON_CONFIDENCE = 1.96;
-    // Recency weight: ~180 day half-life (ln(2)/180)
-    private static final double RECENCY_LAMBDA = 0.00385;
 
-    public WilsonScoreService(ReviewRepository reviewRepo) {
-        this.reviewRepo = reviewRepo;
+    public WilsonScoreService(ReputationAggregateService aggregateService) {
+        this.aggregateService = aggregateService;
     }
 
     /**
@@ -33,36 +27,19 @@ public class WilsonScoreService {
      * This is the NEW public rating that prevents small-sample bias
      */
     public double calculateWilsonScoreRating(Long businessId) {
-        List<Review> reviews = reviewRepo.findByBusinessId(businessId);
+        ReputationAggregate aggregate = aggregateService.getAggregate(businessId);
 
-        if (reviews.isEmpty()) {
+        if (aggregate.getReviewCount() <= 0) {
             return 0.0;
         }
 
-        log.info("Calculating Wilson Score for business {} with {} reviews", businessId, reviews.size());
-
-        OffsetDateTime now = OffsetDateTime.now();
-        double totalWeightedReviews = 0.0;
-        double totalWeightedPositive = 0.0;
-
-        // Apply recency weighting to each review
-        for (Review review : reviews) {
-            // Calculate how old this review is
-            long ageDays = ChronoUnit.DAYS.between(review.getCreatedAt(), now);
-
-            // Apply exponential decay: recent reviews count more
-            double recencyWeight = Math.exp(-RECENCY_LAMBDA * ageDays);
-
-            totalWeightedReviews += recencyWeight;
-
-            // Count 4-5 star reviews as "positive"
-            if (review.getRating() >= 4) {
-                totalWeightedPositive += recencyWeight;
-            }
+        log.info("Calculating Wilson Score for business {} with {} reviews", businessId, aggregate.getReviewCount());
 
-            log.debug("Review age: {} days, weight: {:.3f}, rating: {}",
-                    ageDays, recencyWeight, review.getRating());
-        }
+        // Recency-weighted totals: decayed sums advanced to today in constant time
+        long today = RecencyDecayAccumulator.today();
+        RecencyDecayAccumulator decay = aggregate.getDecay();
+        double totalWeightedReviews = decay.weightSumAt(today);
+        double totalWeightedPositive = decay.positiveSumAt(today);
 
         if (totalWeightedReviews == 0) {
             return 0.0;
@@ -119,25 +96,24 @@ public class WilsonScoreService {
      * Use this to see the difference Wilson Score makes with your real data
      */
     public ComparisonResult compareRatings(Long businessId) {
-        List<Review> reviews = reviewRepo.findByBusinessId(businessId);
+        ReputationAggregate aggregate = aggregateService.getAggregate(businessId);
 
-        if (reviews.isEmpty()) {
+        if (aggregate.getReviewCount() <= 0) {
             return new ComparisonResult(0.0, 0.0, 0, "No reviews");
         }
 
+        int reviewCount = Math.toIntExact(aggregate.getReviewCount());
+
         // OLD method: Simple average
-        double oldRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        double oldRating = (double) aggregate.getRatingSum() / reviewCount;
 
         // NEW method: Wilson Score
         double newRating = calculateWilsonScoreRating(businessId);
 
         // Analysis
-        String analysis = analyzeRatingDifference(oldRating, newRating, reviews.size());
+        String analysis = analyzeRatingDifference(oldRating, newRating, reviewCount);
 
-        return new ComparisonResult(oldRating, newRating, reviews.size(), analysis);
+        return new ComparisonResult(oldRating, newRating, reviewCount, analysis);
     }
 
     private String analyzeRatingDifference(double oldRating, double newRating, int reviewCount) {
@@ -158,38 +134,27 @@ public class WilsonScoreService {
      * Get detailed breakdown for debugging/analysis
      */
     public DetailedResult getDetailedAnalysis(Long businessId) {
-        List<Review> reviews = reviewRepo.findByBusinessId(businessId);
+        ReputationAggregate aggregate = aggregateService.getAggregate(businessId);
 
-        if (reviews.isEmpty()) {
+        if (aggregate.getReviewCount() <= 0) {
             return new DetailedResult(businessId, 0, 0, 0, 0.0, 0.0, 0.0, 0.0);
         }
 
-        OffsetDateTime now = OffsetDateTime.now();
-        double totalWeightedReviews = 0.0;
-        double totalWeightedPositive = 0.0;
-        int positiveCount = 0;
-
-        for (Review review : reviews) {
-            long ageDays = ChronoUnit.DAYS.between(review.getCreatedAt(), now);
-            double recencyWeight = Math.exp(-RECENCY_LAMBDA * ageDays);
-
-            totalWeightedReviews += recencyWeight;
-
-            if (review.getRating() >= 4) {
-                totalWeightedPositive += recencyWeight;
-                positiveCount++;
-            }
-        }
+        long today = RecencyDecayAccumulator.today();
+        RecencyDecayAccumulator decay = aggregate.getDecay();
+        double totalWeightedReviews = decay.weightSumAt(today);
+        double totalWeightedPositive = decay.positiveSumAt(today);
+        int reviewCount = Math.toIntExact(aggregate.getReviewCount());
 
-        double oldAverage = reviews.stream().mapToInt(Review::getRating).average().orElse(0.0);
+        double oldAverage = (double) aggregate.getRatingSum() / reviewCount;
         double positiveRate = totalWeightedReviews > 0 ? totalWeightedPositive / totalWeightedReviews : 0.0;
         double wilsonLowerBound = calculateWilsonLowerBound(positiveRate, totalWeightedReviews);
         double newRating = wilsonLowerBound * 5.0;
 
         return new DetailedResult(
                 businessId,
-                reviews.size(),
-                positiveCount,
+                reviewCount,
+                Math.toIntExact(aggregate.getPositiveCount()),
                 totalWeightedReviews,
                 oldAverage,
                 positiveRate,
@@ -20,10 +20,10 @@ import com.reputul.backend.services.SmsService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -89,10 +89,9 @@ public class CampaignExecutionService {
     }
 
     /**
-     * Execute a single campaign step
+     * Execute a single campaign step claimed by the given scheduler instance
      */
-    @Async
-    public void executeStep(Long stepExecutionId) {
+    public void executeStep(Long stepExecutionId, String claimOwner) {
         log.debug("Executing campaign step {}", stepExecutionId);
 
         CampaignStepExecution stepExecution = stepExecutionRepository.findById(stepExecutionId)
@@ -103,6 +102,12 @@ public class CampaignExecutionService {
             return;
         }
 
+        // The lease may have expired and been re-claimed by another instance
+        if (!claimOwner.equals(stepExecution.getClaimedBy())) {
+            log.warn("Step execution {} is now claimed by {}, skipping", stepExecutionId, stepExecution.getClaimedBy());
+            return;
+        }
+
         try {
             CampaignExecution execution = executionRepository.findById(stepExecution.getExecution().getId())
                     .orElseThrow(() -> new EntityNotFoundException("Campaign execution not found"));
@@ -204,6 +209,27 @@ public class CampaignExecutionService {
         return stepExecutionRepository.findDueSteps(StepStatus.PENDING, LocalDateTime.now());
     }
 
+    /**
+     * Claim up to batchSize due steps for one scheduler instance. Rows are locked with
+     * FOR UPDATE SKIP LOCKED and leased before commit, so concurrent instances never
+     * receive the same step while its lease is live.
+     */
+    public List<Long> claimDueSteps(String claimOwner, int batchSize, Duration leaseDuration) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> stepIds = stepExecutionRepository.lockDueStepIds(now, batchSize);
+        if (!stepIds.isEmpty()) {
+            stepExecutionRepository.leaseSteps(stepIds, claimOwner, now.plus(leaseDuration));
+        }
+        return stepIds;
+    }
+
+    /**
+     * Release a claimed step that was never started (e.g. executor saturated)
+     */
+    public void releaseClaim(Long stepExecutionId, String claimOwner) {
+        stepExecutionRepository.releaseLease(stepExecutionId, claimOwner, StepStatus.PENDING);
+    }
+
     /**
      * Get execution by ID
      */
@@ -1,65 +1,108 @@
 package com.reputul.backend.services.campaign;
 
-import com.reputul.backend.models.campaign.CampaignStepExecution;
-import lombok.RequiredArgsConstructor;
+import com.reputul.backend.config.InstanceId;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
+/**
+ * Claims due campaign steps and runs them on the dedicated campaign step executor.
+ *
+ * Steps are claimed in bounded batches with FOR UPDATE SKIP LOCKED and leased to this
+ * instance, so any number of app nodes can run the scheduler without double-sending.
+ * A step whose lease expires (node died mid-batch) becomes claimable again.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CampaignSchedulerService {
 
     private final CampaignExecutionService campaignExecutionService;
+    private final ThreadPoolTaskExecutor campaignStepExecutor;
+    private final String instanceId;
+
+    @Value("${app.campaign.claim.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.campaign.claim.lease-seconds:600}")
+    private long leaseSeconds;
+
+    public CampaignSchedulerService(CampaignExecutionService campaignExecutionService,
+                                    @Qualifier("campaignStepExecutor") ThreadPoolTaskExecutor campaignStepExecutor,
+                                    InstanceId instanceId) {
+        this.campaignExecutionService = campaignExecutionService;
+        this.campaignStepExecutor = campaignStepExecutor;
+        this.instanceId = instanceId.value();
+    }
 
     /**
-     * Process due campaign steps every minute
+     * Claim and dispatch due campaign steps every minute
      */
-    @Scheduled(fixedRate = 60000) // Every 1 minute
+    @Scheduled(fixedDelayString = "${app.campaign.claim.interval-ms:60000}")
     public void processDueSteps() {
         try {
-            List<CampaignStepExecution> dueSteps = campaignExecutionService.getDueSteps();
-
-            if (dueSteps.isEmpty()) {
-                log.debug("No due campaign steps to process");
-                return;
-            }
-
-            log.info("Processing {} due campaign steps", dueSteps.size());
-
-            // Process steps asynchronously to avoid blocking
-            List<CompletableFuture<Void>> futures = dueSteps.stream()
-                    .map(step -> CompletableFuture.runAsync(() -> {
-                        try {
-                            campaignExecutionService.executeStep(step.getId());
-                        } catch (Exception e) {
-                            log.error("Failed to execute campaign step {}: {}",
-                                    step.getId(), e.getMessage(), e);
-                        }
-                    }))
-                    .toList();
+            int dispatched = 0;
+            while (true) {
+                // Backpressure: never claim more than the executor can accept right now
+                int capacity = Math.min(batchSize, availableCapacity());
+                if (capacity <= 0) {
+                    log.debug("Campaign step executor saturated, deferring remaining due steps");
+                    break;
+                }
 
-            // Wait for all steps to complete (with timeout)
-            CompletableFuture<Void> allSteps = CompletableFuture.allOf(
-                    futures.toArray(new CompletableFuture[0]));
+                List<Long> claimed = campaignExecutionService.claimDueSteps(
+                        instanceId, capacity, Duration.ofSeconds(leaseSeconds));
+                for (Long stepId : claimed) {
+                    if (dispatch(stepId)) {
+                        dispatched++;
+                    }
+                }
 
-            try {
-                allSteps.get(java.util.concurrent.TimeUnit.MINUTES.toMillis(5),
-                        java.util.concurrent.TimeUnit.MILLISECONDS);
-                log.info("Successfully processed {} campaign steps", dueSteps.size());
-            } catch (Exception e) {
-                log.error("Timeout or error processing campaign steps: {}", e.getMessage());
+                if (claimed.size() < capacity) {
+                    break;
+                }
             }
 
+            if (dispatched > 0) {
+                log.info("Dispatched {} due campaign steps", dispatched);
+            } else {
+                log.debug("No due campaign steps to process");
+            }
         } catch (Exception e) {
             log.error("Error in campaign scheduler: {}", e.getMessage(), e);
         }
     }
 
+    private boolean dispatch(Long stepId) {
+        try {
+            campaignStepExecutor.execute(() -> {
+                try {
+                    campaignExecutionService.executeStep(stepId, instanceId);
+                } catch (Exception e) {
+                    log.error("Failed to execute campaign step {}: {}", stepId, e.getMessage(), e);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            // Hand the step back rather than waiting for the lease to expire
+            campaignExecutionService.releaseClaim(stepId, instanceId);
+            log.warn("Campaign step executor rejected step {}, released claim", stepId);
+            return false;
+        }
+    }
+
+    private int availableCapacity() {
+        var pool = campaignStepExecutor.getThreadPoolExecutor();
+        int idleThreads = pool.getMaximumPoolSize() - pool.getActiveCount();
+        return Math.max(0, idleThreads) + pool.getQueue().remainingCapacity();
+    }
+
     /**
      * Cleanup old completed executions daily at 2 AM
      */
@@ -75,4 +118,4 @@ public class CampaignSchedulerService {
             log.error("Error during campaign execution cleanup: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
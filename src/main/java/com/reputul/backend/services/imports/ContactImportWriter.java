@@ -0,0 +1,85 @@
+package com.reputul.backend.services.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reputul.backend.models.Contact;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * JDBC batch inserts for CSV imports. Rows that hit uq_contacts_biz_email or
+ * uq_contacts_biz_phone (e.g. the same email twice in one file) are left out by
+ * ON CONFLICT DO NOTHING instead of failing the batch.
+ */
+@Component
+public class ContactImportWriter {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private static final String INSERT_CONTACT_SQL = """
+            INSERT INTO contacts (business_id, name, email, phone, last_job_date, tags_json,
+                                  sms_consent, email_consent, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, CAST(? AS jsonb), COALESCE(?, TRUE), COALESCE(?, TRUE), ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ContactImportWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert contacts in batches
+     *
+     * @return number of contacts inserted; the rest were conflicts
+     */
+    public int insert(Long businessId, List<Contact> contacts) {
+        if (contacts.isEmpty()) {
+            return 0;
+        }
+
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int[][] rowCounts = jdbcTemplate.batchUpdate(INSERT_CONTACT_SQL, contacts, INSERT_BATCH_SIZE, (ps, contact) -> {
+            ps.setLong(1, businessId);
+            ps.setString(2, contact.getName());
+            ps.setString(3, contact.getEmail());
+            ps.setString(4, contact.getPhone());
+            ps.setObject(5, contact.getLastJobDate(), Types.DATE);
+            ps.setString(6, tagsJson(contact));
+            ps.setObject(7, contact.getSmsConsent(), Types.BOOLEAN);
+            ps.setObject(8, contact.getEmailConsent(), Types.BOOLEAN);
+            ps.setObject(9, now, Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setObject(10, now, Types.TIMESTAMP_WITH_TIMEZONE);
+        });
+
+        int inserted = 0;
+        for (int[] batch : rowCounts) {
+            for (int rowCount : batch) {
+                // 0 means ON CONFLICT skipped the row; drivers that rewrite batches report SUCCESS_NO_INFO
+                if (rowCount != 0) {
+                    inserted++;
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static String tagsJson(Contact contact) {
+        if (contact.getTags() == null || contact.getTags().isEmpty()) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(contact.getTags());
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
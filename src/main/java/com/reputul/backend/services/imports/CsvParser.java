@@ -3,14 +3,17 @@ package com.reputul.backend.services.imports;
 import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
-import com.opencsv.exceptions.CsvException;
+import com.opencsv.exceptions.CsvValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -43,78 +46,93 @@ public class CsvParser {
             DateTimeFormatter.ofPattern("MM-dd-yyyy")
     );
 
-    public static class ParsedCsvData {
-        private final String detectedDelimiter;
+    /**
+     * Reads a staged CSV one row at a time. Only the current row is held in memory, so
+     * an upload of any length is read with flat heap use.
+     */
+    public static class CsvRowReader implements Closeable {
+        private final CSVReader reader;
         private final List<String> headers;
-        private final List<Map<String, String>> rows;
+        private int rowsRead;
 
-        public ParsedCsvData(String detectedDelimiter, List<String> headers, List<Map<String, String>> rows) {
-            this.detectedDelimiter = detectedDelimiter;
+        private CsvRowReader(CSVReader reader, List<String> headers) {
+            this.reader = reader;
             this.headers = headers;
-            this.rows = rows;
         }
 
-        // Getters
-        public String getDetectedDelimiter() { return detectedDelimiter; }
         public List<String> getHeaders() { return headers; }
-        public List<Map<String, String>> getRows() { return rows; }
+
+        /**
+         * Data rows read so far; the current row's index is getRowsRead() - 1
+         */
+        public int getRowsRead() { return rowsRead; }
+
+        /**
+         * Next data row keyed by header, blank values as null, or null at end of file
+         */
+        public Map<String, String> next() throws IOException {
+            String[] row;
+            try {
+                row = reader.readNext();
+            } catch (CsvValidationException e) {
+                throw new IOException("Failed to parse CSV: " + e.getMessage(), e);
+            }
+            if (row == null) {
+                return null;
+            }
+
+            Map<String, String> rowMap = new HashMap<>();
+            for (int j = 0; j < Math.min(headers.size(), row.length); j++) {
+                String value = row[j] != null ? row[j].trim() : "";
+                rowMap.put(headers.get(j), value.isEmpty() ? null : value);
+            }
+            rowsRead++;
+            return rowMap;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
     }
 
     /**
-     * Parse CSV from InputStream
+     * Open a staged CSV file for streaming. The header row is read up front.
      */
-    public ParsedCsvData parseCsv(InputStream inputStream) throws IOException {
-        char delimiter = detectDelimiter(inputStream);
-
-        // Reset stream and parse with detected delimiter
-        try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(inputStream))
+    public CsvRowReader open(Path file, char delimiter) throws IOException {
+        CSVReader reader = new CSVReaderBuilder(Files.newBufferedReader(file, StandardCharsets.UTF_8))
                 .withCSVParser(new CSVParserBuilder().withSeparator(delimiter).build())
-                .build()) {
-
-            List<String[]> allRows = reader.readAll();
-            if (allRows.isEmpty()) {
+                .build();
+        try {
+            String[] headerRow = reader.readNext();
+            if (headerRow == null) {
                 throw new IOException("CSV file is empty");
             }
-
-            // Extract headers
-            List<String> headers = Arrays.stream(allRows.get(0))
-                    .map(String::trim)
+            List<String> headers = Arrays.stream(headerRow)
+                    .map(header -> header != null ? header.trim() : "")
                     .collect(Collectors.toList());
-
-            // Parse data rows
-            List<Map<String, String>> rows = new ArrayList<>();
-            for (int i = 1; i < allRows.size() && i <= 10000; i++) { // Limit to 10k rows
-                String[] row = allRows.get(i);
-                Map<String, String> rowMap = new HashMap<>();
-
-                for (int j = 0; j < Math.min(headers.size(), row.length); j++) {
-                    String value = row[j] != null ? row[j].trim() : "";
-                    rowMap.put(headers.get(j), value.isEmpty() ? null : value);
-                }
-
-                rows.add(rowMap);
-            }
-
-            return new ParsedCsvData(String.valueOf(delimiter), headers, rows);
-
-        } catch (CsvException e) {
+            return new CsvRowReader(reader, headers);
+        } catch (CsvValidationException e) {
+            reader.close();
             throw new IOException("Failed to parse CSV: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
         }
     }
 
     /**
      * Detect CSV delimiter by analyzing the first few lines
      */
-    private char detectDelimiter(InputStream inputStream) throws IOException {
+    public char detectDelimiter(Path file) throws IOException {
         char[] delimiters = {',', ';', '\t', '|'};
         Map<Character, Integer> scores = new HashMap<>();
 
-        try (Scanner scanner = new Scanner(inputStream)) {
-            int linesToCheck = Math.min(5, 100); // Check first 5 lines
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
             int linesChecked = 0;
 
-            while (scanner.hasNextLine() && linesChecked < linesToCheck) {
-                String line = scanner.nextLine();
+            while (linesChecked < 5 && (line = reader.readLine()) != null) { // Check first 5 lines
                 linesChecked++;
 
                 for (char delimiter : delimiters) {
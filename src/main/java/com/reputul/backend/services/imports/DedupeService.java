@@ -146,6 +146,7 @@ public class DedupeService {
         }
 
         // Check each contact for duplicates
+        Map<String, Map<String, Object>> nameDateCandidates = new LinkedHashMap<>();
         for (int i = 0; i < contactData.size(); i++) {
             Map<String, Object> data = contactData.get(i);
             String key = "row_" + i;
@@ -173,18 +174,35 @@ public class DedupeService {
                 }
             }
 
-            // Name+date match (this still requires individual queries for now)
             if (name != null && !name.trim().isEmpty() && lastJobDate != null) {
-                LocalDate startDate = lastJobDate.minusDays(3);
-                LocalDate endDate = lastJobDate.plusDays(3);
-
-                List<Contact> nameMatches = contactRepository.findByBusinessIdAndNameAndLastJobDateBetween(
-                        businessId, name.trim(), startDate, endDate);
+                nameDateCandidates.put(key, data);
+            }
+        }
 
-                if (!nameMatches.isEmpty()) {
-                    results.put(key, new DedupeResult(nameMatches.get(0), "name_date"));
-                }
+        // Name+date match (within 3 days): one query for the whole batch
+        if (!nameDateCandidates.isEmpty()) {
+            Set<String> names = new HashSet<>();
+            LocalDate minDate = LocalDate.MAX;
+            LocalDate maxDate = LocalDate.MIN;
+            for (Map<String, Object> data : nameDateCandidates.values()) {
+                LocalDate lastJobDate = (LocalDate) data.get("lastJobDate");
+                names.add(((String) data.get("name")).trim());
+                minDate = lastJobDate.isBefore(minDate) ? lastJobDate : minDate;
+                maxDate = lastJobDate.isAfter(maxDate) ? lastJobDate : maxDate;
             }
+
+            Map<String, List<Contact>> byName = contactRepository.findByBusinessIdAndNameInAndLastJobDateBetween(
+                            businessId, names, minDate.minusDays(3), maxDate.plusDays(3)).stream()
+                    .collect(Collectors.groupingBy(Contact::getName));
+
+            nameDateCandidates.forEach((key, data) -> {
+                LocalDate lastJobDate = (LocalDate) data.get("lastJobDate");
+                byName.getOrDefault(((String) data.get("name")).trim(), List.of()).stream()
+                        .filter(contact -> !contact.getLastJobDate().isBefore(lastJobDate.minusDays(3))
+                                && !contact.getLastJobDate().isAfter(lastJobDate.plusDays(3)))
+                        .findFirst()
+                        .ifPresent(match -> results.put(key, new DedupeResult(match, "name_date")));
+            });
         }
 
         return results;
@@ -1,7 +1,15 @@
 package com.reputul.backend.services.imports;
 
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -9,45 +17,71 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Staged CSV uploads between import prepare and commit. The rows are spilled to a temp
+ * file under app.contacts.import.staging-dir; only the file path and header metadata stay
+ * on the heap. Files are deleted on commit, on expiry and on shutdown.
+ */
 @Component
 public class UploadCache {
 
+    private static final Logger logger = LoggerFactory.getLogger(UploadCache.class);
+
     private final Map<String, CachedUpload> cache = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final Path stagingDir;
 
     private static final long TTL_MINUTES = 30; // 30 minutes TTL
 
     public static class CachedUpload {
-        private final CsvParser.ParsedCsvData parsedData;
-        private final long timestamp;
+        private final Path file;
         private final String originalFilename;
+        private final char delimiter;
+        private final List<String> headers;
+        private final int totalRows;
+        private final long timestamp;
 
-        public CachedUpload(CsvParser.ParsedCsvData parsedData, String originalFilename) {
-            this.parsedData = parsedData;
+        public CachedUpload(Path file, String originalFilename, char delimiter, List<String> headers, int totalRows) {
+            this.file = file;
             this.originalFilename = originalFilename;
+            this.delimiter = delimiter;
+            this.headers = headers;
+            this.totalRows = totalRows;
             this.timestamp = System.currentTimeMillis();
         }
 
-        public CsvParser.ParsedCsvData getParsedData() { return parsedData; }
-        public long getTimestamp() { return timestamp; }
+        public Path getFile() { return file; }
         public String getOriginalFilename() { return originalFilename; }
+        public char getDelimiter() { return delimiter; }
+        public List<String> getHeaders() { return headers; }
+        public int getTotalRows() { return totalRows; }
+        public long getTimestamp() { return timestamp; }
 
         public boolean isExpired() {
             return System.currentTimeMillis() - timestamp > TimeUnit.MINUTES.toMillis(TTL_MINUTES);
         }
     }
 
-    public UploadCache() {
+    public UploadCache(@Value("${app.contacts.import.staging-dir:${java.io.tmpdir}}") String stagingDir) {
+        this.stagingDir = Path.of(stagingDir);
         // Clean up expired entries every 15 minutes
         scheduler.scheduleAtFixedRate(this::cleanupExpired, 15, 15, TimeUnit.MINUTES);
     }
 
     /**
-     * Store parsed CSV data and return upload ID
+     * Create an empty temp file to spill an upload into
      */
-    public String store(CsvParser.ParsedCsvData parsedData, String originalFilename) {
+    public Path createStagingFile() throws IOException {
+        Files.createDirectories(stagingDir);
+        return Files.createTempFile(stagingDir, "contact-import-", ".csv");
+    }
+
+    /**
+     * Register a staged file and return upload ID
+     */
+    public String store(Path file, String originalFilename, char delimiter, List<String> headers, int totalRows) {
         String uploadId = UUID.randomUUID().toString();
-        cache.put(uploadId, new CachedUpload(parsedData, originalFilename));
+        cache.put(uploadId, new CachedUpload(file, originalFilename, delimiter, headers, totalRows));
         return uploadId;
     }
 
@@ -57,24 +91,69 @@ public class UploadCache {
     public CachedUpload get(String uploadId) {
         CachedUpload cached = cache.get(uploadId);
         if (cached != null && cached.isExpired()) {
-            cache.remove(uploadId);
+            remove(uploadId);
             return null;
         }
         return cached;
     }
 
     /**
-     * Remove upload from cache
+     * Take an upload out of the cache for committing, leaving its staged file in place.
+     * It can't be committed twice or expire while it is imported; the importer deletes
+     * the file when it is done.
+     */
+    public CachedUpload take(String uploadId) {
+        CachedUpload cached = cache.remove(uploadId);
+        if (cached != null && cached.isExpired()) {
+            deleteStagingFile(cached.getFile());
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Put back an upload taken with take() that could not be imported after all
+     */
+    public void putBack(String uploadId, CachedUpload cached) {
+        cache.putIfAbsent(uploadId, cached);
+    }
+
+    /**
+     * Remove upload from cache and delete its staged file
      */
     public void remove(String uploadId) {
-        cache.remove(uploadId);
+        CachedUpload removed = cache.remove(uploadId);
+        if (removed != null) {
+            deleteStagingFile(removed.getFile());
+        }
+    }
+
+    /**
+     * Delete a staged file that was never registered or is no longer needed
+     */
+    public void deleteStagingFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete staged upload {}: {}", file, e.getMessage());
+        }
     }
 
     /**
      * Clean up expired entries
      */
     private void cleanupExpired() {
-        cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        cache.forEach((uploadId, cached) -> {
+            if (cached.isExpired()) {
+                remove(uploadId);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        cache.keySet().forEach(this::remove);
     }
 
     /**
@@ -83,4 +162,4 @@ public class UploadCache {
     public int size() {
         return cache.size();
     }
-}
\ No newline at end of file
+}
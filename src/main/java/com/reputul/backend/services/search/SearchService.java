@@ -0,0 +1,186 @@
+package com.reputul.backend.services.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Ranked search over contacts and customers with keyset pagination.
+ *
+ * On PostgreSQL the substring and fuzzy predicates are served by the pg_trgm GIN indexes
+ * from V040: a row matches when a searched column contains the query or is word-similar
+ * to it (the &lt;% operator, so typos still match). Rank, highest first:
+ * - 2 for a name starting with the query, 1 for a substring match anywhere, 0 otherwise
+ * - plus the best word_similarity, to order within those bands
+ *
+ * Other databases (the H2 test profile) fall back to LIKE with the same bands and no
+ * similarity term.
+ *
+ * Pages are ordered by (rank, id) descending; nextCursor carries the last row's pair.
+ *
+ * Used by: ContactService, CustomerService
+ */
+@Service
+@Slf4j
+public class SearchService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final List<String> CONTACT_COLUMNS =
+            List.of("lower(c.name)", "lower(coalesce(c.email, ''))", "coalesce(c.phone, '')");
+    private static final List<String> CUSTOMER_COLUMNS =
+            List.of("lower(c.name)", "lower(c.email)", "lower(c.service_type)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean trigram;
+
+    /**
+     * One page of matching ids in rank order; nextCursor is null on the last page
+     */
+    public record SearchHits(List<Long> ids, String nextCursor) {
+    }
+
+    public SearchService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.trigram = isPostgres(jdbcTemplate);
+        log.info("Search using {}", trigram ? "pg_trgm ranking" : "LIKE fallback");
+    }
+
+    /**
+     * Contacts of a business matching name, email or phone, optionally limited to a tag
+     */
+    public SearchHits searchContacts(Long businessId, String query, String tag, String cursor, int limit) {
+        StringBuilder scope = new StringBuilder("c.business_id = ?");
+        List<Object> scopeArgs = new ArrayList<>(List.of(businessId));
+        if (tag != null && !tag.isBlank()) {
+            scope.append(trigram
+                    ? " AND c.tags_json @> to_jsonb(ARRAY[lower(?)])"
+                    : " AND lower(CAST(c.tags_json AS VARCHAR)) LIKE CONCAT('%\"', lower(?), '\"%')");
+            scopeArgs.add(tag.trim());
+        }
+        return search("contacts", CONTACT_COLUMNS, 2, scope.toString(), scopeArgs, query, cursor, limit);
+    }
+
+    /**
+     * A user's customers matching name, email or service type
+     */
+    public SearchHits searchCustomers(Long userId, String query, String cursor, int limit) {
+        return search("customers", CUSTOMER_COLUMNS, 3, "c.user_id = ?", List.of(userId), query, cursor, limit);
+    }
+
+    /**
+     * @param fuzzyColumns how many of the leading columns also match by word similarity
+     */
+    private SearchHits search(String table, List<String> columns, int fuzzyColumns, String scope,
+                              List<Object> scopeArgs, String query, String cursor, int limit) {
+        String term = query != null ? query.trim().toLowerCase() : "";
+        if (term.isEmpty()) {
+            return new SearchHits(List.of(), null);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String contains = "%" + escapeLike(term) + "%";
+        String prefix = escapeLike(term) + "%";
+
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT id, score FROM (SELECT c.id, ");
+
+        // Rank
+        sql.append("(CASE WHEN ").append(columns.get(0)).append(" LIKE ? THEN 2.0 WHEN ");
+        args.add(prefix);
+        appendAnyLike(sql, args, columns, contains);
+        sql.append(" THEN 1.0 ELSE 0.0 END");
+        if (trigram) {
+            sql.append(" + GREATEST(");
+            for (int i = 0; i < fuzzyColumns; i++) {
+                sql.append(i > 0 ? ", " : "").append("word_similarity(?, ").append(columns.get(i)).append(")");
+                args.add(term);
+            }
+            sql.append(")::float8");
+        }
+        sql.append(") AS score FROM ").append(table).append(" c WHERE ").append(scope);
+        args.addAll(scopeArgs);
+
+        // Match
+        sql.append(" AND (");
+        appendAnyLike(sql, args, columns, contains);
+        if (trigram) {
+            for (int i = 0; i < fuzzyColumns; i++) {
+                sql.append(" OR ? <% ").append(columns.get(i));
+                args.add(term);
+            }
+        }
+        sql.append(")) s");
+
+        // Keyset
+        Cursor after = Cursor.decode(cursor);
+        if (after != null) {
+            sql.append(" WHERE (s.score < ? OR (s.score = ? AND s.id < ?))");
+            args.add(after.rank());
+            args.add(after.rank());
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY s.score DESC, s.id DESC LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<Cursor> rows = jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new Cursor(rs.getDouble("score"), rs.getLong("id")), args.toArray());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Cursor> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return new SearchHits(page.stream().map(Cursor::id).toList(),
+                hasMore ? page.get(page.size() - 1).encode() : null);
+    }
+
+    private static void appendAnyLike(StringBuilder sql, List<Object> args, List<String> columns, String pattern) {
+        sql.append("(");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i > 0 ? " OR " : "").append(columns.get(i)).append(" LIKE ?");
+            args.add(pattern);
+        }
+        sql.append(")");
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            return product != null && product.toLowerCase().contains("postgres");
+        } catch (Exception e) {
+            log.warn("Could not detect database for search, using LIKE fallback: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Position after the last row of a page
+     */
+    private record Cursor(double rank, long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((rank + ":" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                return new Cursor(Double.parseDouble(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+        }
+    }
+}
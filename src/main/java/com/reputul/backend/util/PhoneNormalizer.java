@@ -1,4 +1,4 @@
-package com.reputul.backend.services.imports;
+package com.reputul.backend.util;
 
 import com.google.i18n.phonenumbers.NumberParseException;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
@@ -11,7 +11,7 @@ import org.springframework.stereotype.Component;
 public class PhoneNormalizer {
 
     private static final Logger logger = LoggerFactory.getLogger(PhoneNormalizer.class);
-    private final PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
+    private static final PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
     private static final String DEFAULT_REGION = "US"; // Default to US
 
     /**
@@ -20,6 +20,14 @@ public class PhoneNormalizer {
      * @return Normalized E.164 format phone number or null if invalid
      */
     public String normalize(String phoneNumber) {
+        return toE164(phoneNumber);
+    }
+
+    /**
+     * Static form of normalize() for entity callbacks and repository helpers, which
+     * can't have the component injected. Used by: Customer.phoneE164
+     */
+    public static String toE164(String phoneNumber) {
         if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
             return null;
         }
@@ -0,0 +1,77 @@
+-- ============================================================================
+-- V34: Per-business reputation aggregates
+-- ============================================================================
+-- Reputation scoring used to reload every review of a business several times
+-- per recalculation. This table keeps the running totals needed for scoring
+-- (counts, rating histogram, response count and recency-decayed sums) and is
+-- updated incrementally whenever a review is written.
+--
+-- Decayed sums are stored relative to decay_anchor_day (days since
+-- 1970-01-01, UTC). A review created on day d contributes
+-- exp(-0.00385 * (decay_anchor_day - d)) to decayed_weight_sum.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS reputation_aggregates (
+                                                     business_id BIGINT PRIMARY KEY REFERENCES businesses(id) ON DELETE CASCADE,
+                                                     review_count BIGINT NOT NULL DEFAULT 0,
+                                                     rating_sum BIGINT NOT NULL DEFAULT 0,
+                                                     rating_1_count BIGINT NOT NULL DEFAULT 0,
+                                                     rating_2_count BIGINT NOT NULL DEFAULT 0,
+                                                     rating_3_count BIGINT NOT NULL DEFAULT 0,
+                                                     rating_4_count BIGINT NOT NULL DEFAULT 0,
+                                                     rating_5_count BIGINT NOT NULL DEFAULT 0,
+                                                     responded_count BIGINT NOT NULL DEFAULT 0,
+                                                     decay_anchor_day BIGINT NOT NULL DEFAULT 0,
+                                                     decayed_weight_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+                                                     decayed_rating_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+                                                     decayed_positive_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+                                                     last_review_at TIMESTAMPTZ,
+                                                     updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Backfill from existing reviews, anchored on the current UTC day
+WITH anchor AS (
+    SELECT ((now() AT TIME ZONE 'UTC')::date - DATE '1970-01-01')::BIGINT AS day
+),
+     review_days AS (
+         SELECT r.business_id,
+                r.rating,
+                r.platform_response,
+                r.created_at,
+                ((r.created_at AT TIME ZONE 'UTC')::date - DATE '1970-01-01')::BIGINT AS day
+         FROM reviews r
+     )
+INSERT INTO reputation_aggregates (
+    business_id, review_count, rating_sum,
+    rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count,
+    responded_count, decay_anchor_day,
+    decayed_weight_sum, decayed_rating_sum, decayed_positive_sum,
+    last_review_at, updated_at
+)
+SELECT rd.business_id,
+       COUNT(*),
+       SUM(rd.rating),
+       COUNT(*) FILTER (WHERE rd.rating = 1),
+       COUNT(*) FILTER (WHERE rd.rating = 2),
+       COUNT(*) FILTER (WHERE rd.rating = 3),
+       COUNT(*) FILTER (WHERE rd.rating = 4),
+       COUNT(*) FILTER (WHERE rd.rating = 5),
+       COUNT(*) FILTER (WHERE rd.platform_response IS NOT NULL),
+       a.day,
+       SUM(EXP(-0.00385 * (a.day - rd.day))),
+       SUM(rd.rating * EXP(-0.00385 * (a.day - rd.day))),
+       COALESCE(SUM(EXP(-0.00385 * (a.day - rd.day))) FILTER (WHERE rd.rating >= 4), 0),
+       MAX(rd.created_at),
+       CURRENT_TIMESTAMP
+FROM review_days rd
+         CROSS JOIN anchor a
+GROUP BY rd.business_id, a.day
+ON CONFLICT (business_id) DO NOTHING;
+
+-- Supports windowed review counts (velocity and badge activity checks)
+CREATE INDEX IF NOT EXISTS idx_reviews_business_created_at
+    ON reviews(business_id, created_at DESC);
+
+COMMENT ON TABLE reputation_aggregates IS 'Incrementally maintained per-business review totals used by reputation scoring';
+COMMENT ON COLUMN reputation_aggregates.decay_anchor_day IS 'UTC epoch day the decayed sums are expressed relative to';
+COMMENT ON COLUMN reputation_aggregates.decayed_weight_sum IS 'Sum of exp(-lambda * age_days) over all reviews at decay_anchor_day';
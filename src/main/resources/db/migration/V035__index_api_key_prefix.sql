@@ -0,0 +1,2 @@
+-- API key authentication looks keys up by their display prefix instead of scanning every key
+CREATE INDEX IF NOT EXISTS idx_api_keys_prefix_active ON api_keys(key_prefix) WHERE revoked_at IS NULL;
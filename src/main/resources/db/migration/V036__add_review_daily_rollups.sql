@@ -0,0 +1,50 @@
+-- ============================================================================
+-- V36: Daily review rollups per business and source
+-- ============================================================================
+-- Insights used to load a business's full review history on every request to
+-- build platform breakdowns, monthly trends and sentiment counts. This table
+-- holds one row per (business, UTC day, source) with the review count, rating
+-- histogram and responded count. It is updated incrementally on review writes
+-- and reconciled against the reviews table nightly.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS review_daily_rollups (
+                                                    business_id BIGINT NOT NULL REFERENCES businesses(id) ON DELETE CASCADE,
+                                                    review_date DATE NOT NULL,
+                                                    source VARCHAR(50) NOT NULL,
+                                                    review_count BIGINT NOT NULL DEFAULT 0,
+                                                    rating_sum BIGINT NOT NULL DEFAULT 0,
+                                                    rating_1_count BIGINT NOT NULL DEFAULT 0,
+                                                    rating_2_count BIGINT NOT NULL DEFAULT 0,
+                                                    rating_3_count BIGINT NOT NULL DEFAULT 0,
+                                                    rating_4_count BIGINT NOT NULL DEFAULT 0,
+                                                    rating_5_count BIGINT NOT NULL DEFAULT 0,
+                                                    responded_count BIGINT NOT NULL DEFAULT 0,
+                                                    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+                                                    PRIMARY KEY (business_id, review_date, source)
+);
+
+-- Backfill from existing reviews
+INSERT INTO review_daily_rollups (
+    business_id, review_date, source, review_count, rating_sum,
+    rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count,
+    responded_count, updated_at
+)
+SELECT r.business_id,
+       (r.created_at AT TIME ZONE 'UTC')::date,
+       COALESCE(r.source, 'DIRECT'),
+       COUNT(*),
+       SUM(r.rating),
+       COUNT(*) FILTER (WHERE r.rating = 1),
+       COUNT(*) FILTER (WHERE r.rating = 2),
+       COUNT(*) FILTER (WHERE r.rating = 3),
+       COUNT(*) FILTER (WHERE r.rating = 4),
+       COUNT(*) FILTER (WHERE r.rating = 5),
+       COUNT(*) FILTER (WHERE r.platform_response IS NOT NULL),
+       CURRENT_TIMESTAMP
+FROM reviews r
+GROUP BY r.business_id, (r.created_at AT TIME ZONE 'UTC')::date, COALESCE(r.source, 'DIRECT')
+ON CONFLICT (business_id, review_date, source) DO NOTHING;
+
+COMMENT ON TABLE review_daily_rollups IS 'Per business, UTC day and source review totals used by Insights and reputation velocity';
@@ -0,0 +1,12 @@
+-- Campaign steps are claimed with SELECT ... FOR UPDATE SKIP LOCKED and leased to one
+-- scheduler instance, so several app nodes can process due steps without double-sending.
+ALTER TABLE campaign_step_executions ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(100);
+ALTER TABLE campaign_step_executions ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+
+-- Due-step claim scans pending rows in schedule order
+CREATE INDEX IF NOT EXISTS idx_campaign_step_executions_pending_due
+    ON campaign_step_executions(scheduled_at)
+    WHERE status = 'PENDING';
+
+COMMENT ON COLUMN campaign_step_executions.claimed_by IS 'Scheduler instance holding the lease on this step';
+COMMENT ON COLUMN campaign_step_executions.lease_expires_at IS 'Lease expiry; expired leases can be claimed by another instance';
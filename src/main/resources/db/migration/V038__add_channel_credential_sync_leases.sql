@@ -0,0 +1,13 @@
+-- Due credentials are claimed with SELECT ... FOR UPDATE SKIP LOCKED and leased to one
+-- node, so review sync is dispatched once per credential across the cluster.
+ALTER TABLE channel_credentials ADD COLUMN IF NOT EXISTS sync_claimed_by VARCHAR(100);
+ALTER TABLE channel_credentials ADD COLUMN IF NOT EXISTS sync_lease_expires_at TIMESTAMPTZ;
+
+-- next_sync_scheduled now drives every scheduled sync; spread never-scheduled credentials
+-- over the next 15 minutes instead of making them all due at once
+UPDATE channel_credentials
+SET next_sync_scheduled = now() + random() * INTERVAL '15 minutes'
+WHERE status = 'ACTIVE' AND next_sync_scheduled IS NULL;
+
+COMMENT ON COLUMN channel_credentials.sync_claimed_by IS 'Node holding the sync lease on this credential';
+COMMENT ON COLUMN channel_credentials.sync_lease_expires_at IS 'Sync lease expiry; expired leases can be claimed by another node';
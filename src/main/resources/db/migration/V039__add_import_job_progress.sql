@@ -0,0 +1,4 @@
+-- CSV imports commit in chunks; processed_rows tracks how far a RUNNING import has got
+ALTER TABLE import_jobs ADD COLUMN IF NOT EXISTS processed_rows INTEGER NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN import_jobs.processed_rows IS 'Data rows handled so far, out of total_rows';
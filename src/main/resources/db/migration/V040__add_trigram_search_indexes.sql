@@ -0,0 +1,18 @@
+-- Substring and fuzzy search over contacts and customers. pg_trgm GIN indexes serve
+-- LIKE '%q%' as well as the similarity operators, so a search no longer scans every
+-- row of the business. The indexed expressions match the ones the queries use.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_contacts_name_trgm
+    ON contacts USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_contacts_email_trgm
+    ON contacts USING GIN (lower(coalesce(email, '')) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_contacts_phone_trgm
+    ON contacts USING GIN (coalesce(phone, '') gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_customers_name_trgm
+    ON customers USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_customers_email_trgm
+    ON customers USING GIN (lower(email) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_customers_service_type_trgm
+    ON customers USING GIN (lower(service_type) gin_trgm_ops);
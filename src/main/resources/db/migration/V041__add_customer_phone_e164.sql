@@ -0,0 +1,36 @@
+-- Customers carry their phone in E.164 so inbound SMS and STOP/START handling match
+-- with one indexed lookup instead of trying several raw formats in turn. The
+-- application sets phone_e164 with libphonenumber when a customer is inserted or its
+-- phone changes, and leaves it alone on other saves. The backfill below covers the
+-- default US region: 10 digits -> +1..., 11 digits starting with 1 -> +..., numbers
+-- already written with + keep their digits.
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS phone_e164 VARCHAR(20);
+
+UPDATE customers
+SET phone_e164 = CASE
+        WHEN btrim(phone) LIKE '+%' AND length(regexp_replace(phone, '\D', '', 'g')) BETWEEN 8 AND 15
+            THEN '+' || regexp_replace(phone, '\D', '', 'g')
+        WHEN length(regexp_replace(phone, '\D', '', 'g')) = 10
+            THEN '+1' || regexp_replace(phone, '\D', '', 'g')
+        WHEN length(regexp_replace(phone, '\D', '', 'g')) = 11 AND regexp_replace(phone, '\D', '', 'g') LIKE '1%'
+            THEN '+' || regexp_replace(phone, '\D', '', 'g')
+    END
+WHERE phone IS NOT NULL AND phone_e164 IS NULL;
+
+-- A number may appear once per business; where it already appears more than once,
+-- the newest customer keeps it for matching. Older duplicates stay NULL until their
+-- phone is edited (then CustomerService's uniqueness check applies), so ordinary saves
+-- of those rows never hit the unique index below.
+UPDATE customers c
+SET phone_e164 = NULL
+WHERE c.phone_e164 IS NOT NULL
+  AND EXISTS (SELECT 1 FROM customers newer
+              WHERE newer.business_id = c.business_id
+                AND newer.phone_e164 = c.phone_e164
+                AND newer.id > c.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_customers_business_phone_e164
+    ON customers (business_id, phone_e164) WHERE phone_e164 IS NOT NULL;
+
+-- Inbound SMS carries only the sender's number, so it also needs a phone-only index
+CREATE INDEX IF NOT EXISTS idx_customers_phone_e164 ON customers (phone_e164);
@@ -0,0 +1,18 @@
+-- Shared SMS rate-limit counters. Each row counts sends for one limit (business hourly,
+-- business daily, customer daily) and key in one fixed window; the service combines the
+-- current and previous window into a sliding-window estimate. Every node reserves sends
+-- with a conditional UPDATE, so the limits hold across restarts and instances.
+CREATE TABLE IF NOT EXISTS sms_rate_limit_windows (
+    limit_name   VARCHAR(32)  NOT NULL,
+    limit_key    VARCHAR(64)  NOT NULL,
+    window_start TIMESTAMPTZ  NOT NULL,
+    used         INTEGER      NOT NULL DEFAULT 0,
+    updated_at   TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    PRIMARY KEY (limit_name, limit_key, window_start)
+);
+
+-- Old windows are purged periodically
+CREATE INDEX IF NOT EXISTS idx_sms_rate_limit_windows_start ON sms_rate_limit_windows (window_start);
+
+COMMENT ON TABLE sms_rate_limit_windows IS 'Per-window SMS send counters shared by all nodes';
+COMMENT ON COLUMN sms_rate_limit_windows.used IS 'Sends reserved in this window, including tokens leased to a node and not yet spent';
@@ -0,0 +1,21 @@
+-- Progress of long-running backfill jobs (e.g. the Wilson score reputation backfill).
+-- The job pages through ids in order and records the last finished id after every
+-- page, so a restarted node resumes where the previous run stopped. The lease keeps a
+-- second node from running the same job at the same time.
+CREATE TABLE IF NOT EXISTS backfill_checkpoints (
+    job_name         VARCHAR(64)  PRIMARY KEY,
+    status           VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    last_id          BIGINT       NOT NULL DEFAULT 0,
+    processed        BIGINT       NOT NULL DEFAULT 0,
+    failed           BIGINT       NOT NULL DEFAULT 0,
+    total            BIGINT,
+    claimed_by       VARCHAR(100),
+    lease_expires_at TIMESTAMPTZ,
+    started_at       TIMESTAMPTZ,
+    finished_at      TIMESTAMPTZ,
+    updated_at       TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+COMMENT ON COLUMN backfill_checkpoints.status IS 'PENDING, RUNNING, PAUSED, COMPLETED or FAILED';
+COMMENT ON COLUMN backfill_checkpoints.last_id IS 'Every id up to and including this one has been processed';
+COMMENT ON COLUMN backfill_checkpoints.claimed_by IS 'Node running the job; another node may take over once lease_expires_at has passed';
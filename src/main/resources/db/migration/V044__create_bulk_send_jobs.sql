@@ -0,0 +1,42 @@
+-- Bulk review request sends. A request is stored as one job plus one item per
+-- recipient and answered straight away; items are claimed in the background with
+-- SELECT ... FOR UPDATE SKIP LOCKED and sent within each provider's throughput budget.
+CREATE TABLE IF NOT EXISTS bulk_send_jobs (
+    id              BIGSERIAL    PRIMARY KEY,
+    user_id         BIGINT       NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    channel         VARCHAR(20)  NOT NULL,
+    sequence_id     BIGINT,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'QUEUED',
+    total           INTEGER      NOT NULL DEFAULT 0,
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    completed_at    TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_bulk_send_jobs_user ON bulk_send_jobs (user_id, created_at DESC);
+
+CREATE TABLE IF NOT EXISTS bulk_send_items (
+    id                BIGSERIAL    PRIMARY KEY,
+    job_id            BIGINT       NOT NULL REFERENCES bulk_send_jobs(id) ON DELETE CASCADE,
+    customer_id       BIGINT       NOT NULL,
+    channel           VARCHAR(20)  NOT NULL,
+    status            VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    attempts          INTEGER      NOT NULL DEFAULT 0,
+    claimed_by        VARCHAR(100),
+    lease_expires_at  TIMESTAMPTZ,
+    review_request_id BIGINT,
+    error_message     TEXT,
+    updated_at        TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_bulk_send_items_job_status ON bulk_send_items (job_id, status);
+
+-- The claim scans unsent items of one channel in id order
+CREATE INDEX IF NOT EXISTS idx_bulk_send_items_claimable
+    ON bulk_send_items (channel, id)
+    WHERE status IN ('PENDING', 'CLAIMED');
+
+COMMENT ON COLUMN bulk_send_jobs.channel IS 'EMAIL, SMS or CAMPAIGN (review request created and handed to a campaign)';
+COMMENT ON COLUMN bulk_send_jobs.status IS 'QUEUED, RUNNING, COMPLETED or CANCELLED';
+COMMENT ON COLUMN bulk_send_items.status IS 'PENDING, CLAIMED, SENT, FAILED, SKIPPED or CANCELLED';
+COMMENT ON COLUMN bulk_send_items.lease_expires_at IS 'Claim expiry; an expired claim is retried by any node until attempts run out';
@@ -0,0 +1,37 @@
+-- Outbound email outbox. Emails are inserted in the same transaction as the review
+-- request they belong to and sent in the background by EmailOutboxRelay, which claims
+-- rows with SELECT ... FOR UPDATE SKIP LOCKED and hands them to the provider in batches.
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id                  BIGSERIAL     PRIMARY KEY,
+    review_request_id   BIGINT        REFERENCES review_requests(id) ON DELETE SET NULL,
+    organization_id     BIGINT,
+    from_address        VARCHAR(320)  NOT NULL,
+    to_address          VARCHAR(320)  NOT NULL,
+    subject             VARCHAR(998)  NOT NULL,
+    html_body           TEXT          NOT NULL,
+    status              VARCHAR(20)   NOT NULL DEFAULT 'PENDING',
+    attempts            INTEGER       NOT NULL DEFAULT 0,
+    next_attempt_at     TIMESTAMPTZ   NOT NULL DEFAULT now(),
+    claimed_by          VARCHAR(100),
+    lease_expires_at    TIMESTAMPTZ,
+    provider_message_id VARCHAR(255),
+    last_error          TEXT,
+    created_at          TIMESTAMPTZ   NOT NULL DEFAULT now(),
+    updated_at          TIMESTAMPTZ   NOT NULL DEFAULT now(),
+    sent_at             TIMESTAMPTZ
+);
+
+-- The claim scans due messages in id order
+CREATE INDEX IF NOT EXISTS idx_email_outbox_claimable
+    ON email_outbox (next_attempt_at, id)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_sending
+    ON email_outbox (lease_expires_at)
+    WHERE status = 'SENDING';
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_review_request ON email_outbox (review_request_id);
+
+COMMENT ON COLUMN email_outbox.status IS 'PENDING, SENDING, SENT or DEAD (gave up after max attempts)';
+COMMENT ON COLUMN email_outbox.next_attempt_at IS 'Earliest time the message may be sent; pushed back exponentially after each failure';
+COMMENT ON COLUMN email_outbox.lease_expires_at IS 'Claim expiry; an expired claim is retried by any node until attempts run out';
@@ -0,0 +1,37 @@
+-- One idempotency store for inbound webhooks (Stripe event IDs, Zapier Idempotency-Key
+-- headers), replacing idempotency_keys and the in-memory Stripe event map. A key is
+-- claimed by inserting its row (ON CONFLICT DO NOTHING), so exactly one node processes a
+-- delivery; the stored response answers retries until expires_at. A claim whose node died
+-- mid-processing can be taken over once lease_expires_at passes. Expired rows are deleted
+-- in small batches by WebhookIdempotencyService.
+CREATE TABLE IF NOT EXISTS webhook_idempotency_keys (
+    scope            VARCHAR(255)  NOT NULL,
+    idempotency_key  VARCHAR(255)  NOT NULL,
+    organization_id  BIGINT,
+    status           VARCHAR(20)   NOT NULL,
+    claim_token      VARCHAR(36),
+    lease_expires_at TIMESTAMPTZ,
+    response_status  INTEGER,
+    response_body    TEXT,
+    created_at       TIMESTAMPTZ   NOT NULL DEFAULT now(),
+    expires_at       TIMESTAMPTZ   NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+-- Incremental cleanup takes the oldest expired rows first
+CREATE INDEX IF NOT EXISTS idx_webhook_idempotency_keys_expires ON webhook_idempotency_keys (expires_at);
+
+-- Carry over Zapier keys that are still live; Zapier keys are scoped per organization and path
+INSERT INTO webhook_idempotency_keys (scope, idempotency_key, organization_id, status, response_status,
+                                      response_body, created_at, expires_at)
+SELECT 'zapier:' || organization_id || ':' || request_path, key, organization_id, 'COMPLETED', response_status,
+       response_body, created_at, expires_at
+FROM idempotency_keys
+WHERE expires_at > now()
+ON CONFLICT DO NOTHING;
+
+DROP TABLE IF EXISTS idempotency_keys;
+
+COMMENT ON COLUMN webhook_idempotency_keys.scope IS 'Key namespace, e.g. stripe or zapier:{organization}:{path}';
+COMMENT ON COLUMN webhook_idempotency_keys.status IS 'IN_PROGRESS while the claiming node processes the request, then COMPLETED';
+COMMENT ON COLUMN webhook_idempotency_keys.claim_token IS 'Identifies the current claim; only its holder can complete or release the key';
@@ -0,0 +1,5 @@
+-- EmailOutboxRelay.purgeFinished deletes SENT and DEAD messages past retention, oldest
+-- first, a batch at a time
+CREATE INDEX IF NOT EXISTS idx_email_outbox_finished
+    ON email_outbox (updated_at)
+    WHERE status IN ('SENT', 'DEAD');
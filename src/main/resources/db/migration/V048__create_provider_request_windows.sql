@@ -0,0 +1,12 @@
+-- Email provider API calls per one-second window, shared by every node's outbox relay so
+-- the provider's per-team request limit holds however many instances are running. A call
+-- is reserved with a conditional UPDATE (used + 1 <= cap).
+CREATE TABLE IF NOT EXISTS provider_request_windows (
+    provider     VARCHAR(32)  NOT NULL,
+    window_start TIMESTAMPTZ  NOT NULL,
+    used         INTEGER      NOT NULL DEFAULT 0,
+    updated_at   TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    PRIMARY KEY (provider, window_start)
+);
+
+COMMENT ON TABLE provider_request_windows IS 'Email provider API calls per second, across all nodes';
@@ -0,0 +1,93 @@
+package com.reputul.backend.auth;
+
+import com.reputul.backend.config.CacheConfig;
+import com.reputul.backend.models.Organization;
+import com.reputul.backend.models.User;
+import com.reputul.backend.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAuthServiceTest {
+
+    private static final String EMAIL = "owner@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserAuthService userAuthService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userAuthService = new UserAuthService(userRepository,
+                new ConcurrentMapCacheManager(CacheConfig.AUTHENTICATED_USER_CACHE));
+
+        testUser = User.builder()
+                .id(1L)
+                .email(EMAIL)
+                .name("Owner")
+                .password("hash")
+                .organization(Organization.builder().id(10L).name("Org").build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void loadAuthenticatedUser_CachesSnapshotAcrossRequests() {
+        when(userRepository.findWithOrganizationByEmail(EMAIL)).thenReturn(Optional.of(testUser));
+
+        AuthenticatedUser first = userAuthService.loadAuthenticatedUser(EMAIL);
+        testUser.setName("Changed after caching");
+        AuthenticatedUser second = userAuthService.loadAuthenticatedUser(EMAIL);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getId()).isEqualTo(1L);
+        assertThat(second.getName()).isEqualTo("Owner");
+        assertThat(second.getOrganizationId()).isEqualTo(10L);
+        assertThat(second.getPassword()).isNull();
+        verify(userRepository, times(1)).findWithOrganizationByEmail(EMAIL);
+    }
+
+    @Test
+    void loadAuthenticatedUser_UnknownUser_Throws() {
+        when(userRepository.findWithOrganizationByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userAuthService.loadAuthenticatedUser("missing@example.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void resolveUser_CopiesRequestPrincipalWithoutQuerying() {
+        AuthenticatedUser principal = AuthenticatedUser.of(testUser);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        User resolved = userAuthService.resolveUser(EMAIL).orElseThrow();
+        resolved.setName("Modified by a caller");
+
+        assertThat(resolved).isNotSameAs(testUser);
+        assertThat(resolved.getId()).isEqualTo(1L);
+        assertThat(resolved.getOrganization().getId()).isEqualTo(10L);
+        assertThat(userAuthService.resolveUser(EMAIL).orElseThrow().getName()).isEqualTo("Owner");
+        verifyNoInteractions(userRepository);
+    }
+}
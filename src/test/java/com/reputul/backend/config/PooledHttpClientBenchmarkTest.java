@@ -0,0 +1,137 @@
+package com.reputul.backend.config;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Benchmark against a local stub server: the pooled request factory from RestTemplateConfig
+ * versus a bare RestTemplate (SimpleClientHttpRequestFactory). The harness reports
+ * connections opened, throughput and p50/p99 latency for both. Pool limits and connection
+ * reuse are asserted in RestTemplateConfigTest.
+ *
+ * Run with -Dbenchmark=true; scale it up with -Dbenchmark.requests=20000
+ * -Dbenchmark.concurrency=64.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PooledHttpClientBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 32);
+    private static final byte[] BODY = "{\"reviews\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private String url;
+
+    @BeforeEach
+    void startStubServer() throws Exception {
+        serverExecutor = Executors.newFixedThreadPool(CONCURRENCY * 2);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/reviews", exchange -> {
+            // One remote port per TCP connection the client opened
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BODY.length);
+            exchange.getResponseBody().write(BODY);
+            exchange.close();
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/reviews";
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void pooledClient_ReusesConnectionsAndRaisesThroughput() throws Exception {
+        BenchmarkResult bare = run(new RestTemplate());
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(CONCURRENCY)
+                .setMaxConnPerRoute(CONCURRENCY)
+                .build();
+        BenchmarkResult pooled;
+        try (CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(connectionManager).build()) {
+            pooled = run(new RestTemplate(RestTemplateConfig.requestFactory(
+                    httpClient, Duration.ofSeconds(5), Duration.ofSeconds(5))));
+            assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        }
+
+        log.info("bare:   connections={} throughput={} req/s p50={}ms p99={}ms", bare.connections(),
+                Math.round(bare.throughput()), String.format("%.2f", bare.p50Millis()), String.format("%.2f", bare.p99Millis()));
+        log.info("pooled: connections={} throughput={} req/s p50={}ms p99={}ms", pooled.connections(),
+                Math.round(pooled.throughput()), String.format("%.2f", pooled.p50Millis()), String.format("%.2f", pooled.p99Millis()));
+
+        assertThat(pooled.connections()).isLessThanOrEqualTo(CONCURRENCY);
+        assertThat(pooled.connections()).isLessThan(bare.connections());
+    }
+
+    private BenchmarkResult run(RestTemplate restTemplate) throws Exception {
+        clientPorts.clear();
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENCY);
+
+        long startedAt = System.nanoTime();
+        try {
+            Future<?>[] workers = new Future<?>[CONCURRENCY];
+            for (int i = 0; i < CONCURRENCY; i++) {
+                workers[i] = callers.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < REQUESTS) {
+                        long requestStart = System.nanoTime();
+                        restTemplate.getForObject(url, String.class);
+                        latencies[index] = System.nanoTime() - requestStart;
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+
+        Arrays.sort(latencies);
+        return new BenchmarkResult(
+                clientPorts.size(),
+                REQUESTS / (elapsed / 1e9),
+                latencies[REQUESTS / 2] / 1e6,
+                latencies[(int) Math.ceil(REQUESTS * 0.99) - 1] / 1e6);
+    }
+
+    private record BenchmarkResult(int connections, double throughput, double p50Millis, double p99Millis) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.reputul.backend.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.routing.DefaultRoutePlanner;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.routing.HttpRoute;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Pool limits of the integration connection manager, checked against the routes the
+ * client itself plans for outbound requests, and connection reuse through the pooled
+ * request factory
+ */
+class RestTemplateConfigTest {
+
+    private final DefaultRoutePlanner routePlanner = new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE);
+
+    private RestTemplateConfig.HttpClientProperties properties;
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RestTemplateConfig.HttpClientProperties(
+                null, null, 200, 20, Map.of("mybusiness.googleapis.com", 10), null, null);
+        connectionManager = new RestTemplateConfig().integrationConnectionManager(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+    }
+
+    @Test
+    void connectionManager_AppliesPoolLimits() {
+        assertThat(connectionManager.getMaxTotal()).isEqualTo(200);
+        assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(20);
+    }
+
+    @Test
+    void maxPerHost_AppliesToTheRouteTheClientUses() throws Exception {
+        HttpRoute route = plannedRoute("https://mybusiness.googleapis.com");
+
+        assertThat(route).isEqualTo(RestTemplateConfig.httpsRoute("mybusiness.googleapis.com"));
+        assertThat(connectionManager.getMaxPerRoute(route)).isEqualTo(10);
+        assertThat(connectionManager.getMaxPerRoute(plannedRoute("https://graph.facebook.com"))).isEqualTo(20);
+    }
+
+    @Test
+    void pooledRequestFactory_ReusesOneConnectionForSequentialRequests() throws Exception {
+        Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/reviews", exchange -> {
+            // One remote port per TCP connection the client opened
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "{}".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try (CloseableHttpClient httpClient = new RestTemplateConfig().integrationHttpClient(connectionManager, properties)) {
+            RestTemplate restTemplate = new RestTemplate(RestTemplateConfig.requestFactory(
+                    httpClient, Duration.ofSeconds(5), Duration.ofSeconds(5)));
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/reviews";
+            for (int i = 0; i < 20; i++) {
+                restTemplate.getForObject(url, String.class);
+            }
+
+            assertThat(clientPorts).hasSize(1);
+            assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private HttpRoute plannedRoute(String uri) throws Exception {
+        return routePlanner.determineRoute(HttpHost.create(uri), HttpClientContext.create());
+    }
+}
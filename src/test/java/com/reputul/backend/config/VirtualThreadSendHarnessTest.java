@@ -0,0 +1,115 @@
+package com.reputul.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Load harness for the async executor built by SchedulingConfig, as configured in
+ * production: the platform pool at its real size (max 20, queue 100, caller-runs) against
+ * virtual threads capped by their own concurrency limit (app.async.virtual.concurrency-limit,
+ * 200 by default). Each simulated send blocks for a fixed latency, the way a Twilio, Resend
+ * or RestTemplate call does. Both modes must finish every send on the expected kind of
+ * thread within their own limit; virtual threads must run more sends at once and finish
+ * with a lower p99 submit-to-complete latency. Both figures are logged.
+ *
+ * Run with -Dbenchmark=true; scale it up with -Dharness.sends=5000
+ * -Dharness.latency-ms=200, try other caps with -Dharness.virtual-limit=1000, and add
+ * -Djdk.tracePinnedThreads=short to surface any carrier-thread pinning.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadSendHarnessTest {
+
+    private static final int SENDS = Integer.getInteger("harness.sends", 400);
+    private static final long LATENCY_MS = Long.getLong("harness.latency-ms", 25L);
+
+    /** Max size of the platform async pool in SchedulingConfig */
+    private static final int PLATFORM_POOL_SIZE = 20;
+
+    /** Default of app.async.virtual.concurrency-limit */
+    private static final int VIRTUAL_LIMIT = Integer.getInteger("harness.virtual-limit", 200);
+
+    @Test
+    void productionSettings_VirtualThreadsRunMoreSendsAtOnceWithLowerP99() throws Exception {
+        HarnessResult platform = run(false);
+        HarnessResult virtual = run(true);
+
+        log.info("platform (pool {}): maxConcurrent={} p99={}ms",
+                PLATFORM_POOL_SIZE, platform.maxConcurrent(), platform.p99Millis());
+        log.info("virtual (limit {}): maxConcurrent={} p99={}ms",
+                VIRTUAL_LIMIT, virtual.maxConcurrent(), virtual.p99Millis());
+
+        assertThat(platform.completed()).isEqualTo(SENDS);
+        assertThat(platform.virtualThreadSends()).isZero();
+        // CallerRunsPolicy can add the submitting thread on top of the pool when the queue is full
+        assertThat(platform.maxConcurrent()).isLessThanOrEqualTo(PLATFORM_POOL_SIZE + 1);
+
+        assertThat(virtual.completed()).isEqualTo(SENDS);
+        assertThat(virtual.virtualThreadSends()).isEqualTo(SENDS);
+        assertThat(virtual.maxConcurrent()).isLessThanOrEqualTo(VIRTUAL_LIMIT);
+
+        assertThat(virtual.maxConcurrent()).isGreaterThan(platform.maxConcurrent());
+        assertThat(virtual.p99Millis()).isLessThan(platform.p99Millis());
+    }
+
+    private HarnessResult run(boolean virtualThreads) throws Exception {
+        SchedulingConfig config = new SchedulingConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", virtualThreads);
+        ReflectionTestUtils.setField(config, "virtualConcurrencyLimit", VIRTUAL_LIMIT);
+        Executor executor = config.getAsyncExecutor();
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger virtualThreadSends = new AtomicInteger();
+        long[] latencies = new long[SENDS];
+        CountDownLatch done = new CountDownLatch(SENDS);
+
+        try {
+            for (int i = 0; i < SENDS; i++) {
+                int index = i;
+                long submittedAt = System.nanoTime();
+                executor.execute(() -> {
+                    maxConcurrent.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    if (Thread.currentThread().isVirtual()) {
+                        virtualThreadSends.incrementAndGet();
+                    }
+                    try {
+                        Thread.sleep(LATENCY_MS);
+                        completed.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.decrementAndGet();
+                        latencies[index] = System.nanoTime() - submittedAt;
+                        done.countDown();
+                    }
+                });
+            }
+            assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            if (executor instanceof DisposableBean disposable) {
+                disposable.destroy();
+            }
+        }
+
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) Math.ceil(SENDS * 0.99) - 1];
+        return new HarnessResult(completed.get(), virtualThreadSends.get(), maxConcurrent.get(),
+                TimeUnit.NANOSECONDS.toMillis(p99));
+    }
+
+    private record HarnessResult(int completed, int virtualThreadSends, int maxConcurrent, long p99Millis) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.reputul.backend.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Property test: the lazily advanced accumulator must match the per-review loops
+ * ReputationService and WilsonScoreService ran before it, for random sequences of
+ * review inserts, deletes and day advances.
+ *
+ * The old loops age reviews in whole 24-hour periods (ChronoUnit.DAYS.between) while
+ * the accumulator ages them in UTC days. Evaluated at the end of a UTC day the two agree
+ * exactly; earlier in the day a review created later in the day than "now" is one day
+ * younger in the old loop, so each weight can be at most exp(lambda) larger.
+ */
+class RecencyDecayAccumulatorTest {
+
+    // Copied from the pre-accumulator ReputationService, like the loops below
+    private static final double RECENCY_LAMBDA = 0.00385; // ~180 day half-life: ln(2)/180
+
+    private static final double RELATIVE_TOLERANCE = 1e-9;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    @Test
+    void accumulatorMatchesPerReviewLoop() {
+        for (long seed = 1; seed <= 200; seed++) {
+            Random random = new Random(seed);
+            long startDay = 19000 + random.nextInt(1000);
+
+            RecencyDecayAccumulator accumulator = RecencyDecayAccumulator.anchoredAt(startDay);
+            List<Review> reviews = new ArrayList<>();
+            long today = startDay;
+
+            int operations = 1 + random.nextInt(300);
+            for (int i = 0; i < operations; i++) {
+                int action = random.nextInt(10);
+                if (action < 6 || reviews.isEmpty()) {
+                    // Reviews may be back-dated (platform sync) or land on today, at any time of day
+                    Review review = Review.builder()
+                            .rating(1 + random.nextInt(5))
+                            .createdAt(startOfDay(today - random.nextInt(2000))
+                                    .plusSeconds(random.nextInt((int) SECONDS_PER_DAY)))
+                            .build();
+                    reviews.add(review);
+                    accumulator.add(RecencyDecayAccumulator.epochDay(review.getCreatedAt()), review.getRating(), 1);
+                } else if (action < 8) {
+                    Review review = reviews.remove(random.nextInt(reviews.size()));
+                    accumulator.add(RecencyDecayAccumulator.epochDay(review.getCreatedAt()), review.getRating(), -1);
+                } else {
+                    today += random.nextInt(45);
+                    if (random.nextBoolean()) {
+                        accumulator.advanceTo(today);
+                    }
+                }
+            }
+
+            assertMatchesLoop(accumulator, reviews, today, seed);
+            // Evaluating at a later day must not require advancing the stored anchor
+            assertMatchesLoop(accumulator, reviews, today + 365, seed);
+            assertWithinOneDayOfLoop(accumulator, reviews, today,
+                    startOfDay(today).plusSeconds(random.nextInt((int) SECONDS_PER_DAY)), seed);
+        }
+    }
+
+    @Test
+    void weightHalvesAfterRoughlySixMonths() {
+        assertThat(RecencyDecayAccumulator.weight(0)).isEqualTo(1.0);
+        assertThat(RecencyDecayAccumulator.weight(180)).isCloseTo(0.5, within(0.01));
+    }
+
+    @Test
+    void advancingBackwardsIsNoOp() {
+        RecencyDecayAccumulator accumulator = RecencyDecayAccumulator.anchoredAt(20000);
+        accumulator.add(19990, 5, 1);
+        double before = accumulator.getWeightSum();
+
+        accumulator.advanceTo(19000);
+
+        assertThat(accumulator.getAnchorDay()).isEqualTo(20000L);
+        assertThat(accumulator.getWeightSum()).isEqualTo(before);
+    }
+
+    private void assertMatchesLoop(RecencyDecayAccumulator accumulator, List<Review> reviews,
+                                   long today, long seed) {
+        OffsetDateTime endOfDay = startOfDay(today + 1).minusNanos(1);
+        double[] rating = reputulRatingLoop(reviews, endOfDay);
+        double[] quality = qualityScoreLoop(reviews, endOfDay);
+
+        assertClose(accumulator.weightSumAt(today), rating[0], "weight", seed);
+        assertClose(accumulator.ratingSumAt(today), rating[1], "rating", seed);
+        assertClose(accumulator.weightSumAt(today), quality[0], "weight", seed);
+        assertClose(accumulator.positiveSumAt(today), quality[1], "positive", seed);
+    }
+
+    private void assertWithinOneDayOfLoop(RecencyDecayAccumulator accumulator, List<Review> reviews,
+                                          long today, OffsetDateTime now, long seed) {
+        double[] rating = reputulRatingLoop(reviews, now);
+        double[] quality = qualityScoreLoop(reviews, now);
+
+        assertWithinOneDay(rating[0], accumulator.weightSumAt(today), "weight", seed);
+        assertWithinOneDay(rating[1], accumulator.ratingSumAt(today), "rating", seed);
+        assertWithinOneDay(quality[1], accumulator.positiveSumAt(today), "positive", seed);
+    }
+
+    /**
+     * The loop in ReputationService.calculateReputulRating before the accumulator, verbatim:
+     * [weighted reviews, weighted rating]
+     */
+    private static double[] reputulRatingLoop(List<Review> reviews, OffsetDateTime now) {
+        double totalWeightedReviews = 0.0;
+        double totalWeightedRating = 0.0;
+
+        // Apply recency weighting to each review
+        for (Review review : reviews) {
+            long ageDays = ChronoUnit.DAYS.between(review.getCreatedAt(), now);
+            double recencyWeight = Math.exp(-RECENCY_LAMBDA * ageDays);
+
+            totalWeightedReviews += recencyWeight;
+            totalWeightedRating += (review.getRating() * recencyWeight);
+        }
+
+        return new double[]{totalWeightedReviews, totalWeightedRating};
+    }
+
+    /**
+     * The loop in ReputationService.calculateQualityScore before the accumulator, verbatim
+     * (WilsonScoreService ran the same one): [weighted reviews, weighted positive]
+     */
+    private static double[] qualityScoreLoop(List<Review> reviews, OffsetDateTime now) {
+        double totalWeightedReviews = 0.0;
+        double totalWeightedPositive = 0.0;
+
+        for (Review review : reviews) {
+            long ageDays = ChronoUnit.DAYS.between(review.getCreatedAt(), now);
+            double weight = Math.exp(-RECENCY_LAMBDA * ageDays);
+
+            totalWeightedReviews += weight;
+            if (review.getRating() >= 4) {
+                totalWeightedPositive += weight;
+            }
+        }
+
+        return new double[]{totalWeightedReviews, totalWeightedPositive};
+    }
+
+    private static OffsetDateTime startOfDay(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    private void assertClose(double actual, double expected, String sum, long seed) {
+        double tolerance = Math.max(1e-12, Math.abs(expected) * RELATIVE_TOLERANCE);
+        assertThat(actual)
+                .as("%s sum for seed %d", sum, seed)
+                .isCloseTo(expected, within(tolerance));
+    }
+
+    private void assertWithinOneDay(double loop, double accumulated, String sum, long seed) {
+        double tolerance = Math.max(1e-12, Math.abs(accumulated) * RELATIVE_TOLERANCE);
+        assertThat(loop)
+                .as("%s sum for seed %d", sum, seed)
+                .isBetween(accumulated - tolerance, accumulated * Math.exp(RECENCY_LAMBDA) + tolerance);
+    }
+}
@@ -0,0 +1,101 @@
+package com.reputul.backend.platform.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reputul.backend.models.Business;
+import com.reputul.backend.models.Customer;
+import com.reputul.backend.models.User;
+import com.reputul.backend.platform.dto.integration.ZapierContactRequest;
+import com.reputul.backend.platform.dto.integration.ZapierWebhookResponse;
+import com.reputul.backend.repositories.BusinessRepository;
+import com.reputul.backend.repositories.CustomerRepository;
+import com.reputul.backend.repositories.EmailTemplateRepository;
+import com.reputul.backend.repositories.ReviewRequestRepository;
+import com.reputul.backend.services.WebhookIdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ZapierWebhookServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private ReviewRequestRepository reviewRequestRepository;
+
+    @Mock
+    private BusinessRepository businessRepository;
+
+    @Mock
+    private EmailTemplateRepository emailTemplateRepository;
+
+    @Mock
+    private WebhookIdempotencyService webhookIdempotencyService;
+
+    private ZapierWebhookService zapierWebhookService;
+
+    private Business business;
+
+    @BeforeEach
+    void setUp() {
+        zapierWebhookService = new ZapierWebhookService(customerRepository, reviewRequestRepository,
+                businessRepository, emailTemplateRepository, webhookIdempotencyService, new ObjectMapper(),
+                Duration.ofHours(24));
+        business = Business.builder().id(10L).name("Acme").user(User.builder().id(1L).build()).build();
+        when(businessRepository.findDefaultByOrganizationId(100L)).thenReturn(Optional.of(business));
+        when(customerRepository.findByBusinessAndPhoneAnyFormat(anyLong(), anyString())).thenCallRealMethod();
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void createContact_DifferentlyFormattedPhone_UpdatesExistingCustomer() {
+        Customer existing = Customer.builder()
+                .id(7L)
+                .name("Jane")
+                .email("jane@example.com")
+                .phone("+14152300001")
+                .phoneE164("+14152300001")
+                .serviceDate(LocalDate.of(2024, 5, 1))
+                .serviceType("Cleaning")
+                .business(business)
+                .build();
+        when(customerRepository.findFirstByBusinessIdAndPhoneE164OrderByIdDesc(10L, "+14152300001"))
+                .thenReturn(Optional.of(existing));
+
+        ZapierWebhookResponse response = zapierWebhookService.createContact(100L, ZapierContactRequest.builder()
+                .customerName("Jane Doe")
+                .phone("(415) 230-0001")
+                .build());
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getContact().getId()).isEqualTo(7L);
+        assertThat(response.getContact().isCreated()).isFalse();
+        assertThat(existing.getPhoneE164()).isEqualTo("+14152300001");
+        verify(customerRepository).save(existing);
+    }
+
+    @Test
+    void createContact_UnknownPhone_CreatesCustomer() {
+        when(customerRepository.findFirstByBusinessIdAndPhoneE164OrderByIdDesc(10L, "+14152300001"))
+                .thenReturn(Optional.empty());
+
+        ZapierWebhookResponse response = zapierWebhookService.createContact(100L, ZapierContactRequest.builder()
+                .customerName("Jane Doe")
+                .phone("415-230-0001")
+                .build());
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getContact().isCreated()).isTrue();
+    }
+}
@@ -0,0 +1,206 @@
+package com.reputul.backend.repositories;
+
+import com.reputul.backend.models.BulkSendChannel;
+import com.reputul.backend.repositories.BulkSendRepository.ClaimedItem;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Claiming, leasing and finishing bulk send items on an in-memory database, including
+ * several nodes claiming the same channel at once
+ */
+class BulkSendRepositoryTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2024, 5, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private BulkSendRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:bulk_send;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(8);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE bulk_send_jobs (" +
+                "id BIGSERIAL PRIMARY KEY, user_id BIGINT NOT NULL, channel VARCHAR(20) NOT NULL, " +
+                "sequence_id BIGINT, status VARCHAR(20) NOT NULL DEFAULT 'QUEUED', total INTEGER NOT NULL DEFAULT 0, " +
+                "created_at TIMESTAMP WITH TIME ZONE NOT NULL, updated_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+                "completed_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE TABLE bulk_send_items (" +
+                "id BIGSERIAL PRIMARY KEY, job_id BIGINT NOT NULL REFERENCES bulk_send_jobs(id) ON DELETE CASCADE, " +
+                "customer_id BIGINT NOT NULL, channel VARCHAR(20) NOT NULL, status VARCHAR(20) NOT NULL DEFAULT 'PENDING', " +
+                "attempts INTEGER NOT NULL DEFAULT 0, claimed_by VARCHAR(100), lease_expires_at TIMESTAMP WITH TIME ZONE, " +
+                "review_request_id BIGINT, error_message TEXT, updated_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repository = new BulkSendRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE bulk_send_items");
+        jdbcTemplate.execute("DROP TABLE bulk_send_jobs");
+        dataSource.close();
+    }
+
+    @Test
+    void createJob_RecordsRejectedCustomersAsSkipped() {
+        Long jobId = createJob(BulkSendChannel.EMAIL, 5);
+
+        BulkSendRepository.Job job = repository.findJob(jobId).orElseThrow();
+        assertThat(job.status()).isEqualTo("QUEUED");
+        assertThat(job.total()).isEqualTo(5);
+        assertThat(repository.countItemsByStatus(jobId)).containsExactly(Map.entry("PENDING", 5));
+
+        Long mixed = repository.createJob(1L, BulkSendChannel.SMS, null, List.of(1L, 2L), List.of(3L), "denied", NOW);
+        assertThat(repository.findJob(mixed).orElseThrow().total()).isEqualTo(3);
+        assertThat(repository.countItemsByStatus(mixed)).containsOnly(Map.entry("PENDING", 2), Map.entry("SKIPPED", 1));
+    }
+
+    @Test
+    void claim_TakesOnlyItsChannelInIdOrderAndStartsTheJob() {
+        Long emailJob = createJob(BulkSendChannel.EMAIL, 5);
+        createJob(BulkSendChannel.SMS, 5);
+
+        List<ClaimedItem> claimed = claim(BulkSendChannel.EMAIL, "node-a", 3, NOW);
+
+        assertThat(claimed).extracting(ClaimedItem::customerId).containsExactly(1L, 2L, 3L);
+        assertThat(claimed).allMatch(item -> item.jobId().equals(emailJob) && item.attempts() == 1);
+        assertThat(repository.findJob(emailJob).orElseThrow().status()).isEqualTo("RUNNING");
+        assertThat(claim(BulkSendChannel.EMAIL, "node-b", 10, NOW)).extracting(ClaimedItem::customerId)
+                .containsExactly(4L, 5L);
+    }
+
+    @Test
+    void complete_FinishesJobOnceEveryItemHasAnOutcome() {
+        Long jobId = createJob(BulkSendChannel.EMAIL, 3);
+        List<ClaimedItem> claimed = claim(BulkSendChannel.EMAIL, "node-a", 3, NOW);
+
+        assertThat(repository.complete(claimed.get(0).id(), "node-a", "SENT", 100L, null, NOW)).isTrue();
+        assertThat(repository.complete(claimed.get(1).id(), "node-a", "FAILED", null, "bounced", NOW)).isTrue();
+        // Someone else's lease
+        assertThat(repository.complete(claimed.get(2).id(), "node-b", "SENT", 101L, null, NOW)).isFalse();
+
+        assertThat(repository.finishJobs(NOW)).isZero();
+        assertThat(repository.complete(claimed.get(2).id(), "node-a", "SENT", 101L, null, NOW)).isTrue();
+        assertThat(repository.finishJobs(NOW)).isEqualTo(1);
+
+        BulkSendRepository.Job job = repository.findJob(jobId).orElseThrow();
+        assertThat(job.status()).isEqualTo("COMPLETED");
+        assertThat(job.completedAt()).isNotNull();
+        assertThat(repository.countItemsByStatus(jobId)).containsOnly(Map.entry("SENT", 2), Map.entry("FAILED", 1));
+    }
+
+    @Test
+    void expiredLease_IsClaimedAgainUntilAttemptsRunOut() {
+        createJob(BulkSendChannel.SMS, 1);
+
+        ClaimedItem first = claim(BulkSendChannel.SMS, "node-a", 1, NOW).get(0);
+        // Lease still held
+        assertThat(claim(BulkSendChannel.SMS, "node-b", 1, NOW.plusMinutes(1))).isEmpty();
+
+        ClaimedItem second = claim(BulkSendChannel.SMS, "node-b", 1, NOW.plusMinutes(3)).get(0);
+        assertThat(second.id()).isEqualTo(first.id());
+        assertThat(second.attempts()).isEqualTo(2);
+        // The dead node's late result is ignored
+        assertThat(repository.complete(first.id(), "node-a", "SENT", 1L, null, NOW.plusMinutes(3))).isFalse();
+
+        // Released items keep their attempt count
+        assertThat(repository.release(second.id(), "node-b", NOW.plusMinutes(3))).isTrue();
+        assertThat(claim(BulkSendChannel.SMS, "node-b", 1, NOW.plusMinutes(3)).get(0).attempts()).isEqualTo(2);
+
+        assertThat(claim(BulkSendChannel.SMS, "node-c", 1, NOW.plusMinutes(6)).get(0).attempts()).isEqualTo(3);
+        assertThat(claim(BulkSendChannel.SMS, "node-d", 1, NOW.plusMinutes(9))).isEmpty();
+        assertThat(repository.failExhausted(3, NOW.plusMinutes(9))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM bulk_send_items WHERE id = ?",
+                String.class, first.id())).isEqualTo("FAILED");
+    }
+
+    @Test
+    void cancel_StopsPendingItemsOfOwnJobOnly() {
+        Long jobId = createJob(BulkSendChannel.EMAIL, 4);
+        List<ClaimedItem> claimed = claim(BulkSendChannel.EMAIL, "node-a", 1, NOW);
+
+        assertThat(repository.cancel(jobId, 2L, NOW)).isFalse();
+        assertThat(repository.cancel(jobId, 1L, NOW)).isTrue();
+        assertThat(repository.cancel(jobId, 1L, NOW)).isFalse();
+
+        assertThat(repository.countItemsByStatus(jobId)).containsOnly(Map.entry("CLAIMED", 1), Map.entry("CANCELLED", 3));
+        assertThat(claim(BulkSendChannel.EMAIL, "node-b", 10, NOW)).isEmpty();
+        // The send already in flight still records its result
+        assertThat(repository.complete(claimed.get(0).id(), "node-a", "SENT", 7L, null, NOW)).isTrue();
+        assertThat(repository.findJob(jobId).orElseThrow().status()).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void concurrentNodes_ClaimDisjointItems() throws Exception {
+        createJob(BulkSendChannel.EMAIL, 200);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<ClaimedItem>>> futures = new ArrayList<>();
+            for (int node = 0; node < 6; node++) {
+                String owner = "node-" + node;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<ClaimedItem> mine = new ArrayList<>();
+                    List<ClaimedItem> batch;
+                    do {
+                        batch = claim(BulkSendChannel.EMAIL, owner, 7, NOW);
+                        mine.addAll(batch);
+                    } while (!batch.isEmpty());
+                    return mine;
+                }));
+            }
+            start.countDown();
+
+            Set<Long> seen = new HashSet<>();
+            int total = 0;
+            for (Future<List<ClaimedItem>> future : futures) {
+                for (ClaimedItem item : future.get(30, TimeUnit.SECONDS)) {
+                    seen.add(item.id());
+                    total++;
+                }
+            }
+            assertThat(total).isEqualTo(200);
+            assertThat(seen).hasSize(200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Long createJob(BulkSendChannel channel, int recipients) {
+        List<Long> customerIds = LongStream.rangeClosed(1, recipients).boxed().toList();
+        return transactionTemplate.execute(status ->
+                repository.createJob(1L, channel, null, customerIds, List.of(), "denied", NOW));
+    }
+
+    private List<ClaimedItem> claim(BulkSendChannel channel, String owner, int limit, OffsetDateTime now) {
+        return transactionTemplate.execute(status ->
+                repository.claim(channel, owner, limit, 3, now, now.plusMinutes(2)));
+    }
+}
@@ -0,0 +1,152 @@
+package com.reputul.backend.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Two simulated nodes claiming review syncs from one H2 database
+ */
+class ChannelCredentialLeaseRepositoryTest {
+
+    private static final String NODE_A = "node-a";
+    private static final String NODE_B = "node-b";
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ChannelCredentialLeaseRepository leaseRepository;
+    private OffsetDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:credential_leases;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        leaseRepository = new ChannelCredentialLeaseRepository(jdbcTemplate);
+        now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        jdbcTemplate.execute("CREATE TABLE channel_credentials (" +
+                "id BIGINT PRIMARY KEY, " +
+                "status VARCHAR(20) NOT NULL, " +
+                "next_sync_scheduled TIMESTAMP WITH TIME ZONE, " +
+                "sync_claimed_by VARCHAR(100), " +
+                "sync_lease_expires_at TIMESTAMP WITH TIME ZONE)");
+        for (long id = 1; id <= 10; id++) {
+            insertCredential(id, "ACTIVE", now.minusMinutes(id));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE channel_credentials");
+    }
+
+    @Test
+    void claimDue_ConcurrentNodesClaimDisjointCredentials() throws Exception {
+        CountDownLatch nodeAClaimed = new CountDownLatch(1);
+        CountDownLatch nodeBDone = new CountDownLatch(1);
+
+        // Node A holds its row locks open while node B claims
+        CompletableFuture<List<Long>> nodeA = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status -> {
+                    List<Long> claimed = leaseRepository.claimDue(NODE_A, 4, now, now.plusMinutes(10));
+                    nodeAClaimed.countDown();
+                    await(nodeBDone);
+                    return claimed;
+                }));
+
+        assertThat(nodeAClaimed.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Long> nodeBClaimed = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status -> leaseRepository.claimDue(NODE_B, 10, now, now.plusMinutes(10))))
+                .get(5, TimeUnit.SECONDS);
+        nodeBDone.countDown();
+        List<Long> nodeAClaimed = nodeA.get(5, TimeUnit.SECONDS);
+
+        assertThat(nodeAClaimed).hasSize(4);
+        assertThat(nodeBClaimed).hasSize(6).doesNotContainAnyElementsOf(nodeAClaimed);
+
+        Set<Long> all = new HashSet<>(nodeAClaimed);
+        all.addAll(nodeBClaimed);
+        assertThat(all).hasSize(10);
+        assertThat(ownerOf(nodeAClaimed.get(0))).isEqualTo(NODE_A);
+        assertThat(ownerOf(nodeBClaimed.get(0))).isEqualTo(NODE_B);
+    }
+
+    @Test
+    void claimDue_SkipsLeasedFutureAndInactiveCredentials() {
+        insertCredential(11, "ACTIVE", now.plusMinutes(5));
+        insertCredential(12, "EXPIRED", now.minusMinutes(5));
+        claim(NODE_A, 10);
+
+        assertThat(claim(NODE_B, 10)).isEmpty();
+    }
+
+    @Test
+    void claimDue_ReclaimsExpiredLease() {
+        List<Long> claimed = transactionTemplate.execute(status ->
+                leaseRepository.claimDue(NODE_A, 1, now, now.minusSeconds(1)));
+
+        assertThat(claim(NODE_B, 1)).isEqualTo(claimed);
+        assertThat(ownerOf(claimed.get(0))).isEqualTo(NODE_B);
+    }
+
+    @Test
+    void complete_OnlyLeaseOwnerReschedules() {
+        Long credentialId = claim(NODE_A, 1).get(0);
+        OffsetDateTime nextSync = now.plusMinutes(15);
+
+        assertThat(leaseRepository.complete(credentialId, NODE_B, nextSync)).isFalse();
+        assertThat(leaseRepository.complete(credentialId, NODE_A, nextSync)).isTrue();
+
+        assertThat(ownerOf(credentialId)).isNull();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT next_sync_scheduled FROM channel_credentials WHERE id = ?", OffsetDateTime.class, credentialId))
+                .isAfter(now);
+    }
+
+    @Test
+    void release_MakesCredentialClaimableAgain() {
+        Long credentialId = claim(NODE_A, 1).get(0);
+
+        assertThat(leaseRepository.release(credentialId, NODE_A)).isTrue();
+        assertThat(claim(NODE_B, 1)).containsExactly(credentialId);
+    }
+
+    private List<Long> claim(String owner, int limit) {
+        return transactionTemplate.execute(status -> leaseRepository.claimDue(owner, limit, now, now.plusMinutes(10)));
+    }
+
+    private String ownerOf(Long credentialId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT sync_claimed_by FROM channel_credentials WHERE id = ?", String.class, credentialId);
+    }
+
+    private void insertCredential(long id, String status, OffsetDateTime nextSync) {
+        jdbcTemplate.update("INSERT INTO channel_credentials (id, status, next_sync_scheduled) VALUES (?, ?, ?)",
+                id, status, nextSync);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+}
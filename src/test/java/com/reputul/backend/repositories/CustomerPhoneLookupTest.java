@@ -0,0 +1,59 @@
+package com.reputul.backend.repositories;
+
+import com.reputul.backend.models.Customer;
+import com.reputul.backend.util.PhoneNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Inbound SMS customer lookup: numbers stored in the formats people type in normalize to
+ * the same E.164 value Twilio sends, and the any-format lookup is one phone_e164 query
+ */
+class CustomerPhoneLookupTest {
+
+    private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository = mock(CustomerRepository.class);
+        when(customerRepository.findByPhoneAnyFormat(any())).thenCallRealMethod();
+    }
+
+    @Test
+    void toE164_NormalizesStoredFormats() {
+        assertThat(PhoneNormalizer.toE164("(415) 230-0001")).isEqualTo("+14152300001");
+        assertThat(PhoneNormalizer.toE164("415.230.0001")).isEqualTo("+14152300001");
+        assertThat(PhoneNormalizer.toE164("1 415 230 0001")).isEqualTo("+14152300001");
+        assertThat(PhoneNormalizer.toE164("+14152300001")).isEqualTo("+14152300001");
+        assertThat(PhoneNormalizer.toE164("12345")).isNull();
+    }
+
+    @Test
+    void storedFormats_MatchTheInboundE164Number() {
+        for (String stored : List.of("(212) 230-0001", "2122300001", "+12122300001", "212-230-0001")) {
+            assertThat(PhoneNormalizer.toE164(stored)).as(stored).isEqualTo("+12122300001");
+        }
+    }
+
+    @Test
+    void findByPhoneAnyFormat_LooksUpOnceByE164() {
+        Customer customer = Customer.builder().id(7L).phone("(415) 230-0001").phoneE164("+14152300001").build();
+        when(customerRepository.findFirstByPhoneE164OrderByIdDesc("+14152300001")).thenReturn(Optional.of(customer));
+
+        assertThat(customerRepository.findByPhoneAnyFormat("+14152300001")).contains(customer);
+        verify(customerRepository).findFirstByPhoneE164OrderByIdDesc("+14152300001");
+    }
+
+    @Test
+    void findByPhoneAnyFormat_UnparseableNumber_NoQuery() {
+        assertThat(customerRepository.findByPhoneAnyFormat("12345")).isEmpty();
+        verify(customerRepository, never()).findFirstByPhoneE164OrderByIdDesc(anyString());
+    }
+}
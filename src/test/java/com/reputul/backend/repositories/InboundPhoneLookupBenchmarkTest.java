@@ -0,0 +1,173 @@
+package com.reputul.backend.repositories;
+
+import com.reputul.backend.util.PhoneNormalizer;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Benchmark of customer lookup for a burst of inbound SMS: the previous
+ * findByPhoneAnyFormat (regex cleanup, then up to four sequential queries on the raw,
+ * unindexed phone column) against E.164 normalization and one lookup on the indexed
+ * phone_e164 column. Stored numbers use the mixed formats people type in; inbound
+ * numbers arrive in E.164, as Twilio sends them. Reports messages/s and match rate;
+ * CustomerPhoneLookupTest covers the E.164 matching itself.
+ *
+ * Run with -Dbenchmark=true; at full size add -Dbenchmark.customers=200000
+ * -Dbenchmark.messages=50000.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InboundPhoneLookupBenchmarkTest {
+
+    private static final int CUSTOMERS = Integer.getInteger("benchmark.customers", 20_000);
+    private static final int MESSAGES = Integer.getInteger("benchmark.messages", 10_000);
+    private static final int THREADS = 16;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:inbound;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(THREADS);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE TABLE customers (" +
+                "id BIGINT PRIMARY KEY, business_id BIGINT NOT NULL, phone VARCHAR(50), phone_e164 VARCHAR(20))");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uq_customers_business_phone_e164 ON customers (business_id, phone_e164)");
+        jdbcTemplate.execute("CREATE INDEX idx_customers_phone_e164 ON customers (phone_e164)");
+
+        List<Object[]> rows = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String phone = storedFormat(i);
+            rows.add(new Object[]{(long) i + 1, (long) (i % 50) + 1, phone, PhoneNormalizer.toE164(phone)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customers (id, business_id, phone, phone_e164) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE customers");
+        dataSource.close();
+    }
+
+    @Test
+    void indexedE164Lookup_OutpacesSequentialFormatProbing() throws Exception {
+        List<String> inbound = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            inbound.add(e164(Math.floorMod(i * 7919, CUSTOMERS)));
+        }
+
+        BurstResult previous = burst(inbound, this::findByPhoneAnyFormatPrevious);
+        BurstResult indexed = burst(inbound, phone -> {
+            String phoneE164 = PhoneNormalizer.toE164(phone);
+            return phoneE164 == null ? null : first(jdbcTemplate.queryForList(
+                    "SELECT id FROM customers WHERE phone_e164 = ? ORDER BY id DESC LIMIT 1", Long.class, phoneE164));
+        });
+
+        log.info("customers={} messages={} threads={}", CUSTOMERS, MESSAGES, THREADS);
+        log.info("previous: {} msg/s matched={}%", Math.round(previous.throughput()), previous.matchRate());
+        log.info("indexed:  {} msg/s matched={}% ({}x)", Math.round(indexed.throughput()), indexed.matchRate(),
+                String.format("%.1f", indexed.throughput() / previous.throughput()));
+
+        assertThat(indexed.matchRate()).isEqualTo(100.0);
+        assertThat(indexed.matchRate()).isGreaterThanOrEqualTo(previous.matchRate());
+    }
+
+    /**
+     * The lookup findByPhoneAnyFormat did before phone_e164 existed
+     */
+    private Long findByPhoneAnyFormatPrevious(String incomingPhone) {
+        String clean = incomingPhone.replaceAll("[^+\\d]", "");
+        List<String> candidates = new ArrayList<>(List.of(clean));
+        if (!clean.startsWith("+")) {
+            candidates.add("+" + clean);
+        }
+        if (clean.startsWith("+")) {
+            candidates.add(clean.substring(1));
+        }
+        if (clean.length() == 10 && clean.matches("\\d{10}")) {
+            candidates.add("+1" + clean);
+        }
+        for (String candidate : candidates) {
+            Long id = first(jdbcTemplate.queryForList("SELECT id FROM customers WHERE phone = ?", Long.class, candidate));
+            if (id != null) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private static BurstResult burst(List<String> inbound, Function<String, Long> lookup) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long startedAt = System.nanoTime();
+            List<Future<Long>> results = new ArrayList<>(inbound.size());
+            for (String phone : inbound) {
+                results.add(executor.submit(() -> lookup.apply(phone)));
+            }
+            int matched = 0;
+            for (Future<Long> result : results) {
+                if (result.get() != null) {
+                    matched++;
+                }
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            return new BurstResult(inbound.size(), matched, seconds);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String digits(int i) {
+        // Area codes 415/212, exchanges 230-279 (no N11 or 555 ranges)
+        return (i % 2 == 0 ? "415" : "212") + (230 + (i / 10_000) % 50) + String.format("%04d", i % 10_000);
+    }
+
+    private static String e164(int i) {
+        return "+1" + digits(i);
+    }
+
+    private static String storedFormat(int i) {
+        String d = digits(i);
+        return switch (i % 4) {
+            case 0 -> "(" + d.substring(0, 3) + ") " + d.substring(3, 6) + "-" + d.substring(6);
+            case 1 -> d;
+            case 2 -> "+1" + d;
+            default -> d.substring(0, 3) + "-" + d.substring(3, 6) + "-" + d.substring(6);
+        };
+    }
+
+    private static Long first(List<Long> ids) {
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    private record BurstResult(int messages, int matched, double seconds) {
+
+        double throughput() {
+            return messages / seconds;
+        }
+
+        double matchRate() {
+            return matched * 100.0 / messages;
+        }
+    }
+}
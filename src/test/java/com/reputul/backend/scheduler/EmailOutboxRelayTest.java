@@ -0,0 +1,387 @@
+package com.reputul.backend.scheduler;
+
+import com.reputul.backend.config.EmailOutboxProperties;
+import com.reputul.backend.config.InstanceId;
+import com.reputul.backend.integrations.EmailProvider;
+import com.reputul.backend.integrations.EmailProviderException;
+import com.reputul.backend.repositories.EmailOutboxRepository;
+import com.reputul.backend.repositories.EmailOutboxRepository.NewEmail;
+import com.reputul.backend.repositories.ProviderRequestWindowRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Outbox relay against an in-memory database and a local fake provider: batching, the
+ * provider request budget shared across nodes, exponential retry, dead-lettering and lease
+ * takeover
+ */
+class EmailOutboxRelayTest {
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private EmailOutboxRepository repository;
+    private FakeEmailProvider provider;
+    private SimpleMeterRegistry meterRegistry;
+    private TestClock clock;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:email_outbox;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE review_requests (" +
+                "id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, error_message VARCHAR(255), " +
+                "sendgrid_message_id VARCHAR(255), sent_at TIMESTAMP WITH TIME ZONE, " +
+                "updated_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE TABLE email_outbox (" +
+                "id BIGSERIAL PRIMARY KEY, review_request_id BIGINT, organization_id BIGINT, " +
+                "from_address VARCHAR(320) NOT NULL, to_address VARCHAR(320) NOT NULL, subject VARCHAR(998) NOT NULL, " +
+                "html_body TEXT NOT NULL, status VARCHAR(20) NOT NULL DEFAULT 'PENDING', attempts INTEGER NOT NULL DEFAULT 0, " +
+                "next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL, claimed_by VARCHAR(100), " +
+                "lease_expires_at TIMESTAMP WITH TIME ZONE, provider_message_id VARCHAR(255), last_error TEXT, " +
+                "created_at TIMESTAMP WITH TIME ZONE NOT NULL, updated_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+                "sent_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE TABLE provider_request_windows (" +
+                "provider VARCHAR(32) NOT NULL, window_start TIMESTAMP WITH TIME ZONE NOT NULL, " +
+                "used INTEGER NOT NULL DEFAULT 0, updated_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+                "PRIMARY KEY (provider, window_start))");
+        repository = new EmailOutboxRepository(jdbcTemplate);
+        provider = new FakeEmailProvider();
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new TestClock(Instant.parse("2024-05-01T10:00:00Z"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE provider_request_windows");
+        jdbcTemplate.execute("DROP TABLE email_outbox");
+        jdbcTemplate.execute("DROP TABLE review_requests");
+        dataSource.close();
+    }
+
+    @Test
+    void relay_SendsQueuedEmailsInProviderBatches() {
+        jdbcTemplate.update("INSERT INTO review_requests (id, status) VALUES (1, 'SENT')");
+        repository.enqueue(email(1L, 0), now());
+        enqueue(249);
+
+        relay(properties(100, 10, 6)).relay();
+
+        assertThat(provider.batchSizes).containsExactly(100, 100, 50);
+        assertThat(count("SENT")).isEqualTo(250);
+        assertThat(jdbcTemplate.queryForObject("SELECT sendgrid_message_id FROM review_requests WHERE id = 1",
+                String.class)).isEqualTo("msg-1");
+        assertThat(jdbcTemplate.queryForObject("SELECT provider_message_id FROM email_outbox WHERE id = 250",
+                String.class)).isEqualTo("msg-250");
+        assertThat(meterRegistry.get("email.outbox.messages").tag("outcome", "sent").counter().count()).isEqualTo(250);
+        assertThat(meterRegistry.get("email.outbox.depth").tag("status", "pending").gauge().value()).isZero();
+        assertThat(meterRegistry.get("email.outbox.send.latency").tag("outcome", "success").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void requestBudget_LimitsProviderCallsPerSecond() {
+        enqueue(250);
+
+        relay(properties(100, 2, 6)).relay();
+
+        assertThat(provider.batchSizes).containsExactly(100, 100);
+        assertThat(count("PENDING")).isEqualTo(50);
+        assertThat(meterRegistry.get("email.outbox.depth").tag("status", "pending").gauge().value()).isEqualTo(50);
+        assertThat(meterRegistry.get("email.outbox.throttled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestBudget_SharedByAllNodes() {
+        enqueue(250);
+        EmailOutboxRelay first = relay(properties(100, 2, 6), "node-1");
+        EmailOutboxRelay second = relay(properties(100, 2, 6), "node-2");
+
+        first.relay();
+        second.relay();
+        assertThat(provider.batchSizes).containsExactly(100, 100);
+
+        // The next second has room again, for whichever node asks first
+        clock.advance(Duration.ofSeconds(1));
+        second.relay();
+        assertThat(provider.batchSizes).containsExactly(100, 100, 50);
+        assertThat(count("SENT")).isEqualTo(250);
+    }
+
+    @Test
+    void failedBatch_RetriedWithExponentialBackoffThenDeadLettered() {
+        jdbcTemplate.update("INSERT INTO review_requests (id, status) VALUES (1, 'SENT')");
+        repository.enqueue(email(1L, 0), now());
+        provider.failuresLeft.set(Integer.MAX_VALUE);
+        EmailOutboxRelay relay = relay(properties(100, 100, 3));
+
+        relay.relay();
+        assertThat(provider.calls.get()).isEqualTo(1);
+        assertThat(nextAttemptAt()).isEqualTo(now().plusSeconds(30));
+
+        // Not due yet
+        clock.advance(Duration.ofSeconds(29));
+        relay.relay();
+        assertThat(provider.calls.get()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(1));
+        relay.relay();
+        assertThat(provider.calls.get()).isEqualTo(2);
+        assertThat(nextAttemptAt()).isEqualTo(now().plusSeconds(60));
+
+        clock.advance(Duration.ofSeconds(60));
+        relay.relay();
+        assertThat(provider.calls.get()).isEqualTo(3);
+        assertThat(count("DEAD")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_error FROM email_outbox", String.class))
+                .isEqualTo("provider unavailable");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM review_requests WHERE id = 1", String.class))
+                .isEqualTo("FAILED");
+
+        // Dead letters stay put once the provider recovers
+        provider.failuresLeft.set(0);
+        clock.advance(Duration.ofHours(2));
+        relay.relay();
+        assertThat(provider.calls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("email.outbox.messages").tag("outcome", "retried").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("email.outbox.messages").tag("outcome", "dead").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidEmailInBatch_OnlyThatEmailIsDeadLettered() {
+        jdbcTemplate.update("INSERT INTO review_requests (id, status) VALUES (1, 'SENT')");
+        enqueue(2);
+        repository.enqueue(new NewEmail(1L, 1L, "Acme via Reputul <reviews@reputul.com>",
+                "not-an-address", "How did we do?", "<p>Hi</p>"), now());
+        enqueue(2);
+
+        relay(properties(100, 100, 3)).relay();
+
+        // The batch, then each email on its own
+        assertThat(provider.calls.get()).isEqualTo(6);
+        assertThat(provider.batchSizes).containsExactly(1, 1, 1, 1);
+        assertThat(count("SENT")).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT to_address FROM email_outbox WHERE status = 'DEAD'",
+                String.class)).isEqualTo("not-an-address");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM review_requests WHERE id = 1", String.class))
+                .isEqualTo("FAILED");
+        assertThat(meterRegistry.get("email.outbox.messages").tag("outcome", "dead").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("email.outbox.messages").tag("outcome", "retried").counter().count()).isZero();
+    }
+
+    @Test
+    void invalidEmailInBatch_OneByOneSkipsEmailsTakenOverByAnotherNode() {
+        repository.enqueue(new NewEmail(null, 1L, "Acme via Reputul <reviews@reputul.com>",
+                "not-an-address", "How did we do?", "<p>Hi</p>"), now());
+        enqueue(2);
+        // While the first single send is going out, another node takes over customer1's expired lease
+        provider.beforeSend = emails -> {
+            if (emails.size() == 1 && emails.get(0).to().equals("not-an-address")) {
+                jdbcTemplate.update("UPDATE email_outbox SET claimed_by = 'other-node' " +
+                        "WHERE to_address = 'customer1@example.com'");
+            }
+        };
+
+        relay(properties(100, 100, 3)).relay();
+
+        assertThat(provider.recipients).containsExactly("customer0@example.com");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM email_outbox WHERE to_address = 'customer1@example.com'",
+                String.class)).isEqualTo("SENDING");
+    }
+
+    @Test
+    void expiredLease_IsTakenOverAndLateResultIgnored() {
+        enqueue(3);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        List<EmailOutboxRepository.ClaimedEmail> claimed = transactionTemplate.execute(status ->
+                repository.claim("dead-node", 10, 3, now(), now().plusMinutes(2)));
+        assertThat(claimed).hasSize(3);
+        EmailOutboxRelay relay = relay(properties(100, 100, 3));
+
+        // Lease still held
+        relay.relay();
+        assertThat(provider.calls.get()).isZero();
+
+        clock.advance(Duration.ofMinutes(3));
+        relay.relay();
+        assertThat(provider.batchSizes).containsExactly(3);
+        assertThat(count("SENT")).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT attempts FROM email_outbox", Integer.class)).containsOnly(2);
+
+        // The dead node's late result is ignored
+        assertThat(repository.markSent(claimed, List.of("a", "b", "c"), "dead-node", now())).isZero();
+    }
+
+    @Test
+    void purgeFinished_DeletesOldSentAndDeadInBatchesAndKeepsQueued() {
+        enqueue(25);
+        EmailOutboxRelay relay = relay(properties(100, 100, 3));
+        relay.relay();
+        jdbcTemplate.update("UPDATE email_outbox SET status = 'DEAD' WHERE id <= 5");
+        enqueue(3);
+        clock.advance(Duration.ofDays(31));
+        enqueue(2);
+        // A recent send is kept
+        jdbcTemplate.update("UPDATE email_outbox SET status = 'SENT', updated_at = ? WHERE id = 30", now());
+
+        // Two batches of 10 per run
+        relay.purgeFinished();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox", Integer.class)).isEqualTo(10);
+
+        relay.purgeFinished();
+        assertThat(count("SENT")).isEqualTo(1);
+        assertThat(count("DEAD")).isZero();
+        assertThat(count("PENDING")).isEqualTo(4);
+    }
+
+    @Test
+    void disabledProvider_LeavesOutboxUntouched() {
+        enqueue(5);
+        provider.enabled = false;
+
+        relay(properties(100, 100, 3)).relay();
+
+        assertThat(provider.calls.get()).isZero();
+        assertThat(count("PENDING")).isEqualTo(5);
+    }
+
+    private EmailOutboxRelay relay(EmailOutboxProperties properties) {
+        return relay(properties, "relay-test");
+    }
+
+    private EmailOutboxRelay relay(EmailOutboxProperties properties, String instanceId) {
+        return new EmailOutboxRelay(repository, new ProviderRequestWindowRepository(jdbcTemplate), provider,
+                new SyncTaskExecutor(), properties, new DataSourceTransactionManager(dataSource), clock,
+                new InstanceId(instanceId), meterRegistry);
+    }
+
+    private static EmailOutboxProperties properties(int batchSize, int requestsPerSecond, int maxAttempts) {
+        return new EmailOutboxProperties(batchSize, 2, requestsPerSecond, Duration.ofMinutes(2), maxAttempts,
+                Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofDays(30), 10, 2);
+    }
+
+    private void enqueue(int emails) {
+        for (int i = 0; i < emails; i++) {
+            repository.enqueue(email(null, i), now());
+        }
+    }
+
+    private static NewEmail email(Long reviewRequestId, int i) {
+        return new NewEmail(reviewRequestId, 1L, "Acme via Reputul <reviews@reputul.com>",
+                "customer" + i + "@example.com", "How did we do?", "<p>Hi</p>");
+    }
+
+    private int count(String status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox WHERE status = ?", Integer.class, status);
+    }
+
+    private OffsetDateTime nextAttemptAt() {
+        return jdbcTemplate.queryForObject("SELECT next_attempt_at FROM email_outbox", OffsetDateTime.class)
+                .withOffsetSameInstant(ZoneOffset.UTC);
+    }
+
+    private OffsetDateTime now() {
+        return OffsetDateTime.now(clock);
+    }
+
+    /**
+     * Accepts every batch and numbers the messages, unless told to fail. Like Resend, it
+     * refuses a whole batch as invalid if any address lacks an @.
+     */
+    private static final class FakeEmailProvider implements EmailProvider {
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final List<String> recipients = new CopyOnWriteArrayList<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+        private volatile boolean enabled = true;
+        private volatile Consumer<List<OutboundEmail>> beforeSend = emails -> { };
+
+        @Override
+        public String getName() {
+            return "Fake";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return 100;
+        }
+
+        @Override
+        public String send(OutboundEmail email) throws EmailProviderException {
+            return sendBatch(List.of(email)).get(0);
+        }
+
+        @Override
+        public List<String> sendBatch(List<OutboundEmail> emails) throws EmailProviderException {
+            calls.incrementAndGet();
+            beforeSend.accept(emails);
+            if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new EmailProviderException("provider unavailable");
+            }
+            if (emails.stream().anyMatch(email -> !email.to().contains("@"))) {
+                throw new EmailProviderException("invalid `to` field", true, null);
+            }
+            batchSizes.add(emails.size());
+            emails.forEach(email -> recipients.add(email.to()));
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < emails.size(); i++) {
+                ids.add("msg-" + messages.incrementAndGet());
+            }
+            return ids;
+        }
+    }
+
+    private static final class TestClock extends Clock {
+        private volatile Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -12,12 +12,15 @@ import com.reputul.backend.repositories.automation.AutomationExecutionRepository
 import com.reputul.backend.repositories.automation.AutomationWorkflowRepository;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -47,9 +50,13 @@ class AutomationSchedulerServiceTest {
     @Mock
     private OrganizationRepository organizationRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
-    @InjectMocks
+    private ThreadPoolTaskExecutor automationExecutor;
+
     private AutomationSchedulerService schedulerService;
 
     private User testUser;
@@ -61,6 +68,12 @@ class AutomationSchedulerServiceTest {
 
     @BeforeEach
     void setUp() {
+        automationExecutor = new ThreadPoolTaskExecutor();
+        automationExecutor.setCorePoolSize(2);
+        automationExecutor.setMaxPoolSize(2);
+        automationExecutor.setQueueCapacity(10);
+        automationExecutor.initialize();
+
         // Inject the real MeterRegistry
         schedulerService = new AutomationSchedulerService(
                 executionRepository,
@@ -68,8 +81,12 @@ class AutomationSchedulerServiceTest {
                 automationExecutorService,
                 customerRepository,
                 organizationRepository,
-                meterRegistry
+                meterRegistry,
+                automationExecutor,
+                transactionManager
         );
+        ReflectionTestUtils.setField(schedulerService, "batchSize", 200);
+        ReflectionTestUtils.setField(schedulerService, "perOrgLimit", 25);
 
         testOrg = Organization.builder()
                 .id(1L)
@@ -118,6 +135,11 @@ class AutomationSchedulerServiceTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        automationExecutor.shutdown();
+    }
+
     @Test
     void scheduleWorkflowExecution_ShouldCreateExecution() {
         // Given
@@ -184,26 +206,36 @@ class AutomationSchedulerServiceTest {
     @Test
     void processPendingExecutions_ShouldProcessDueExecutions() {
         // Given
-        when(organizationRepository.findAll()).thenReturn(List.of(testOrg));
-        when(executionRepository.findDueExecutions(
-                eq(AutomationExecution.ExecutionStatus.PENDING),
-                any(OffsetDateTime.class),
-                eq(testOrg.getId())))
-                .thenReturn(List.of(testExecution));
+        when(executionRepository.findDueExecutionIdsFairly(any(OffsetDateTime.class), eq(25), anyInt()))
+                .thenReturn(List.of(1L));
 
         // When
         schedulerService.processPendingExecutions();
 
+        // Then - one cross-tenant query, execution handed to the worker pool
+        verify(executionRepository).findDueExecutionIdsFairly(any(OffsetDateTime.class), eq(25), intThat(limit -> limit > 0));
+        verify(executionRepository, timeout(1000)).claimPending(eq(1L), any(OffsetDateTime.class),
+                eq(AutomationExecution.ExecutionStatus.PENDING), eq(AutomationExecution.ExecutionStatus.RUNNING));
+        verifyNoInteractions(organizationRepository);
+    }
+
+    @Test
+    void processExecution_WhenAlreadyClaimed_ShouldSkip() {
+        // Given
+        when(executionRepository.claimPending(eq(1L), any(OffsetDateTime.class), any(), any())).thenReturn(0);
+
+        // When
+        schedulerService.processExecution(1L);
+
         // Then
-        verify(executionRepository).findDueExecutions(
-                eq(AutomationExecution.ExecutionStatus.PENDING),
-                any(OffsetDateTime.class),
-                eq(testOrg.getId()));
+        verify(automationExecutorService, never()).executeWorkflow(any());
+        verify(executionRepository, never()).save(any(AutomationExecution.class));
     }
 
     @Test
     void processExecution_ShouldUpdateExecutionStatus() {
         // Given
+        when(executionRepository.claimPending(eq(1L), any(OffsetDateTime.class), any(), any())).thenReturn(1);
         when(executionRepository.findById(1L)).thenReturn(Optional.of(testExecution));
         when(automationExecutorService.executeWorkflow(testExecution)).thenReturn(true);
         when(executionRepository.save(any(AutomationExecution.class))).thenReturn(testExecution);
@@ -211,14 +243,15 @@ class AutomationSchedulerServiceTest {
         // When
         schedulerService.processExecution(1L);
 
-        // Then
+        // Then - RUNNING is set by claimPending, so only the completion is saved
         verify(automationExecutorService).executeWorkflow(testExecution);
-        verify(executionRepository, times(2)).save(any(AutomationExecution.class));
+        verify(executionRepository).save(any(AutomationExecution.class));
     }
 
     @Test
     void processExecution_WithFailedExecution_ShouldMarkAsFailed() {
         // Given
+        when(executionRepository.claimPending(eq(1L), any(OffsetDateTime.class), any(), any())).thenReturn(1);
         when(executionRepository.findById(1L)).thenReturn(Optional.of(testExecution));
         when(automationExecutorService.executeWorkflow(testExecution)).thenReturn(false);
         when(executionRepository.save(any(AutomationExecution.class))).thenReturn(testExecution);
@@ -226,8 +259,9 @@ class AutomationSchedulerServiceTest {
         // When
         schedulerService.processExecution(1L);
 
-        // Then - FIXED: Expect 2 saves (one for running status, one for failed status)
-        verify(executionRepository, times(2)).save(any(AutomationExecution.class));
+        // Then - RUNNING is set by claimPending, so only the failure is saved
+        verify(executionRepository).save(argThat(execution ->
+                execution.getStatus() == AutomationExecution.ExecutionStatus.FAILED));
     }
 
     @Test
@@ -0,0 +1,208 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.config.BulkSendProperties;
+import com.reputul.backend.dto.ReviewRequestDto;
+import com.reputul.backend.models.Business;
+import com.reputul.backend.models.BulkSendChannel;
+import com.reputul.backend.models.Customer;
+import com.reputul.backend.models.EmailTemplate;
+import com.reputul.backend.models.ReviewRequest;
+import com.reputul.backend.models.User;
+import com.reputul.backend.repositories.BulkSendRepository;
+import com.reputul.backend.repositories.BulkSendRepository.ClaimedItem;
+import com.reputul.backend.repositories.CustomerRepository;
+import com.reputul.backend.repositories.UserRepository;
+import com.reputul.backend.services.campaign.CampaignSequenceService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Bulk send items against an in-memory database: an item whose review request was
+ * created is not sent again when its lease expires before the outcome is recorded, and
+ * an item whose lease was lost is not sent at all
+ */
+class BulkReviewRequestServiceTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private BulkSendRepository repository;
+    private ReviewRequestService reviewRequestService;
+    private BulkReviewRequestService service;
+    private TestClock clock;
+
+    private User user;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:bulk_send;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE review_requests (id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE bulk_send_jobs (" +
+                "id BIGSERIAL PRIMARY KEY, user_id BIGINT NOT NULL, channel VARCHAR(20) NOT NULL, sequence_id BIGINT, " +
+                "status VARCHAR(20) NOT NULL DEFAULT 'QUEUED', total INTEGER NOT NULL DEFAULT 0, " +
+                "created_at TIMESTAMP WITH TIME ZONE NOT NULL, updated_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+                "completed_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE TABLE bulk_send_items (" +
+                "id BIGSERIAL PRIMARY KEY, job_id BIGINT NOT NULL, customer_id BIGINT NOT NULL, channel VARCHAR(20) NOT NULL, " +
+                "status VARCHAR(20) NOT NULL DEFAULT 'PENDING', attempts INTEGER NOT NULL DEFAULT 0, claimed_by VARCHAR(100), " +
+                "lease_expires_at TIMESTAMP WITH TIME ZONE, review_request_id BIGINT, error_message TEXT, " +
+                "updated_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        clock = new TestClock(Instant.parse("2024-05-01T10:00:00Z"));
+        repository = spy(new BulkSendRepository(jdbcTemplate));
+        reviewRequestService = mock(ReviewRequestService.class);
+        service = new BulkReviewRequestService(repository, mock(CustomerRepository.class), mock(UserRepository.class),
+                reviewRequestService, mock(CampaignSequenceService.class),
+                new BulkSendProperties(null, null, null, null), clock, transactionManager);
+
+        user = User.builder().id(1L).email("owner@example.com").build();
+        customer = Customer.builder()
+                .id(5L)
+                .name("Jane")
+                .email("jane@example.com")
+                .business(Business.builder().id(10L).name("Acme").user(user).build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE bulk_send_items");
+        jdbcTemplate.execute("DROP TABLE bulk_send_jobs");
+        jdbcTemplate.execute("DROP TABLE review_requests");
+        dataSource.close();
+    }
+
+    @Test
+    void itemWithReviewRequest_NotClaimedAgainAfterLeaseExpires() {
+        Long jobId = createJob();
+        when(reviewRequestService.sendReviewRequestWithDefaultTemplate(any(), any(), any())).thenAnswer(invocation -> {
+            jdbcTemplate.update("INSERT INTO review_requests (id, status) VALUES (99, 'SENT')");
+            return ReviewRequestDto.builder().id(99L).status(ReviewRequest.RequestStatus.SENT).build();
+        });
+        // The node dies after the review request committed, before the outcome is recorded
+        doThrow(new IllegalStateException("node stopped"))
+                .when(repository).complete(anyLong(), anyString(), anyString(), any(), any(), any());
+
+        List<ClaimedItem> claimed = claim("node-a");
+        assertThat(claimed).hasSize(1);
+        BulkReviewRequestService.Batch batch = batch(jobId);
+        assertThatThrownBy(() -> service.send(claimed.get(0), batch, "node-a"))
+                .hasMessage("node stopped");
+
+        clock.advance(LEASE.plusMinutes(1));
+        assertThat(claim("node-b")).isEmpty();
+        assertThat(repository.failExhausted(1, now())).isZero();
+
+        assertThat(repository.settleLinked(now())).isEqualTo(1);
+        assertThat(repository.countItemsByStatus(jobId)).containsExactly(Map.entry("SENT", 1));
+        assertThat(jdbcTemplate.queryForObject("SELECT review_request_id FROM bulk_send_items", Long.class))
+                .isEqualTo(99L);
+        verify(reviewRequestService, times(1)).sendReviewRequestWithDefaultTemplate(any(), any(), any());
+    }
+
+    @Test
+    void failedSend_LeavesItemUnlinkedAndRecordsFailure() {
+        Long jobId = createJob();
+        when(reviewRequestService.sendReviewRequestWithDefaultTemplate(any(), any(), any())).thenAnswer(invocation -> {
+            jdbcTemplate.update("INSERT INTO review_requests (id, status) VALUES (99, 'PENDING')");
+            throw new IllegalStateException("template render failed");
+        });
+
+        List<ClaimedItem> claimed = claim("node-a");
+        String status = service.send(claimed.get(0), batch(jobId), "node-a");
+
+        assertThat(status).isEqualTo("FAILED");
+        // The review request insert was rolled back with the failed send
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM review_requests", Integer.class)).isZero();
+        assertThat(repository.countItemsByStatus(jobId)).containsExactly(Map.entry("FAILED", 1));
+    }
+
+    @Test
+    void lostLease_NothingSent() {
+        Long jobId = createJob();
+        List<ClaimedItem> claimed = claim("node-a");
+        clock.advance(LEASE.plusMinutes(1));
+        assertThat(claim("node-b")).hasSize(1);
+
+        String status = service.send(claimed.get(0), batch(jobId), "node-a");
+
+        assertThat(status).isEqualTo("FAILED");
+        verifyNoInteractions(reviewRequestService);
+        assertThat(jdbcTemplate.queryForObject("SELECT claimed_by FROM bulk_send_items", String.class))
+                .isEqualTo("node-b");
+        assertThat(repository.countItemsByStatus(jobId)).containsExactly(Map.entry("CLAIMED", 1));
+    }
+
+    private Long createJob() {
+        return new TransactionTemplate(transactionManager).execute(status -> repository.createJob(user.getId(),
+                BulkSendChannel.EMAIL, null, List.of(customer.getId()), List.of(), null, now()));
+    }
+
+    private List<ClaimedItem> claim(String owner) {
+        return new TransactionTemplate(transactionManager).execute(status -> repository.claim(BulkSendChannel.EMAIL,
+                owner, 10, 3, now(), now().plus(LEASE)));
+    }
+
+    private BulkReviewRequestService.Batch batch(Long jobId) {
+        return new BulkReviewRequestService.Batch(
+                Map.of(jobId, repository.findJob(jobId).orElseThrow()),
+                Map.of(customer.getId(), customer),
+                Map.of(user.getId(), user),
+                Map.of(user.getId(), new EmailTemplate()));
+    }
+
+    private OffsetDateTime now() {
+        return OffsetDateTime.now(clock);
+    }
+
+    private static final class TestClock extends Clock {
+        private volatile Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.repositories.ContactExportRepository;
+import com.reputul.backend.repositories.ContactExportRepository.ContactExportRow;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmark of the streaming contact export against building the whole CSV in memory,
+ * as the export did before. Rows come from a stubbed cursor so only the service's own
+ * heap use and throughput are measured. Reports peak heap (including garbage not yet
+ * collected), retained heap and rows/s. ContactExportTest covers the cursor settings
+ * and streaming against a database.
+ *
+ * Run with -Dbenchmark=true; at full size add -Dbenchmark.contacts=1000000.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ContactExportBenchmarkTest {
+
+    private static final int CONTACTS = Integer.getInteger("benchmark.contacts", 100_000);
+    private static final Long BUSINESS_ID = 1L;
+
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        ContactExportRepository exportRepository = mock(ContactExportRepository.class);
+        when(exportRepository.forEachForExport(eq(BUSINESS_ID), any(), any())).thenAnswer(invocation -> {
+            Consumer<ContactExportRow> consumer = invocation.getArgument(2);
+            generateRows(consumer);
+            return (long) CONTACTS;
+        });
+
+        contactService = new ContactService();
+        ReflectionTestUtils.setField(contactService, "contactExportRepository", exportRepository);
+    }
+
+    @Test
+    void streamingExport_KeepsHeapFlat() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        resetPeakHeap();
+        long startedAt = System.nanoTime();
+        long exported = contactService.exportContactsCsv(BUSINESS_ID, null, out);
+        double streamingSeconds = (System.nanoTime() - startedAt) / 1e9;
+        long streamingPeak = peakHeap();
+
+        resetPeakHeap();
+        startedAt = System.nanoTime();
+        String materialized = buildInMemory();
+        double materializedSeconds = (System.nanoTime() - startedAt) / 1e9;
+        long materializedPeak = peakHeap();
+        long materializedRetained = (long) materialized.length() * 2;
+
+        log.info("streaming:    rows={} bytes={} throughput={} rows/s peakHeap={}MB retained=0MB",
+                exported, out.count, Math.round(exported / streamingSeconds), streamingPeak >> 20);
+        log.info("materialized: rows={} bytes={} throughput={} rows/s peakHeap={}MB retained=~{}MB",
+                CONTACTS, materialized.length(), Math.round(CONTACTS / materializedSeconds), materializedPeak >> 20,
+                materializedRetained >> 20);
+
+        assertThat(exported).isEqualTo(CONTACTS);
+        assertThat(out.count).isEqualTo(materialized.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void generateRows(Consumer<ContactExportRow> consumer) {
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < CONTACTS; i++) {
+            consumer.accept(new ContactExportRow("Customer " + i, "customer" + i + "@example.com",
+                    "+1555" + String.format("%07d", i), LocalDate.of(2024, 1, 1).plusDays(i % 365),
+                    "vip;repeat", true, true, createdAt.plusSeconds(i)));
+        }
+    }
+
+    /**
+     * The previous export: every row appended to one StringBuilder
+     */
+    private static String buildInMemory() {
+        StringBuilder csv = new StringBuilder();
+        csv.append("name,email,phone,last_job_date,tags,sms_consent,email_consent,created_at\n");
+        generateRows(row -> csv.append(row.name()).append(',')
+                .append(row.email()).append(',')
+                .append(row.phone()).append(',')
+                .append(row.lastJobDate()).append(',')
+                .append(row.tags()).append(',')
+                .append(row.smsConsent()).append(',')
+                .append(row.emailConsent()).append(',')
+                .append(row.createdAt()).append('\n'));
+        return csv.toString();
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.repositories.ContactExportRepository;
+import com.reputul.backend.repositories.ContactExportRepository.ContactExportRow;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.tools.SimpleResultSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The contact CSV export against an in-memory database: rows are read through a
+ * fetch-size cursor in a read-only transaction and written out while that cursor is
+ * still open, rather than after the whole result has been read
+ */
+class ContactExportTest {
+
+    private static final Long BUSINESS_ID = 1L;
+    private static final int FETCH_SIZE = 100;
+    // Well past ContactService's 64 KB write buffer, so output must reach the stream mid-cursor
+    private static final int CONTACTS = 2_000;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private List<Connection> connections;
+    private List<PreparedStatement> statements;
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:contact_export;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Tag flattening is PostgreSQL JSON; these stand-ins only let H2 parse the query
+        jdbcTemplate.execute("CREATE ALIAS JSONB_TYPEOF FOR '" + H2Json.class.getName() + ".typeOf'");
+        jdbcTemplate.execute("CREATE ALIAS JSONB_ARRAY_ELEMENTS_TEXT FOR '" + H2Json.class.getName() + ".elementsText'");
+        jdbcTemplate.execute("CREATE TABLE contacts (" +
+                "id BIGSERIAL PRIMARY KEY, business_id BIGINT NOT NULL, name VARCHAR(255) NOT NULL, " +
+                "email VARCHAR(255), phone VARCHAR(50), last_job_date DATE, tags_json VARCHAR(1000), " +
+                "sms_consent BOOLEAN NOT NULL DEFAULT TRUE, email_consent BOOLEAN NOT NULL DEFAULT TRUE, " +
+                "created_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < CONTACTS; i++) {
+            rows.add(new Object[]{BUSINESS_ID, "Customer " + i, "customer" + i + "@example.com",
+                    "+1555" + String.format("%07d", i), LocalDate.of(2024, 1, 1).plusDays(i % 365),
+                    createdAt.plusSeconds(i)});
+        }
+        rows.add(new Object[]{2L, "Other Business", "other@example.com", null, null, createdAt});
+        jdbcTemplate.batchUpdate("INSERT INTO contacts (business_id, name, email, phone, last_job_date, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        // Record the connections and statements the export uses
+        connections = new ArrayList<>();
+        statements = new ArrayList<>();
+        HikariDataSource recording = spy(dataSource);
+        doAnswer(invocation -> {
+            Connection connection = spy((Connection) invocation.callRealMethod());
+            doAnswer(prepare -> {
+                PreparedStatement statement = spy((PreparedStatement) prepare.callRealMethod());
+                statements.add(statement);
+                return statement;
+            }).when(connection).prepareStatement(anyString());
+            connections.add(connection);
+            return connection;
+        }).when(recording).getConnection();
+
+        ContactExportRepository exportRepository = new ContactExportRepository(recording,
+                new DataSourceTransactionManager(recording), FETCH_SIZE);
+        contactService = new ContactService();
+        ReflectionTestUtils.setField(contactService, "contactExportRepository", exportRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE contacts");
+        jdbcTemplate.execute("DROP ALIAS JSONB_TYPEOF");
+        jdbcTemplate.execute("DROP ALIAS JSONB_ARRAY_ELEMENTS_TEXT");
+        dataSource.close();
+    }
+
+    @Test
+    void exportContactsCsv_ReadsWithFetchSizeInReadOnlyTransactionAndStreams() throws Exception {
+        CursorObservingOutputStream out = new CursorObservingOutputStream();
+
+        long exported = contactService.exportContactsCsv(BUSINESS_ID, null, out);
+
+        assertThat(exported).isEqualTo(CONTACTS);
+        assertThat(statements).singleElement().satisfies(statement -> verify(statement).setFetchSize(FETCH_SIZE));
+        assertThat(connections).singleElement().satisfies(connection -> verify(connection).setReadOnly(true));
+
+        // The first bytes arrived while the read-only cursor transaction was still open
+        assertThat(out.firstWriteInTransaction).isTrue();
+        assertThat(out.firstWriteReadOnly).isTrue();
+
+        String[] lines = out.buffer.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(CONTACTS + 1);
+        assertThat(lines[0]).isEqualTo("name,email,phone,last_job_date,tags,sms_consent,email_consent,created_at");
+        // Newest first
+        assertThat(lines[1]).startsWith("Customer " + (CONTACTS - 1) + ",");
+        assertThat(out.buffer.toString(StandardCharsets.UTF_8)).doesNotContain("Other Business");
+    }
+
+    @Test
+    void exportContactsCsv_EscapesValuesAndJoinsTags() throws Exception {
+        ContactExportRepository exportRepository = mock(ContactExportRepository.class);
+        when(exportRepository.forEachForExport(eq(BUSINESS_ID), eq("vip"), any())).thenAnswer(invocation -> {
+            Consumer<ContactExportRow> consumer = invocation.getArgument(2);
+            consumer.accept(new ContactExportRow("Smith, Jane", "jane@example.com", null,
+                    LocalDate.of(2024, 3, 1), "vip;repeat", true, false,
+                    OffsetDateTime.of(2024, 3, 2, 10, 0, 0, 0, ZoneOffset.UTC)));
+            return 1L;
+        });
+        ReflectionTestUtils.setField(contactService, "contactExportRepository", exportRepository);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        contactService.exportContactsCsv(BUSINESS_ID, "vip", out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "name,email,phone,last_job_date,tags,sms_consent,email_consent,created_at\n" +
+                "\"Smith, Jane\",jane@example.com,,2024-03-01,vip;repeat,true,false,2024-03-02T10:00Z\n");
+    }
+
+    /**
+     * Collects the CSV and notes whether the first write happened inside the export's transaction
+     */
+    private static class CursorObservingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private Boolean firstWriteInTransaction;
+        private Boolean firstWriteReadOnly;
+
+        @Override
+        public void write(int b) {
+            observe();
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            observe();
+            buffer.write(b, off, len);
+        }
+
+        private void observe() {
+            if (firstWriteInTransaction == null) {
+                firstWriteInTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+                firstWriteReadOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+            }
+        }
+    }
+
+    /**
+     * H2 stand-ins for jsonb_typeof and jsonb_array_elements_text over a JSON text column
+     */
+    public static class H2Json {
+
+        public static String typeOf(String json) {
+            return json != null && json.trim().startsWith("[") ? "array" : null;
+        }
+
+        public static ResultSet elementsText(Connection connection, String json) throws Exception {
+            SimpleResultSet rs = new SimpleResultSet();
+            rs.addColumn("TAG", Types.VARCHAR, 255, 0);
+            if (json != null && !connection.getMetaData().getURL().equals("jdbc:columnlist:connection")) {
+                for (String tag : json.replaceAll("[\\[\\]\"]", "").split(",")) {
+                    if (!tag.isBlank()) {
+                        rs.addRow(tag.trim());
+                    }
+                }
+            }
+            return rs;
+        }
+    }
+}
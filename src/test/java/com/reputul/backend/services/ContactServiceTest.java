@@ -0,0 +1,160 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.dto.CsvImportCommitRequest;
+import com.reputul.backend.dto.CsvImportCommitResponse;
+import com.reputul.backend.models.Contact;
+import com.reputul.backend.models.ImportJob;
+import com.reputul.backend.repositories.ContactRepository;
+import com.reputul.backend.repositories.ImportJobRepository;
+import com.reputul.backend.services.imports.ContactImportWriter;
+import com.reputul.backend.services.imports.CsvParser;
+import com.reputul.backend.services.imports.DedupeService;
+import com.reputul.backend.services.imports.UploadCache;
+import com.reputul.backend.util.PhoneNormalizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Committed CSV imports, run on a synchronous executor: a row that fails to write is
+ * reported on its own while the rest of its chunk is imported
+ */
+@ExtendWith(MockitoExtension.class)
+class ContactServiceTest {
+
+    private static final Long BUSINESS_ID = 10L;
+
+    @Mock
+    private ContactRepository contactRepository;
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private DedupeService dedupeService;
+
+    @Mock
+    private ContactImportWriter contactImportWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    private ContactService contactService;
+    private UploadCache uploadCache;
+    private ImportJob importJob;
+
+    @BeforeEach
+    void setUp() {
+        uploadCache = new UploadCache(tempDir.toString());
+        contactService = new ContactService();
+        ReflectionTestUtils.setField(contactService, "contactRepository", contactRepository);
+        ReflectionTestUtils.setField(contactService, "importJobRepository", importJobRepository);
+        ReflectionTestUtils.setField(contactService, "phoneNormalizer", new PhoneNormalizer());
+        ReflectionTestUtils.setField(contactService, "csvParser", new CsvParser());
+        ReflectionTestUtils.setField(contactService, "uploadCache", uploadCache);
+        ReflectionTestUtils.setField(contactService, "dedupeService", dedupeService);
+        ReflectionTestUtils.setField(contactService, "contactImportWriter", contactImportWriter);
+        ReflectionTestUtils.setField(contactService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(contactService, "contactImportExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(contactService, "importChunkSize", 5);
+
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> {
+            importJob = invocation.getArgument(0);
+            importJob.setId(42L);
+            return importJob;
+        });
+        when(importJobRepository.findById(42L)).thenAnswer(invocation -> Optional.ofNullable(importJob));
+        when(dedupeService.batchFindDuplicates(eq(BUSINESS_ID), anyList())).thenReturn(new HashMap<>());
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadCache.shutdown();
+    }
+
+    @Test
+    void commitCsvImport_FailingRow_OnlyThatRowIsRejected() throws IOException {
+        when(contactImportWriter.insert(eq(BUSINESS_ID), anyList())).thenAnswer(invocation -> {
+            List<Contact> contacts = invocation.getArgument(1);
+            if (contacts.stream().anyMatch(contact -> "Bad Row".equals(contact.getName()))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+            }
+            return contacts.size();
+        });
+        Path file = stage(12, 7);
+
+        CsvImportCommitResponse response = contactService.commitCsvImport(BUSINESS_ID, 1L, request(file));
+
+        assertThat(response.getImportJobId()).isEqualTo(42L);
+        assertThat(importJob.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(importJob.getProcessedRows()).isEqualTo(12);
+        assertThat(importJob.getInsertedCount()).isEqualTo(11);
+        assertThat(importJob.getErrorCount()).isEqualTo(1);
+        // Data row 7 is line 8 of the file, after the header
+        assertThat(importJob.getErrorDetails()).singleElement()
+                .satisfies(error -> assertThat(error).containsEntry("rowNumber", 8));
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void commitCsvImport_SameUploadTwice_SecondIsRejected() throws IOException {
+        when(contactImportWriter.insert(eq(BUSINESS_ID), anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(1)).size());
+        CsvImportCommitRequest request = request(stage(3, 0));
+
+        contactService.commitCsvImport(BUSINESS_ID, 1L, request);
+
+        assertThatThrownBy(() -> contactService.commitCsvImport(BUSINESS_ID, 1L, request))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(importJob.getInsertedCount()).isEqualTo(3);
+    }
+
+    /**
+     * Stage a CSV of rows customers; badRow (1-based, 0 for none) gets the name the writer rejects
+     */
+    private Path stage(int rows, int badRow) throws IOException {
+        Path file = uploadCache.createStagingFile();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("name,email\n");
+            for (int i = 1; i <= rows; i++) {
+                String name = i == badRow ? "Bad Row" : "Customer " + i;
+                writer.write(name + ",customer" + i + "@example.com\n");
+            }
+        }
+        return file;
+    }
+
+    private CsvImportCommitRequest request(Path file) {
+        String uploadId = uploadCache.store(file, "contacts.csv", ',', List.of("name", "email"), 12);
+        CsvImportCommitRequest request = new CsvImportCommitRequest();
+        request.setUploadId(uploadId);
+        request.setColumnMap(Map.of("name", "name", "email", "email"));
+        request.setMode("skip-duplicates");
+        return request;
+    }
+}
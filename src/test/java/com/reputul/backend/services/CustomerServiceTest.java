@@ -0,0 +1,115 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.dto.CreateCustomerRequest;
+import com.reputul.backend.models.Business;
+import com.reputul.backend.models.Customer;
+import com.reputul.backend.models.User;
+import com.reputul.backend.repositories.BusinessRepository;
+import com.reputul.backend.repositories.CustomerRepository;
+import com.reputul.backend.services.search.SearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Per-business phone uniqueness on update, including customers whose phone_e164 V041
+ * cleared because a newer customer of the same business has the number
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private BusinessRepository businessRepository;
+
+    @Mock
+    private SearchService searchService;
+
+    private CustomerService customerService;
+
+    private User user;
+    private Business business;
+
+    @BeforeEach
+    void setUp() {
+        customerService = new CustomerService(customerRepository, businessRepository, searchService);
+        user = User.builder().id(1L).email("owner@example.com").build();
+        business = Business.builder().id(10L).name("Acme").user(user).build();
+    }
+
+    @Test
+    void updateCustomer_DeduplicatedRowWithUnchangedPhone_SavesAndKeepsE164Null() {
+        Customer duplicate = duplicate();
+        when(customerRepository.findById(5L)).thenReturn(Optional.of(duplicate));
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        customerService.updateCustomer(user, 5L, request("(415) 230-0001", "Renamed"));
+
+        assertThat(duplicate.getName()).isEqualTo("Renamed");
+        assertThat(duplicate.getPhoneE164()).isNull();
+        verify(customerRepository, never()).existsByBusinessIdAndPhoneE164AndIdNot(anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    void updateCustomer_PhoneChangedToNumberHeldInBusiness_Rejected() {
+        Customer duplicate = duplicate();
+        when(customerRepository.findById(5L)).thenReturn(Optional.of(duplicate));
+        when(customerRepository.existsByBusinessIdAndPhoneE164AndIdNot(10L, "+14152300001", 5L)).thenReturn(true);
+
+        assertThatThrownBy(() -> customerService.updateCustomer(user, 5L, request("415.230.0001", "Renamed")))
+                .hasMessage("Customer with this phone number already exists");
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void setPhone_RecomputesE164OnlyWhenPhoneChanges() {
+        Customer duplicate = duplicate();
+
+        duplicate.setPhone("(415) 230-0001");
+        duplicate.recordSmsOptOut(Customer.SmsOptOutMethod.STOP_REPLY);
+        assertThat(duplicate.getPhoneE164()).isNull();
+
+        duplicate.setPhone("212-230-0002");
+        assertThat(duplicate.getPhoneE164()).isEqualTo("+12122300002");
+    }
+
+    /**
+     * An older customer as loaded after V041: its number is held by a newer customer
+     */
+    private Customer duplicate() {
+        return Customer.builder()
+                .id(5L)
+                .name("Jane")
+                .email("jane@example.com")
+                .phone("(415) 230-0001")
+                .phoneE164(null)
+                .serviceDate(LocalDate.of(2024, 5, 1))
+                .serviceType("Cleaning")
+                .status(Customer.CustomerStatus.COMPLETED)
+                .business(business)
+                .user(user)
+                .build();
+    }
+
+    private static CreateCustomerRequest request(String phone, String name) {
+        return CreateCustomerRequest.builder()
+                .name(name)
+                .email("jane@example.com")
+                .phone(phone)
+                .serviceDate(LocalDate.of(2024, 5, 1))
+                .serviceType("Cleaning")
+                .status(Customer.CustomerStatus.COMPLETED)
+                .build();
+    }
+}
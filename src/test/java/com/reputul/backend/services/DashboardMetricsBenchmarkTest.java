@@ -0,0 +1,211 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.repositories.ReviewRepository;
+import com.reputul.backend.repositories.ReviewRequestRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Benchmark of the dashboard metrics queries against an in-memory database: the grouped
+ * aggregates DashboardMetricsService issues, against the per-day and per-business entity
+ * queries DashboardController issued before. Reports statements per request and median
+ * latency. The native daily queries are read from the repository annotations; the JPQL
+ * ones are run as their SQL equivalents. H2 is not Postgres, so only the ratio between
+ * the two means anything.
+ *
+ * Run with -Dbenchmark=true; change the shape with -Dbenchmark.businesses,
+ * -Dbenchmark.days and -Dbenchmark.rows-per-day.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DashboardMetricsBenchmarkTest {
+
+    private static final int BUSINESSES = Integer.getInteger("benchmark.businesses", 10);
+    private static final int DAYS = Integer.getInteger("benchmark.days", 30);
+    private static final int ROWS_PER_DAY = Integer.getInteger("benchmark.rows-per-day", 20);
+    private static final int ITERATIONS = 20;
+    private static final long USER_ID = 1L;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private OffsetDateTime now;
+    private int statements;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:dashboard_benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE businesses (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                "name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE reviews (id BIGSERIAL PRIMARY KEY, business_id BIGINT NOT NULL, " +
+                "rating INTEGER NOT NULL, comment TEXT, customer_name VARCHAR(255), " +
+                "created_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE review_requests (id BIGSERIAL PRIMARY KEY, business_id BIGINT NOT NULL, " +
+                "status VARCHAR(50), recipient_email VARCHAR(255), created_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_reviews_business_created ON reviews (business_id, created_at)");
+        jdbcTemplate.execute("CREATE INDEX idx_review_requests_business ON review_requests (business_id)");
+
+        // Whole minutes past each UTC midnight, so the old strict isAfter(dayStart) never drops a row
+        now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime today = now.toLocalDate().atStartOfDay().atOffset(ZoneOffset.UTC);
+        List<Object[]> reviews = new ArrayList<>();
+        List<Object[]> requests = new ArrayList<>();
+        for (long businessId = 1; businessId <= BUSINESSES; businessId++) {
+            jdbcTemplate.update("INSERT INTO businesses (id, user_id, name) VALUES (?, ?, ?)",
+                    businessId, USER_ID, "Business " + businessId);
+            for (int day = 1; day < DAYS; day++) {
+                for (int i = 0; i < ROWS_PER_DAY; i++) {
+                    OffsetDateTime createdAt = today.minusDays(day).plusMinutes(1 + i);
+                    reviews.add(new Object[]{businessId, 1 + i % 5, "Review " + i, "Customer " + i, createdAt});
+                    requests.add(new Object[]{businessId, i % 3 == 0 ? "COMPLETED" : "SENT",
+                            "customer" + i + "@example.com", createdAt});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reviews (business_id, rating, comment, customer_name, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)", reviews);
+        jdbcTemplate.batchUpdate("INSERT INTO review_requests (business_id, status, recipient_email, created_at) " +
+                "VALUES (?, ?, ?, ?)", requests);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE review_requests");
+        jdbcTemplate.execute("DROP TABLE reviews");
+        jdbcTemplate.execute("DROP TABLE businesses");
+        dataSource.close();
+    }
+
+    @Test
+    void groupedAggregates_FewerStatementsAndFaster() throws Exception {
+        String requestsDaily = nativeQuery(ReviewRequestRepository.class);
+        String reviewsDaily = nativeQuery(ReviewRepository.class);
+
+        int[] perDay = new int[2];
+        long grouped = measure(() -> groupedMetrics(requestsDaily, reviewsDaily, perDay));
+        int groupedStatements = statements;
+
+        int[] perDayBefore = new int[2];
+        long perEntity = measure(() -> perEntityMetrics(perDayBefore));
+        int perEntityStatements = statements;
+
+        log.info("grouped:    businesses={} days={} statements={} median={}us", BUSINESSES, DAYS,
+                groupedStatements, grouped / 1_000);
+        log.info("per-entity: businesses={} days={} statements={} median={}us", BUSINESSES, DAYS,
+                perEntityStatements, perEntity / 1_000);
+
+        assertThat(groupedStatements).isEqualTo(5);
+        assertThat(perEntityStatements).isEqualTo(2 + DAYS * (1 + BUSINESSES) + 2 * BUSINESSES);
+        assertThat(perDay).containsExactly(perDayBefore);
+    }
+
+    /**
+     * The five statements DashboardMetricsService issues
+     */
+    private void groupedMetrics(String requestsDaily, String reviewsDaily, int[] perDay) {
+        OffsetDateTime since = now.toLocalDate().minusDays(DAYS - 1L).atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        query(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM businesses WHERE user_id = ?",
+                Long.class, USER_ID));
+        query(() -> jdbcTemplate.queryForList("SELECT r.status, COUNT(*) FROM review_requests r " +
+                "JOIN businesses b ON r.business_id = b.id WHERE b.user_id = ? GROUP BY r.status", USER_ID));
+        perDay[0] = query(() -> jdbcTemplate.queryForList(requestsDaily, USER_ID, since)).stream()
+                .mapToInt(row -> ((Number) row.get("total")).intValue()).sum();
+        perDay[1] = query(() -> jdbcTemplate.queryForList(reviewsDaily, USER_ID, since)).stream()
+                .mapToInt(row -> ((Number) row.get("total")).intValue()).sum();
+        query(() -> jdbcTemplate.queryForList("SELECT COUNT(*), AVG(r.rating), COUNT(DISTINCT r.business_id) " +
+                "FROM reviews r JOIN businesses b ON r.business_id = b.id WHERE b.user_id = ? AND r.created_at > ?",
+                USER_ID, now.minusDays(DAYS)));
+    }
+
+    /**
+     * The statements DashboardController issued before, with the SMS analytics row absent
+     * so the status KPIs fall back to loading every request
+     */
+    private void perEntityMetrics(int[] perDay) {
+        Arrays.fill(perDay, 0);
+        String ownerRequests = "SELECT r.* FROM review_requests r JOIN businesses b ON r.business_id = b.id " +
+                "WHERE b.user_id = ? ORDER BY r.created_at DESC";
+        String businessReviews = "SELECT * FROM reviews WHERE business_id = ? AND created_at > ? " +
+                "ORDER BY created_at DESC";
+
+        List<Long> businessIds = query(() -> jdbcTemplate.queryForList(
+                "SELECT id FROM businesses WHERE user_id = ? ORDER BY id", Long.class, USER_ID));
+        query(() -> jdbcTemplate.queryForList(ownerRequests, USER_ID));
+
+        OffsetDateTime today = now.toLocalDate().atStartOfDay().atOffset(ZoneOffset.UTC);
+        for (int i = DAYS - 1; i >= 0; i--) {
+            OffsetDateTime dayStart = today.minusDays(i);
+            OffsetDateTime dayEnd = dayStart.plusDays(1);
+            perDay[0] += (int) query(() -> jdbcTemplate.queryForList(ownerRequests, USER_ID)).stream()
+                    .map(row -> (OffsetDateTime) row.get("created_at"))
+                    .filter(createdAt -> createdAt.isAfter(dayStart) && createdAt.isBefore(dayEnd))
+                    .count();
+            for (Long businessId : businessIds) {
+                perDay[1] += (int) query(() -> jdbcTemplate.queryForList(businessReviews, businessId, dayStart))
+                        .stream()
+                        .map(row -> (OffsetDateTime) row.get("created_at"))
+                        .filter(createdAt -> createdAt.isBefore(dayEnd))
+                        .count();
+            }
+        }
+
+        OffsetDateTime since = now.minusDays(DAYS);
+        for (Long businessId : businessIds) {
+            query(() -> jdbcTemplate.queryForList(businessReviews, businessId, since));
+        }
+        for (Long businessId : businessIds) {
+            query(() -> jdbcTemplate.queryForList(businessReviews, businessId, since));
+        }
+    }
+
+    /**
+     * Median nanoseconds per run after a warm-up; leaves the statements of one run in {@link #statements}
+     */
+    private long measure(Runnable run) {
+        for (int i = 0; i < ITERATIONS / 2; i++) {
+            run.run();
+        }
+        long[] timings = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            statements = 0;
+            long startedAt = System.nanoTime();
+            run.run();
+            timings[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(timings);
+        return timings[ITERATIONS / 2];
+    }
+
+    private <T> T query(Supplier<T> statement) {
+        statements++;
+        return statement.get();
+    }
+
+    /**
+     * The repository's native countDailyForOwnerSince query, with positional parameters
+     */
+    private static String nativeQuery(Class<?> repository) throws NoSuchMethodException {
+        Query query = repository.getMethod("countDailyForOwnerSince", Long.class, OffsetDateTime.class)
+                .getAnnotation(Query.class);
+        assertThat(query.nativeQuery()).isTrue();
+        return query.value().replace(":userId", "?").replace(":since", "?");
+    }
+}
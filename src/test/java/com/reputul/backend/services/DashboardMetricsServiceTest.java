@@ -0,0 +1,101 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.models.ReviewRequest;
+import com.reputul.backend.repositories.BusinessRepository;
+import com.reputul.backend.repositories.ReviewRepository;
+import com.reputul.backend.repositories.ReviewRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardMetricsServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private BusinessRepository businessRepo;
+
+    @Mock
+    private ReviewRepository reviewRepo;
+
+    @Mock
+    private ReviewRequestRepository reviewRequestRepo;
+
+    @InjectMocks
+    private DashboardMetricsService dashboardMetricsService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDashboardMetrics_BuildsSeriesFromGroupedRows() {
+        LocalDate today = OffsetDateTime.now(ZoneOffset.UTC).toLocalDate();
+
+        when(businessRepo.countByUserId(USER_ID)).thenReturn(10L);
+        when(reviewRequestRepo.countByStatusForOwner(USER_ID)).thenReturn(List.of(
+                new Object[]{ReviewRequest.RequestStatus.SENT, 7L},
+                new Object[]{ReviewRequest.RequestStatus.COMPLETED, 3L}));
+        when(reviewRequestRepo.countDailyForOwnerSince(eq(USER_ID), any())).thenReturn(List.<Object[]>of(
+                new Object[]{java.sql.Date.valueOf(today), 4L, 1L}));
+        when(reviewRepo.countDailyForOwnerSince(eq(USER_ID), any())).thenReturn(List.<Object[]>of(
+                new Object[]{java.sql.Date.valueOf(today.minusDays(2)), 5L}));
+        when(reviewRepo.summarizeForOwnerSince(eq(USER_ID), any())).thenReturn(List.<Object[]>of(
+                new Object[]{5L, 4.26, 2L}));
+
+        Map<String, Object> metrics = dashboardMetricsService.getDashboardMetrics(USER_ID, 30);
+
+        assertThat(metrics).containsEntry("sent", 7)
+                .containsEntry("completed", 3)
+                .containsEntry("delivered", 0)
+                .containsEntry("totalReviewsInPeriod", 5)
+                .containsEntry("averageRatingInPeriod", 4.3)
+                .containsEntry("activeBusinesses", 2)
+                .containsEntry("totalBusinesses", 10);
+
+        List<Map<String, Object>> byDay = (List<Map<String, Object>>) metrics.get("byDay");
+        assertThat(byDay).hasSize(30);
+        assertThat(byDay.get(29)).containsEntry("date", today.toString())
+                .containsEntry("requestsSent", 4)
+                .containsEntry("completionRate", 25.0);
+        assertThat(byDay.get(27)).containsEntry("reviewsReceived", 5);
+        assertThat(byDay.get(0)).containsEntry("requestsSent", 0)
+                .containsEntry("reviewsReceived", 0);
+    }
+
+    @Test
+    void getDashboardMetrics_QueryCountIndependentOfWindow() {
+        when(businessRepo.countByUserId(USER_ID)).thenReturn(10L);
+        when(reviewRepo.summarizeForOwnerSince(eq(USER_ID), any())).thenReturn(List.of());
+
+        dashboardMetricsService.getDashboardMetrics(USER_ID, 90);
+
+        verify(businessRepo, times(1)).countByUserId(USER_ID);
+        verify(reviewRequestRepo, times(1)).countByStatusForOwner(USER_ID);
+        verify(reviewRequestRepo, times(1)).countDailyForOwnerSince(eq(USER_ID), any());
+        verify(reviewRepo, times(1)).countDailyForOwnerSince(eq(USER_ID), any());
+        verify(reviewRepo, times(1)).summarizeForOwnerSince(eq(USER_ID), any());
+        verifyNoMoreInteractions(businessRepo, reviewRepo, reviewRequestRepo);
+    }
+
+    @Test
+    void getDashboardMetrics_NoBusinesses_ReturnsZeroFilledMetrics() {
+        when(businessRepo.countByUserId(USER_ID)).thenReturn(0L);
+
+        Map<String, Object> metrics = dashboardMetricsService.getDashboardMetrics(USER_ID, 7);
+
+        assertThat(metrics).containsEntry("totalBusinesses", 0);
+        assertThat((List<?>) metrics.get("byDay")).hasSize(7);
+        verifyNoInteractions(reviewRepo, reviewRequestRepo);
+    }
+}
@@ -0,0 +1,86 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.models.EmailTemplate;
+import com.reputul.backend.models.EmailTemplateStyle;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.reputul.backend.services.EmailTemplateRenderTest.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Benchmark of compiled templates against the String.replace-per-variable rendering they
+ * replace, for templates with 10 to 50 variables, plus the styled HTML renderer with and
+ * without its compiled-template cache. Reports renders/s; EmailTemplateRenderTest checks
+ * that the outputs match.
+ *
+ * Run with -Dbenchmark=true; run longer with -Dbenchmark.renders=200000.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EmailTemplateRenderBenchmarkTest {
+
+    private static final int RENDERS = Integer.getInteger("benchmark.renders", 20_000);
+    private static final int WARMUP = Math.max(1_000, RENDERS / 10);
+
+    @Test
+    void compiledTemplate_AgainstReplacePerVariable() {
+        for (int variableCount : new int[]{10, 25, 50}) {
+            Map<String, String> variables = variables(variableCount);
+            String source = templateSource(variableCount);
+            CompiledTemplate compiled = CompiledTemplate.compile(source);
+
+            double replaceRate = rate(() -> replaceVariables(source, variables));
+            double compiledRate = rate(() -> compiled.render(variables));
+            double compileAndRenderRate = rate(() -> CompiledTemplate.compile(source).render(variables));
+
+            log.info("{} variables: replace={}/s compiled={}/s ({}x) compile+render={}/s", variableCount,
+                    Math.round(replaceRate), Math.round(compiledRate), String.format("%.1f", compiledRate / replaceRate),
+                    Math.round(compileAndRenderRate));
+        }
+    }
+
+    @Test
+    void styledRenderer_CachedAgainstRebuiltPerSend() {
+        EmailTemplateRenderer renderer = renderer(new EmailTemplateCompiler(100));
+        EmailTemplate template = EmailTemplate.builder()
+                .id(7L)
+                .subject("How did we do, {{customerName}}?")
+                .body(templateSource(25))
+                .simplifiedMode(true)
+                .updatedAt(OffsetDateTime.of(2024, 5, 1, 10, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+        EmailTemplateStyle style = EmailTemplateStyle.builder()
+                .id(3L)
+                .logoUrl("https://cdn.example.com/logo.png")
+                .updatedAt(LocalDateTime.of(2024, 5, 1, 10, 0))
+                .build();
+        Map<String, String> variables = variables(25);
+
+        double uncachedRate = rate(() -> renderer(new EmailTemplateCompiler(100)).renderTemplate(template, style, variables));
+        double cachedRate = rate(() -> renderer.renderTemplate(template, style, variables));
+        log.info("styled html: rebuilt per send={}/s cached={}/s ({}x)",
+                Math.round(uncachedRate), Math.round(cachedRate), String.format("%.1f", cachedRate / uncachedRate));
+    }
+
+    private static double rate(Supplier<String> render) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += render.get().length();
+        }
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < RENDERS; i++) {
+            sink += render.get().length();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        assertThat(sink).isPositive();
+        return RENDERS / seconds;
+    }
+}
@@ -0,0 +1,142 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.models.EmailTemplate;
+import com.reputul.backend.models.EmailTemplateStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compiled templates render exactly what the String.replace-per-variable rendering they
+ * replace did, and the styled HTML renderer caches compiled HTML per template and style
+ * version. EmailTemplateRenderBenchmarkTest measures both.
+ */
+class EmailTemplateRenderTest {
+
+    @Test
+    void compiledTemplate_MatchesReplaceRendering() {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("customerName", "Jane <Doe>");
+        variables.put("businessName", "Acme Plumbing");
+        variables.put("empty", null);
+
+        assertThat(render("Hi {{customerName}}, thanks from {{businessName}}!", variables))
+                .isEqualTo("Hi Jane <Doe>, thanks from Acme Plumbing!");
+        // Unknown names stay as written, null values render empty
+        assertThat(render("{{unknown}}|{{empty}}|{{}}", variables)).isEqualTo("{{unknown}}||{{}}");
+        // Stray and nested braces
+        assertThat(render("a}} {{{customerName}}} {{x {{businessName}}}}", variables))
+                .isEqualTo("a}} {Jane <Doe>} {{x Acme Plumbing}}");
+        assertThat(render("no placeholders", variables)).isEqualTo("no placeholders");
+        assertThat(render(null, variables)).isEmpty();
+
+        for (String template : new String[]{"a}} {{{customerName}}} {{x {{businessName}}}}", "{{unknown}}|{{empty}}"}) {
+            assertThat(render(template, variables)).isEqualTo(replaceVariables(template, variables));
+        }
+    }
+
+    @Test
+    void compiledTemplate_MatchesReplaceRenderingForManyVariables() {
+        for (int variableCount : new int[]{10, 25, 50}) {
+            Map<String, String> variables = variables(variableCount);
+            String source = templateSource(variableCount);
+
+            assertThat(CompiledTemplate.compile(source).render(variables))
+                    .isEqualTo(replaceVariables(source, variables));
+        }
+    }
+
+    @Test
+    void styledRenderer_CachesCompiledHtmlPerTemplateAndStyleVersion() {
+        EmailTemplateCompiler compiler = new EmailTemplateCompiler(100);
+        EmailTemplateRenderer renderer = renderer(compiler);
+        EmailTemplate template = EmailTemplate.builder()
+                .id(7L)
+                .subject("How did we do, {{customerName}}?")
+                .body(templateSource(25))
+                .simplifiedMode(true)
+                .updatedAt(OffsetDateTime.of(2024, 5, 1, 10, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+        EmailTemplateStyle style = EmailTemplateStyle.builder()
+                .id(3L)
+                .logoUrl("https://cdn.example.com/logo.png?a=1&b=2")
+                .updatedAt(LocalDateTime.of(2024, 5, 1, 10, 0))
+                .build();
+        Map<String, String> variables = variables(25);
+        variables.put("businessPhone", "555-0100");
+        variables.put("privateFeedbackUrl", "https://app.example.com/feedback/42?src=email&x=\"1\"");
+
+        String first = renderer.renderTemplate(template, style, variables);
+        assertThat(renderer.renderTemplate(template, style, variables)).isEqualTo(first);
+        assertThat(compiler.size()).isEqualTo(1);
+        assertThat(first)
+                .contains("logo.png?a=1&amp;b=2")
+                .contains("feedback/42?src=email&amp;x=&quot;1&quot;")
+                .contains("555-0100")
+                .doesNotContain("{{");
+
+        // A new style version compiles again
+        style.setButtonColor("#123456");
+        style.setUpdatedAt(style.getUpdatedAt().plusMinutes(1));
+        assertThat(renderer.renderTemplate(template, style, variables)).contains("#123456");
+        assertThat(compiler.size()).isEqualTo(2);
+    }
+
+    private static String render(String source, Map<String, String> variables) {
+        return CompiledTemplate.compile(source).render(variables);
+    }
+
+    static EmailTemplateRenderer renderer(EmailTemplateCompiler compiler) {
+        EmailTemplateRenderer renderer = new EmailTemplateRenderer(compiler);
+        ReflectionTestUtils.setField(renderer, "frontendUrl", "https://app.example.com");
+        return renderer;
+    }
+
+    static Map<String, String> variables(int count) {
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            variables.put("variable" + i, "value-" + i + "-" + "x".repeat(i % 20));
+        }
+        return variables;
+    }
+
+    /**
+     * Plain-text body of a realistic length using each variable twice
+     */
+    static String templateSource(int variableCount) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < variableCount; i++) {
+            source.append("Paragraph ").append(i).append(" mentions {{variable").append(i)
+                    .append("}} and some fixed text about the service we provided.\n");
+            if (i % 5 == 4) {
+                source.append('\n');
+            }
+        }
+        for (int i = variableCount - 1; i >= 0; i--) {
+            source.append("{{variable").append(i).append("}} ");
+        }
+        return source.toString();
+    }
+
+    /**
+     * The rendering being replaced: one String.replace over the whole text per variable
+     */
+    static String replaceVariables(String content, Map<String, String> variables) {
+        if (content == null) return "";
+        String result = content;
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            String placeholder = "{{" + entry.getKey() + "}}";
+            String value = entry.getValue() != null ? entry.getValue() : "";
+            result = result.replace(placeholder, value);
+        }
+        return result;
+    }
+}
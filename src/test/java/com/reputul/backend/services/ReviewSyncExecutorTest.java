@@ -0,0 +1,121 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.config.ReviewSyncProperties;
+import com.reputul.backend.models.ChannelCredential;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReviewSyncExecutorTest {
+
+    private ThreadPoolTaskExecutor pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(8);
+        pool.setMaxPoolSize(8);
+        pool.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void submit_RespectsPerPlatformConcurrency() throws Exception {
+        ReviewSyncExecutor executor = executorWith(Duration.ofSeconds(5), Map.of(
+                ChannelCredential.PlatformType.FACEBOOK, new ReviewSyncProperties.PlatformBudget(2, 1000)));
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        ReviewSyncExecutor.SyncBatchResult result = executor.submit("test", credentials(ChannelCredential.PlatformType.FACEBOOK, 6),
+                credential -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(50);
+                    running.decrementAndGet();
+                    return true;
+                }).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.synced()).isEqualTo(6);
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+    @Test
+    void submit_SkipsCredentialsAlreadySyncing() throws Exception {
+        ReviewSyncExecutor executor = executorWith(Duration.ofSeconds(5), Map.of());
+        List<ChannelCredential> credentials = credentials(ChannelCredential.PlatformType.YELP, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        var first = executor.submit("first", credentials, credential -> {
+            await(release);
+            return true;
+        });
+        ReviewSyncExecutor.SyncBatchResult second = executor.submit("second", credentials, credential -> true)
+                .get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertThat(second.skipped()).isEqualTo(1);
+        assertThat(second.synced()).isZero();
+        assertThat(first.get(5, TimeUnit.SECONDS).synced()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_InterruptsSyncPastDeadline() throws Exception {
+        ReviewSyncExecutor executor = executorWith(Duration.ofMillis(100), Map.of());
+
+        ReviewSyncExecutor.SyncBatchResult result = executor.submit("test",
+                credentials(ChannelCredential.PlatformType.GOOGLE_MY_BUSINESS, 1),
+                credential -> {
+                    sleep(10_000);
+                    return true;
+                }).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.timedOut()).isEqualTo(1);
+    }
+
+    private ReviewSyncExecutor executorWith(Duration deadline,
+                                            Map<ChannelCredential.PlatformType, ReviewSyncProperties.PlatformBudget> platforms) {
+        ReviewSyncProperties properties = new ReviewSyncProperties(deadline,
+                new ReviewSyncProperties.PlatformBudget(4, 1000), platforms);
+        return new ReviewSyncExecutor(pool, properties, new SimpleMeterRegistry());
+    }
+
+    private static List<ChannelCredential> credentials(ChannelCredential.PlatformType platform, int count) {
+        List<ChannelCredential> credentials = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            credentials.add(ChannelCredential.builder().id(id).platformType(platform).build());
+        }
+        return credentials;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+}
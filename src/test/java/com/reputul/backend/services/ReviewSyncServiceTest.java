@@ -0,0 +1,137 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.integrations.PlatformReviewDto;
+import com.reputul.backend.models.Business;
+import com.reputul.backend.models.ChannelCredential;
+import com.reputul.backend.models.Review;
+import com.reputul.backend.repositories.BusinessRepository;
+import com.reputul.backend.repositories.ChannelCredentialRepository;
+import com.reputul.backend.repositories.ReviewRepository;
+import com.reputul.backend.repositories.ReviewSyncJobRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Syncing a batch against an in-memory database: new reviews are inserted, reviews stored
+ * by another sync are skipped, a row the database rejects doesn't take its batch with it,
+ * and the aggregates only see what was written
+ */
+class ReviewSyncServiceTest {
+
+    private static final String SOURCE = "google_my_business";
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private ReviewRepository reviewRepository;
+    private ReputationAggregateService reputationAggregateService;
+    private ReviewSyncService service;
+
+    private Business business;
+    private ChannelCredential credential;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:review_sync;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE businesses (id BIGINT PRIMARY KEY, organization_id BIGINT)");
+        // customer_name is kept short so a long reviewer name is rejected by the database
+        jdbcTemplate.execute("CREATE TABLE reviews (" +
+                "id BIGSERIAL PRIMARY KEY, business_id BIGINT NOT NULL, organization_id BIGINT, " +
+                "source VARCHAR(50), source_review_id VARCHAR(255), source_review_url TEXT, rating INTEGER, " +
+                "comment TEXT, customer_name VARCHAR(20), reviewer_photo_url TEXT, platform_verified BOOLEAN, " +
+                "platform_response TEXT, platform_response_at TIMESTAMP WITH TIME ZONE, " +
+                "created_at TIMESTAMP WITH TIME ZONE, synced_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uq_reviews_source_id ON reviews (business_id, source, source_review_id)");
+        jdbcTemplate.update("INSERT INTO businesses (id, organization_id) VALUES (10, 100)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        reviewRepository = mock(ReviewRepository.class);
+        reputationAggregateService = mock(ReputationAggregateService.class);
+        service = new ReviewSyncService(mock(ChannelCredentialRepository.class), reviewRepository,
+                mock(ReviewSyncJobRepository.class), mock(BusinessRepository.class), reputationAggregateService,
+                jdbcTemplate, mock(ReviewSyncSchedule.class), transactionManager, List.of());
+
+        business = Business.builder().id(10L).name("Acme").build();
+        credential = ChannelCredential.builder()
+                .platformType(ChannelCredential.PlatformType.GOOGLE_MY_BUSINESS)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE reviews");
+        jdbcTemplate.execute("DROP TABLE businesses");
+        dataSource.close();
+    }
+
+    @Test
+    void syncReviewBatch_InsertsSkipsConflictsAndRejectedRowsAndUpdates() {
+        // Stored by another sync after this one prefetched
+        jdbcTemplate.update("INSERT INTO reviews (business_id, organization_id, source, source_review_id, rating) " +
+                "VALUES (10, 100, ?, 'g-conflict', 4)", SOURCE);
+        Review existing = Review.builder()
+                .id(500L)
+                .business(business)
+                .source(SOURCE)
+                .sourceReviewId("g-existing")
+                .rating(5)
+                .comment("Great")
+                .build();
+        when(reviewRepository.findByBusinessIdAndSourceAndSourceReviewIdIn(eq(10L), eq(SOURCE), anyList()))
+                .thenReturn(List.of(existing));
+
+        Map<ReviewSyncService.ReviewSyncResult, Integer> results = new TransactionTemplate(transactionManager)
+                .execute(status -> service.syncReviewBatch(business, credential, List.of(
+                        dto("g-new-1", "Ann"),
+                        dto("g-conflict", "Bob"),
+                        dto("g-rejected", "A reviewer name far too long for the column"),
+                        dto("g-new-2", "Cat"),
+                        PlatformReviewDto.builder()
+                                .platformReviewId("g-existing")
+                                .rating(5)
+                                .comment("Great")
+                                .businessResponse("Thanks!")
+                                .build())));
+
+        assertThat(results)
+                .containsEntry(ReviewSyncService.ReviewSyncResult.CREATED, 2)
+                .containsEntry(ReviewSyncService.ReviewSyncResult.UPDATED, 1)
+                .containsEntry(ReviewSyncService.ReviewSyncResult.SKIPPED, 2);
+        assertThat(jdbcTemplate.queryForList("SELECT source_review_id FROM reviews WHERE source = ? " +
+                "ORDER BY source_review_id", String.class, SOURCE))
+                .containsExactly("g-conflict", "g-new-1", "g-new-2");
+        assertThat(jdbcTemplate.queryForObject("SELECT organization_id FROM reviews WHERE source_review_id = 'g-new-1'",
+                Long.class)).isEqualTo(100L);
+        assertThat(existing.getPlatformResponse()).isEqualTo("Thanks!");
+
+        verify(reviewRepository).saveAll(argThat((Iterable<Review> reviews) -> reviews.iterator().next() == existing));
+        verify(reputationAggregateService).recordReviewsCreated(eq(10L), argThat(reviews -> reviews.stream()
+                .map(Review::getSourceReviewId).toList().equals(List.of("g-new-1", "g-new-2"))));
+        verify(reputationAggregateService).recordResponsesAdded(10L, List.of(existing));
+    }
+
+    private static PlatformReviewDto dto(String id, String reviewerName) {
+        return PlatformReviewDto.builder()
+                .platformReviewId(id)
+                .reviewerName(reviewerName)
+                .rating(5)
+                .comment("Review " + id)
+                .isPlatformVerified(true)
+                .build();
+    }
+}
@@ -0,0 +1,295 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.models.Business;
+import com.reputul.backend.repositories.SmsRateLimitRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Several SmsRateLimitService instances (one per simulated node) sharing one database,
+ * as they would behind a load balancer. Quiet hours are off (both ends 0).
+ */
+class SmsRateLimitServiceTest {
+
+    private static final int THREADS = 24;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private SmsRateLimitRepository repository;
+    private TestClock clock;
+    private final Business business = Business.builder().id(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:sms_rate_limit;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(THREADS);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE sms_rate_limit_windows (" +
+                "limit_name VARCHAR(32) NOT NULL, limit_key VARCHAR(64) NOT NULL, " +
+                "window_start TIMESTAMP WITH TIME ZONE NOT NULL, used INTEGER NOT NULL DEFAULT 0, " +
+                "updated_at TIMESTAMP WITH TIME ZONE NOT NULL, PRIMARY KEY (limit_name, limit_key, window_start))");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        repository = new SmsRateLimitRepository(jdbcTemplate, transactionManager);
+        clock = new TestClock(Instant.parse("2024-05-01T10:30:00Z"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE sms_rate_limit_windows");
+        dataSource.close();
+    }
+
+    @Test
+    void businessHourlyLimit_HeldAcrossInstancesUnderContention() throws Exception {
+        List<SmsRateLimitService> nodes = nodes(3, 50, 10, 3, 5);
+
+        int allowed = burst(nodes, 300, i -> "+1415230" + String.format("%04d", i));
+
+        assertThat(allowed).isEqualTo(10);
+        assertThat(used("business_hourly", "1")).isEqualTo(10);
+    }
+
+    @Test
+    void businessDailyLimit_LeasesNeverOvershootAndComeBackOnShutdown() throws Exception {
+        List<SmsRateLimitService> nodes = nodes(3, 100, 1000, 3, 5);
+
+        int allowed = burst(nodes, 90, i -> "+1415230" + String.format("%04d", i));
+        assertThat(allowed).isEqualTo(90);
+        // Each node may still hold part of a lease
+        assertThat(used("business_daily", "1")).isBetween(90, 90 + 3 * 5);
+
+        nodes.forEach(SmsRateLimitService::shutdown);
+        assertThat(used("business_daily", "1")).isEqualTo(90);
+
+        int allowedAfterRestart = burst(nodes(2, 100, 1000, 3, 5), 50, i -> "+1212230" + String.format("%04d", i));
+        assertThat(allowedAfterRestart).isEqualTo(10);
+        assertThat(used("business_daily", "1")).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void customerDailyLimit_EnforcedAcrossFormatsAndNodes() {
+        List<SmsRateLimitService> nodes = nodes(2, 50, 10, 3, 5);
+
+        assertThat(nodes.get(0).tryAcquire(business, "(415) 230-0001").isAllowed()).isTrue();
+        assertThat(nodes.get(1).tryAcquire(business, "+14152300001").isAllowed()).isTrue();
+        assertThat(nodes.get(0).tryAcquire(business, "415.230.0001").isAllowed()).isTrue();
+
+        SmsRateLimitService.SmsRateLimitResult fourth = nodes.get(1).tryAcquire(business, "4152300001");
+        assertThat(fourth.isAllowed()).isFalse();
+        assertThat(fourth.getReason()).startsWith("Customer daily SMS limit reached");
+        // The refused send's business reservation stays on node 1 and is reused
+        assertThat(nodes.get(1).tryAcquire(business, "+14152300002").isAllowed()).isTrue();
+        assertThat(used("business_hourly", "1")).isEqualTo(4);
+    }
+
+    @Test
+    void slidingWindow_PreviousWindowWeighsInAsItAges() {
+        SmsRateLimitService node = nodes(1, 50, 10, 3, 5).get(0);
+        assertThat(acquireRepeatedly(node, 20)).isEqualTo(10);
+
+        // 11:15 - three quarters of the 10:00 window still overlap: ceil(10 * 0.75) = 8
+        clock.advance(Duration.ofMinutes(45));
+        assertThat(acquireRepeatedly(node, 20)).isEqualTo(2);
+
+        // 11:45 - denial cached until the next sync; then ceil(10 * 0.25) = 3 plus 2 used
+        clock.advance(Duration.ofMinutes(30));
+        assertThat(node.tryAcquire(business, null).isAllowed()).isFalse();
+        node.sync();
+        assertThat(acquireRepeatedly(node, 20)).isEqualTo(5);
+    }
+
+    @Test
+    void releaseSmsReservation_GivesTheSendBack() {
+        List<SmsRateLimitService> nodes = nodes(2, 50, 1, 3, 5);
+
+        SmsRateLimitService.SmsRateLimitResult reservation = nodes.get(0).tryAcquire(business, "+14152300001");
+        assertThat(reservation.isAllowed()).isTrue();
+        assertThat(nodes.get(1).tryAcquire(business, "+14152300002").isAllowed()).isFalse();
+
+        nodes.get(0).releaseSmsReservation(business, "+14152300001", reservation);
+        nodes.get(0).sync();
+        nodes.get(0).sync();
+        nodes.get(1).sync();
+
+        assertThat(nodes.get(1).tryAcquire(business, "+14152300002").isAllowed()).isTrue();
+    }
+
+    @Test
+    void releaseSmsReservation_AfterRollover_GoesBackToTheReservedWindow() {
+        clock.set(Instant.parse("2024-05-01T10:59:00Z"));
+        SmsRateLimitService node = nodes(1, 50, 10, 3, 5).get(0);
+        SmsRateLimitService.SmsRateLimitResult reservation = node.tryAcquire(business, "+14152300001");
+        assertThat(reservation.isAllowed()).isTrue();
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(node.tryAcquire(business, "+14152300002").isAllowed()).isTrue();
+        node.releaseSmsReservation(business, "+14152300001", reservation);
+
+        assertThat(repository.used("business_hourly", "1", OffsetDateTime.parse("2024-05-01T10:00:00Z"))).isZero();
+        assertThat(repository.used("business_hourly", "1", OffsetDateTime.parse("2024-05-01T11:00:00Z"))).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_InsideOuterTransaction_CommitsOnItsOwnAndSurvivesRollback() throws Exception {
+        List<SmsRateLimitService> nodes = nodes(2, 50, 10, 3, 5);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                assertThat(nodes.get(0).tryAcquire(business, "+14152300001").isAllowed()).isTrue();
+                // The window row isn't locked by the caller's open transaction
+                Future<Boolean> otherNode = executor.submit(() ->
+                        nodes.get(1).tryAcquire(business, "+14152300002").isAllowed());
+                try {
+                    assertThat(otherNode.get(5, TimeUnit.SECONDS)).isTrue();
+                } catch (Exception e) {
+                    throw new AssertionError("Reservation blocked behind the outer transaction", e);
+                }
+                status.setRollbackOnly();
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Both reservations outlived the rollback, matching what the nodes hold locally
+        assertThat(used("business_hourly", "1")).isEqualTo(2);
+        assertThat(used("customer_daily", "1:+14152300001")).isEqualTo(1);
+    }
+
+    @Test
+    void tryReserve_ConcurrentFirstReservationsOnEmptyWindowBothSucceed() throws Exception {
+        OffsetDateTime windowStart = OffsetDateTime.now(clock);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 50; round++) {
+                String key = "race-" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> racers = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    racers.add(executor.submit(() -> {
+                        start.await();
+                        return repository.tryReserve("business_hourly", key, windowStart, 1, 10, windowStart);
+                    }));
+                }
+                start.countDown();
+                for (Future<Boolean> racer : racers) {
+                    assertThat(racer.get(30, TimeUnit.SECONDS)).isTrue();
+                }
+                assertThat(repository.used("business_hourly", key, windowStart)).isEqualTo(2);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int acquireRepeatedly(SmsRateLimitService node, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (node.tryAcquire(business, null).isAllowed()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    private int burst(List<SmsRateLimitService> nodes, int attempts,
+                      IntFunction<String> phone) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                SmsRateLimitService node = nodes.get(i % nodes.size());
+                String customerPhone = phone.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (node.tryAcquire(business, customerPhone).isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return allowed.get();
+    }
+
+    private List<SmsRateLimitService> nodes(int count, int daily, int hourly, int customerDaily, int leaseSize) {
+        List<SmsRateLimitService> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            nodes.add(new SmsRateLimitService(repository, clock, new SimpleMeterRegistry(),
+                    daily, hourly, customerDaily, leaseSize));
+        }
+        return nodes;
+    }
+
+    private int used(String limitName, String key) {
+        Integer used = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(used), 0) FROM sms_rate_limit_windows WHERE limit_name = ? AND limit_key = ?",
+                Integer.class, limitName, key);
+        return used != null ? used : 0;
+    }
+
+    private static final class TestClock extends Clock {
+        private volatile Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.repositories.WebhookIdempotencyRepository;
+import com.reputul.backend.services.WebhookIdempotencyService.Claim;
+import com.reputul.backend.services.WebhookIdempotencyService.State;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Several WebhookIdempotencyService instances (one per simulated node) sharing one
+ * database, as they would behind a load balancer receiving the same webhook twice
+ */
+class WebhookIdempotencyServiceTest {
+
+    private static final int THREADS = 16;
+    private static final Duration TTL = Duration.ofHours(24);
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private WebhookIdempotencyRepository repository;
+    private TestClock clock;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:webhook_idempotency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(THREADS);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE webhook_idempotency_keys (" +
+                "scope VARCHAR(255) NOT NULL, idempotency_key VARCHAR(255) NOT NULL, organization_id BIGINT, " +
+                "status VARCHAR(20) NOT NULL, claim_token VARCHAR(36), lease_expires_at TIMESTAMP WITH TIME ZONE, " +
+                "response_status INTEGER, response_body TEXT, created_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+                "expires_at TIMESTAMP WITH TIME ZONE NOT NULL, PRIMARY KEY (scope, idempotency_key))");
+        repository = new WebhookIdempotencyRepository(jdbcTemplate);
+        clock = new TestClock(Instant.parse("2024-05-01T10:00:00Z"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE webhook_idempotency_keys");
+        dataSource.close();
+    }
+
+    @Test
+    void concurrentDeliveries_ExactlyOneAcquiresAcrossInstances() throws Exception {
+        List<WebhookIdempotencyService> nodes = List.of(node(), node(), node());
+
+        List<Claim> claims = deliver(nodes, 48, "stripe", "evt_1");
+
+        assertThat(claims).filteredOn(Claim::isAcquired).hasSize(1);
+        assertThat(claims).filteredOn(claim -> claim.state() == State.IN_PROGRESS).hasSize(47);
+        assertThat(rows()).isEqualTo(1);
+    }
+
+    @Test
+    void completedKey_ReplaysStoredResponseOnEveryNode() {
+        WebhookIdempotencyService first = node();
+        WebhookIdempotencyService second = node();
+        Claim claim = first.claim("zapier:1:/contacts", "key-1", 1L, TTL);
+
+        first.complete(claim, 400, "{\"success\":false}");
+
+        Claim replay = second.claim("zapier:1:/contacts", "key-1", 1L, TTL);
+        assertThat(replay.state()).isEqualTo(State.COMPLETED);
+        assertThat(replay.responseStatus()).isEqualTo(400);
+        assertThat(replay.responseBody()).isEqualTo("{\"success\":false}");
+
+        // Same key in another scope is independent
+        assertThat(second.claim("zapier:2:/contacts", "key-1", 2L, TTL).isAcquired()).isTrue();
+    }
+
+    @Test
+    void releasedKey_CanBeClaimedAgain() {
+        WebhookIdempotencyService node = node();
+        Claim claim = node.claim("stripe", "evt_1", null, TTL);
+
+        node.release(claim);
+
+        assertThat(rows()).isZero();
+        assertThat(node.claim("stripe", "evt_1", null, TTL).isAcquired()).isTrue();
+    }
+
+    @Test
+    void lapsedLease_IsTakenOverAndStaleCompletionIgnored() {
+        WebhookIdempotencyService deadNode = node();
+        WebhookIdempotencyService liveNode = node();
+        Claim stale = deadNode.claim("stripe", "evt_1", null, TTL);
+
+        // Lease still held
+        assertThat(liveNode.claim("stripe", "evt_1", null, TTL).state()).isEqualTo(State.IN_PROGRESS);
+
+        clock.advance(Duration.ofMinutes(3));
+        Claim takeover = liveNode.claim("stripe", "evt_1", null, TTL);
+        assertThat(takeover.isAcquired()).isTrue();
+
+        deadNode.complete(stale, 200, "stale");
+        deadNode.release(stale);
+        liveNode.complete(takeover, 200, "fresh");
+
+        assertThat(node().claim("stripe", "evt_1", null, TTL).responseBody()).isEqualTo("fresh");
+    }
+
+    @Test
+    void expiredKey_IsProcessedAgain() {
+        WebhookIdempotencyService node = node();
+        node.complete(node.claim("stripe", "evt_1", null, Duration.ofHours(1)), 200, null);
+
+        clock.advance(Duration.ofHours(2));
+
+        assertThat(node.claim("stripe", "evt_1", null, TTL).isAcquired()).isTrue();
+    }
+
+    @Test
+    void purgeExpired_DeletesInBatchesAndKeepsLiveKeys() {
+        WebhookIdempotencyService node = new WebhookIdempotencyService(repository, clock, Duration.ofMinutes(2),
+                100, Duration.ofMinutes(10), 10, 2);
+        for (int i = 0; i < 25; i++) {
+            node.complete(node.claim("stripe", "evt_" + i, null, Duration.ofHours(1)), 200, null);
+        }
+        node.claim("stripe", "evt_live", null, TTL);
+        clock.advance(Duration.ofHours(2));
+
+        // Two batches of 10 per run
+        node.purgeExpired();
+        assertThat(rows()).isEqualTo(6);
+
+        node.purgeExpired();
+        assertThat(rows()).isEqualTo(1);
+    }
+
+    private List<Claim> deliver(List<WebhookIdempotencyService> nodes, int deliveries,
+                                String scope, String key) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Claim>> futures = new ArrayList<>();
+            for (int i = 0; i < deliveries; i++) {
+                WebhookIdempotencyService node = nodes.get(i % nodes.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return node.claim(scope, key, null, TTL);
+                }));
+            }
+            start.countDown();
+            List<Claim> claims = new ArrayList<>();
+            for (Future<Claim> future : futures) {
+                claims.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return claims;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private WebhookIdempotencyService node() {
+        return new WebhookIdempotencyService(repository, clock, Duration.ofMinutes(2),
+                100, Duration.ofMinutes(10), 500, 20);
+    }
+
+    private int rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM webhook_idempotency_keys", Integer.class);
+    }
+
+    private static final class TestClock extends Clock {
+        private volatile Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.reputul.backend.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Buffered widget counters against an in-memory database: the key bound, re-admission
+ * after a flush, unknown widgets and events racing with flushes
+ */
+class WidgetTrackingBufferTest {
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private WidgetTrackingBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:widget_tracking;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE widget_configurations (" +
+                "widget_key VARCHAR(64) PRIMARY KEY, total_impressions BIGINT, total_clicks BIGINT, " +
+                "last_impression_at TIMESTAMP, last_click_at TIMESTAMP)");
+        for (String key : List.of("w1", "w2", "w3")) {
+            jdbcTemplate.update("INSERT INTO widget_configurations (widget_key, total_impressions, total_clicks) " +
+                    "VALUES (?, 0, 0)", key);
+        }
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = buffer(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE widget_configurations");
+        dataSource.close();
+    }
+
+    @Test
+    void fullBuffer_DropsNewWidgetsUntilNextFlush() {
+        buffer.recordImpression("w1");
+        buffer.recordClick("w2");
+        buffer.recordImpression("w3");
+
+        assertThat(dropped("buffer_full")).isEqualTo(1);
+        assertThat(buffer.flush()).isEqualTo(2);
+        assertThat(bufferedKeys()).isZero();
+
+        // Flushed keys leave the buffer, so a widget not seen before is admitted again
+        buffer.recordImpression("w3");
+        buffer.recordImpression("w3");
+        assertThat(buffer.flush()).isEqualTo(2);
+
+        assertThat(impressions("w1")).isEqualTo(1);
+        assertThat(clicks("w2")).isEqualTo(1);
+        assertThat(impressions("w3")).isEqualTo(2);
+        assertThat(dropped("buffer_full")).isEqualTo(1);
+    }
+
+    @Test
+    void unknownWidget_DroppedWithoutHoldingASlot() {
+        buffer.recordImpression("deleted");
+        buffer.recordClick("deleted");
+
+        assertThat(buffer.flush()).isZero();
+        assertThat(dropped("unknown_widget")).isEqualTo(2);
+        assertThat(bufferedKeys()).isZero();
+
+        buffer.recordImpression("w1");
+        buffer.recordImpression("w2");
+        assertThat(buffer.flush()).isEqualTo(2);
+        assertThat(dropped("buffer_full")).isZero();
+    }
+
+    @Test
+    void eventsRecordedDuringFlushes_AreAllWritten() throws Exception {
+        WidgetTrackingBuffer racing = buffer(100);
+        int threads = 8;
+        int eventsPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean recording = new AtomicBoolean(true);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (recording.get()) {
+                    racing.flush();
+                }
+                return null;
+            });
+            List<Future<?>> recorders = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String key = "w" + (t % 3 + 1);
+                recorders.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < eventsPerThread; i++) {
+                        racing.recordImpression(key);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> recorder : recorders) {
+                recorder.get(30, TimeUnit.SECONDS);
+            }
+            recording.set(false);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        racing.flush();
+
+        assertThat(impressions("w1") + impressions("w2") + impressions("w3")).isEqualTo((long) threads * eventsPerThread);
+        assertThat(meterRegistry.get("widget.tracking.buffered").gauge().value()).isZero();
+    }
+
+    private WidgetTrackingBuffer buffer(int maxKeys) {
+        meterRegistry = new SimpleMeterRegistry();
+        WidgetTrackingBuffer buffer = new WidgetTrackingBuffer(jdbcTemplate, meterRegistry);
+        ReflectionTestUtils.setField(buffer, "flushThreshold", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(buffer, "maxKeys", maxKeys);
+        ReflectionTestUtils.setField(buffer, "batchSize", 500);
+        return buffer;
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("widget.tracking.dropped").tag("reason", reason).counter().count();
+    }
+
+    private double bufferedKeys() {
+        return meterRegistry.get("widget.tracking.buffered.keys").gauge().value();
+    }
+
+    private long impressions(String key) {
+        return jdbcTemplate.queryForObject("SELECT total_impressions FROM widget_configurations WHERE widget_key = ?",
+                Long.class, key);
+    }
+
+    private long clicks(String key) {
+        return jdbcTemplate.queryForObject("SELECT total_clicks FROM widget_configurations WHERE widget_key = ?",
+                Long.class, key);
+    }
+}
@@ -0,0 +1,157 @@
+package com.reputul.backend.services;
+
+import com.reputul.backend.config.InstanceId;
+import com.reputul.backend.repositories.BackfillCheckpointRepository;
+import com.reputul.backend.repositories.BackfillCheckpointRepository.Checkpoint;
+import com.reputul.backend.repositories.BusinessRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checkpointed, parallel backfill against an in-memory checkpoint table; businesses
+ * and the reputation update are stubbed
+ */
+class WilsonScoreBackfillServiceTest {
+
+    private static final List<Long> BUSINESS_IDS = LongStream.rangeClosed(1, 25).map(i -> i * 3).boxed().toList();
+
+    private JdbcTemplate jdbcTemplate;
+    private BackfillCheckpointRepository checkpointRepository;
+    private BusinessRepository businessRepository;
+    private ReputationService reputationService;
+    private ThreadPoolTaskExecutor executor;
+    private final Map<Long, AtomicInteger> updates = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:backfill;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE backfill_checkpoints (" +
+                "job_name VARCHAR(64) PRIMARY KEY, status VARCHAR(20) NOT NULL DEFAULT 'PENDING', " +
+                "last_id BIGINT NOT NULL DEFAULT 0, processed BIGINT NOT NULL DEFAULT 0, " +
+                "failed BIGINT NOT NULL DEFAULT 0, total BIGINT, claimed_by VARCHAR(100), " +
+                "lease_expires_at TIMESTAMP WITH TIME ZONE, started_at TIMESTAMP WITH TIME ZONE, " +
+                "finished_at TIMESTAMP WITH TIME ZONE, updated_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        checkpointRepository = new BackfillCheckpointRepository(jdbcTemplate);
+
+        businessRepository = mock(BusinessRepository.class);
+        when(businessRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return BUSINESS_IDS.stream().filter(id -> id > afterId).limit(page.getPageSize()).toList();
+        });
+        when(businessRepository.countByIdGreaterThan(anyLong())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return BUSINESS_IDS.stream().filter(id -> id > afterId).count();
+        });
+
+        reputationService = mock(ReputationService.class);
+        doAnswer(invocation -> {
+            Long businessId = invocation.getArgument(0);
+            updates.computeIfAbsent(businessId, id -> new AtomicInteger()).incrementAndGet();
+            if (businessId == 30L) {
+                throw new IllegalStateException("boom");
+            }
+            return null;
+        }).when(reputationService).updateBusinessReputationAndBadge(anyLong());
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE backfill_checkpoints");
+        executor.shutdown();
+    }
+
+    @Test
+    void run_ProcessesEveryBusinessOnceAndCompletes() {
+        backfill().run(false);
+
+        Checkpoint checkpoint = checkpointRepository.find(WilsonScoreBackfillService.JOB_NAME).orElseThrow();
+        assertThat(checkpoint.status()).isEqualTo("COMPLETED");
+        assertThat(checkpoint.lastId()).isEqualTo(75L);
+        assertThat(checkpoint.processed()).isEqualTo(24);
+        assertThat(checkpoint.failed()).isEqualTo(1);
+        assertThat(checkpoint.total()).isEqualTo(25L);
+        assertThat(checkpoint.claimedBy()).isNull();
+        assertThat(updates.keySet()).containsExactlyInAnyOrderElementsOf(BUSINESS_IDS);
+        assertThat(updates.values()).allMatch(count -> count.get() == 1);
+
+        WilsonScoreBackfillService.BackfillStatus status = backfill().getStatus();
+        assertThat(status.percentComplete()).isEqualTo(100.0);
+    }
+
+    @Test
+    void run_ResumesFromCheckpointAfterPause() {
+        WilsonScoreBackfillService first = backfill();
+        doAnswer(invocation -> {
+            Long businessId = invocation.getArgument(0);
+            updates.computeIfAbsent(businessId, id -> new AtomicInteger()).incrementAndGet();
+            first.stop();
+            return null;
+        }).when(reputationService).updateBusinessReputationAndBadge(anyLong());
+        first.run(false);
+
+        Checkpoint paused = checkpointRepository.find(WilsonScoreBackfillService.JOB_NAME).orElseThrow();
+        assertThat(paused.status()).isEqualTo("PAUSED");
+        assertThat(paused.lastId()).isEqualTo(30L);
+        assertThat(paused.processed()).isEqualTo(10);
+
+        reset(reputationService);
+        doAnswer(invocation -> {
+            Long businessId = invocation.getArgument(0);
+            updates.computeIfAbsent(businessId, id -> new AtomicInteger()).incrementAndGet();
+            return null;
+        }).when(reputationService).updateBusinessReputationAndBadge(anyLong());
+        backfill().run(false);
+
+        Checkpoint completed = checkpointRepository.find(WilsonScoreBackfillService.JOB_NAME).orElseThrow();
+        assertThat(completed.status()).isEqualTo("COMPLETED");
+        assertThat(completed.processed()).isEqualTo(25);
+        assertThat(updates.values()).allMatch(count -> count.get() == 1);
+        assertThat(updates).hasSize(25);
+    }
+
+    @Test
+    void run_LeavesJobToNodeHoldingUnexpiredClaim() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        assertThat(checkpointRepository.claim(WilsonScoreBackfillService.JOB_NAME, "other-node", false,
+                now, now.plusMinutes(5))).isTrue();
+
+        backfill().run(false);
+        assertThat(updates).isEmpty();
+
+        // Lease lapsed: the other node died, this one takes over
+        jdbcTemplate.update("UPDATE backfill_checkpoints SET lease_expires_at = ?", now.minusMinutes(1));
+        backfill().run(false);
+        assertThat(updates).hasSize(25);
+    }
+
+    private WilsonScoreBackfillService backfill() {
+        return new WilsonScoreBackfillService(businessRepository, reputationService, checkpointRepository,
+                executor, Clock.systemUTC(), new InstanceId("backfill-test"), false, 10, 1000, Duration.ofMinutes(5));
+    }
+}
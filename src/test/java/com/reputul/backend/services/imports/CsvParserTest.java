@@ -0,0 +1,61 @@
+package com.reputul.backend.services.imports;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CsvParserTest {
+
+    private final CsvParser csvParser = new CsvParser();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void open_StreamsRowsPastTheOldRowCap() throws IOException {
+        Path file = tempDir.resolve("contacts.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("name;email;phone\n");
+            for (int i = 0; i < 50_000; i++) {
+                writer.write("Customer " + i + ";customer" + i + "@example.com;\n");
+            }
+        }
+
+        char delimiter = csvParser.detectDelimiter(file);
+        assertThat(delimiter).isEqualTo(';');
+
+        try (CsvParser.CsvRowReader reader = csvParser.open(file, delimiter)) {
+            assertThat(reader.getHeaders()).containsExactly("name", "email", "phone");
+
+            Map<String, String> first = reader.next();
+            assertThat(first).containsEntry("name", "Customer 0")
+                    .containsEntry("email", "customer0@example.com")
+                    .containsEntry("phone", null);
+
+            Map<String, String> last = first;
+            Map<String, String> row;
+            while ((row = reader.next()) != null) {
+                last = row;
+            }
+            assertThat(reader.getRowsRead()).isEqualTo(50_000);
+            assertThat(last).containsEntry("name", "Customer 49999");
+        }
+    }
+
+    @Test
+    void open_EmptyFileFails() throws IOException {
+        Path file = Files.createFile(tempDir.resolve("empty.csv"));
+
+        assertThatThrownBy(() -> csvParser.open(file, ','))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("empty");
+    }
+}
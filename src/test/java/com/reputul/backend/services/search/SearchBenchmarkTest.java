@@ -0,0 +1,123 @@
+package com.reputul.backend.services.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Benchmark at 500k contacts per business against a real PostgreSQL: the previous
+ * LOWER(col) LIKE '%q%' search without trigram indexes versus SearchService with the
+ * V040 pg_trgm indexes. Runs in a scratch schema that is dropped afterwards.
+ *
+ * -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/reputul
+ * -Dbenchmark.postgres.user=... -Dbenchmark.postgres.password=...
+ * -Dbenchmark.contacts=500000
+ */
+@EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+class SearchBenchmarkTest {
+
+    private static final int CONTACTS = Integer.getInteger("benchmark.contacts", 500_000);
+    private static final int RUNS = 20;
+    private static final long BUSINESS_ID = 1L;
+    private static final List<String> QUERIES = List.of("smith", "jon", "example.com", "555012", "jonh smtih");
+
+    private static final String LIKE_SQL = """
+            SELECT c.id FROM contacts c
+            WHERE c.business_id = ?
+              AND (lower(c.name) LIKE ? OR lower(coalesce(c.email, '')) LIKE ? OR coalesce(c.phone, '') LIKE ?)
+            ORDER BY c.created_at DESC LIMIT 25
+            """;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        dataSource = new SingleConnectionDataSource(System.getProperty("benchmark.postgres.url"),
+                System.getProperty("benchmark.postgres.user", "postgres"),
+                System.getProperty("benchmark.postgres.password", ""), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS search_benchmark CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA search_benchmark");
+        jdbcTemplate.execute("SET search_path = search_benchmark, public");
+        jdbcTemplate.execute("""
+                CREATE TABLE contacts (
+                    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+                    business_id BIGINT NOT NULL,
+                    name VARCHAR(255) NOT NULL,
+                    email VARCHAR(255),
+                    phone VARCHAR(50),
+                    tags_json JSONB,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT now())
+                """);
+        jdbcTemplate.execute("CREATE INDEX idx_contacts_business_id ON contacts(business_id)");
+        jdbcTemplate.update("""
+                INSERT INTO contacts (business_id, name, email, phone, created_at)
+                SELECT ?, (ARRAY['John','Jane','Jon','Maria','Wei','Ahmed','Olga','Sam'])[1 + g % 8] || ' ' ||
+                          (ARRAY['Smith','Jones','Garcia','Chen','Khan','Ivanova','Brown','Lee'])[1 + (g / 8) % 8] || ' ' || g,
+                       'customer' || g || '@example.com',
+                       '+1555' || lpad((g % 10000000)::text, 7, '0'),
+                       now() - g * INTERVAL '1 minute'
+                FROM generate_series(1, ?) AS g
+                """, BUSINESS_ID, CONTACTS);
+        jdbcTemplate.execute("ANALYZE contacts");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS search_benchmark CASCADE");
+        dataSource.destroy();
+    }
+
+    @Test
+    void trigramSearch_OutpacesSequentialLikeScan() {
+        double likeMillis = medianMillis(query -> {
+            String pattern = "%" + query + "%";
+            jdbcTemplate.queryForList(LIKE_SQL, Long.class, BUSINESS_ID, pattern, pattern, pattern);
+        });
+
+        jdbcTemplate.execute("CREATE INDEX idx_contacts_name_trgm ON contacts USING GIN (lower(name) gin_trgm_ops)");
+        jdbcTemplate.execute("CREATE INDEX idx_contacts_email_trgm ON contacts USING GIN (lower(coalesce(email, '')) gin_trgm_ops)");
+        jdbcTemplate.execute("CREATE INDEX idx_contacts_phone_trgm ON contacts USING GIN (coalesce(phone, '') gin_trgm_ops)");
+        jdbcTemplate.execute("ANALYZE contacts");
+
+        SearchService searchService = new SearchService(jdbcTemplate);
+        double trigramMillis = medianMillis(query ->
+                searchService.searchContacts(BUSINESS_ID, query, null, null, 25));
+
+        SearchService.SearchHits typo = searchService.searchContacts(BUSINESS_ID, "jonh smtih", null, null, 25);
+        SearchService.SearchHits secondPage = searchService.searchContacts(BUSINESS_ID, "smith", null,
+                searchService.searchContacts(BUSINESS_ID, "smith", null, null, 25).nextCursor(), 25);
+
+        System.out.printf("contacts=%d like: median=%.1fms trigram: median=%.1fms (%.1fx)%n",
+                CONTACTS, likeMillis, trigramMillis, likeMillis / trigramMillis);
+
+        assertThat(typo.ids()).isNotEmpty();
+        assertThat(secondPage.ids()).hasSize(25);
+    }
+
+    private double medianMillis(Consumer<String> search) {
+        double[] timings = new double[RUNS * QUERIES.size()];
+        int i = 0;
+        for (int run = 0; run < RUNS; run++) {
+            for (String query : QUERIES) {
+                long start = System.nanoTime();
+                search.accept(query);
+                timings[i++] = (System.nanoTime() - start) / 1e6;
+            }
+        }
+        Arrays.sort(timings);
+        return timings[timings.length / 2];
+    }
+}
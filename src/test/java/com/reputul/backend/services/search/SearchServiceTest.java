@@ -0,0 +1,119 @@
+package com.reputul.backend.services.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The H2 (LIKE) fallback: ranking bands, scoping and keyset pages
+ */
+class SearchServiceTest {
+
+    private static final long BUSINESS_ID = 1L;
+
+    private JdbcTemplate jdbcTemplate;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:search;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        searchService = new SearchService(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE contacts (" +
+                "id BIGINT PRIMARY KEY, business_id BIGINT NOT NULL, name VARCHAR(255) NOT NULL, " +
+                "email VARCHAR(255), phone VARCHAR(50), tags_json VARCHAR(1000))");
+        jdbcTemplate.execute("CREATE TABLE customers (" +
+                "id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, name VARCHAR(100) NOT NULL, " +
+                "email VARCHAR(150) NOT NULL, service_type VARCHAR(100) NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE contacts");
+        jdbcTemplate.execute("DROP TABLE customers");
+    }
+
+    @Test
+    void searchContacts_RanksNamePrefixAboveSubstringMatches() {
+        insertContact(1, BUSINESS_ID, "Anna Smithers", "anna@example.com", null, null);
+        insertContact(2, BUSINESS_ID, "Smith Plumbing", "office@smith.example", null, null);
+        insertContact(3, BUSINESS_ID, "Bob Jones", "bob.smith@example.com", null, null);
+        insertContact(4, BUSINESS_ID, "Carol White", "carol@example.com", "+15551234567", null);
+        insertContact(5, 2L, "Smith Elsewhere", null, null, null);
+
+        SearchService.SearchHits hits = searchService.searchContacts(BUSINESS_ID, "Smith", null, null, 10);
+
+        assertThat(hits.ids()).containsExactly(2L, 3L, 1L);
+        assertThat(hits.nextCursor()).isNull();
+        assertThat(searchService.searchContacts(BUSINESS_ID, "5551234", null, null, 10).ids()).containsExactly(4L);
+    }
+
+    @Test
+    void searchContacts_FiltersByTagAndEscapesWildcards() {
+        insertContact(1, BUSINESS_ID, "Dana 100% Clean", null, null, "[\"vip\"]");
+        insertContact(2, BUSINESS_ID, "Dana Other", null, null, "[\"repeat\"]");
+
+        assertThat(searchService.searchContacts(BUSINESS_ID, "dana", "VIP", null, 10).ids()).containsExactly(1L);
+        assertThat(searchService.searchContacts(BUSINESS_ID, "0% c", null, null, 10).ids()).containsExactly(1L);
+        assertThat(searchService.searchContacts(BUSINESS_ID, "%", null, null, 10).ids()).containsExactly(1L);
+    }
+
+    @Test
+    void searchContacts_KeysetPagesCoverEveryMatchOnce() {
+        for (long id = 1; id <= 23; id++) {
+            insertContact(id, BUSINESS_ID, (id % 2 == 0 ? "Lee " : "Ann Lee ") + id, null, null, null);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SearchService.SearchHits hits = searchService.searchContacts(BUSINESS_ID, "lee", null, cursor, 5);
+            assertThat(hits.ids()).hasSizeLessThanOrEqualTo(5);
+            seen.addAll(hits.ids());
+            cursor = hits.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(seen).hasSize(23).doesNotHaveDuplicates();
+        // Name-prefix matches (even ids) first, newest id first within a band
+        assertThat(seen.subList(0, 11)).allMatch(id -> id % 2 == 0);
+        assertThat(seen.get(0)).isEqualTo(22L);
+    }
+
+    @Test
+    void searchCustomers_ScopedToUserAndMatchesServiceType() {
+        insertCustomer(1, 7L, "Erin Park", "erin@example.com", "Roof Repair");
+        insertCustomer(2, 7L, "Frank Hill", "frank@example.com", "Gutter Cleaning");
+        insertCustomer(3, 8L, "Roof Owner", "owner@example.com", "Roof Repair");
+
+        assertThat(searchService.searchCustomers(7L, "roof", null, 10).ids()).containsExactly(1L);
+    }
+
+    @Test
+    void search_BlankQueryOrBadCursor() {
+        assertThat(searchService.searchContacts(BUSINESS_ID, "  ", null, null, 10).ids()).isEmpty();
+        assertThatThrownBy(() -> searchService.searchContacts(BUSINESS_ID, "a", null, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void insertContact(long id, long businessId, String name, String email, String phone, String tagsJson) {
+        jdbcTemplate.update("INSERT INTO contacts (id, business_id, name, email, phone, tags_json) VALUES (?, ?, ?, ?, ?, ?)",
+                id, businessId, name, email, phone, tagsJson);
+    }
+
+    private void insertCustomer(long id, long userId, String name, String email, String serviceType) {
+        jdbcTemplate.update("INSERT INTO customers (id, user_id, name, email, service_type) VALUES (?, ?, ?, ?, ?)",
+                id, userId, name, email, serviceType);
+    }
+}